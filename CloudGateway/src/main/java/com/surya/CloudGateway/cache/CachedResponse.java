@@ -0,0 +1,22 @@
+package com.surya.CloudGateway.cache;
+
+import lombok.AllArgsConstructor;
+import lombok.Getter;
+import org.springframework.http.MediaType;
+
+// a 200 GET response as the gateway replays it, etag is quoted as sent in the ETag header
+@Getter
+@AllArgsConstructor
+public class CachedResponse {
+
+    // key, headers and object overhead, roughly
+    private static final int OVERHEAD_BYTES = 128;
+
+    private final byte[] body;
+    private final MediaType contentType;
+    private final String etag;
+
+    public int sizeInBytes() {
+        return body.length + etag.length() * 2 + OVERHEAD_BYTES;
+    }
+}
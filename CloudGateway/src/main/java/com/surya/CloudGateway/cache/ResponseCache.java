@@ -0,0 +1,153 @@
+package com.surya.CloudGateway.cache;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.github.benmanes.caffeine.cache.RemovalCause;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.stereotype.Component;
+import org.springframework.util.unit.DataSize;
+
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * GET responses cached by the {@link ResponseCacheGatewayFilterFactory}, one cache per route
+ * with the route's TTL and memory budget. Entries are weighed by their body size, so a route
+ * never holds more than its max-bytes of responses.
+ */
+@Component
+public class ResponseCache {
+
+    private final MeterRegistry meterRegistry;
+    private final Map<String, RouteCache> routes = new ConcurrentHashMap<>();
+
+    public ResponseCache(MeterRegistry meterRegistry) {
+        this.meterRegistry = meterRegistry;
+    }
+
+    public CachedResponse get(String routeId, Duration ttl, DataSize maxBytes, String key) {
+        RouteCache route = route(routeId, ttl, maxBytes);
+        CachedResponse cached = route.entries.getIfPresent(key);
+        (cached != null ? route.hits : route.misses).increment();
+        return cached;
+    }
+
+    public void put(String routeId, Duration ttl, DataSize maxBytes, String key, CachedResponse response) {
+        route(routeId, ttl, maxBytes).entries.put(key, response);
+    }
+
+    public void notModified(String routeId, Duration ttl, DataSize maxBytes) {
+        route(routeId, ttl, maxBytes).notModified.increment();
+    }
+
+    public void evict(String routeId, String key) {
+        RouteCache route = routes.get(routeId);
+        if (route != null) {
+            route.entries.invalidate(key);
+        }
+    }
+
+    public void evictAll(String routeId) {
+        RouteCache route = routes.get(routeId);
+        if (route != null) {
+            route.entries.invalidateAll();
+        }
+    }
+
+    public long sizeInBytes(String routeId) {
+        RouteCache route = routes.get(routeId);
+        return route == null ? 0 : route.weightedSize();
+    }
+
+    // a refreshed route with other limits starts over with an empty cache
+    private RouteCache route(String routeId, Duration ttl, DataSize maxBytes) {
+        RouteCache route = routes.get(routeId);
+        if (route != null && route.ttl.equals(ttl) && route.maxBytes.equals(maxBytes)) {
+            return route;
+        }
+        return routes.compute(routeId, (id, current) ->
+                current != null && current.ttl.equals(ttl) && current.maxBytes.equals(maxBytes)
+                        ? current
+                        : new RouteCache(id, ttl, maxBytes));
+    }
+
+    private double hitRatio(String routeId) {
+        RouteCache route = routes.get(routeId);
+        if (route == null) {
+            return 0;
+        }
+        double hits = route.hits.count();
+        double lookups = hits + route.misses.count();
+        return lookups == 0 ? 0 : hits / lookups;
+    }
+
+    private final class RouteCache {
+
+        private final Duration ttl;
+        private final DataSize maxBytes;
+        private final Cache<String, CachedResponse> entries;
+        private final Counter hits;
+        private final Counter misses;
+        private final Counter notModified;
+
+        private RouteCache(String routeId, Duration ttl, DataSize maxBytes) {
+            this.ttl = ttl;
+            this.maxBytes = maxBytes;
+            this.entries = Caffeine.newBuilder()
+                    .expireAfterWrite(ttl)
+                    .maximumWeight(maxBytes.toBytes())
+                    .weigher((String key, CachedResponse response) -> key.length() * 2 + response.sizeInBytes())
+                    // eviction bookkeeping is a counter increment, run it on the caller
+                    .executor(Runnable::run)
+                    .removalListener((String key, CachedResponse response, RemovalCause cause) ->
+                            evicted(routeId, cause))
+                    .build();
+            // registering again returns the meters of a previous cache for the route
+            this.hits = requests(routeId, "hit");
+            this.misses = requests(routeId, "miss");
+            this.notModified = Counter.builder("gateway.response-cache.not-modified")
+                    .description("Hits answered with 304 because If-None-Match matched")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.response-cache.bytes", routes, open -> sizeInBytes(routeId))
+                    .description("Bytes of responses held")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+            Gauge.builder("gateway.response-cache.hit-ratio", routes, open -> hitRatio(routeId))
+                    .description("Share of cacheable GETs answered from the cache")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+
+        private long weightedSize() {
+            return entries.policy().eviction()
+                    .map(eviction -> eviction.weightedSize().orElse(0))
+                    .orElse(0L);
+        }
+
+        private Counter requests(String routeId, String result) {
+            return Counter.builder("gateway.response-cache.requests")
+                    .description("Cacheable GETs, by whether the cache answered them")
+                    .tag("route", routeId)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+
+        private void evicted(String routeId, RemovalCause cause) {
+            if (cause == RemovalCause.REPLACED) {
+                return;
+            }
+            // invalidations only come from writes to the resource
+            String reason = cause == RemovalCause.EXPLICIT ? "write" : cause == RemovalCause.EXPIRED ? "expired" : "size";
+            Counter.builder("gateway.response-cache.evictions")
+                    .description("Responses dropped from the cache")
+                    .tag("route", routeId)
+                    .tag("cause", reason)
+                    .register(meterRegistry)
+                    .increment();
+        }
+    }
+}
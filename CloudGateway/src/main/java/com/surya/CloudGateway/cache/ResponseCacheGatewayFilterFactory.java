@@ -0,0 +1,194 @@
+package com.surya.CloudGateway.cache;
+
+import lombok.Data;
+import org.reactivestreams.Publisher;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.filter.NettyWriteResponseFilter;
+import org.springframework.cloud.gateway.filter.OrderedGatewayFilter;
+import org.springframework.cloud.gateway.filter.factory.AbstractGatewayFilterFactory;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.core.io.buffer.DataBuffer;
+import org.springframework.core.io.buffer.DataBufferUtils;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.server.PathContainer;
+import org.springframework.http.server.reactive.ServerHttpRequest;
+import org.springframework.http.server.reactive.ServerHttpResponse;
+import org.springframework.http.server.reactive.ServerHttpResponseDecorator;
+import org.springframework.stereotype.Component;
+import org.springframework.util.DigestUtils;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import org.springframework.web.util.pattern.PathPattern;
+import org.springframework.web.util.pattern.PathPatternParser;
+import reactor.core.publisher.Flux;
+import reactor.core.publisher.Mono;
+
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR;
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+/**
+ * Caches 200 responses to GETs matching {@code path} for {@code ttl}, within {@code max-bytes}
+ * per route, and answers them from the gateway. Responses carry an ETag, the backend's or a
+ * hash of the body, and a matching If-None-Match gets a 304 without a body.
+ * <p>
+ * A PUT, POST, PATCH or DELETE matching one of {@code evict-paths} drops the cached response
+ * with the same {id}, or every response of the route for a pattern without one, before and
+ * after the write. Changes that do not pass through the gateway are only picked up once the
+ * TTL runs out.
+ * <p>
+ * Runs ahead of the other route filters, so hits skip the rate limiter and circuit breaker.
+ * Requests with a query string or an Authorization header are never cached.
+ */
+@Component
+public class ResponseCacheGatewayFilterFactory
+        extends AbstractGatewayFilterFactory<ResponseCacheGatewayFilterFactory.Config> {
+
+    private static final String ID = "id";
+    private static final String CACHE_HEADER = "X-Cache";
+
+    private final ResponseCache responseCache;
+
+    public ResponseCacheGatewayFilterFactory(ResponseCache responseCache) {
+        super(Config.class);
+        this.responseCache = responseCache;
+    }
+
+    @Override
+    public GatewayFilter apply(Config config) {
+        PathPattern cachedPath = PathPatternParser.defaultInstance.parse(config.getPath());
+        List<PathPattern> evictPaths = new ArrayList<>();
+        for (String evictPath : config.getEvictPaths()) {
+            evictPaths.add(PathPatternParser.defaultInstance.parse(evictPath));
+        }
+        GatewayFilter filter = (exchange, chain) -> {
+            Route route = exchange.getAttribute(GATEWAY_ROUTE_ATTR);
+            if (route == null) {
+                return chain.filter(exchange);
+            }
+            ServerHttpRequest request = exchange.getRequest();
+            HttpMethod method = request.getMethod();
+            if (method == HttpMethod.GET) {
+                String key = cacheKey(request, cachedPath);
+                return key == null
+                        ? chain.filter(exchange)
+                        : cachedGet(exchange, chain, route.getId(), key, config);
+            }
+            if (method == HttpMethod.PUT || method == HttpMethod.POST
+                    || method == HttpMethod.PATCH || method == HttpMethod.DELETE) {
+                Runnable evict = () -> evict(route.getId(), request, evictPaths);
+                evict.run();
+                return chain.filter(exchange).doFinally(signal -> evict.run());
+            }
+            return chain.filter(exchange);
+        };
+        // ahead of NettyWriteResponseFilter, so the backend response is written through the decorator below
+        return new OrderedGatewayFilter(filter, NettyWriteResponseFilter.WRITE_RESPONSE_FILTER_ORDER - 1);
+    }
+
+    private static String cacheKey(ServerHttpRequest request, PathPattern cachedPath) {
+        if (request.getURI().getRawQuery() != null || request.getHeaders().containsKey(HttpHeaders.AUTHORIZATION)) {
+            return null;
+        }
+        PathPattern.PathMatchInfo match = cachedPath.matchAndExtract(request.getPath().pathWithinApplication());
+        if (match == null) {
+            return null;
+        }
+        return match.getUriVariables().getOrDefault(ID, request.getPath().value());
+    }
+
+    private Mono<Void> cachedGet(ServerWebExchange exchange, GatewayFilterChain chain,
+                                 String routeId, String key, Config config) {
+        CachedResponse cached = responseCache.get(routeId, config.getTtl(), config.getMaxBytes(), key);
+        ServerHttpResponse response = exchange.getResponse();
+        if (cached != null) {
+            response.getHeaders().setETag(cached.getEtag());
+            response.getHeaders().set(CACHE_HEADER, "HIT");
+            if (matches(exchange.getRequest().getHeaders().getIfNoneMatch(), cached.getEtag())) {
+                responseCache.notModified(routeId, config.getTtl(), config.getMaxBytes());
+                response.setStatusCode(HttpStatus.NOT_MODIFIED);
+                return response.setComplete();
+            }
+            response.setStatusCode(HttpStatus.OK);
+            response.getHeaders().setContentType(cached.getContentType());
+            response.getHeaders().setContentLength(cached.getBody().length);
+            return response.writeWith(Mono.just(response.bufferFactory().wrap(cached.getBody())));
+        }
+
+        ServerHttpResponseDecorator recording = new ServerHttpResponseDecorator(response) {
+            @Override
+            public Mono<Void> writeWith(Publisher<? extends DataBuffer> body) {
+                // a circuit breaker fallback answers 200 too, it must not be replayed as the resource
+                if (getStatusCode() != HttpStatus.OK || exchange.getAttribute(CIRCUITBREAKER_EXECUTION_EXCEPTION_ATTR) != null
+                        || getHeaders().getContentLength() > config.getMaxBytes().toBytes()) {
+                    return super.writeWith(body);
+                }
+                return DataBufferUtils.join(Flux.from(body)).flatMap(joined -> {
+                    byte[] bytes = new byte[joined.readableByteCount()];
+                    joined.read(bytes);
+                    DataBufferUtils.release(joined);
+
+                    String etag = getHeaders().getETag() != null
+                            ? getHeaders().getETag()
+                            : "\"" + DigestUtils.md5DigestAsHex(bytes) + "\"";
+                    responseCache.put(routeId, config.getTtl(), config.getMaxBytes(), key,
+                            new CachedResponse(bytes, getHeaders().getContentType(), etag));
+                    getHeaders().setETag(etag);
+                    getHeaders().set(CACHE_HEADER, "MISS");
+                    getHeaders().setContentLength(bytes.length);
+                    return super.writeWith(Mono.just(bufferFactory().wrap(bytes)));
+                });
+            }
+        };
+        return chain.filter(exchange.mutate().response(recording).build());
+    }
+
+    // weak comparison, as If-None-Match allows
+    private static boolean matches(List<String> ifNoneMatch, String etag) {
+        String opaque = etag.startsWith("W/") ? etag.substring(2) : etag;
+        for (String candidate : ifNoneMatch) {
+            if ("*".equals(candidate) || opaque.equals(candidate.startsWith("W/") ? candidate.substring(2) : candidate)) {
+                return true;
+            }
+        }
+        return false;
+    }
+
+    private void evict(String routeId, ServerHttpRequest request, List<PathPattern> evictPaths) {
+        PathContainer path = request.getPath().pathWithinApplication();
+        for (PathPattern evictPath : evictPaths) {
+            PathPattern.PathMatchInfo match = evictPath.matchAndExtract(path);
+            if (match == null) {
+                continue;
+            }
+            Map<String, String> variables = match.getUriVariables();
+            if (variables.containsKey(ID)) {
+                responseCache.evict(routeId, variables.get(ID));
+            } else {
+                responseCache.evictAll(routeId);
+            }
+        }
+    }
+
+    @Override
+    public List<String> shortcutFieldOrder() {
+        return List.of("path", "ttl");
+    }
+
+    @Data
+    public static class Config {
+        // GETs matching it are cached, by its {id} variable when there is one
+        private String path;
+        private Duration ttl = Duration.ofSeconds(30);
+        private DataSize maxBytes = DataSize.ofMegabytes(16);
+        // writes matching one evict the cached {id}, or the whole route without an {id}
+        private List<String> evictPaths = new ArrayList<>();
+    }
+}
@@ -0,0 +1,81 @@
+package com.surya.CloudGateway.config;
+
+import com.surya.CloudGateway.ratelimit.LocalRateLimiter;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.cloud.gateway.support.ipresolver.XForwardedRemoteAddressResolver;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.context.annotation.Primary;
+import org.springframework.util.StringUtils;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.net.InetSocketAddress;
+import java.security.Principal;
+import java.time.Duration;
+import java.util.Set;
+
+@Configuration
+public class RateLimiterConfig {
+
+    // the default for RequestRateLimiter filters that do not name a rate-limiter,
+    // routes override the limits with local-rate-limiter.* args
+    @Bean
+    @Primary
+    public LocalRateLimiter localRateLimiter(
+            ConfigurationService configurationService,
+            MeterRegistry meterRegistry,
+            @Value("${gateway.rate-limiter.replenish-rate:10}") int replenishRate,
+            @Value("${gateway.rate-limiter.burst-capacity:20}") int burstCapacity,
+            @Value("${gateway.rate-limiter.max-keys-per-route:100000}") long maxKeysPerRoute,
+            @Value("${gateway.rate-limiter.idle-expiry:10m}") Duration idleExpiry) {
+        LocalRateLimiter.Config defaultConfig = new LocalRateLimiter.Config();
+        defaultConfig.setReplenishRate(replenishRate);
+        defaultConfig.setBurstCapacity(burstCapacity);
+        return new LocalRateLimiter(configurationService, meterRegistry, defaultConfig, maxKeysPerRoute, idleExpiry);
+    }
+
+    // trusted-proxies is the number of proxies in front of the gateway that append to X-Forwarded-For,
+    // 0 uses the address of the connection
+    @Bean
+    @Primary
+    public KeyResolver ipKeyResolver(@Value("${gateway.rate-limiter.trusted-proxies:0}") int trustedProxies) {
+        XForwardedRemoteAddressResolver forwarded =
+                trustedProxies > 0 ? XForwardedRemoteAddressResolver.maxTrustedIndex(trustedProxies) : null;
+        return exchange -> Mono.justOrEmpty(clientIp(exchange, forwarded));
+    }
+
+    // only issued keys get a bucket of their own, a made up key would otherwise bring a fresh
+    // full bucket with every request; callers without an issued key share the limit of their address
+    @Bean
+    public KeyResolver apiKeyResolver(@Value("${gateway.rate-limiter.api-key-header:X-API-Key}") String header,
+                                      @Value("${gateway.rate-limiter.api-keys:}") Set<String> apiKeys,
+                                      KeyResolver ipKeyResolver) {
+        return exchange -> {
+            String apiKey = exchange.getRequest().getHeaders().getFirst(header);
+            return apiKey != null && apiKeys.contains(apiKey) ? Mono.just("key:" + apiKey) : ipKeyResolver.resolve(exchange);
+        };
+    }
+
+    // needs an authenticated principal, which only a security starter provides; without one
+    // every caller is keyed by address
+    @Bean
+    public KeyResolver principalKeyResolver(KeyResolver ipKeyResolver) {
+        return exchange -> exchange.getPrincipal()
+                .map(Principal::getName)
+                .filter(StringUtils::hasText)
+                .map(name -> "user:" + name)
+                .switchIfEmpty(Mono.defer(() -> ipKeyResolver.resolve(exchange)));
+    }
+
+    private static String clientIp(ServerWebExchange exchange, XForwardedRemoteAddressResolver forwarded) {
+        InetSocketAddress address = forwarded != null
+                ? forwarded.resolve(exchange)
+                : exchange.getRequest().getRemoteAddress();
+        // X-Forwarded-For addresses come back unresolved, getHostString covers both
+        return address == null ? null : "ip:" + address.getHostString();
+    }
+}
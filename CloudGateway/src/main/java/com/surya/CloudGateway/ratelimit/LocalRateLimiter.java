@@ -0,0 +1,153 @@
+package com.surya.CloudGateway.ratelimit;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.Data;
+import org.springframework.cloud.gateway.filter.ratelimit.AbstractRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.validation.annotation.Validated;
+import reactor.core.publisher.Mono;
+
+import javax.validation.constraints.Min;
+import java.time.Duration;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.atomic.AtomicLong;
+import java.util.function.LongSupplier;
+
+/**
+ * In-process token bucket per route and key, for gateways where a shared Redis round trip on
+ * every request costs more than exact limits across instances are worth. With n gateway
+ * instances a caller can get up to n times the configured rate.
+ * <p>
+ * Each bucket is a single {@link AtomicLong} holding the time at which it would be full again
+ * (the generic cell rate algorithm), so taking tokens is one compare-and-set and no thread ever
+ * blocks. Buckets live in a bounded map per route and are dropped after being idle for longer
+ * than it takes to refill, when they would have been full anyway. Routes pick it with
+ * {@code rate-limiter: "#{@localRateLimiter}"} and set {@code local-rate-limiter.*} args.
+ */
+public class LocalRateLimiter extends AbstractRateLimiter<LocalRateLimiter.Config> {
+
+    public static final String CONFIGURATION_PROPERTY_NAME = "local-rate-limiter";
+
+    public static final String REMAINING_HEADER = "X-RateLimit-Remaining";
+    public static final String REPLENISH_RATE_HEADER = "X-RateLimit-Replenish-Rate";
+    public static final String BURST_CAPACITY_HEADER = "X-RateLimit-Burst-Capacity";
+    public static final String REQUESTED_TOKENS_HEADER = "X-RateLimit-Requested-Tokens";
+
+    private static final long NANOS_PER_SECOND = 1_000_000_000L;
+
+    private final Config defaultConfig;
+    private final long maxKeysPerRoute;
+    private final Duration idleExpiry;
+    private final MeterRegistry meterRegistry;
+    private final LongSupplier nanoClock;
+    private final Map<String, RouteBuckets> routes = new ConcurrentHashMap<>();
+
+    public LocalRateLimiter(ConfigurationService configurationService, MeterRegistry meterRegistry,
+                            Config defaultConfig, long maxKeysPerRoute, Duration idleExpiry) {
+        this(configurationService, meterRegistry, defaultConfig, maxKeysPerRoute, idleExpiry, System::nanoTime);
+    }
+
+    LocalRateLimiter(ConfigurationService configurationService, MeterRegistry meterRegistry,
+                     Config defaultConfig, long maxKeysPerRoute, Duration idleExpiry, LongSupplier nanoClock) {
+        super(Config.class, CONFIGURATION_PROPERTY_NAME, configurationService);
+        this.defaultConfig = defaultConfig;
+        this.maxKeysPerRoute = maxKeysPerRoute;
+        this.idleExpiry = idleExpiry;
+        this.meterRegistry = meterRegistry;
+        this.nanoClock = nanoClock;
+    }
+
+    @Override
+    public Mono<Response> isAllowed(String routeId, String id) {
+        Config config = getConfig().getOrDefault(routeId, defaultConfig);
+        RouteBuckets route = route(routeId);
+
+        long interval = NANOS_PER_SECOND / config.getReplenishRate();
+        long capacity = interval * config.getBurstCapacity();
+        long cost = interval * config.getRequestedTokens();
+        long now = nanoClock.getAsLong();
+        // a new bucket starts full
+        AtomicLong fullAt = route.buckets.get(id, key -> new AtomicLong(Long.MIN_VALUE));
+
+        while (true) {
+            long current = fullAt.get();
+            long start = current == Long.MIN_VALUE || current - now < 0 ? now : current;
+            long next = start + cost;
+            if (next - now > capacity) {
+                route.denied.increment();
+                return Mono.just(new Response(false, headers(config, (capacity - (start - now)) / interval)));
+            }
+            if (fullAt.compareAndSet(current, next)) {
+                route.allowed.increment();
+                return Mono.just(new Response(true, headers(config, (capacity - (next - now)) / interval)));
+            }
+        }
+    }
+
+    private RouteBuckets route(String routeId) {
+        RouteBuckets route = routes.get(routeId);
+        return route != null ? route : routes.computeIfAbsent(routeId, RouteBuckets::new);
+    }
+
+    private Map<String, String> headers(Config config, long remaining) {
+        if (!config.isIncludeHeaders()) {
+            return Map.of();
+        }
+        return Map.of(
+                REMAINING_HEADER, Long.toString(remaining),
+                REPLENISH_RATE_HEADER, Integer.toString(config.getReplenishRate()),
+                BURST_CAPACITY_HEADER, Integer.toString(config.getBurstCapacity()),
+                REQUESTED_TOKENS_HEADER, Integer.toString(config.getRequestedTokens()));
+    }
+
+    public long keyCount(String routeId) {
+        RouteBuckets route = routes.get(routeId);
+        return route == null ? 0 : route.buckets.estimatedSize();
+    }
+
+    private final class RouteBuckets {
+
+        private final Cache<String, AtomicLong> buckets;
+        private final Counter allowed;
+        private final Counter denied;
+
+        private RouteBuckets(String routeId) {
+            this.buckets = Caffeine.newBuilder()
+                    .maximumSize(maxKeysPerRoute)
+                    .expireAfterAccess(idleExpiry)
+                    .build();
+            this.allowed = requests(routeId, "allowed");
+            this.denied = requests(routeId, "denied");
+            Gauge.builder("gateway.rate-limiter.keys", buckets, Cache::estimatedSize)
+                    .description("Keys with a token bucket")
+                    .tag("route", routeId)
+                    .register(meterRegistry);
+        }
+
+        private Counter requests(String routeId, String result) {
+            return Counter.builder("gateway.rate-limiter.requests")
+                    .description("Requests checked by the local rate limiter")
+                    .tag("route", routeId)
+                    .tag("result", result)
+                    .register(meterRegistry);
+        }
+    }
+
+    // tokens are added at replenishRate per second up to burstCapacity, each request takes requestedTokens
+    @Validated
+    @Data
+    public static class Config {
+        @Min(1)
+        private int replenishRate = 10;
+        @Min(1)
+        private int burstCapacity = 20;
+        @Min(1)
+        private int requestedTokens = 1;
+        private boolean includeHeaders = true;
+    }
+}
@@ -0,0 +1,142 @@
+package com.surya.CloudGateway.cache;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.GatewayFilter;
+import org.springframework.cloud.gateway.filter.GatewayFilterChain;
+import org.springframework.cloud.gateway.route.Route;
+import org.springframework.http.HttpHeaders;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+import org.springframework.util.unit.DataSize;
+import org.springframework.web.server.ServerWebExchange;
+import reactor.core.publisher.Mono;
+
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.util.List;
+import java.util.concurrent.atomic.AtomicInteger;
+
+import static org.springframework.cloud.gateway.support.ServerWebExchangeUtils.GATEWAY_ROUTE_ATTR;
+
+public class ResponseCacheGatewayFilterFactoryTest {
+
+    private static final String ROUTE = "PRODUCT-SERVICE";
+
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private final AtomicInteger backendCalls = new AtomicInteger();
+    private ResponseCache responseCache;
+    private GatewayFilter filter;
+    private HttpStatus backendStatus;
+
+    @BeforeEach
+    void setUp(){
+        responseCache = new ResponseCache(meterRegistry);
+        ResponseCacheGatewayFilterFactory.Config config = new ResponseCacheGatewayFilterFactory.Config();
+        config.setPath("/product/{id:[0-9]+}");
+        config.setTtl(Duration.ofMinutes(1));
+        config.setMaxBytes(DataSize.ofKilobytes(64));
+        config.setEvictPaths(List.of("/product/{id}", "/product/reduceQuantity"));
+        filter = new ResponseCacheGatewayFilterFactory(responseCache).apply(config);
+        backendStatus = HttpStatus.OK;
+    }
+
+    @Test
+    @DisplayName("Response cache - a second GET is answered by the gateway")
+    void test_When_Get_Repeated_then_Served_From_Cache(){
+        MockServerWebExchange first = get("/product/1");
+        MockServerWebExchange second = get("/product/1");
+
+        Assertions.assertEquals(1, backendCalls.get());
+        Assertions.assertEquals("MISS", first.getResponse().getHeaders().getFirst("X-Cache"));
+        Assertions.assertEquals("HIT", second.getResponse().getHeaders().getFirst("X-Cache"));
+        Assertions.assertEquals(body(1), second.getResponse().getBodyAsString().block());
+        Assertions.assertEquals(first.getResponse().getHeaders().getETag(), second.getResponse().getHeaders().getETag());
+        Assertions.assertEquals(MediaType.APPLICATION_JSON, second.getResponse().getHeaders().getContentType());
+        Assertions.assertTrue(responseCache.sizeInBytes(ROUTE) > 0);
+        Assertions.assertEquals(0.5, meterRegistry.get("gateway.response-cache.hit-ratio").tag("route", ROUTE).gauge().value());
+    }
+
+    @Test
+    @DisplayName("Response cache - a matching If-None-Match gets a 304")
+    void test_When_Etag_Matches_then_Not_Modified(){
+        String etag = get("/product/1").getResponse().getHeaders().getETag();
+
+        MockServerWebExchange revalidated = exchange(MockServerHttpRequest.get("/product/1")
+                .header(HttpHeaders.IF_NONE_MATCH, etag));
+        filter.filter(revalidated, backend()).block();
+
+        Assertions.assertEquals(HttpStatus.NOT_MODIFIED, revalidated.getResponse().getStatusCode());
+        Assertions.assertEquals("", revalidated.getResponse().getBodyAsString().defaultIfEmpty("").block());
+        Assertions.assertEquals(1, backendCalls.get());
+    }
+
+    @Test
+    @DisplayName("Response cache - a write to the resource evicts it")
+    void test_When_Resource_Written_then_Evicted(){
+        get("/product/1");
+        get("/product/2");
+
+        filter.filter(exchange(MockServerHttpRequest.put("/product/1")), backend()).block();
+        Assertions.assertEquals("MISS", get("/product/1").getResponse().getHeaders().getFirst("X-Cache"));
+        Assertions.assertEquals("HIT", get("/product/2").getResponse().getHeaders().getFirst("X-Cache"));
+
+        filter.filter(exchange(MockServerHttpRequest.put("/product/reduceQuantity")), backend()).block();
+        Assertions.assertEquals("MISS", get("/product/2").getResponse().getHeaders().getFirst("X-Cache"));
+        Assertions.assertTrue(meterRegistry.get("gateway.response-cache.evictions")
+                .tag("route", ROUTE).tag("cause", "write").counter().count() >= 2);
+    }
+
+    @Test
+    @DisplayName("Response cache - errors, queries and other paths are not cached")
+    void test_When_Not_Cacheable_then_Backend_Called(){
+        backendStatus = HttpStatus.NOT_FOUND;
+        get("/product/1");
+        get("/product/1");
+        backendStatus = HttpStatus.OK;
+        get("/product/search");
+        get("/product/search");
+        get("/product/3?fields=name");
+        get("/product/3?fields=name");
+
+        Assertions.assertEquals(6, backendCalls.get());
+        Assertions.assertEquals(0, responseCache.sizeInBytes(ROUTE));
+    }
+
+    private MockServerWebExchange get(String path) {
+        MockServerWebExchange exchange = exchange(MockServerHttpRequest.get(path));
+        filter.filter(exchange, backend()).block();
+        return exchange;
+    }
+
+    private MockServerWebExchange exchange(MockServerHttpRequest.BaseBuilder<?> request) {
+        MockServerWebExchange exchange = MockServerWebExchange.from(request);
+        exchange.getAttributes().put(GATEWAY_ROUTE_ATTR, Route.async()
+                .id(ROUTE)
+                .uri("lb://PRODUCT-SERVICE")
+                .predicate(ignored -> true)
+                .build());
+        return exchange;
+    }
+
+    // answers with the product id from the path, like the product service would
+    private GatewayFilterChain backend() {
+        return (ServerWebExchange exchange) -> {
+            backendCalls.incrementAndGet();
+            String path = exchange.getRequest().getPath().value();
+            byte[] body = body(path.substring(path.lastIndexOf('/') + 1)).getBytes(StandardCharsets.UTF_8);
+            exchange.getResponse().setStatusCode(backendStatus);
+            exchange.getResponse().getHeaders().setContentType(MediaType.APPLICATION_JSON);
+            return exchange.getResponse().writeWith(Mono.just(exchange.getResponse().bufferFactory().wrap(body)));
+        };
+    }
+
+    private static String body(Object productId) {
+        return "{\"productId\":\"" + productId + "\"}";
+    }
+}
@@ -0,0 +1,41 @@
+package com.surya.CloudGateway.config;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.cloud.gateway.filter.ratelimit.KeyResolver;
+import org.springframework.mock.http.server.reactive.MockServerHttpRequest;
+import org.springframework.mock.web.server.MockServerWebExchange;
+
+import java.net.InetSocketAddress;
+import java.util.Set;
+
+public class RateLimiterConfigTest {
+
+    private final RateLimiterConfig rateLimiterConfig = new RateLimiterConfig();
+    private final KeyResolver ipKeyResolver = rateLimiterConfig.ipKeyResolver(0);
+    private final KeyResolver apiKeyResolver =
+            rateLimiterConfig.apiKeyResolver("X-API-Key", Set.of("issued-key"), ipKeyResolver);
+
+    @Test
+    @DisplayName("API key resolver - an issued key gets its own bucket")
+    void test_When_Issued_Key_then_Keyed_By_Key(){
+        Assertions.assertEquals("key:issued-key", apiKeyResolver.resolve(exchange("issued-key")).block());
+    }
+
+    @Test
+    @DisplayName("API key resolver - unknown or missing keys are keyed by address")
+    void test_When_Unknown_Key_then_Keyed_By_Address(){
+        Assertions.assertEquals("ip:10.0.0.1", apiKeyResolver.resolve(exchange("made-up-key")).block());
+        Assertions.assertEquals("ip:10.0.0.1", apiKeyResolver.resolve(exchange(null)).block());
+    }
+
+    private static MockServerWebExchange exchange(String apiKey) {
+        MockServerHttpRequest.BaseBuilder<?> request = MockServerHttpRequest.get("/payment/order/1")
+                .remoteAddress(new InetSocketAddress("10.0.0.1", 40000));
+        if (apiKey != null) {
+            request.header("X-API-Key", apiKey);
+        }
+        return MockServerWebExchange.from(request);
+    }
+}
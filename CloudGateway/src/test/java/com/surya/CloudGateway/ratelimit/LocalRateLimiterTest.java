@@ -0,0 +1,125 @@
+package com.surya.CloudGateway.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+
+import java.time.Duration;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicLong;
+
+public class LocalRateLimiterTest {
+
+    private static final String ROUTE = "PRODUCT-SERVICE";
+
+    private final AtomicLong clock = new AtomicLong(123_456_789L);
+    private final SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+    private LocalRateLimiter rateLimiter;
+
+    @BeforeEach
+    void setUp(){
+        LocalRateLimiter.Config defaultConfig = new LocalRateLimiter.Config();
+        defaultConfig.setReplenishRate(10);
+        defaultConfig.setBurstCapacity(5);
+        rateLimiter = new LocalRateLimiter(Mockito.mock(ConfigurationService.class), meterRegistry, defaultConfig, 1000, Duration.ofMinutes(10), clock::get);
+    }
+
+    @Test
+    @DisplayName("Rate limiter - a new key gets the full burst, then is denied")
+    void test_When_Burst_Used_then_Denied(){
+        for (int i = 4; i >= 0; i--) {
+            RateLimiter.Response response = isAllowed("ip:10.0.0.1");
+            Assertions.assertTrue(response.isAllowed());
+            Assertions.assertEquals(String.valueOf(i), response.getHeaders().get(LocalRateLimiter.REMAINING_HEADER));
+        }
+
+        RateLimiter.Response denied = isAllowed("ip:10.0.0.1");
+        Assertions.assertFalse(denied.isAllowed());
+        Assertions.assertEquals("0", denied.getHeaders().get(LocalRateLimiter.REMAINING_HEADER));
+        Assertions.assertEquals(1, meterRegistry.get("gateway.rate-limiter.requests")
+                .tag("route", ROUTE).tag("result", "denied").counter().count());
+    }
+
+    @Test
+    @DisplayName("Rate limiter - tokens come back at the replenish rate")
+    void test_When_Time_Passes_then_Tokens_Replenished(){
+        for (int i = 0; i < 5; i++) {
+            isAllowed("ip:10.0.0.1");
+        }
+
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(99));
+        Assertions.assertFalse(isAllowed("ip:10.0.0.1").isAllowed());
+        clock.addAndGet(TimeUnit.MILLISECONDS.toNanos(1));
+        Assertions.assertTrue(isAllowed("ip:10.0.0.1").isAllowed());
+
+        // a long pause refills up to the burst capacity only
+        clock.addAndGet(TimeUnit.SECONDS.toNanos(60));
+        int allowed = 0;
+        while (isAllowed("ip:10.0.0.1").isAllowed()) {
+            allowed++;
+        }
+        Assertions.assertEquals(5, allowed);
+    }
+
+    @Test
+    @DisplayName("Rate limiter - keys and routes have their own buckets")
+    void test_When_Different_Keys_then_Separate_Buckets(){
+        LocalRateLimiter.Config orderConfig = new LocalRateLimiter.Config();
+        orderConfig.setReplenishRate(1);
+        orderConfig.setBurstCapacity(1);
+        rateLimiter.getConfig().put("ORDER-SERVICE", orderConfig);
+
+        for (int i = 0; i < 5; i++) {
+            isAllowed("ip:10.0.0.1");
+        }
+
+        Assertions.assertFalse(isAllowed("ip:10.0.0.1").isAllowed());
+        Assertions.assertTrue(isAllowed("ip:10.0.0.2").isAllowed());
+        Assertions.assertTrue(rateLimiter.isAllowed("ORDER-SERVICE", "ip:10.0.0.1").block().isAllowed());
+        Assertions.assertFalse(rateLimiter.isAllowed("ORDER-SERVICE", "ip:10.0.0.1").block().isAllowed());
+        Assertions.assertEquals(2, rateLimiter.keyCount(ROUTE));
+    }
+
+    @Test
+    @DisplayName("Rate limiter - concurrent requests never take more than the burst")
+    void test_When_Concurrent_Requests_then_Burst_Not_Exceeded() throws Exception{
+        LocalRateLimiter.Config config = new LocalRateLimiter.Config();
+        config.setReplenishRate(1);
+        config.setBurstCapacity(100);
+        rateLimiter.getConfig().put(ROUTE, config);
+
+        int threads = 8;
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        CountDownLatch start = new CountDownLatch(1);
+        AtomicInteger allowed = new AtomicInteger();
+        for (int t = 0; t < threads; t++) {
+            executor.submit(() -> {
+                start.await();
+                for (int i = 0; i < 1000; i++) {
+                    if (isAllowed("key:shared").isAllowed()) {
+                        allowed.incrementAndGet();
+                    }
+                }
+                return null;
+            });
+        }
+        start.countDown();
+        executor.shutdown();
+        Assertions.assertTrue(executor.awaitTermination(30, TimeUnit.SECONDS));
+
+        Assertions.assertEquals(100, allowed.get());
+    }
+
+    private RateLimiter.Response isAllowed(String key) {
+        return rateLimiter.isAllowed(ROUTE, key).block();
+    }
+}
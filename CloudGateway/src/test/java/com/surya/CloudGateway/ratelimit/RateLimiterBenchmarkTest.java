@@ -0,0 +1,89 @@
+package com.surya.CloudGateway.ratelimit;
+
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.cloud.gateway.filter.ratelimit.RateLimiter;
+import org.springframework.cloud.gateway.filter.ratelimit.RedisRateLimiter;
+import org.springframework.cloud.gateway.support.ConfigurationService;
+import org.springframework.data.redis.core.ReactiveStringRedisTemplate;
+import org.springframework.data.redis.core.script.RedisScript;
+import reactor.core.publisher.Flux;
+
+import java.lang.management.ManagementFactory;
+import java.time.Duration;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Latency and allocation per isAllowed call of {@link LocalRateLimiter} and of the Redis
+ * rate limiter it replaces, over -Dbenchmark.keys keys (10k by default). Redis is a mock that
+ * answers "allowed" at once, so its numbers are the client side cost only; a real Redis adds a
+ * network round trip to every request on top.
+ * <p>
+ * Run with {@code mvn test -Dtest=RateLimiterBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Log4j2
+public class RateLimiterBenchmarkTest {
+
+    private static final String ROUTE = "PRODUCT-SERVICE";
+    private static final int WARMUP = 200_000;
+    private static final int CALLS = 1_000_000;
+
+    @Test
+    @SuppressWarnings("unchecked")
+    void latencyAndAllocation() {
+        int keyCount = Integer.getInteger("benchmark.keys", 10_000);
+        String[] keys = new String[keyCount];
+        for (int i = 0; i < keyCount; i++) {
+            keys[i] = "ip:10.0." + (i / 256) + "." + (i % 256);
+        }
+
+        LocalRateLimiter.Config localConfig = new LocalRateLimiter.Config();
+        localConfig.setReplenishRate(1_000_000);
+        localConfig.setBurstCapacity(1_000_000);
+        LocalRateLimiter local = new LocalRateLimiter(Mockito.mock(ConfigurationService.class),
+                new SimpleMeterRegistry(), localConfig, keyCount, Duration.ofMinutes(10));
+
+        ReactiveStringRedisTemplate redisTemplate = Mockito.mock(ReactiveStringRedisTemplate.class);
+        Mockito.when(redisTemplate.execute(ArgumentMatchers.any(RedisScript.class), ArgumentMatchers.anyList(),
+                        ArgumentMatchers.anyList()))
+                .thenAnswer(invocation -> Flux.just(List.of(1L, 999_999L)));
+        RedisRateLimiter redis = new RedisRateLimiter(redisTemplate, Mockito.mock(RedisScript.class),
+                Mockito.mock(ConfigurationService.class));
+        redis.getConfig().put(ROUTE, new RedisRateLimiter.Config().setReplenishRate(1_000_000).setBurstCapacity(1_000_000));
+
+        run("local", local, keys);
+        run("redis (mock)", redis, keys);
+    }
+
+    private static void run(String name, RateLimiter<?> rateLimiter, String[] keys) {
+        for (int i = 0; i < WARMUP; i++) {
+            rateLimiter.isAllowed(ROUTE, keys[i % keys.length]).block();
+        }
+
+        com.sun.management.ThreadMXBean threads = (com.sun.management.ThreadMXBean) ManagementFactory.getThreadMXBean();
+        long thread = Thread.currentThread().getId();
+        long[] latencies = new long[CALLS];
+        long allocatedBefore = threads.getThreadAllocatedBytes(thread);
+        for (int i = 0; i < CALLS; i++) {
+            String key = keys[ThreadLocalRandom.current().nextInt(keys.length)];
+            long startedAt = System.nanoTime();
+            rateLimiter.isAllowed(ROUTE, key).block();
+            latencies[i] = System.nanoTime() - startedAt;
+        }
+        long allocated = threads.getThreadAllocatedBytes(thread) - allocatedBefore;
+
+        Arrays.sort(latencies);
+        log.info("{}: p50={} ns p99={} ns max={} us, {} bytes allocated per call", name,
+                latencies[CALLS / 2],
+                latencies[(int) (CALLS * 0.99)],
+                latencies[CALLS - 1] / 1000,
+                allocated / CALLS);
+    }
+}
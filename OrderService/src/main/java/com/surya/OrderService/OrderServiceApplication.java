@@ -1,14 +1,18 @@
 package com.surya.OrderService;
 
+import com.surya.OrderService.external.http.DownstreamHttpClients;
+import com.surya.OrderService.external.http.LoadBalancedClientHttpRequestFactory;
 import org.springframework.boot.SpringApplication;
 import org.springframework.boot.autoconfigure.SpringBootApplication;
-import org.springframework.cloud.client.loadbalancer.LoadBalanced;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
 import org.springframework.cloud.openfeign.EnableFeignClients;
 import org.springframework.context.annotation.Bean;
+import org.springframework.scheduling.annotation.EnableScheduling;
 import org.springframework.web.client.RestTemplate;
 
 @SpringBootApplication
 @EnableFeignClients
+@EnableScheduling
 public class OrderServiceApplication {
 
 	public static void main(String[] args) {
@@ -16,8 +20,9 @@ public class OrderServiceApplication {
 	}
 
 	@Bean
-	@LoadBalanced
-	public RestTemplate restTemplate(){
-		return new RestTemplate();
+	public RestTemplate restTemplate(LoadBalancerClient loadBalancerClient,
+									 DownstreamHttpClients downstreamHttpClients){
+		return new RestTemplate(
+				new LoadBalancedClientHttpRequestFactory(loadBalancerClient, downstreamHttpClients));
 	}
 }
@@ -0,0 +1,7 @@
+package com.surya.OrderService.archive;
+
+// value types a segment column can hold, row values are Long or String (STRING columns may be null)
+public enum ColumnType {
+    LONG,
+    STRING
+}
@@ -0,0 +1,255 @@
+package com.surya.OrderService.archive;
+
+import com.surya.OrderService.entity.Order;
+import com.surya.OrderService.model.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Moves finished orders older than {@code order.archive.older-than} out of ORDER_DETAIL into
+ * compressed, column-oriented segment files, one per month of order date and run, and answers
+ * lookups for orders that are no longer in the table. Order lines stay in ORDER_LINE.
+ * <p>
+ * A segment is on disk before its rows are deleted. If the process stops in between the rows
+ * are archived again by the next run; lookups ignore the duplicates.
+ */
+@Component
+@ConditionalOnProperty(name = "order.archive.enabled", havingValue = "true")
+@Log4j2
+public class OrderArchive {
+
+    private static final ColumnType[] SCHEMA = {
+            ColumnType.LONG, ColumnType.LONG, ColumnType.LONG, ColumnType.LONG,
+            ColumnType.LONG, ColumnType.LONG, ColumnType.LONG
+    };
+    private static final int ID = 0;
+    private static final int PRODUCT_ID = 1;
+    private static final int LINE_COUNT = 2;
+    private static final int QUANTITY = 3;
+    private static final int ORDER_DATE = 4;
+    private static final int STATUS = 5;
+    private static final int TOTAL_AMOUNT = 6;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final Duration olderThan;
+    private final int rowsPerRun;
+    private final int blockRows;
+    private final List<SegmentReader> segments = new CopyOnWriteArrayList<>();
+
+    private final Counter archivedRows;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer runTime;
+
+    public OrderArchive(JdbcTemplate jdbcTemplate,
+                        PlatformTransactionManager transactionManager,
+                        MeterRegistry meterRegistry,
+                        @Value("${order.archive.directory:archive/orders}") String directory,
+                        @Value("${order.archive.older-than:365d}") Duration olderThan,
+                        @Value("${order.archive.rows-per-run:100000}") int rowsPerRun,
+                        @Value("${order.archive.block-rows:1024}") int blockRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.directory = Paths.get(directory);
+        this.olderThan = olderThan;
+        this.rowsPerRun = rowsPerRun;
+        this.blockRows = blockRows;
+
+        this.archivedRows = Counter.builder("order.archive.rows")
+                .description("Orders moved from the table to segment files")
+                .register(meterRegistry);
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.runTime = Timer.builder("order.archive.run")
+                .description("Time of one archival run")
+                .register(meterRegistry);
+        Gauge.builder("order.archive.segments", segments, List::size)
+                .description("Open archive segments")
+                .register(meterRegistry);
+        Gauge.builder("order.archive.bytes", segments,
+                        open -> open.stream().mapToLong(SegmentReader::sizeInBytes).sum())
+                .description("Size of the open archive segments")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("order.archive.lookups")
+                .description("Lookups that fell through to the archive")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().collect(Collectors.toList())) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".seg.tmp")) {
+                    // left behind by a run that stopped before the move, its rows were never deleted
+                    Files.delete(file);
+                } else if (name.endsWith(".seg")) {
+                    segments.add(SegmentReader.open(file));
+                }
+            }
+        }
+        log.info("Order archive opened {} segments in {}", segments.size(), directory.toAbsolutePath());
+    }
+
+    /**
+     * Archives up to rows-per-run finished orders older than the configured age per pass, until
+     * none are left. Orders still being placed are left alone. Returns the number archived.
+     */
+    @Scheduled(fixedDelayString = "${order.archive.interval-ms:3600000}",
+            initialDelayString = "${order.archive.initial-delay-ms:60000}")
+    public synchronized long archive() {
+        long startedAt = System.nanoTime();
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(olderThan));
+        long archived = 0;
+        long afterId = 0;
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(
+                    "select ID, PRODUCT_ID, LINE_COUNT, QUANTITY, ORDER_DATE, STATUS_CODE, TOTAL_AMOUNT "
+                            + "from ORDER_DETAIL where ORDER_DATE < ? and ID > ? "
+                            + "and STATUS_CODE in (?, ?, ?) order by ID limit ?",
+                    (rs, rowNum) -> new Object[]{
+                            rs.getLong("ID"),
+                            rs.getLong("PRODUCT_ID"),
+                            rs.getLong("LINE_COUNT"),
+                            rs.getLong("QUANTITY"),
+                            toNanos(rs.getTimestamp("ORDER_DATE").toInstant()),
+                            (long) rs.getInt("STATUS_CODE"),
+                            rs.getLong("TOTAL_AMOUNT")
+                    },
+                    cutoff, afterId, OrderStatus.PLACED.getCode(), OrderStatus.PAYMENT_FAILED.getCode(),
+                    OrderStatus.RESERVATION_FAILED.getCode(), rowsPerRun);
+            if (rows.isEmpty()) {
+                break;
+            }
+            writeSegments(rows);
+            delete(rows);
+            archived += rows.size();
+            archivedRows.increment(rows.size());
+            afterId = (Long) rows.get(rows.size() - 1)[ID];
+            if (rows.size() < rowsPerRun) {
+                break;
+            }
+        }
+        runTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        if (archived > 0) {
+            log.info("Archived {} orders older than {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    private void writeSegments(List<Object[]> rows) {
+        Map<YearMonth, List<Object[]>> months = new TreeMap<>();
+        for (Object[] row : rows) {
+            months.computeIfAbsent(YearMonth.from(fromNanos((Long) row[ORDER_DATE]).atOffset(ZoneOffset.UTC)),
+                    month -> new ArrayList<>()).add(row);
+        }
+        months.forEach((month, monthRows) -> {
+            Path file = directory.resolve(String.format("orders-%s-%d-%d.seg", month,
+                    (Long) monthRows.get(0)[ID], (Long) monthRows.get(monthRows.size() - 1)[ID]));
+            try {
+                // the order id is the row id, the id index covers order lookups
+                SegmentWriter.write(file, SCHEMA, ID, -1, monthRows, blockRows);
+                segments.add(SegmentReader.open(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write archive segment " + file, e);
+            }
+        });
+    }
+
+    private void delete(List<Object[]> rows) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "delete from ORDER_DETAIL where ID = ?",
+                rows.stream().map(row -> new Object[]{row[ID]}).collect(Collectors.toList())));
+    }
+
+    public Optional<Order> findById(long orderId) {
+        for (SegmentReader segment : segments) {
+            // one segment per month and run, most cannot hold the id
+            if (!segment.mayContainId(orderId)) {
+                continue;
+            }
+            Optional<Object[]> row = segment.findById(orderId);
+            if (row.isPresent()) {
+                hits.increment();
+                return row.map(OrderArchive::toOrder);
+            }
+        }
+        misses.increment();
+        return Optional.empty();
+    }
+
+    public List<Order> findAllById(Collection<Long> orderIds) {
+        List<Order> orders = new ArrayList<>();
+        for (Long orderId : orderIds) {
+            findById(orderId).ifPresent(orders::add);
+        }
+        return orders;
+    }
+
+    private static Order toOrder(Object[] row) {
+        return Order.builder()
+                .id((Long) row[ID])
+                .productId((Long) row[PRODUCT_ID])
+                .lineCount(((Long) row[LINE_COUNT]).intValue())
+                .quantity((Long) row[QUANTITY])
+                .orderDate(fromNanos((Long) row[ORDER_DATE]))
+                .orderStatus(OrderStatus.fromCode(((Long) row[STATUS]).intValue()))
+                .amount((Long) row[TOTAL_AMOUNT])
+                .build();
+    }
+
+    private static long toNanos(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+    }
+
+    private static Instant fromNanos(long nanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        for (SegmentReader segment : segments) {
+            segment.close();
+        }
+    }
+}
@@ -0,0 +1,176 @@
+package com.surya.OrderService.archive;
+
+import java.io.ByteArrayInputStream;
+import java.io.Closeable;
+import java.io.DataInputStream;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.zip.InflaterInputStream;
+
+/**
+ * Read-only view of a segment written by {@link SegmentWriter}. The file is memory-mapped;
+ * lookups binary search the id or order index in the mapping and inflate only the block that
+ * holds the matching rows. {@link #mayContainId} answers from the header alone. Safe for
+ * concurrent use, all reads are absolute.
+ */
+public final class SegmentReader implements Closeable {
+
+    private final Path file;
+    private final FileChannel channel;
+    private final MappedByteBuffer buffer;
+    private final int rowCount;
+    private final int orderIndexEntries;
+    private final int blockRows;
+    private final ColumnType[] schema;
+    private final long minId;
+    private final long maxId;
+    private final int idIndexOffset;
+    private final int orderIndexOffset;
+    private final int directoryOffset;
+
+    private SegmentReader(Path file, FileChannel channel, MappedByteBuffer buffer) throws IOException {
+        this.file = file;
+        this.channel = channel;
+        this.buffer = buffer;
+        int version = buffer.getInt(4);
+        if (buffer.getInt(0) != SegmentWriter.MAGIC || version < 1 || version > SegmentWriter.VERSION) {
+            throw new IOException("Not a segment file: " + file);
+        }
+        this.rowCount = buffer.getInt(8);
+        this.blockRows = buffer.getInt(12);
+        int columnCount = buffer.getInt(16);
+        this.orderIndexEntries = buffer.getInt(20);
+        // version 1 has no id range in the header
+        int schemaOffset = version == 1 ? 24 : 24 + 2 * Long.BYTES;
+        ColumnType[] types = ColumnType.values();
+        this.schema = new ColumnType[columnCount];
+        for (int column = 0; column < columnCount; column++) {
+            schema[column] = types[buffer.get(schemaOffset + column)];
+        }
+        this.idIndexOffset = schemaOffset + columnCount;
+        this.orderIndexOffset = idIndexOffset + rowCount * Long.BYTES;
+        this.directoryOffset = orderIndexOffset + orderIndexEntries * (Long.BYTES + Integer.BYTES);
+        if (version == 1) {
+            this.minId = rowCount == 0 ? Long.MAX_VALUE : buffer.getLong(idIndexOffset);
+            this.maxId = rowCount == 0 ? Long.MIN_VALUE : buffer.getLong(idIndexOffset + (rowCount - 1) * Long.BYTES);
+        } else {
+            this.minId = buffer.getLong(24);
+            this.maxId = buffer.getLong(32);
+        }
+    }
+
+    public static SegmentReader open(Path file) throws IOException {
+        FileChannel channel = FileChannel.open(file, StandardOpenOption.READ);
+        try {
+            return new SegmentReader(file, channel, channel.map(FileChannel.MapMode.READ_ONLY, 0, channel.size()));
+        } catch (IOException | RuntimeException e) {
+            channel.close();
+            throw e;
+        }
+    }
+
+    public Path file() {
+        return file;
+    }
+
+    public int rowCount() {
+        return rowCount;
+    }
+
+    public long sizeInBytes() {
+        return buffer.capacity();
+    }
+
+    public boolean mayContainId(long id) {
+        return id >= minId && id <= maxId;
+    }
+
+    public Optional<Object[]> findById(long id) {
+        int low = 0;
+        int high = rowCount - 1;
+        while (low <= high) {
+            int middle = (low + high) >>> 1;
+            long candidate = buffer.getLong(idIndexOffset + middle * Long.BYTES);
+            if (candidate < id) {
+                low = middle + 1;
+            } else if (candidate > id) {
+                high = middle - 1;
+            } else {
+                return Optional.of(readBlock(middle / blockRows)[middle % blockRows]);
+            }
+        }
+        return Optional.empty();
+    }
+
+    // rows of the order in id order
+    public List<Object[]> findByOrderId(long orderId) {
+        if (orderIndexEntries == 0 || orderId < orderIdAt(0) || orderId > orderIdAt(orderIndexEntries - 1)) {
+            return List.of();
+        }
+        int low = 0;
+        int high = orderIndexEntries;
+        while (low < high) {
+            int middle = (low + high) >>> 1;
+            if (orderIdAt(middle) < orderId) {
+                low = middle + 1;
+            } else {
+                high = middle;
+            }
+        }
+
+        List<Object[]> rows = new ArrayList<>();
+        Map<Integer, Object[][]> blocks = new HashMap<>();
+        for (int entry = low; entry < orderIndexEntries && orderIdAt(entry) == orderId; entry++) {
+            int row = buffer.getInt(orderIndexOffset + entry * (Long.BYTES + Integer.BYTES) + Long.BYTES);
+            rows.add(blocks.computeIfAbsent(row / blockRows, this::readBlock)[row % blockRows]);
+        }
+        return rows;
+    }
+
+    private long orderIdAt(int entry) {
+        return buffer.getLong(orderIndexOffset + entry * (Long.BYTES + Integer.BYTES));
+    }
+
+    private Object[][] readBlock(int block) {
+        int rowsInBlock = Math.min(blockRows, rowCount - block * blockRows);
+        Object[][] rows = new Object[rowsInBlock][schema.length];
+        for (int column = 0; column < schema.length; column++) {
+            int entry = directoryOffset + (block * schema.length + column) * (Long.BYTES + Integer.BYTES);
+            byte[] chunk = new byte[buffer.getInt(entry + Long.BYTES)];
+            buffer.get((int) buffer.getLong(entry), chunk);
+            try (DataInputStream in = new DataInputStream(new InflaterInputStream(new ByteArrayInputStream(chunk)))) {
+                long previous = 0;
+                for (int row = 0; row < rowsInBlock; row++) {
+                    if (schema[column] == ColumnType.LONG) {
+                        previous += in.readLong();
+                        rows[row][column] = previous;
+                    } else {
+                        int length = in.readInt();
+                        if (length >= 0) {
+                            byte[] utf8 = new byte[length];
+                            in.readFully(utf8);
+                            rows[row][column] = new String(utf8, StandardCharsets.UTF_8);
+                        }
+                    }
+                }
+            } catch (IOException e) {
+                throw new IllegalStateException("Corrupt segment " + file + ", block " + block, e);
+            }
+        }
+        return rows;
+    }
+
+    @Override
+    public void close() throws IOException {
+        channel.close();
+    }
+}
@@ -0,0 +1,149 @@
+package com.surya.OrderService.archive;
+
+import java.io.BufferedOutputStream;
+import java.io.ByteArrayOutputStream;
+import java.io.DataOutputStream;
+import java.io.IOException;
+import java.nio.channels.Channels;
+import java.nio.channels.FileChannel;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardCopyOption;
+import java.nio.file.StandardOpenOption;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.List;
+import java.util.zip.Deflater;
+import java.util.zip.DeflaterOutputStream;
+
+/**
+ * Writes an immutable segment file, the layout {@link SegmentReader} maps.
+ * <pre>
+ * header      magic, version, row count, rows per block, column count, order index entries,
+ *             min id long, max id long (since version 2), column types
+ * id index    row count longs, ascending (rows are stored in id order)
+ * order index (order id long, row int) pairs, ascending by order id then row; empty when
+ *             the segment has no order id column
+ * directory   per block, per column: offset long, length int of its chunk
+ * chunks      one deflated chunk per block and column
+ * </pre>
+ * The indexes stay uncompressed so lookups binary search them in place; a lookup then
+ * inflates only the chunks of the block holding the row. The id range in the header lets a
+ * lookup skip the segment without touching its index.
+ * <p>
+ * SegmentWriter, SegmentReader and ColumnType are kept identical in OrderService and
+ * PaymentService, which share no module; only the package differs. A change to the format is
+ * made to both copies in the same commit and bumps {@link #VERSION}. Segments are never
+ * rewritten, so the reader keeps accepting every earlier version.
+ */
+public final class SegmentWriter {
+
+    static final int MAGIC = 0x5345474D;
+    static final int VERSION = 2;
+
+    private SegmentWriter() {
+    }
+
+    /**
+     * Writes rows, already sorted by the id column, to a temporary file next to target and
+     * moves it into place once it is on disk, so a segment is never seen half written.
+     * Pass -1 as orderIdColumn for rows that have no order id.
+     */
+    public static void write(Path target, ColumnType[] schema, int idColumn, int orderIdColumn,
+                             List<Object[]> rows, int blockRows) throws IOException {
+        int blockCount = (rows.size() + blockRows - 1) / blockRows;
+        byte[][][] chunks = new byte[blockCount][schema.length][];
+        for (int block = 0; block < blockCount; block++) {
+            List<Object[]> blockOfRows = rows.subList(block * blockRows, Math.min(rows.size(), (block + 1) * blockRows));
+            for (int column = 0; column < schema.length; column++) {
+                chunks[block][column] = encode(blockOfRows, column, schema[column]);
+            }
+        }
+
+        List<long[]> orderIndex = new ArrayList<>(orderIdColumn < 0 ? 0 : rows.size());
+        for (int row = 0; orderIdColumn >= 0 && row < rows.size(); row++) {
+            orderIndex.add(new long[]{(Long) rows.get(row)[orderIdColumn], row});
+        }
+        orderIndex.sort(Comparator.<long[]>comparingLong(entry -> entry[0]).thenComparingLong(entry -> entry[1]));
+
+        long headerLength = 6 * Integer.BYTES + 2 * Long.BYTES + schema.length;
+        long directoryOffset = headerLength + rows.size() * (long) Long.BYTES
+                + orderIndex.size() * (long) (Long.BYTES + Integer.BYTES);
+        long chunkOffset = directoryOffset + (long) blockCount * schema.length * (Long.BYTES + Integer.BYTES);
+
+        Path temporary = target.resolveSibling(target.getFileName() + ".tmp");
+        try (FileChannel channel = FileChannel.open(temporary,
+                StandardOpenOption.CREATE, StandardOpenOption.TRUNCATE_EXISTING, StandardOpenOption.WRITE)) {
+            DataOutputStream out = new DataOutputStream(new BufferedOutputStream(
+                    Channels.newOutputStream(channel), 1 << 16));
+            out.writeInt(MAGIC);
+            out.writeInt(VERSION);
+            out.writeInt(rows.size());
+            out.writeInt(blockRows);
+            out.writeInt(schema.length);
+            out.writeInt(orderIndex.size());
+            // an empty segment gets an empty range
+            out.writeLong(rows.isEmpty() ? Long.MAX_VALUE : (Long) rows.get(0)[idColumn]);
+            out.writeLong(rows.isEmpty() ? Long.MIN_VALUE : (Long) rows.get(rows.size() - 1)[idColumn]);
+            for (ColumnType type : schema) {
+                out.writeByte(type.ordinal());
+            }
+            for (Object[] row : rows) {
+                out.writeLong((Long) row[idColumn]);
+            }
+            for (long[] entry : orderIndex) {
+                out.writeLong(entry[0]);
+                out.writeInt((int) entry[1]);
+            }
+            long offset = chunkOffset;
+            for (byte[][] block : chunks) {
+                for (byte[] chunk : block) {
+                    out.writeLong(offset);
+                    out.writeInt(chunk.length);
+                    offset += chunk.length;
+                }
+            }
+            for (byte[][] block : chunks) {
+                for (byte[] chunk : block) {
+                    out.write(chunk);
+                }
+            }
+            out.flush();
+            channel.force(true);
+        }
+        Files.move(temporary, target, StandardCopyOption.ATOMIC_MOVE, StandardCopyOption.REPLACE_EXISTING);
+    }
+
+    private static byte[] encode(List<Object[]> rows, int column, ColumnType type) throws IOException {
+        ByteArrayOutputStream bytes = new ByteArrayOutputStream();
+        Deflater deflater = new Deflater(Deflater.BEST_SPEED);
+        try (DataOutputStream out = new DataOutputStream(new DeflaterOutputStream(bytes, deflater))) {
+            long previous = 0;
+            for (Object[] row : rows) {
+                Object value = row[column];
+                if (type == ColumnType.LONG) {
+                    // ids, order ids and dates grow with the row, deltas compress far better
+                    long current = (Long) value;
+                    out.writeLong(current - previous);
+                    previous = current;
+                } else {
+                    writeString(out, (String) value);
+                }
+            }
+        } finally {
+            deflater.end();
+        }
+        return bytes.toByteArray();
+    }
+
+    private static void writeString(DataOutputStream out, String value) throws IOException {
+        if (value == null) {
+            out.writeInt(-1);
+            return;
+        }
+        byte[] utf8 = value.getBytes(StandardCharsets.UTF_8);
+        out.writeInt(utf8.length);
+        out.write(utf8);
+    }
+}
@@ -0,0 +1,27 @@
+package com.surya.OrderService.config;
+
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.context.annotation.Bean;
+import org.springframework.context.annotation.Configuration;
+import org.springframework.scheduling.concurrent.ThreadPoolTaskExecutor;
+
+import java.util.concurrent.ThreadPoolExecutor;
+
+@Configuration
+public class AsyncConfig {
+
+    // bounded pool used to call product and payment service in parallel while building order details.
+    // when the queue is full the request thread runs the call itself instead of failing.
+    @Bean
+    public ThreadPoolTaskExecutor orderDetailsExecutor(
+            @Value("${order.details.fan-out.pool-size:16}") int poolSize,
+            @Value("${order.details.fan-out.queue-capacity:100}") int queueCapacity) {
+        ThreadPoolTaskExecutor executor = new ThreadPoolTaskExecutor();
+        executor.setCorePoolSize(poolSize);
+        executor.setMaxPoolSize(poolSize);
+        executor.setQueueCapacity(queueCapacity);
+        executor.setThreadNamePrefix("order-details-");
+        executor.setRejectedExecutionHandler(new ThreadPoolExecutor.CallerRunsPolicy());
+        return executor;
+    }
+}
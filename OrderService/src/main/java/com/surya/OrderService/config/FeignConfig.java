@@ -1,7 +1,12 @@
 package com.surya.OrderService.config;
 
 import com.surya.OrderService.external.decoder.CustomErrorDecoder;
+import com.surya.OrderService.external.http.DownstreamHttpClients;
+import com.surya.OrderService.external.http.DownstreamHttpProperties;
+import com.surya.OrderService.external.http.LoadBalancedFeignClient;
+import feign.Client;
 import feign.codec.ErrorDecoder;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
 import org.springframework.context.annotation.Bean;
 import org.springframework.context.annotation.Configuration;
 
@@ -11,4 +16,11 @@ public class FeignConfig {
     ErrorDecoder errorDecoder(){
         return new CustomErrorDecoder();
     }
+
+    @Bean
+    Client feignClient(LoadBalancerClient loadBalancerClient,
+                       DownstreamHttpClients downstreamHttpClients,
+                       DownstreamHttpProperties downstreamHttpProperties){
+        return new LoadBalancedFeignClient(loadBalancerClient, downstreamHttpClients, downstreamHttpProperties);
+    }
 }
@@ -1,14 +1,24 @@
 package com.surya.OrderService.controller;
 
 import com.netflix.discovery.converters.Auto;
+import com.surya.OrderService.model.OrderHistoryFilter;
+import com.surya.OrderService.model.OrderHistoryPage;
 import com.surya.OrderService.model.OrderRequest;
 import com.surya.OrderService.model.OrderResponse;
+import com.surya.OrderService.model.OrderStatus;
+import com.surya.OrderService.service.OrderHistoryService;
 import com.surya.OrderService.service.OrderService;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+import java.util.List;
 
 @RestController
 @RequestMapping("/order")
@@ -19,13 +29,24 @@ public class OrderController {
     @Autowired
     private OrderService orderService;
 
+    @Autowired
+    private OrderHistoryService orderHistoryService;
+
     @PostMapping("/placeOrder")
-    public ResponseEntity<Long> placeOrder(@RequestBody OrderRequest orderRequest){
-        long orderId = orderService.placeOrder(orderRequest);
+    public ResponseEntity<Long> placeOrder(@RequestBody OrderRequest orderRequest,
+                                           @RequestHeader(value = "Idempotency-Key", required = false) String idempotencyKey){
+        long orderId = orderService.placeOrder(orderRequest, idempotencyKey);
         log.info("Order id: {}", orderId);
         return new ResponseEntity<>(orderId, HttpStatus.OK);
     }
 
+    @PostMapping("/placeOrder/async")
+    public ResponseEntity<Long> placeOrderAsync(@RequestBody OrderRequest orderRequest){
+        long orderId = orderService.placeOrderAsync(orderRequest);
+        log.info("Order id: {} accepted", orderId);
+        return new ResponseEntity<>(orderId, HttpStatus.ACCEPTED);
+    }
+
     @GetMapping("/{orderId}")
     public ResponseEntity<OrderResponse> getOrderDetails(@PathVariable long orderId){
         OrderResponse orderResponse =
@@ -33,4 +54,50 @@ public class OrderController {
 
         return new ResponseEntity<>(orderResponse,HttpStatus.OK);
     }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<OrderResponse>> getOrderDetails(@RequestParam("ids") List<Long> orderIds){
+        List<OrderResponse> orderResponses =
+                orderService.getOrderDetails(orderIds);
+
+        return new ResponseEntity<>(orderResponses,HttpStatus.OK);
+    }
+
+    @GetMapping("/history")
+    public ResponseEntity<OrderHistoryPage> getOrderHistory(
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant afterDate,
+            @RequestParam(required = false) Long afterId,
+            @RequestParam(required = false) Integer limit){
+        OrderHistoryPage orderHistoryPage =
+                orderHistoryService.getOrderHistory(historyFilter(productId, status, from, to), afterDate, afterId, limit);
+
+        return new ResponseEntity<>(orderHistoryPage,HttpStatus.OK);
+    }
+
+    @GetMapping(value = "/history/export", produces = MediaType.APPLICATION_NDJSON_VALUE)
+    public ResponseEntity<StreamingResponseBody> exportOrderHistory(
+            @RequestParam(required = false) Long productId,
+            @RequestParam(required = false) OrderStatus status,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE_TIME) Instant to){
+        StreamingResponseBody orders =
+                orderHistoryService.exportOrderHistory(historyFilter(productId, status, from, to));
+
+        return ResponseEntity.ok()
+                .contentType(MediaType.APPLICATION_NDJSON)
+                .body(orders);
+    }
+
+    private OrderHistoryFilter historyFilter(Long productId, OrderStatus status, Instant from, Instant to) {
+        return OrderHistoryFilter.builder()
+                .productId(productId)
+                .orderStatus(status)
+                .from(from)
+                .to(to)
+                .build();
+    }
 }
@@ -0,0 +1,29 @@
+package com.surya.OrderService.controller;
+
+import com.surya.OrderService.external.client.ProductLookupClient;
+import com.surya.OrderService.external.event.ProductChangedEvent;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.PostMapping;
+import org.springframework.web.bind.annotation.RequestBody;
+import org.springframework.web.bind.annotation.RequestMapping;
+import org.springframework.web.bind.annotation.RestController;
+
+// callback for the product service, not meant to be routed through the gateway
+@RestController
+@RequestMapping("/order/internal")
+@Log4j2
+public class ProductChangeController {
+
+    @Autowired
+    private ProductLookupClient productLookupClient;
+
+    @PostMapping("/product-changes")
+    public ResponseEntity<Void> productChanged(@RequestBody ProductChangedEvent event){
+        log.info("Product id {} changed: {}", event.getProductId(), event.getChangeType());
+        productLookupClient.onProductChanged(event);
+        return new ResponseEntity<>(HttpStatus.NO_CONTENT);
+    }
+}
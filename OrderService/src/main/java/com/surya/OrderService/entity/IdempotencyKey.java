@@ -0,0 +1,42 @@
+package com.surya.OrderService.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Idempotency key sent by a client with a place order request. The row is claimed before the
+ * order is placed and holds the order id once placement finished; a null order id means the
+ * first request is still running, or died without releasing the key. A retry takes over a
+ * claim older than the lease and places the order under its own claim token.
+ */
+@Entity
+@Table(name = "ORDER_IDEMPOTENCY_KEY", indexes = {
+        @Index(name = "IDX_ORDER_IDEMPOTENCY_KEY_CREATED", columnList = "CREATED_AT")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class IdempotencyKey {
+
+    public static final int MAX_LENGTH = 100;
+
+    @Id
+    @Column(name = "IDEMPOTENCY_KEY", length = MAX_LENGTH)
+    private String idempotencyKey;
+    @Column(name = "ORDER_ID")
+    private Long orderId;
+    @Column(name = "CREATED_AT")
+    private Instant createdAt;
+    // start of the current claim, null for keys claimed before claims could be taken over
+    @Column(name = "CLAIMED_AT")
+    private Instant claimedAt;
+    // only the request holding this token may record the order or release the key
+    @Column(name = "CLAIM_TOKEN", length = 36)
+    private String claimToken;
+}
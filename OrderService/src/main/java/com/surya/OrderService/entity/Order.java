@@ -1,5 +1,6 @@
 package com.surya.OrderService.entity;
 
+import com.surya.OrderService.model.OrderStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -9,7 +10,12 @@ import javax.persistence.*;
 import java.time.Instant;
 
 @Entity
-@Table(name = "ORDER_DETAIL")
+@Table(name = "ORDER_DETAIL", indexes = {
+        // order history is read newest first by (ORDER_DATE, ID), optionally narrowed by product or status
+        @Index(name = "IDX_ORDER_DETAIL_DATE", columnList = "ORDER_DATE, ID"),
+        @Index(name = "IDX_ORDER_DETAIL_PRODUCT_DATE", columnList = "PRODUCT_ID, ORDER_DATE, ID"),
+        @Index(name = "IDX_ORDER_DETAIL_STATUS_CODE_DATE", columnList = "STATUS_CODE, ORDER_DATE, ID")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -17,16 +23,43 @@ import java.time.Instant;
 public class Order {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "pooled_lo")
     private long id;
     @Column(name = "PRODUCT_ID")
     private long productId;
+    // number of ORDER_LINE rows, 0 for a single product order described by PRODUCT_ID and QUANTITY
+    @Column(name = "LINE_COUNT", columnDefinition = "int default 0 not null")
+    private int lineCount;
     @Column(name = "QUANTITY")
     private long quantity;
     @Column(name = "ORDER_DATE")
     private Instant orderDate;
+    @Column(name = "STATUS_CODE", columnDefinition = "tinyint")
+    @Convert(converter = OrderStatusConverter.class)
+    private OrderStatus orderStatus;
+    // status name from before STATUS_CODE. Still written alongside it for one release, so that
+    // instances on the previous version keep reading current statuses during a rolling deploy
     @Column(name = "STATUS")
-    private String orderStatus;
+    private String legacyStatus;
     @Column(name = "TOTAL_AMOUNT")
     private long amount;
+
+    public void setOrderStatus(OrderStatus orderStatus) {
+        this.orderStatus = orderStatus;
+        this.legacyStatus = orderStatus == null ? null : orderStatus.name();
+    }
+
+    // the builder does not go through the setter
+    @PrePersist
+    void writeLegacyStatus() {
+        legacyStatus = orderStatus == null ? null : orderStatus.name();
+    }
+
+    // previous version instances only update STATUS, so while both run it is the current one
+    @PostLoad
+    void resolveLegacyStatus() {
+        if (legacyStatus != null) {
+            orderStatus = OrderStatus.valueOf(legacyStatus);
+        }
+    }
 }
@@ -0,0 +1,33 @@
+package com.surya.OrderService.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+// one product of a multi-line order, single product orders keep using Order.productId
+@Entity
+@Table(name = "ORDER_LINE", indexes = {
+        // lines are loaded by order
+        @Index(name = "IDX_ORDER_LINE_ORDER_PRODUCT", columnList = "ORDER_ID, PRODUCT_ID"),
+        // the order history product filter seeks the lines of one product, see OrderHistoryRepository
+        @Index(name = "IDX_ORDER_LINE_PRODUCT_ORDER", columnList = "PRODUCT_ID, ORDER_ID")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OrderLine {
+
+    @Id
+    @GeneratedValue(generator = "pooled_lo")
+    private long id;
+    @Column(name = "ORDER_ID")
+    private long orderId;
+    @Column(name = "PRODUCT_ID")
+    private long productId;
+    @Column(name = "QUANTITY")
+    private long quantity;
+}
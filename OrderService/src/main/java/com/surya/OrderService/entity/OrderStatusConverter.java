@@ -0,0 +1,20 @@
+package com.surya.OrderService.entity;
+
+import com.surya.OrderService.model.OrderStatus;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+@Converter
+public class OrderStatusConverter implements AttributeConverter<OrderStatus, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(OrderStatus orderStatus) {
+        return orderStatus == null ? null : orderStatus.getCode();
+    }
+
+    @Override
+    public OrderStatus convertToEntityAttribute(Integer code) {
+        return code == null ? null : OrderStatus.fromCode(code);
+    }
+}
@@ -0,0 +1,47 @@
+package com.surya.OrderService.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.Instant;
+
+/**
+ * Command for another service, written in the same transaction as the {@link Order} it
+ * belongs to and delivered later by the outbox relay.
+ */
+@Entity
+@Table(name = "ORDER_OUTBOX", indexes = {
+        @Index(name = "IDX_ORDER_OUTBOX_PENDING", columnList = "PROCESSED_AT, ID")
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OutboxEvent {
+
+    public static final String PAYMENT_REQUESTED = "PAYMENT_REQUESTED";
+
+    @Id
+    @GeneratedValue(generator = "pooled_lo")
+    private long id;
+    @Column(name = "ORDER_ID")
+    private long orderId;
+    @Column(name = "EVENT_TYPE")
+    private String eventType;
+    @Column(name = "PAYLOAD", length = 2000)
+    private String payload;
+    @Column(name = "CREATED_AT")
+    private Instant createdAt;
+    @Column(name = "ATTEMPTS")
+    private int attempts;
+    @Column(name = "PROCESSED_AT")
+    private Instant processedAt;
+    // relay run delivering the event until CLAIMED_UNTIL, so other instances leave it alone
+    @Column(name = "CLAIMED_BY", length = 36)
+    private String claimedBy;
+    @Column(name = "CLAIMED_UNTIL")
+    private Instant claimedUntil;
+}
@@ -0,0 +1,17 @@
+/**
+ * Ids of every entity in this package come from the shared {@code hibernate_sequence} in blocks
+ * of 50 (pooled-lo), so inserts read the sequence once per block instead of once per row.
+ * The stored value stays the next free id, as it was with the one-at-a-time AUTO generator.
+ */
+@GenericGenerator(
+        name = "pooled_lo",
+        strategy = "org.hibernate.id.enhanced.SequenceStyleGenerator",
+        parameters = {
+                @Parameter(name = "sequence_name", value = "hibernate_sequence"),
+                @Parameter(name = "increment_size", value = "50"),
+                @Parameter(name = "optimizer", value = "pooled-lo")
+        })
+package com.surya.OrderService.entity;
+
+import org.hibernate.annotations.GenericGenerator;
+import org.hibernate.annotations.Parameter;
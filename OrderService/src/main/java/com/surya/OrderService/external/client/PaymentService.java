@@ -5,15 +5,26 @@ import com.surya.OrderService.external.request.PaymentRequest;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.GetMapping;
+import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PostMapping;
 import org.springframework.web.bind.annotation.RequestBody;
 
+import java.util.List;
+
 @CircuitBreaker(name = "external", fallbackMethod = "fallback")
 @FeignClient(name = "PAYMENT-SERVICE/payment")
 public interface PaymentService {
     @PostMapping
     ResponseEntity<Long> doPayment(@RequestBody PaymentRequest paymentRequest);
 
+    @PostMapping("/batch")
+    ResponseEntity<List<Long>> doPayments(@RequestBody List<PaymentRequest> paymentRequests);
+
+    // 404 when no payment with the reference number was recorded
+    @GetMapping("/reference/{referenceNumber}")
+    ResponseEntity<Long> getPaymentIdByReferenceNumber(@PathVariable("referenceNumber") String referenceNumber);
+
     default void fallback(Exception e){
         throw new CustomException("Payment Service is not available"
         ,"UNAVAILABLE",500);
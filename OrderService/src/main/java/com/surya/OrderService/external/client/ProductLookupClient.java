@@ -0,0 +1,138 @@
+package com.surya.OrderService.external.client;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.surya.OrderService.external.event.ProductChangedEvent;
+import com.surya.OrderService.external.response.ProductResponse;
+import com.surya.OrderService.util.SingleFlight;
+import io.micrometer.core.instrument.FunctionCounter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.concurrent.atomic.AtomicLongArray;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Reads products from the product service so that concurrent lookups for the same product id
+ * share one request, and keeps the results in a near-cache.
+ * <p>
+ * Only the product name and price are kept, the quantity changes with every order and is
+ * always returned as 0. The product service posts a {@link ProductChangedEvent} to every
+ * OrderService instance after a committed change to a product's details, which evicts the
+ * entry; the next read fetches it again. Notifications are best effort, so the expiry is
+ * the bound on staleness.
+ */
+@Component
+@Log4j2
+public class ProductLookupClient {
+
+    private static final int STRIPES = 64;
+
+    private final RestTemplate restTemplate;
+    private final SingleFlight<Long, ProductResponse> lookups = new SingleFlight<>();
+    // null when order.product-lookup.near-cache.expire-after-write is zero
+    private final Cache<Long, ProductResponse> nearCache;
+    // bumped on every change notification, per stripe of product ids
+    private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);
+    private final LongAdder cacheHits = new LongAdder();
+    private final Timer staleness;
+
+    public ProductLookupClient(RestTemplate restTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${order.product-lookup.near-cache.expire-after-write:0s}") Duration expireAfterWrite,
+                               @Value("${order.product-lookup.near-cache.maximum-size:10000}") long maximumSize) {
+        this.restTemplate = restTemplate;
+        this.nearCache = expireAfterWrite.isZero() ? null : Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+
+        FunctionCounter.builder("order.product.lookups", lookups, SingleFlight::issuedCount)
+                .description("Product lookups sent to the product service")
+                .tag("result", "issued")
+                .register(meterRegistry);
+        FunctionCounter.builder("order.product.lookups", lookups, SingleFlight::coalescedCount)
+                .description("Product lookups that joined a request already in flight")
+                .tag("result", "coalesced")
+                .register(meterRegistry);
+        FunctionCounter.builder("order.product.lookups", cacheHits, LongAdder::sum)
+                .description("Product lookups answered from the near-cache")
+                .tag("result", "cached")
+                .register(meterRegistry);
+        this.staleness = Timer.builder("order.product.near-cache.staleness")
+                .description("Time from a product change to the near-cache dropping the old entry")
+                .register(meterRegistry);
+        if (nearCache != null) {
+            CaffeineCacheMetrics.monitor(meterRegistry, nearCache, "productNearCache");
+            Gauge.builder("order.product.near-cache.hit-ratio", nearCache, cache -> cache.stats().hitRate())
+                    .description("Share of product lookups answered from the near-cache")
+                    .register(meterRegistry);
+        }
+    }
+
+    public ProductResponse getProduct(long productId) {
+        if (nearCache != null) {
+            ProductResponse cached = nearCache.getIfPresent(productId);
+            if (cached != null) {
+                cacheHits.increment();
+                return cached;
+            }
+        }
+
+        return lookups.execute(productId, () -> {
+            long token = invalidations.get(stripe(productId));
+            log.info("Invoking the product service to the get the product for id : {}", productId);
+            ProductResponse fetched = restTemplate.getForObject(
+                    "http://PRODUCT-SERVICE/product/" + productId,
+                    ProductResponse.class
+            );
+            // the same answer whether it came from the cache or not
+            ProductResponse productResponse = fetched == null ? null : ProductResponse.builder()
+                    .productId(fetched.getProductId())
+                    .productName(fetched.getProductName())
+                    .price(fetched.getPrice())
+                    .build();
+            // stored before the flight ends so a caller arriving right after still finds it
+            if (nearCache != null && productResponse != null) {
+                nearCache.put(productId, productResponse);
+                // a change notified while this read was in flight wins
+                if (invalidations.get(stripe(productId)) != token) {
+                    nearCache.invalidate(productId);
+                }
+            }
+            return productResponse;
+        });
+    }
+
+    public void onProductChanged(ProductChangedEvent event) {
+        invalidations.incrementAndGet(stripe(event.getProductId()));
+        if (nearCache != null) {
+            nearCache.invalidate(event.getProductId());
+        }
+        if (event.getChangedAt() != null) {
+            Duration stale = Duration.between(event.getChangedAt(), Instant.now());
+            staleness.record(stale.isNegative() ? Duration.ZERO : stale);
+        }
+    }
+
+    public long issuedCount() {
+        return lookups.issuedCount();
+    }
+
+    public long coalescedCount() {
+        return lookups.coalescedCount();
+    }
+
+    private static int stripe(long productId) {
+        return (int) (productId & (STRIPES - 1));
+    }
+}
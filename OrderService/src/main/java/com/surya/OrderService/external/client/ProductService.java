@@ -1,19 +1,27 @@
 package com.surya.OrderService.external.client;
 
 import com.surya.OrderService.exception.CustomException;
+import com.surya.OrderService.external.request.ProductQuantity;
 import io.github.resilience4j.circuitbreaker.annotation.CircuitBreaker;
 import org.springframework.cloud.openfeign.FeignClient;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.PathVariable;
 import org.springframework.web.bind.annotation.PutMapping;
+import org.springframework.web.bind.annotation.RequestBody;
 import org.springframework.web.bind.annotation.RequestParam;
 
+import java.util.List;
+
 @CircuitBreaker(name = "external", fallbackMethod = "fallback")
 @FeignClient(name = "PRODUCT-SERVICE/product")
 public interface ProductService {
     @PutMapping("/reduceQuantity/{id}")
     ResponseEntity<Void> reduceQuantity(@PathVariable("id") long productId, @RequestParam long quantity);
 
+    // reserves every line or none of them
+    @PutMapping("/reduceQuantity")
+    ResponseEntity<Void> reduceQuantities(@RequestBody List<ProductQuantity> productQuantities);
+
     default void fallback(Exception e){
         throw new CustomException("Product Service is not available"
                 ,"UNAVAILABLE",500);
@@ -0,0 +1,19 @@
+package com.surya.OrderService.external.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// change notification posted by the product service once the change is committed
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductChangedEvent {
+    private long productId;
+    private String changeType;
+    private Instant changedAt;
+}
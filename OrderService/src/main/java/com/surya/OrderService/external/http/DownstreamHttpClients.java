@@ -0,0 +1,79 @@
+package com.surya.OrderService.external.http;
+
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.httpcomponents.PoolingHttpClientConnectionManagerMetricsBinder;
+import lombok.extern.log4j.Log4j2;
+import org.apache.http.client.config.RequestConfig;
+import org.apache.http.impl.client.CloseableHttpClient;
+import org.apache.http.impl.client.DefaultConnectionKeepAliveStrategy;
+import org.apache.http.impl.client.HttpClients;
+import org.apache.http.impl.conn.PoolingHttpClientConnectionManager;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.util.Locale;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * One pooled, keep-alive Apache HttpClient per downstream service, shared by the
+ * RestTemplate and the Feign clients.
+ * <p>
+ * Pools are created on first use and publish leased, pending and available connection
+ * metrics as {@code httpcomponents.httpclient.pool.*} tagged with the service id.
+ */
+@Component
+@Log4j2
+public class DownstreamHttpClients {
+
+    private final DownstreamHttpProperties properties;
+    private final MeterRegistry meterRegistry;
+    private final Map<String, CloseableHttpClient> clients = new ConcurrentHashMap<>();
+
+    public DownstreamHttpClients(DownstreamHttpProperties properties, MeterRegistry meterRegistry) {
+        this.properties = properties;
+        this.meterRegistry = meterRegistry;
+    }
+
+    public CloseableHttpClient clientFor(String serviceId) {
+        return clients.computeIfAbsent(serviceId.toLowerCase(Locale.ROOT), this::createClient);
+    }
+
+    private CloseableHttpClient createClient(String serviceId) {
+        DownstreamHttpProperties.Pool pool = properties.poolFor(serviceId);
+        log.info("Creating http connection pool for {}: {}", serviceId, pool);
+
+        PoolingHttpClientConnectionManager connectionManager = new PoolingHttpClientConnectionManager();
+        connectionManager.setMaxTotal(pool.getMaxConnections());
+        connectionManager.setDefaultMaxPerRoute(pool.getMaxConnectionsPerRoute());
+        new PoolingHttpClientConnectionManagerMetricsBinder(connectionManager, serviceId)
+                .bindTo(meterRegistry);
+
+        RequestConfig requestConfig = RequestConfig.custom()
+                .setConnectTimeout((int) pool.getConnectTimeout().toMillis())
+                .setSocketTimeout((int) pool.getReadTimeout().toMillis())
+                .setConnectionRequestTimeout((int) pool.getConnectionRequestTimeout().toMillis())
+                .build();
+
+        return HttpClients.custom()
+                .setConnectionManager(connectionManager)
+                .setDefaultRequestConfig(requestConfig)
+                .setKeepAliveStrategy(DefaultConnectionKeepAliveStrategy.INSTANCE)
+                .evictExpiredConnections()
+                .evictIdleConnections(pool.getIdleTimeout().toMillis(), TimeUnit.MILLISECONDS)
+                .build();
+    }
+
+    @PreDestroy
+    public void close() {
+        clients.forEach((serviceId, client) -> {
+            try {
+                client.close();
+            } catch (IOException e) {
+                log.warn("Could not close http connection pool for {}", serviceId, e);
+            }
+        });
+    }
+}
@@ -0,0 +1,40 @@
+package com.surya.OrderService.external.http;
+
+import lombok.Data;
+import org.springframework.boot.context.properties.ConfigurationProperties;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.HashMap;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Connection pool and timeout settings for calls to other services, keyed by lower-case
+ * service id (e.g. {@code product-service}). Services without an entry use {@code defaults}.
+ */
+@Component
+@ConfigurationProperties(prefix = "order.http")
+@Data
+public class DownstreamHttpProperties {
+
+    private Pool defaults = new Pool();
+    private Map<String, Pool> clients = new HashMap<>();
+
+    public Pool poolFor(String serviceId) {
+        return clients.getOrDefault(serviceId.toLowerCase(Locale.ROOT), defaults);
+    }
+
+    @Data
+    public static class Pool {
+        // connections across all instances of the service
+        private int maxConnections = 50;
+        // connections to a single instance
+        private int maxConnectionsPerRoute = 20;
+        private Duration connectTimeout = Duration.ofSeconds(1);
+        private Duration readTimeout = Duration.ofSeconds(5);
+        // how long a caller waits for a free pooled connection
+        private Duration connectionRequestTimeout = Duration.ofMillis(500);
+        private Duration idleTimeout = Duration.ofSeconds(30);
+    }
+}
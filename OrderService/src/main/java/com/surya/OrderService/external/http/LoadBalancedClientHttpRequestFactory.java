@@ -0,0 +1,48 @@
+package com.surya.OrderService.external.http;
+
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.http.HttpMethod;
+import org.springframework.http.client.ClientHttpRequest;
+import org.springframework.http.client.ClientHttpRequestFactory;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+
+import java.io.IOException;
+import java.net.URI;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+
+/**
+ * RestTemplate request factory for {@code http://SERVICE-ID/...} urls: picks an instance
+ * through the load balancer and sends the request over that service's connection pool.
+ * <p>
+ * Used instead of {@code @LoadBalanced}, whose interceptor rewrites the url before the
+ * request factory sees it, so the pool could no longer be chosen per service.
+ */
+public class LoadBalancedClientHttpRequestFactory implements ClientHttpRequestFactory {
+
+    private final LoadBalancerClient loadBalancerClient;
+    private final DownstreamHttpClients downstreamHttpClients;
+    private final Map<String, ClientHttpRequestFactory> requestFactories = new ConcurrentHashMap<>();
+
+    public LoadBalancedClientHttpRequestFactory(LoadBalancerClient loadBalancerClient,
+                                                DownstreamHttpClients downstreamHttpClients) {
+        this.loadBalancerClient = loadBalancerClient;
+        this.downstreamHttpClients = downstreamHttpClients;
+    }
+
+    @Override
+    public ClientHttpRequest createRequest(URI uri, HttpMethod httpMethod) throws IOException {
+        String serviceId = uri.getHost();
+        ServiceInstance instance = loadBalancerClient.choose(serviceId);
+        if (instance == null) {
+            throw new IllegalStateException("No instances available for " + serviceId);
+        }
+
+        URI instanceUri = loadBalancerClient.reconstructURI(instance, uri);
+        return requestFactories
+                .computeIfAbsent(serviceId, id -> new HttpComponentsClientHttpRequestFactory(
+                        downstreamHttpClients.clientFor(id)))
+                .createRequest(instanceUri, httpMethod);
+    }
+}
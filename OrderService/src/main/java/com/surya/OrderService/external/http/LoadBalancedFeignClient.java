@@ -0,0 +1,65 @@
+package com.surya.OrderService.external.http;
+
+import feign.Client;
+import feign.Request;
+import feign.Response;
+import feign.httpclient.ApacheHttpClient;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.loadbalancer.LoadBalancerClient;
+import org.springframework.http.HttpStatus;
+
+import java.io.IOException;
+import java.net.URI;
+import java.nio.charset.StandardCharsets;
+import java.util.Map;
+import java.util.concurrent.ConcurrentHashMap;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Feign client that load balances {@code http://SERVICE-ID/...} requests and sends them over
+ * that service's connection pool, with the service's connect and read timeouts.
+ */
+public class LoadBalancedFeignClient implements Client {
+
+    private final LoadBalancerClient loadBalancerClient;
+    private final DownstreamHttpClients downstreamHttpClients;
+    private final DownstreamHttpProperties properties;
+    private final Map<String, Client> delegates = new ConcurrentHashMap<>();
+
+    public LoadBalancedFeignClient(LoadBalancerClient loadBalancerClient,
+                                   DownstreamHttpClients downstreamHttpClients,
+                                   DownstreamHttpProperties properties) {
+        this.loadBalancerClient = loadBalancerClient;
+        this.downstreamHttpClients = downstreamHttpClients;
+        this.properties = properties;
+    }
+
+    @Override
+    public Response execute(Request request, Request.Options options) throws IOException {
+        URI uri = URI.create(request.url());
+        String serviceId = uri.getHost();
+        ServiceInstance instance = loadBalancerClient.choose(serviceId);
+        if (instance == null) {
+            return Response.builder()
+                    .request(request)
+                    .status(HttpStatus.SERVICE_UNAVAILABLE.value())
+                    .body("No instances available for " + serviceId, StandardCharsets.UTF_8)
+                    .build();
+        }
+
+        String instanceUrl = loadBalancerClient.reconstructURI(instance, uri).toString();
+        Request instanceRequest = Request.create(request.httpMethod(), instanceUrl, request.headers(),
+                request.body(), request.charset(), request.requestTemplate());
+
+        // the per-service timeouts replace Feign's global defaults
+        DownstreamHttpProperties.Pool pool = properties.poolFor(serviceId);
+        Request.Options poolOptions = new Request.Options(
+                pool.getConnectTimeout().toMillis(), TimeUnit.MILLISECONDS,
+                pool.getReadTimeout().toMillis(), TimeUnit.MILLISECONDS,
+                options.isFollowRedirects());
+
+        return delegates
+                .computeIfAbsent(serviceId, id -> new ApacheHttpClient(downstreamHttpClients.clientFor(id)))
+                .execute(instanceRequest, poolOptions);
+    }
+}
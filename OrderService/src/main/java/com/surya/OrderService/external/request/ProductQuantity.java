@@ -0,0 +1,15 @@
+package com.surya.OrderService.external.request;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductQuantity {
+    private long productId;
+    private long quantity;
+}
@@ -0,0 +1,106 @@
+package com.surya.OrderService.migration;
+
+import com.surya.OrderService.model.OrderStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Fills ORDER_DETAIL.STATUS_CODE for rows written while the status was stored as a string.
+ * <p>
+ * Rows are updated in small id ranges, each in its own statement, with a pause in between, so
+ * the table stays available and no long transaction holds locks. Until a row is migrated the
+ * entity falls back to the STATUS string when it is loaded. Runs on every start, which also
+ * picks up rows written or updated by instances still on the string column during a rolling
+ * deploy: a STATUS_CODE that disagrees with STATUS is rewritten too.
+ */
+@Component
+@ConditionalOnProperty(name = "order.status-migration.enabled", havingValue = "true", matchIfMissing = true)
+@Log4j2
+public class OrderStatusCodeMigration {
+
+    private static final String STATUS_CODE = Arrays.stream(OrderStatus.values())
+            .map(orderStatus -> "when '" + orderStatus.name() + "' then " + orderStatus.getCode())
+            .collect(Collectors.joining(" ", "case STATUS ", " end"));
+    private static final String STALE =
+            "STATUS is not null and (STATUS_CODE is null or STATUS_CODE <> " + STATUS_CODE + ")";
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final Counter migratedRows;
+
+    public OrderStatusCodeMigration(JdbcTemplate jdbcTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${order.status-migration.batch-size:1000}") int batchSize,
+                                    @Value("${order.status-migration.pause-ms:20}") long pauseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.migratedRows = Counter.builder("order.status-migration.rows")
+                .description("Orders whose STATUS_CODE was filled from STATUS")
+                .register(meterRegistry);
+    }
+
+    // runs on its own thread, orders are served from the STATUS fallback until it is done
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateInBackground() {
+        Thread migration = new Thread(this::migrate, "order-status-code-migration");
+        migration.setDaemon(true);
+        migration.start();
+    }
+
+    /**
+     * Migrates every order without a STATUS_CODE, or with one that disagrees with STATUS, and
+     * returns how many were updated.
+     */
+    public long migrate() {
+        long startedAt = System.nanoTime();
+        long migrated = 0;
+        long afterId = 0;
+        try {
+            while (true) {
+                List<Long> ids = jdbcTemplate.queryForList(
+                        "select ID from ORDER_DETAIL where ID > ? and " + STALE + " order by ID limit ?",
+                        Long.class, afterId, batchSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                long lastId = ids.get(ids.size() - 1);
+                int updated = jdbcTemplate.update(
+                        "update ORDER_DETAIL set STATUS_CODE = " + STATUS_CODE
+                                + " where ID between ? and ? and " + STALE,
+                        ids.get(0), lastId);
+                migrated += updated;
+                migratedRows.increment(updated);
+                afterId = lastId;
+                if (ids.size() < batchSize) {
+                    break;
+                }
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Order status code migration interrupted after {} orders", migrated);
+            return migrated;
+        } catch (RuntimeException e) {
+            log.error("Order status code migration stopped after {} orders, the next start continues", migrated, e);
+            return migrated;
+        }
+        if (migrated > 0) {
+            log.info("Order status code migration updated {} orders in {} ms",
+                    migrated, (System.nanoTime() - startedAt) / 1_000_000);
+        }
+        return migrated;
+    }
+}
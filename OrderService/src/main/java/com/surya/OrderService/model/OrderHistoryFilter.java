@@ -0,0 +1,20 @@
+package com.surya.OrderService.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// null fields are not filtered on, orderDate is matched as from <= orderDate < to
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OrderHistoryFilter {
+    private Long productId;
+    private OrderStatus orderStatus;
+    private Instant from;
+    private Instant to;
+}
@@ -0,0 +1,20 @@
+package com.surya.OrderService.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OrderHistoryPage {
+    private List<OrderSummary> orders;
+    // pass back as afterDate and afterId to read the next page, null on the last page
+    private Instant nextAfterDate;
+    private Long nextAfterId;
+}
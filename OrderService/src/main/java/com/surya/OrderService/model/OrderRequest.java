@@ -6,6 +6,8 @@ import lombok.Builder;
 import lombok.Data;
 import lombok.NoArgsConstructor;
 
+import java.util.List;
+
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
@@ -15,4 +17,15 @@ public class OrderRequest {
     private long totalAmount;
     private long quantity;
     private PaymentMode paymentMode;
+    // when given the order covers these products and productId/quantity are ignored
+    private List<LineItem> lines;
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class LineItem {
+        private long productId;
+        private long quantity;
+    }
 }
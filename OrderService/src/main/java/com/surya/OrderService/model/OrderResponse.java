@@ -6,6 +6,7 @@ import lombok.Data;
 import lombok.NoArgsConstructor;
 
 import java.time.Instant;
+import java.util.List;
 
 @Data
 @AllArgsConstructor
@@ -14,10 +15,15 @@ import java.time.Instant;
 public class OrderResponse {
     private long orderId;
     private Instant orderDate;
-    private String orderStatus;
+    private OrderStatus orderStatus;
     private long amount;
     private ProductDetails productDetails;
     private PaymentDetails paymentDetails;
+    // set instead of productDetails for a multi-line order
+    private List<LineDetails> lines;
+    // set when the product or payment service did not answer in time and that part is left empty
+    private boolean productDetailsMissing;
+    private boolean paymentDetailsMissing;
 
     @Data
     @Builder
@@ -40,4 +46,14 @@ public class OrderResponse {
         private String paymentStatus;
         private Instant paymentDate;
     }
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class LineDetails {
+        private long productId;
+        private String productName;
+        private long quantity;
+    }
 }
@@ -0,0 +1,39 @@
+package com.surya.OrderService.model;
+
+// code is the value stored in ORDER_DETAIL.STATUS_CODE, never renumber or reuse one
+public enum OrderStatus {
+    CREATED(0),
+    PLACED(1),
+    PAYMENT_FAILED(2),
+    RESERVATION_FAILED(3);
+
+    private static final OrderStatus[] BY_CODE = new OrderStatus[values().length];
+
+    static {
+        for (OrderStatus orderStatus : values()) {
+            BY_CODE[orderStatus.code] = orderStatus;
+        }
+    }
+
+    private final int code;
+
+    OrderStatus(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    // a CREATED order is still being placed, possibly by another instance
+    public boolean isFinal() {
+        return this != CREATED;
+    }
+
+    public static OrderStatus fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown order status code " + code);
+        }
+        return BY_CODE[code];
+    }
+}
@@ -0,0 +1,22 @@
+package com.surya.OrderService.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// order as stored, without the product and payment details fetched by getOrderDetails
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class OrderSummary {
+    private long orderId;
+    private long productId;
+    private long quantity;
+    private Instant orderDate;
+    private OrderStatus orderStatus;
+    private long amount;
+}
@@ -0,0 +1,48 @@
+package com.surya.OrderService.repository;
+
+import com.surya.OrderService.entity.IdempotencyKey;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.time.Instant;
+
+@Repository
+public interface IdempotencyKeyRepository extends JpaRepository<IdempotencyKey,String> {
+
+    // a plain insert, save() would merge into an existing row instead of failing on the primary key
+    @Transactional
+    @Modifying
+    @Query(value = "insert into ORDER_IDEMPOTENCY_KEY (IDEMPOTENCY_KEY, CREATED_AT, CLAIMED_AT, CLAIM_TOKEN)"
+            + " values (:key, :claimedAt, :claimedAt, :claimToken)",
+            nativeQuery = true)
+    int claim(@Param("key") String key, @Param("claimToken") String claimToken, @Param("claimedAt") Instant claimedAt);
+
+    // only one of several retries racing for the same expired claim updates the row
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyKey k set k.claimToken = :claimToken, k.claimedAt = :claimedAt"
+            + " where k.idempotencyKey = :key and k.orderId is null"
+            + " and coalesce(k.claimedAt, k.createdAt) < :expiredBefore")
+    int takeOver(@Param("key") String key, @Param("claimToken") String claimToken,
+                 @Param("claimedAt") Instant claimedAt, @Param("expiredBefore") Instant expiredBefore);
+
+    @Transactional
+    @Modifying
+    @Query("update IdempotencyKey k set k.orderId = :orderId"
+            + " where k.idempotencyKey = :key and k.claimToken = :claimToken and k.orderId is null")
+    int recordOrder(@Param("key") String key, @Param("claimToken") String claimToken, @Param("orderId") long orderId);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.idempotencyKey = :key and k.claimToken = :claimToken")
+    int release(@Param("key") String key, @Param("claimToken") String claimToken);
+
+    @Transactional
+    @Modifying
+    @Query("delete from IdempotencyKey k where k.createdAt < :createdBefore")
+    int deleteCreatedBefore(@Param("createdBefore") Instant createdBefore);
+}
@@ -0,0 +1,150 @@
+package com.surya.OrderService.repository;
+
+import com.surya.OrderService.model.OrderHistoryFilter;
+import com.surya.OrderService.model.OrderStatus;
+import com.surya.OrderService.model.OrderSummary;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Repository;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.function.Consumer;
+
+/**
+ * Reads ORDER_DETAIL newest first by (ORDER_DATE, ID) with plain JDBC, so that only the
+ * filters that are set end up in the where clause and the matching index can be used.
+ */
+@Repository
+public class OrderHistoryRepository {
+
+    private static final String COLUMNS = "ID, PRODUCT_ID, QUANTITY, ORDER_DATE, STATUS_CODE, STATUS, TOTAL_AMOUNT";
+    private static final String ORDER_COLUMNS =
+            "d.ID, d.PRODUCT_ID, d.QUANTITY, d.ORDER_DATE, d.STATUS_CODE, d.STATUS, d.TOTAL_AMOUNT";
+    private static final String FROM_ORDERS = " from ORDER_DETAIL d where 1 = 1";
+    private static final String FROM_ORDERS_BY_PRODUCT = " from ORDER_DETAIL d where d.PRODUCT_ID = ?";
+    // multi-line orders keep PRODUCT_ID = 0 and list their products in ORDER_LINE
+    private static final String FROM_ORDER_LINES_BY_PRODUCT =
+            " from ORDER_LINE l join ORDER_DETAIL d on d.ID = l.ORDER_ID where l.PRODUCT_ID = ?";
+    private static final String ORDER_BY = " order by ORDER_DATE desc, ID desc";
+    private static final String ORDER_BY_ORDER = " order by d.ORDER_DATE desc, d.ID desc";
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    /**
+     * Returns up to limit orders that come after (afterDate, afterId) in the listing, seeking
+     * on the index instead of skipping rows with an offset.
+     */
+    public List<OrderSummary> findPage(OrderHistoryFilter filter, Instant afterDate, Long afterId, int limit) {
+        List<Object> args = new ArrayList<>();
+        String sql = query(filter, afterDate, afterId, limit, args);
+
+        return jdbcTemplate.query(sql, (rs, rowNum) -> toOrderSummary(rs), args.toArray());
+    }
+
+    /**
+     * Hands every matching order to the consumer while reading a forward only cursor, fetchSize
+     * rows at a time, so the result is never held in memory as a whole.
+     */
+    public void streamAll(OrderHistoryFilter filter, int fetchSize, Consumer<OrderSummary> consumer) {
+        List<Object> args = new ArrayList<>();
+        String sql = query(filter, null, null, null, args);
+
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            for (int i = 0; i < args.size(); i++) {
+                statement.setObject(i + 1, args.get(i));
+            }
+            return statement;
+        }, (ResultSet rs) -> consumer.accept(toOrderSummary(rs)));
+    }
+
+    private String query(OrderHistoryFilter filter, Instant afterDate, Long afterId, Integer limit, List<Object> args) {
+        if (filter.getProductId() == null) {
+            return select(FROM_ORDERS, filter, afterDate, afterId, limit, args);
+        }
+
+        // an or across ORDER_DETAIL and ORDER_LINE can only be answered by walking every order by
+        // date, so each side seeks its own product index and the union merges the two in order.
+        // Every side stops at limit rows, which is all the merged page can take from it
+        args.add(filter.getProductId());
+        String singleProduct = select(FROM_ORDERS_BY_PRODUCT, filter, afterDate, afterId, limit, args);
+        args.add(filter.getProductId());
+        String multiLine = select(FROM_ORDER_LINES_BY_PRODUCT, filter, afterDate, afterId, limit, args);
+
+        StringBuilder sql = new StringBuilder("select ").append(COLUMNS)
+                .append(" from ((").append(singleProduct).append(") union (").append(multiLine).append(")) o")
+                .append(ORDER_BY);
+        if (limit != null) {
+            sql.append(" limit ?");
+            args.add(limit);
+        }
+        return sql.toString();
+    }
+
+    private String select(String from, OrderHistoryFilter filter, Instant afterDate, Long afterId,
+                          Integer limit, List<Object> args) {
+        StringBuilder sql = new StringBuilder("select ").append(ORDER_COLUMNS).append(from);
+        appendFilter(filter, sql, args);
+        if (afterDate != null) {
+            sql.append(" and (d.ORDER_DATE < ? or (d.ORDER_DATE = ? and d.ID < ?))");
+            args.add(Timestamp.from(afterDate));
+            args.add(Timestamp.from(afterDate));
+            args.add(afterId);
+        }
+        sql.append(ORDER_BY_ORDER);
+        if (limit != null) {
+            sql.append(" limit ?");
+            args.add(limit);
+        }
+        return sql.toString();
+    }
+
+    // the product is part of the from clause, see query
+    private void appendFilter(OrderHistoryFilter filter, StringBuilder sql, List<Object> args) {
+        if (filter.getOrderStatus() != null) {
+            // rows still waiting for OrderStatusCodeMigration only match once they are migrated, and
+            // rows a previous version instance updated only match their new status after the next run
+            sql.append(" and d.STATUS_CODE = ?");
+            args.add(filter.getOrderStatus().getCode());
+        }
+        if (filter.getFrom() != null) {
+            sql.append(" and d.ORDER_DATE >= ?");
+            args.add(Timestamp.from(filter.getFrom()));
+        }
+        if (filter.getTo() != null) {
+            sql.append(" and d.ORDER_DATE < ?");
+            args.add(Timestamp.from(filter.getTo()));
+        }
+    }
+
+    private OrderSummary toOrderSummary(ResultSet rs) throws SQLException {
+        Timestamp orderDate = rs.getTimestamp("ORDER_DATE");
+        return OrderSummary.builder()
+                .orderId(rs.getLong("ID"))
+                .productId(rs.getLong("PRODUCT_ID"))
+                .quantity(rs.getLong("QUANTITY"))
+                .orderDate(orderDate == null ? null : orderDate.toInstant())
+                .orderStatus(orderStatus(rs))
+                .amount(rs.getLong("TOTAL_AMOUNT"))
+                .build();
+    }
+
+    // STATUS wins while instances on the previous version may still update only it, see Order
+    private static OrderStatus orderStatus(ResultSet rs) throws SQLException {
+        String legacyStatus = rs.getString("STATUS");
+        if (legacyStatus != null) {
+            return OrderStatus.valueOf(legacyStatus);
+        }
+        int code = rs.getInt("STATUS_CODE");
+        return rs.wasNull() ? null : OrderStatus.fromCode(code);
+    }
+}
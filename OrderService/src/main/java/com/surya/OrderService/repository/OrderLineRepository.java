@@ -0,0 +1,16 @@
+package com.surya.OrderService.repository;
+
+import com.surya.OrderService.entity.OrderLine;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.stereotype.Repository;
+
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OrderLineRepository extends JpaRepository<OrderLine,Long> {
+
+    List<OrderLine> findByOrderIdOrderByIdAsc(long orderId);
+
+    List<OrderLine> findByOrderIdInOrderByIdAsc(Collection<Long> orderIds);
+}
@@ -1,9 +1,25 @@
 package com.surya.OrderService.repository;
 
 import com.surya.OrderService.entity.Order;
+import com.surya.OrderService.model.OrderStatus;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+
 @Repository
 public interface OrderRepository extends JpaRepository<Order,Long> {
+
+    default int updateStatus(Collection<Long> ids, OrderStatus status) {
+        return updateStatus(ids, status, status.name());
+    }
+
+    // STATUS is written alongside STATUS_CODE for one release, see Order.legacyStatus
+    @Modifying
+    @Query("update Order o set o.orderStatus = :status, o.legacyStatus = :legacyStatus where o.id in :ids")
+    int updateStatus(@Param("ids") Collection<Long> ids, @Param("status") OrderStatus status,
+                     @Param("legacyStatus") String legacyStatus);
 }
@@ -0,0 +1,41 @@
+package com.surya.OrderService.repository;
+
+import com.surya.OrderService.entity.OutboxEvent;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.Instant;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface OutboxEventRepository extends JpaRepository<OutboxEvent,Long> {
+
+    @Query("select e.id from OutboxEvent e where e.processedAt is null "
+            + "and (e.claimedUntil is null or e.claimedUntil < :now) order by e.id")
+    List<Long> findClaimable(@Param("now") Instant now, Pageable pageable);
+
+    // only takes events no other run holds; rows another instance claimed in between are left out
+    @Modifying
+    @Query("update OutboxEvent e set e.claimedBy = :claimedBy, e.claimedUntil = :claimedUntil "
+            + "where e.id in :ids and e.processedAt is null and (e.claimedUntil is null or e.claimedUntil < :now)")
+    int claim(@Param("ids") Collection<Long> ids, @Param("claimedBy") String claimedBy,
+              @Param("claimedUntil") Instant claimedUntil, @Param("now") Instant now);
+
+    List<OutboxEvent> findByClaimedByOrderByIdAsc(String claimedBy);
+
+    @Modifying
+    @Query("update OutboxEvent e set e.processedAt = :processedAt, e.claimedBy = null, e.claimedUntil = null "
+            + "where e.id in :ids")
+    int markProcessed(@Param("ids") Collection<Long> ids, @Param("processedAt") Instant processedAt);
+
+    // releases the claim, the next run picks the events up again
+    @Modifying
+    @Query("update OutboxEvent e set e.attempts = e.attempts + 1, e.claimedBy = null, e.claimedUntil = null "
+            + "where e.id in :ids")
+    int incrementAttempts(@Param("ids") Collection<Long> ids);
+}
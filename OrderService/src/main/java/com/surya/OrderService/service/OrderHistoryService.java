@@ -0,0 +1,15 @@
+package com.surya.OrderService.service;
+
+import com.surya.OrderService.model.OrderHistoryFilter;
+import com.surya.OrderService.model.OrderHistoryPage;
+
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.time.Instant;
+
+public interface OrderHistoryService {
+    OrderHistoryPage getOrderHistory(OrderHistoryFilter filter, Instant afterDate, Long afterId, Integer limit);
+
+    // filter is validated right away, rows are read and written once the body is streamed
+    StreamingResponseBody exportOrderHistory(OrderHistoryFilter filter);
+}
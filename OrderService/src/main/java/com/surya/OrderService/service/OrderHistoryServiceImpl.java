@@ -0,0 +1,113 @@
+package com.surya.OrderService.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.surya.OrderService.exception.CustomException;
+import com.surya.OrderService.model.OrderHistoryFilter;
+import com.surya.OrderService.model.OrderHistoryPage;
+import com.surya.OrderService.model.OrderSummary;
+import com.surya.OrderService.repository.OrderHistoryRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Service;
+import org.springframework.web.servlet.mvc.method.annotation.StreamingResponseBody;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.io.UncheckedIOException;
+import java.time.Instant;
+import java.util.List;
+
+@Service
+@Log4j2
+public class OrderHistoryServiceImpl implements OrderHistoryService {
+
+    @Autowired
+    private OrderHistoryRepository orderHistoryRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Value("${order.history.default-page-size:20}")
+    private int defaultPageSize;
+
+    @Value("${order.history.max-page-size:100}")
+    private int maxPageSize;
+
+    @Value("${order.history.export.fetch-size:500}")
+    private int exportFetchSize;
+
+    @Override
+    public OrderHistoryPage getOrderHistory(OrderHistoryFilter filter, Instant afterDate, Long afterId, Integer limit) {
+        log.info("Get order history for filter: {} after date: {} and id: {}", filter, afterDate, afterId);
+
+        validate(filter);
+        if ((afterDate == null) != (afterId == null)) {
+            throw new CustomException(
+                    "afterDate and afterId must be given together",
+                    "INVALID_CURSOR",
+                    400
+            );
+        }
+        int pageSize = limit == null ? defaultPageSize : limit;
+        if (pageSize < 1 || pageSize > maxPageSize) {
+            throw new CustomException(
+                    "Limit must be between 1 and " + maxPageSize,
+                    "INVALID_LIMIT",
+                    400
+            );
+        }
+
+        // one extra row tells whether there is a next page without a count query
+        List<OrderSummary> orders = orderHistoryRepository.findPage(filter, afterDate, afterId, pageSize + 1);
+        if (orders.size() <= pageSize) {
+            return OrderHistoryPage.builder()
+                    .orders(orders)
+                    .build();
+        }
+
+        List<OrderSummary> page = orders.subList(0, pageSize);
+        OrderSummary last = page.get(pageSize - 1);
+        return OrderHistoryPage.builder()
+                .orders(page)
+                .nextAfterDate(last.getOrderDate())
+                .nextAfterId(last.getOrderId())
+                .build();
+    }
+
+    @Override
+    public StreamingResponseBody exportOrderHistory(OrderHistoryFilter filter) {
+        log.info("Export order history for filter: {}", filter);
+
+        validate(filter);
+        return outputStream -> writeOrders(filter, outputStream);
+    }
+
+    private void writeOrders(OrderHistoryFilter filter, OutputStream outputStream) {
+        long[] exported = new long[1];
+        orderHistoryRepository.streamAll(filter, exportFetchSize, order -> {
+            try {
+                outputStream.write(objectMapper.writeValueAsBytes(order));
+                outputStream.write('\n');
+                exported[0]++;
+            } catch (JsonProcessingException e) {
+                throw new IllegalStateException("Could not serialize order " + order.getOrderId(), e);
+            } catch (IOException e) {
+                throw new UncheckedIOException(e);
+            }
+        });
+
+        log.info("Exported {} orders", exported[0]);
+    }
+
+    private void validate(OrderHistoryFilter filter) {
+        if (filter.getFrom() != null && filter.getTo() != null && !filter.getFrom().isBefore(filter.getTo())) {
+            throw new CustomException(
+                    "from must be before to",
+                    "INVALID_DATE_RANGE",
+                    400
+            );
+        }
+    }
+}
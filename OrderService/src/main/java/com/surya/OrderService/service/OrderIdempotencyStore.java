@@ -0,0 +1,170 @@
+package com.surya.OrderService.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.surya.OrderService.entity.IdempotencyKey;
+import com.surya.OrderService.exception.CustomException;
+import com.surya.OrderService.repository.IdempotencyKeyRepository;
+import com.surya.OrderService.util.SingleFlight;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.UUID;
+import java.util.function.LongSupplier;
+
+/**
+ * Two tier dedupe store for place order idempotency keys.
+ * <p>
+ * Recently completed keys are answered from a bounded in-memory map. Everything else goes
+ * through the ORDER_IDEMPOTENCY_KEY table, whose primary key decides which request places the
+ * order when duplicates reach different instances. Duplicates arriving at the same instance
+ * while the first is running wait for its result instead of hitting the table. A claim that
+ * has not recorded its order within the claim lease is taken over by the next retry, so a
+ * request that died while placing does not block its key until the retention ends.
+ */
+@Component
+@Log4j2
+public class OrderIdempotencyStore {
+
+    private final IdempotencyKeyRepository idempotencyKeyRepository;
+    private final Cache<String, Long> recentOrders;
+    private final SingleFlight<String, Long> placements = new SingleFlight<>();
+    private final Duration retention;
+    private final Duration claimLease;
+    private final Counter replays;
+
+    public OrderIdempotencyStore(IdempotencyKeyRepository idempotencyKeyRepository,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${order.idempotency.hot.maximum-size:10000}") long hotMaximumSize,
+                                 @Value("${order.idempotency.hot.expire-after-write:10m}") Duration hotExpireAfterWrite,
+                                 @Value("${order.idempotency.retention:24h}") Duration retention,
+                                 @Value("${order.idempotency.claim-lease:5m}") Duration claimLease) {
+        this.idempotencyKeyRepository = idempotencyKeyRepository;
+        this.recentOrders = Caffeine.newBuilder()
+                .maximumSize(hotMaximumSize)
+                .expireAfterWrite(hotExpireAfterWrite)
+                .build();
+        this.retention = retention;
+        this.claimLease = claimLease;
+        this.replays = Counter.builder("order.idempotency.replays")
+                .description("Place order requests answered with the order of an earlier request")
+                .register(meterRegistry);
+    }
+
+    /**
+     * Returns the order id placed for the key, running the placement only if no earlier
+     * request with the same key exists. A failed placement frees the key for a retry.
+     */
+    public long placeOnce(String key, LongSupplier placement) {
+        if (key.isBlank() || key.length() > IdempotencyKey.MAX_LENGTH) {
+            throw new CustomException(
+                    "Idempotency key must be between 1 and " + IdempotencyKey.MAX_LENGTH + " characters",
+                    "INVALID_IDEMPOTENCY_KEY",
+                    400
+            );
+        }
+
+        Long recent = recentOrders.getIfPresent(key);
+        if (recent != null) {
+            return replay(key, recent);
+        }
+
+        boolean[] placedHere = new boolean[1];
+        long orderId = placements.execute(key, () -> {
+            Long placed = recentOrders.getIfPresent(key);
+            if (placed != null) {
+                return placed;
+            }
+            String claimToken = claim(key);
+            if (claimToken == null) {
+                Long existing = existingOrder(key);
+                if (existing != null) {
+                    return existing;
+                }
+                claimToken = takeOver(key);
+            }
+            placedHere[0] = true;
+            return place(key, claimToken, placement);
+        });
+
+        if (!placedHere[0]) {
+            replays.increment();
+            log.info("Replaying order id : {} for idempotency key : {}", orderId, key);
+        }
+        return orderId;
+    }
+
+    @Scheduled(fixedDelayString = "${order.idempotency.cleanup-interval-ms:3600000}")
+    public void deleteExpired() {
+        int deleted = idempotencyKeyRepository.deleteCreatedBefore(Instant.now().minus(retention));
+        if (deleted > 0) {
+            log.info("Deleted {} expired idempotency keys", deleted);
+        }
+    }
+
+    private long replay(String key, long orderId) {
+        replays.increment();
+        log.info("Replaying order id : {} for idempotency key : {}", orderId, key);
+        return orderId;
+    }
+
+    // returns the claim token, or null if the key is already claimed
+    private String claim(String key) {
+        String claimToken = UUID.randomUUID().toString();
+        try {
+            idempotencyKeyRepository.claim(key, claimToken, Instant.now());
+            return claimToken;
+        } catch (DataIntegrityViolationException e) {
+            return null;
+        }
+    }
+
+    private Long existingOrder(String key) {
+        Long orderId = idempotencyKeyRepository.findById(key)
+                .map(IdempotencyKey::getOrderId)
+                .orElse(null);
+        if (orderId != null) {
+            recentOrders.put(key, orderId);
+        }
+        return orderId;
+    }
+
+    private String takeOver(String key) {
+        String claimToken = UUID.randomUUID().toString();
+        Instant now = Instant.now();
+        if (idempotencyKeyRepository.takeOver(key, claimToken, now, now.minus(claimLease)) == 0) {
+            // claimed by a request on another instance that has not finished yet
+            throw new CustomException(
+                    "An order with this idempotency key is still being placed, please retry later",
+                    "IDEMPOTENCY_KEY_IN_PROGRESS",
+                    409
+            );
+        }
+        log.warn("Took over idempotency key : {} whose placement did not finish within {}", key, claimLease);
+        return claimToken;
+    }
+
+    private long place(String key, String claimToken, LongSupplier placement) {
+        long orderId;
+        try {
+            orderId = placement.getAsLong();
+        } catch (RuntimeException e) {
+            idempotencyKeyRepository.release(key, claimToken);
+            throw e;
+        }
+        if (idempotencyKeyRepository.recordOrder(key, claimToken, orderId) == 0) {
+            // placement outlived the lease and a retry took the key over, that retry's order is the one replayed
+            log.warn("Idempotency key : {} was taken over while placing order id : {}", key, orderId);
+            return orderId;
+        }
+        recentOrders.put(key, orderId);
+        return orderId;
+    }
+}
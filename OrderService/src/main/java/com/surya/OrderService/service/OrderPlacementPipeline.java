@@ -0,0 +1,107 @@
+package com.surya.OrderService.service;
+
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PreDestroy;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.Semaphore;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.Supplier;
+
+/**
+ * Bounded worker pool that finishes accepted orders (reservation, payment, final status)
+ * off the request thread.
+ * <p>
+ * Callers take a slot with {@link #tryAcquire()} before persisting the order, so a full
+ * pipeline is reported back to the client instead of piling up work in memory.
+ */
+@Component
+@Log4j2
+public class OrderPlacementPipeline {
+
+    private final ThreadPoolExecutor workers;
+    private final Semaphore slots;
+    private final MeterRegistry meterRegistry;
+    private final Timer queueWait;
+
+    public OrderPlacementPipeline(MeterRegistry meterRegistry,
+                                  @Value("${order.placement.async.workers:8}") int workerCount,
+                                  @Value("${order.placement.async.queue-capacity:500}") int queueCapacity) {
+        this.meterRegistry = meterRegistry;
+        this.workers = new ThreadPoolExecutor(workerCount, workerCount,
+                0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("order-placement-"));
+        // one slot per queued or running order, so execute() below can never be rejected
+        this.slots = new Semaphore(workerCount + queueCapacity);
+
+        this.queueWait = Timer.builder("order.placement.queue.wait")
+                .description("Time an accepted order waits for a worker")
+                .register(meterRegistry);
+        Gauge.builder("order.placement.queue.depth", workers, executor -> executor.getQueue().size())
+                .description("Accepted orders waiting for a worker")
+                .register(meterRegistry);
+        Gauge.builder("order.placement.workers.active", workers, ThreadPoolExecutor::getActiveCount)
+                .description("Workers currently completing an order")
+                .register(meterRegistry);
+        Gauge.builder("order.placement.workers.utilisation", workers,
+                        executor -> (double) executor.getActiveCount() / executor.getMaximumPoolSize())
+                .description("Share of workers currently busy")
+                .register(meterRegistry);
+    }
+
+    public boolean tryAcquire() {
+        return slots.tryAcquire();
+    }
+
+    public void release() {
+        slots.release();
+    }
+
+    /**
+     * Runs the task on a worker; the caller must hold a slot from {@link #tryAcquire()},
+     * which is released once the task finishes, or right away when the pipeline is shut down
+     * and rejects the task.
+     */
+    public void submit(long orderId, Runnable task) {
+        long enqueuedAt = System.nanoTime();
+        try {
+            workers.execute(() -> {
+                queueWait.record(System.nanoTime() - enqueuedAt, TimeUnit.NANOSECONDS);
+                try {
+                    task.run();
+                } catch (Exception e) {
+                    log.error("Could not complete order with order id : {}", orderId, e);
+                } finally {
+                    slots.release();
+                }
+            });
+        } catch (RejectedExecutionException e) {
+            slots.release();
+            log.warn("Order placement is shut down, order with order id : {} is left in CREATED state", orderId);
+            throw e;
+        }
+    }
+
+    public <T> T timeStage(String stage, Supplier<T> step) {
+        return meterRegistry.timer("order.placement.stage", "stage", stage).record(step);
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        workers.shutdown();
+        if (!workers.awaitTermination(30, TimeUnit.SECONDS)) {
+            log.warn("Order placement workers did not finish, {} orders left in CREATED state",
+                    workers.getQueue().size());
+            workers.shutdownNow();
+        }
+    }
+}
@@ -0,0 +1,77 @@
+package com.surya.OrderService.service;
+
+import com.github.benmanes.caffeine.cache.Cache;
+import com.github.benmanes.caffeine.cache.Caffeine;
+import com.surya.OrderService.model.OrderResponse;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.binder.cache.CaffeineCacheMetrics;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.stereotype.Component;
+
+import java.time.Duration;
+import java.util.Collection;
+import java.util.concurrent.atomic.AtomicLongArray;
+
+/**
+ * Size-bounded cache of assembled {@link OrderResponse}s in front of getOrderDetails. Only
+ * orders in a final status are put here, their responses no longer change.
+ * <p>
+ * Every change to an order's status must call {@link #invalidate(long)}. A response that was
+ * being built while its order was invalidated is not kept: callers take a token with
+ * {@link #loadToken(long)} before reading the order and hand it back to {@link #put}.
+ */
+@Component
+public class OrderResponseCache {
+
+    private static final int STRIPES = 64;
+
+    private final boolean enabled;
+    private final Cache<Long, OrderResponse> cache;
+    // bumped on every invalidation, per stripe of order ids
+    private final AtomicLongArray invalidations = new AtomicLongArray(STRIPES);
+
+    public OrderResponseCache(MeterRegistry meterRegistry,
+                              @Value("${order.cache.enabled:true}") boolean enabled,
+                              @Value("${order.cache.maximum-size:10000}") long maximumSize,
+                              @Value("${order.cache.expire-after-write:10m}") Duration expireAfterWrite) {
+        this.enabled = enabled;
+        this.cache = Caffeine.newBuilder()
+                .maximumSize(maximumSize)
+                .expireAfterWrite(expireAfterWrite)
+                .recordStats()
+                .build();
+        CaffeineCacheMetrics.monitor(meterRegistry, cache, "orderResponses");
+    }
+
+    public OrderResponse get(long orderId) {
+        return enabled ? cache.getIfPresent(orderId) : null;
+    }
+
+    public long loadToken(long orderId) {
+        return invalidations.get(stripe(orderId));
+    }
+
+    public void put(long orderId, OrderResponse orderResponse, long token) {
+        if (!enabled) {
+            return;
+        }
+        cache.put(orderId, orderResponse);
+        // an invalidation that raced with building this response wins
+        if (invalidations.get(stripe(orderId)) != token) {
+            cache.invalidate(orderId);
+        }
+    }
+
+    public void invalidate(long orderId) {
+        invalidations.incrementAndGet(stripe(orderId));
+        cache.invalidate(orderId);
+    }
+
+    public void invalidateAll(Collection<Long> orderIds) {
+        orderIds.forEach(this::invalidate);
+    }
+
+    private static int stripe(long orderId) {
+        return (int) (orderId & (STRIPES - 1));
+    }
+}
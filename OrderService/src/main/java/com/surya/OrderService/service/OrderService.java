@@ -3,8 +3,16 @@ package com.surya.OrderService.service;
 import com.surya.OrderService.model.OrderRequest;
 import com.surya.OrderService.model.OrderResponse;
 
+import java.util.List;
+
 public interface OrderService {
     long placeOrder(OrderRequest orderRequest);
 
+    long placeOrder(OrderRequest orderRequest, String idempotencyKey);
+
+    long placeOrderAsync(OrderRequest orderRequest);
+
     OrderResponse getOrderDetails(long orderId);
+
+    List<OrderResponse> getOrderDetails(List<Long> orderIds);
 }
@@ -1,31 +1,73 @@
 package com.surya.OrderService.service;
 
 import brave.messaging.ProducerResponse;
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.surya.OrderService.archive.OrderArchive;
 import com.surya.OrderService.entity.Order;
+import com.surya.OrderService.entity.OrderLine;
+import com.surya.OrderService.entity.OutboxEvent;
 import com.surya.OrderService.exception.CustomException;
 import com.surya.OrderService.external.client.PaymentService;
+import com.surya.OrderService.external.client.ProductLookupClient;
 import com.surya.OrderService.external.client.ProductService;
 import com.surya.OrderService.external.request.PaymentRequest;
+import com.surya.OrderService.external.request.ProductQuantity;
 import com.surya.OrderService.external.response.PaymentResponse;
 import com.surya.OrderService.external.response.ProductResponse;
 import com.surya.OrderService.model.OrderRequest;
 import com.surya.OrderService.model.OrderResponse;
+import com.surya.OrderService.model.OrderStatus;
+import com.surya.OrderService.repository.OrderLineRepository;
 import com.surya.OrderService.repository.OrderRepository;
+import com.surya.OrderService.repository.OutboxEventRepository;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.http.ResponseEntity;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Instant;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Collections;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeSet;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.Executor;
+import java.util.concurrent.TimeUnit;
+import java.util.function.BinaryOperator;
+import java.util.function.Function;
+import java.util.function.Supplier;
+import java.util.stream.Collectors;
 
 @Service
 @Log4j2
 public class OrderServiceImpl implements OrderService{
 
+    // payment ids are not time-ordered across payment service instances, the payment date
+    // decides which payment of an order came last and the id only breaks ties
+    private static final Comparator<PaymentResponse> PAYMENT_ORDER = Comparator
+            .comparing(PaymentResponse::getPaymentDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(PaymentResponse::getPaymentId);
+
     // we need the object of the repository to connect with it to save the data.
     @Autowired
     private OrderRepository orderRepository;
 
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+
     @Autowired
     private ProductService productService;
 
@@ -34,6 +76,56 @@ public class OrderServiceImpl implements OrderService{
 
     @Autowired
     private RestTemplate restTemplate;
+
+    @Autowired
+    private ProductLookupClient productLookupClient;
+
+    @Autowired
+    @Qualifier("orderDetailsExecutor")
+    private Executor orderDetailsExecutor;
+
+    // when enabled, product and payment details are fetched in parallel and a failed
+    // or slow call leaves that part of the response empty instead of failing the request
+    @Value("${order.details.fan-out.enabled:true}")
+    private boolean fanOutEnabled;
+
+    @Value("${order.details.fan-out.timeout-ms:2000}")
+    private long fanOutTimeoutMs;
+
+    // when enabled, concurrent reads of the same product share one product service call
+    @Value("${order.product-lookup.coalescing.enabled:true}")
+    private boolean productLookupCoalescing;
+
+    @Value("${order.details.batch.max-ids:100}")
+    private int batchMaxIds;
+
+    @Autowired
+    private OrderPlacementPipeline orderPlacementPipeline;
+
+    @Autowired
+    private OrderResponseCache orderResponseCache;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OrderIdempotencyStore orderIdempotencyStore;
+
+    // only present with order.archive.enabled
+    @Autowired(required = false)
+    private OrderArchive orderArchive;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    // when enabled, the payment request is written to the outbox together with the order
+    // and delivered by OutboxRelay instead of calling the payment service inline
+    @Value("${order.outbox.enabled:false}")
+    private boolean outboxEnabled;
+
     @Override
     public long placeOrder(OrderRequest orderRequest) {
         // create order entity -> save the data with status order created
@@ -42,82 +134,461 @@ public class OrderServiceImpl implements OrderService{
 
         log.info("Placing order request: {}", orderRequest);
 
-        productService.reduceQuantity(orderRequest.getProductId(),orderRequest.getQuantity());
+        validateLines(orderRequest);
+        reserveProducts(orderRequest);
+        if (outboxEnabled) {
+            return placeOrderViaOutbox(orderRequest);
+        }
+
         log.info("Creating order with status CREATED");
-        Order order = Order.builder()
+        Order order = createOrder(orderRequest);
+
+        OrderStatus orderStatus = doPayment(order, orderRequest);
+
+        order.setOrderStatus(orderStatus);
+        orderRepository.save(order);
+        orderResponseCache.invalidate(order.getId());
+
+        log.info("Order placed successfully with order id : {}", order.getId());
+        return order.getId();
+    }
+
+    @Override
+    public long placeOrder(OrderRequest orderRequest, String idempotencyKey) {
+        // a retried request with the same key gets the first order id back
+        // without reserving products or charging the payment again
+        if (idempotencyKey == null) {
+            return placeOrder(orderRequest);
+        }
+        return orderIdempotencyStore.placeOnce(idempotencyKey, () -> placeOrder(orderRequest));
+    }
+
+    @Override
+    public long placeOrderAsync(OrderRequest orderRequest) {
+        // save the order as CREATED and hand reservation and payment to the placement pipeline,
+        // the client polls getOrderDetails for the final status
+
+        log.info("Accepting order request: {}", orderRequest);
+
+        validateLines(orderRequest);
+        if (!orderPlacementPipeline.tryAcquire()) {
+            throw new CustomException(
+                    "Too many orders are being placed, please retry later",
+                    "TOO_MANY_REQUESTS",
+                    429
+            );
+        }
+
+        Order order;
+        try {
+            order = createOrder(orderRequest);
+        } catch (RuntimeException e) {
+            orderPlacementPipeline.release();
+            throw e;
+        }
+
+        log.info("Order accepted with order id : {}", order.getId());
+        Order accepted = order;
+        orderPlacementPipeline.submit(order.getId(), () -> completeOrder(accepted, orderRequest));
+        return order.getId();
+    }
+
+    private long placeOrderViaOutbox(OrderRequest orderRequest) {
+        log.info("Creating order with status CREATED and a payment request in the outbox");
+        Order order = transactionTemplate.execute(status -> {
+            Order created = saveOrder(orderRequest);
+
+            PaymentRequest paymentRequest = paymentRequest(created, orderRequest);
+            // the relay may deliver this more than once, the reference lets the payment service dedupe it
+            paymentRequest.setReferenceNumber("ORDER-" + created.getId());
+            outboxEventRepository.save(OutboxEvent.builder()
+                    .orderId(created.getId())
+                    .eventType(OutboxEvent.PAYMENT_REQUESTED)
+                    .payload(toJson(paymentRequest))
+                    .createdAt(Instant.now())
+                    .build());
+            return created;
+        });
+
+        log.info("Order created with order id : {}, payment is pending in the outbox", order.getId());
+        return order.getId();
+    }
+
+    private String toJson(PaymentRequest paymentRequest) {
+        try {
+            return objectMapper.writeValueAsString(paymentRequest);
+        } catch (JsonProcessingException e) {
+            throw new IllegalStateException("Could not serialize payment request for order " + paymentRequest.getOrderId(), e);
+        }
+    }
+
+    private void completeOrder(Order order, OrderRequest orderRequest) {
+        try {
+            orderPlacementPipeline.timeStage("reservation", () -> reserveProducts(orderRequest));
+        } catch (Exception e) {
+            log.error("Error occurred in reserving products, changing order status to RESERVATION_FAILED");
+            order.setOrderStatus(OrderStatus.RESERVATION_FAILED);
+            orderPlacementPipeline.timeStage("completion", () -> orderRepository.save(order));
+            orderResponseCache.invalidate(order.getId());
+            return;
+        }
+
+        OrderStatus orderStatus = orderPlacementPipeline.timeStage("payment", () -> doPayment(order, orderRequest));
+
+        order.setOrderStatus(orderStatus);
+        orderPlacementPipeline.timeStage("completion", () -> orderRepository.save(order));
+        orderResponseCache.invalidate(order.getId());
+        log.info("Order placed with order id : {} and status : {}", order.getId(), orderStatus);
+    }
+
+    private static boolean hasLines(OrderRequest orderRequest) {
+        return orderRequest.getLines() != null && !orderRequest.getLines().isEmpty();
+    }
+
+    private void validateLines(OrderRequest orderRequest) {
+        if (hasLines(orderRequest)
+                && orderRequest.getLines().stream().anyMatch(line -> line.getQuantity() <= 0)) {
+            throw new CustomException(
+                    "Every order line needs a quantity above 0",
+                    "INVALID_ORDER_LINE",
+                    400
+            );
+        }
+    }
+
+    // one product service call for the whole order, a multi-line order is reserved all or nothing
+    private ResponseEntity<Void> reserveProducts(OrderRequest orderRequest) {
+        if (!hasLines(orderRequest)) {
+            return productService.reduceQuantity(orderRequest.getProductId(), orderRequest.getQuantity());
+        }
+        return productService.reduceQuantities(orderRequest.getLines()
+                .stream()
+                .map(line -> ProductQuantity.builder()
+                        .productId(line.getProductId())
+                        .quantity(line.getQuantity())
+                        .build())
+                .collect(Collectors.toList()));
+    }
+
+    private Order createOrder(OrderRequest orderRequest) {
+        if (!hasLines(orderRequest)) {
+            return orderRepository.save(newOrder(orderRequest));
+        }
+        return transactionTemplate.execute(status -> saveOrder(orderRequest));
+    }
+
+    // the caller provides the transaction when the order has lines
+    private Order saveOrder(OrderRequest orderRequest) {
+        Order order = orderRepository.save(newOrder(orderRequest));
+        if (hasLines(orderRequest)) {
+            orderLineRepository.saveAll(orderRequest.getLines()
+                    .stream()
+                    .map(line -> OrderLine.builder()
+                            .orderId(order.getId())
+                            .productId(line.getProductId())
+                            .quantity(line.getQuantity())
+                            .build())
+                    .collect(Collectors.toList()));
+        }
+        return order;
+    }
+
+    private Order newOrder(OrderRequest orderRequest) {
+        if (hasLines(orderRequest)) {
+            return Order.builder()
+                    .lineCount(orderRequest.getLines().size())
+                    .amount(orderRequest.getTotalAmount())
+                    .orderDate(Instant.now())
+                    .orderStatus(OrderStatus.CREATED)
+                    .quantity(orderRequest.getLines().stream().mapToLong(OrderRequest.LineItem::getQuantity).sum())
+                    .build();
+        }
+        return Order.builder()
                 .productId(orderRequest.getProductId())
                 .amount(orderRequest.getTotalAmount())
                 .orderDate(Instant.now())
-                .orderStatus("CREATED")
+                .orderStatus(OrderStatus.CREATED)
                 .quantity(orderRequest.getQuantity())
                 .build();
+    }
 
-        order = orderRepository.save(order);
-
+    // returns the order status the payment outcome leads to
+    private OrderStatus doPayment(Order order, OrderRequest orderRequest) {
         log.info("Calling the payment service to complete the payment");
 
-        PaymentRequest paymentRequest =
-                PaymentRequest.builder()
-                        .orderId(order.getId())
-                        .amount(orderRequest.getTotalAmount())
-                        .paymentMode(orderRequest.getPaymentMode())
-                        .build();
-
-        String orderStatus = null;
-
         try{
-            paymentService.doPayment(paymentRequest);
+            paymentService.doPayment(paymentRequest(order, orderRequest));
             log.info("Payment done successfully, changing order status to PLACED");
-            orderStatus = "PLACED";
+            return OrderStatus.PLACED;
         }catch (Exception e){
             log.error("Error occurred in payment, changing order status to PAYMENT_FAILED");
-            orderStatus = "PAYMENT_FAILED";
+            return OrderStatus.PAYMENT_FAILED;
         }
+    }
 
-        order.setOrderStatus(orderStatus);
-        orderRepository.save(order);
+    private PaymentRequest paymentRequest(Order order, OrderRequest orderRequest) {
+        return PaymentRequest.builder()
+                .orderId(order.getId())
+                .amount(orderRequest.getTotalAmount())
+                .paymentMode(orderRequest.getPaymentMode())
+                .build();
+    }
 
-        log.info("Order placed successfully with order id : {}", order.getId());
-        return order.getId();
+    // only placed orders have a payment to look up, orders still in the pipeline or failed do not
+    private static boolean hasPayment(Order order) {
+        return order.getOrderStatus() == OrderStatus.PLACED;
     }
 
     @Override
     public OrderResponse getOrderDetails(long orderId) {
         log.info("Get order details for order id : {}", orderId);
+        OrderResponse cached = orderResponseCache.get(orderId);
+        if (cached != null) {
+            return cached;
+        }
+
+        long cacheToken = orderResponseCache.loadToken(orderId);
         Order order = orderRepository.findById(orderId)
+                .or(() -> orderArchive == null ? Optional.<Order>empty() : orderArchive.findById(orderId))
                 .orElseThrow(() -> new CustomException(
                         "Order not found for the order id : " + orderId,
                         "NOT_FOUND",
                         404
                 ));
 
-        log.info("Invoking the product service to the get the product for id : {}", order.getProductId());
-        ProductResponse productResponse =
+        // a multi-line order needs its line products instead of the single product
+        List<OrderLine> lines = order.getLineCount() > 0
+                ? orderLineRepository.findByOrderIdOrderByIdAsc(orderId)
+                : Collections.emptyList();
+        Set<Long> lineProductIds = lines.stream()
+                .map(OrderLine::getProductId)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        ProductResponse productResponse;
+        Map<Long, ProductResponse> lineProducts;
+        PaymentResponse paymentResponse;
+        if (fanOutEnabled) {
+            CompletableFuture<ProductResponse> productFuture = lines.isEmpty()
+                    ? fetchAsync(() -> getProduct(order.getProductId()), "product", orderId)
+                    : CompletableFuture.completedFuture(null);
+            CompletableFuture<Map<Long, ProductResponse>> lineProductsFuture = lines.isEmpty()
+                    ? CompletableFuture.completedFuture(null)
+                    : fetchAsync(() -> getProducts(lineProductIds), "product", orderId);
+            CompletableFuture<PaymentResponse> paymentFuture = hasPayment(order)
+                    ? fetchAsync(() -> getPayment(orderId), "payment", orderId)
+                    : CompletableFuture.completedFuture(null);
+
+            productResponse = productFuture.join();
+            lineProducts = lineProductsFuture.join();
+            paymentResponse = paymentFuture.join();
+        } else {
+            productResponse = lines.isEmpty() ? getProduct(order.getProductId()) : null;
+            lineProducts = lines.isEmpty() ? null : getProducts(lineProductIds);
+            paymentResponse = hasPayment(order) ? getPayment(orderId) : null;
+        }
+
+        OrderResponse orderResponse = toOrderResponse(order, productResponse, paymentResponse);
+        if (!lines.isEmpty()) {
+            addLines(orderResponse, lines, lineProducts);
+        }
+        cacheIfComplete(orderResponse, cacheToken);
+        return orderResponse;
+    }
+
+    @Override
+    public List<OrderResponse> getOrderDetails(List<Long> orderIds) {
+        log.info("Get order details for order ids : {}", orderIds);
+        Set<Long> uniqueOrderIds = new LinkedHashSet<>(orderIds);
+        if (uniqueOrderIds.size() > batchMaxIds) {
+            throw new CustomException(
+                    "At most " + batchMaxIds + " order ids can be requested at once",
+                    "TOO_MANY_IDS",
+                    400
+            );
+        }
+
+        Map<Long, OrderResponse> orderResponses = new HashMap<>();
+        Map<Long, Long> cacheTokens = new HashMap<>();
+        for (Long orderId : uniqueOrderIds) {
+            OrderResponse cached = orderResponseCache.get(orderId);
+            if (cached != null) {
+                orderResponses.put(orderId, cached);
+            } else {
+                cacheTokens.put(orderId, orderResponseCache.loadToken(orderId));
+            }
+        }
+
+        if (!cacheTokens.isEmpty()) {
+            loadOrderDetails(cacheTokens.keySet()).forEach(orderResponse -> {
+                orderResponses.put(orderResponse.getOrderId(), orderResponse);
+                cacheIfComplete(orderResponse, cacheTokens.get(orderResponse.getOrderId()));
+            });
+        }
+
+        return uniqueOrderIds.stream()
+                .map(orderResponses::get)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList());
+    }
+
+    private List<OrderResponse> loadOrderDetails(Set<Long> orderIds) {
+        Map<Long, Order> orders = orderRepository.findAllById(orderIds)
+                .stream()
+                .collect(Collectors.toMap(Order::getId, Function.identity()));
+        if (orderArchive != null && orders.size() < orderIds.size()) {
+            orderArchive.findAllById(orderIds.stream()
+                            .filter(orderId -> !orders.containsKey(orderId))
+                            .collect(Collectors.toList()))
+                    .forEach(order -> orders.put(order.getId(), order));
+        }
+        if (orders.isEmpty()) {
+            return Collections.emptyList();
+        }
+
+        Set<Long> multiLineOrderIds = orders.values().stream()
+                .filter(order -> order.getLineCount() > 0)
+                .map(Order::getId)
+                .collect(Collectors.toSet());
+        Map<Long, List<OrderLine>> lines = multiLineOrderIds.isEmpty()
+                ? Collections.emptyMap()
+                : orderLineRepository.findByOrderIdInOrderByIdAsc(multiLineOrderIds)
+                        .stream()
+                        .collect(Collectors.groupingBy(OrderLine::getOrderId));
+
+        // one bulk call per downstream, with product ids deduplicated across orders and lines
+        Set<Long> productIds = orders.values().stream()
+                .filter(order -> order.getLineCount() == 0)
+                .map(Order::getProductId)
+                .collect(Collectors.toCollection(TreeSet::new));
+        lines.values().forEach(orderLines -> orderLines.forEach(line -> productIds.add(line.getProductId())));
+        Set<Long> paidOrderIds = orders.values().stream()
+                .filter(OrderServiceImpl::hasPayment)
+                .map(Order::getId)
+                .collect(Collectors.toCollection(TreeSet::new));
+
+        Map<Long, ProductResponse> products;
+        Map<Long, PaymentResponse> payments;
+        if (fanOutEnabled) {
+            CompletableFuture<Map<Long, ProductResponse>> productsFuture =
+                    fetchAsync(() -> getProducts(productIds), "product", orders.keySet());
+            CompletableFuture<Map<Long, PaymentResponse>> paymentsFuture = paidOrderIds.isEmpty()
+                    ? CompletableFuture.completedFuture(Collections.emptyMap())
+                    : fetchAsync(() -> getPayments(paidOrderIds), "payment", paidOrderIds);
+
+            products = Objects.requireNonNullElse(productsFuture.join(), Collections.emptyMap());
+            payments = Objects.requireNonNullElse(paymentsFuture.join(), Collections.emptyMap());
+        } else {
+            products = getProducts(productIds);
+            payments = paidOrderIds.isEmpty() ? Collections.emptyMap() : getPayments(paidOrderIds);
+        }
+
+        return orders.values().stream()
+                .map(order -> {
+                    if (order.getLineCount() == 0) {
+                        return toOrderResponse(order, products.get(order.getProductId()), payments.get(order.getId()));
+                    }
+                    OrderResponse orderResponse = toOrderResponse(order, null, payments.get(order.getId()));
+                    addLines(orderResponse, lines.getOrDefault(order.getId(), Collections.emptyList()), products);
+                    return orderResponse;
+                })
+                .collect(Collectors.toList());
+    }
+
+    // partial responses are not cached so the next read retries the missing part
+    // only orders in a final status are cached: the outbox relay or the placement pipeline of
+    // another instance finishes a CREATED order, and invalidate() only reaches this instance
+    private void cacheIfComplete(OrderResponse orderResponse, long cacheToken) {
+        if (orderResponse.getOrderStatus() != null && orderResponse.getOrderStatus().isFinal()
+                && !orderResponse.isProductDetailsMissing() && !orderResponse.isPaymentDetailsMissing()) {
+            orderResponseCache.put(orderResponse.getOrderId(), orderResponse, cacheToken);
+        }
+    }
+
+    private ProductResponse getProduct(long productId) {
+        if (productLookupCoalescing) {
+            return productLookupClient.getProduct(productId);
+        }
+        log.info("Invoking the product service to the get the product for id : {}", productId);
+        return restTemplate.getForObject(
+                "http://PRODUCT-SERVICE/product/" + productId,
+                ProductResponse.class
+        );
+    }
+
+    private PaymentResponse getPayment(long orderId) {
+        log.info("Getting payment details from the payment service");
+        return restTemplate.getForObject(
+                "http://PAYMENT-SERVICE/payment/order/" + orderId,
+                PaymentResponse.class
+        );
+    }
+
+    private Map<Long, ProductResponse> getProducts(Collection<Long> productIds) {
+        log.info("Invoking the product service to the get the products for ids : {}", productIds);
+        ProductResponse[] productResponses =
                 restTemplate.getForObject(
-                        "http://PRODUCT-SERVICE/product/" + order.getProductId(),
-                        ProductResponse.class
+                        "http://PRODUCT-SERVICE/product?ids=" + joinIds(productIds),
+                        ProductResponse[].class
                 );
+        if (productResponses == null) {
+            return Collections.emptyMap();
+        }
+        return Arrays.stream(productResponses)
+                .collect(Collectors.toMap(ProductResponse::getProductId, Function.identity()));
+    }
 
-        log.info("Getting payment details from the payment service");
-        PaymentResponse paymentResponse =
+    private Map<Long, PaymentResponse> getPayments(Collection<Long> orderIds) {
+        log.info("Getting payment details from the payment service for order ids : {}", orderIds);
+        PaymentResponse[] paymentResponses =
                 restTemplate.getForObject(
-                        "http://PAYMENT-SERVICE/payment/order/" + orderId,
-                        PaymentResponse.class
+                        "http://PAYMENT-SERVICE/payment/orders?ids=" + joinIds(orderIds),
+                        PaymentResponse[].class
                 );
+        if (paymentResponses == null) {
+            return Collections.emptyMap();
+        }
+        // keep the latest payment when an order has more than one, the same rule the payment service uses
+        return Arrays.stream(paymentResponses)
+                .collect(Collectors.toMap(PaymentResponse::getOrderId, Function.identity(),
+                        BinaryOperator.maxBy(PAYMENT_ORDER)));
+    }
 
-        OrderResponse.ProductDetails productDetails =
-                OrderResponse.ProductDetails.builder()
-                        .productId(productResponse.getProductId())
-                        .productName(productResponse.getProductName())
-                        .build();
+    private static String joinIds(Collection<Long> ids) {
+        return ids.stream()
+                .map(String::valueOf)
+                .collect(Collectors.joining(","));
+    }
 
-        OrderResponse.PaymentDetails paymentDetails =
-                OrderResponse.PaymentDetails.builder()
-                        .paymentId(paymentResponse.getPaymentId())
-                        .paymentStatus(paymentResponse.getStatus())
-                        .paymentDate(paymentResponse.getPaymentDate())
-                        .paymentMode(paymentResponse.getPaymentMode())
-                        .build();
+    // runs a downstream call on the fan-out pool, a failure or timeout completes with null
+    private <T> CompletableFuture<T> fetchAsync(Supplier<T> call, String part, Object orderId) {
+        return CompletableFuture.supplyAsync(call, orderDetailsExecutor)
+                .orTimeout(fanOutTimeoutMs, TimeUnit.MILLISECONDS)
+                .exceptionally(e -> {
+                    log.warn("Could not get {} details for order id : {}", part, orderId, e);
+                    return null;
+                });
+    }
+
+    private OrderResponse toOrderResponse(Order order,
+                                          ProductResponse productResponse,
+                                          PaymentResponse paymentResponse) {
+        OrderResponse.ProductDetails productDetails = null;
+        if (productResponse != null) {
+            productDetails = OrderResponse.ProductDetails.builder()
+                    .productId(productResponse.getProductId())
+                    .productName(productResponse.getProductName())
+                    .build();
+        }
+
+        OrderResponse.PaymentDetails paymentDetails = null;
+        if (paymentResponse != null) {
+            paymentDetails = OrderResponse.PaymentDetails.builder()
+                    .paymentId(paymentResponse.getPaymentId())
+                    .paymentStatus(paymentResponse.getStatus())
+                    .paymentDate(paymentResponse.getPaymentDate())
+                    .paymentMode(paymentResponse.getPaymentMode())
+                    .build();
+        }
 
         OrderResponse orderResponse =
                 OrderResponse.builder()
@@ -127,7 +598,25 @@ public class OrderServiceImpl implements OrderService{
                         .amount(order.getAmount())
                         .productDetails(productDetails)
                         .paymentDetails(paymentDetails)
+                        .productDetailsMissing(productDetails == null)
+                        .paymentDetailsMissing(hasPayment(order) && paymentDetails == null)
                         .build();
         return orderResponse;
     }
+
+    // products is null when the product service did not answer
+    private void addLines(OrderResponse orderResponse, List<OrderLine> lines, Map<Long, ProductResponse> products) {
+        Map<Long, ProductResponse> lineProducts = Objects.requireNonNullElse(products, Collections.emptyMap());
+        orderResponse.setLines(lines.stream()
+                .map(line -> OrderResponse.LineDetails.builder()
+                        .productId(line.getProductId())
+                        .productName(lineProducts.containsKey(line.getProductId())
+                                ? lineProducts.get(line.getProductId()).getProductName()
+                                : null)
+                        .quantity(line.getQuantity())
+                        .build())
+                .collect(Collectors.toList()));
+        orderResponse.setProductDetailsMissing(lines.stream()
+                .anyMatch(line -> !lineProducts.containsKey(line.getProductId())));
+    }
 }
@@ -0,0 +1,232 @@
+package com.surya.OrderService.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.surya.OrderService.entity.OutboxEvent;
+import com.surya.OrderService.exception.CustomException;
+import com.surya.OrderService.external.client.PaymentService;
+import com.surya.OrderService.external.request.PaymentRequest;
+import com.surya.OrderService.model.OrderStatus;
+import com.surya.OrderService.repository.OrderRepository;
+import com.surya.OrderService.repository.OutboxEventRepository;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.http.HttpStatus;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.UUID;
+import java.util.stream.Collectors;
+
+/**
+ * Delivers pending payment requests from the order outbox to the payment service in batches.
+ * <p>
+ * Delivery is at-least-once: a batch that reached the payment service but was not marked as
+ * processed here is sent again, and the payment service skips reference numbers it has
+ * already recorded.
+ * <p>
+ * Each run claims its events for {@code claim-timeout} with a conditional update, so several
+ * OrderService instances relay different events. The timeout must cover one delivery; when it
+ * runs out first another instance may send the events again, which the reference numbers make
+ * harmless. When the payment service rejects a batch its events are delivered one at a time,
+ * so one rejected payment does not hold back the others. An event is only given up after
+ * {@code max-attempts} once the payment service confirms it holds no payment with its
+ * reference number; an event whose payload cannot be read is given up at once.
+ */
+@Component
+@ConditionalOnProperty(name = "order.outbox.enabled", havingValue = "true")
+@Log4j2
+public class OutboxRelay {
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderResponseCache orderResponseCache;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Value("${order.outbox.relay.batch-size:100}")
+    private int batchSize;
+
+    @Value("${order.outbox.relay.max-attempts:5}")
+    private int maxAttempts;
+
+    @Value("${order.outbox.relay.claim-timeout:60s}")
+    private Duration claimTimeout;
+
+    @Scheduled(fixedDelayString = "${order.outbox.relay.interval-ms:500}")
+    public void relayPending() {
+        // keep going while batches come back full, there is probably more waiting
+        int relayed;
+        do {
+            relayed = relayBatch();
+        } while (relayed == batchSize);
+    }
+
+    /**
+     * Claims the oldest pending events no other run holds and sends them as one payment batch,
+     * falling back to one payment per event when the batch is not accepted.
+     *
+     * @return the number of events delivered, 0 when nothing was pending or delivery failed
+     */
+    public int relayBatch() {
+        List<OutboxEvent> events = claim();
+        if (events.isEmpty()) {
+            return 0;
+        }
+
+        Map<OutboxEvent, PaymentRequest> paymentRequests = new LinkedHashMap<>();
+        List<OutboxEvent> unreadable = new ArrayList<>();
+        for (OutboxEvent event : events) {
+            try {
+                paymentRequests.put(event, objectMapper.readValue(event.getPayload(), PaymentRequest.class));
+            } catch (JsonProcessingException e) {
+                log.error("Unreadable outbox event with id {}, changing order {} status to PAYMENT_FAILED",
+                        event.getId(), event.getOrderId(), e);
+                unreadable.add(event);
+            }
+        }
+        if (!unreadable.isEmpty()) {
+            // never sent, nothing can have been charged for it
+            complete(unreadable, OrderStatus.PAYMENT_FAILED);
+        }
+        if (paymentRequests.isEmpty()) {
+            return 0;
+        }
+
+        List<OutboxEvent> delivered = new ArrayList<>();
+        List<OutboxEvent> failed = new ArrayList<>();
+        try {
+            paymentService.doPayments(new ArrayList<>(paymentRequests.values()));
+            delivered.addAll(paymentRequests.keySet());
+        } catch (Exception e) {
+            log.warn("Error occurred in delivering {} payment requests as a batch, delivering them one by one",
+                    paymentRequests.size(), e);
+            deliverEach(paymentRequests, delivered, failed);
+        }
+
+        if (!delivered.isEmpty()) {
+            complete(delivered, OrderStatus.PLACED);
+            log.info("Payment done for {} orders, changed order status to PLACED", delivered.size());
+        }
+        if (!failed.isEmpty()) {
+            recordFailedAttempt(failed, paymentRequests);
+        }
+        return delivered.size();
+    }
+
+    private List<OutboxEvent> claim() {
+        String claimedBy = UUID.randomUUID().toString();
+        return transactionTemplate.execute(status -> {
+            Instant now = Instant.now();
+            List<Long> candidates = outboxEventRepository.findClaimable(now, PageRequest.of(0, batchSize));
+            if (candidates.isEmpty()) {
+                return List.of();
+            }
+            outboxEventRepository.claim(candidates, claimedBy, now.plus(claimTimeout), now);
+            return outboxEventRepository.findByClaimedByOrderByIdAsc(claimedBy);
+        });
+    }
+
+    private void deliverEach(Map<OutboxEvent, PaymentRequest> paymentRequests,
+                             List<OutboxEvent> delivered, List<OutboxEvent> failed) {
+        boolean reachable = true;
+        for (Map.Entry<OutboxEvent, PaymentRequest> entry : paymentRequests.entrySet()) {
+            if (!reachable) {
+                failed.add(entry.getKey());
+                continue;
+            }
+            try {
+                paymentService.doPayment(entry.getValue());
+                delivered.add(entry.getKey());
+            } catch (Exception e) {
+                log.error("Error occurred in delivering the payment request of order {}, will retry",
+                        entry.getKey().getOrderId(), e);
+                failed.add(entry.getKey());
+                // without an answer the rest would only wait for the same timeout
+                reachable = isAnswer(e);
+            }
+        }
+    }
+
+    private void recordFailedAttempt(List<OutboxEvent> failed, Map<OutboxEvent, PaymentRequest> paymentRequests) {
+        List<OutboxEvent> recorded = new ArrayList<>();
+        List<OutboxEvent> notRecorded = new ArrayList<>();
+        for (OutboxEvent event : failed) {
+            if (event.getAttempts() + 1 < maxAttempts) {
+                continue;
+            }
+            // an attempt that timed out may still have been recorded, ask before giving up
+            String referenceNumber = paymentRequests.get(event).getReferenceNumber();
+            try {
+                paymentService.getPaymentIdByReferenceNumber(referenceNumber);
+                recorded.add(event);
+            } catch (CustomException e) {
+                if (e.getStatus() == HttpStatus.NOT_FOUND.value()) {
+                    notRecorded.add(event);
+                } else {
+                    log.warn("Could not check payment {} of order {}, will retry", referenceNumber, event.getOrderId(), e);
+                }
+            } catch (Exception e) {
+                log.warn("Could not check payment {} of order {}, will retry", referenceNumber, event.getOrderId(), e);
+            }
+        }
+
+        transactionTemplate.executeWithoutResult(status -> outboxEventRepository.incrementAttempts(failed.stream()
+                .map(OutboxEvent::getId)
+                .collect(Collectors.toList())));
+        if (!recorded.isEmpty()) {
+            log.info("Payment was recorded for orders {} by an earlier attempt, changing order status to PLACED",
+                    orderIds(recorded));
+            complete(recorded, OrderStatus.PLACED);
+        }
+        if (!notRecorded.isEmpty()) {
+            log.error("Payment could not be delivered for orders {}, changing order status to PAYMENT_FAILED",
+                    orderIds(notRecorded));
+            complete(notRecorded, OrderStatus.PAYMENT_FAILED);
+        }
+    }
+
+    private void complete(List<OutboxEvent> events, OrderStatus orderStatus) {
+        List<Long> orderIds = orderIds(events);
+        transactionTemplate.executeWithoutResult(status -> {
+            orderRepository.updateStatus(orderIds, orderStatus);
+            outboxEventRepository.markProcessed(events.stream()
+                    .map(OutboxEvent::getId)
+                    .collect(Collectors.toList()), Instant.now());
+        });
+        orderResponseCache.invalidateAll(orderIds);
+    }
+
+    private static List<Long> orderIds(List<OutboxEvent> events) {
+        return events.stream()
+                .map(OutboxEvent::getOrderId)
+                .collect(Collectors.toList());
+    }
+
+    // an error response from the payment service itself, as opposed to a timeout or an open circuit
+    private static boolean isAnswer(Exception e) {
+        return e instanceof CustomException && ((CustomException) e).getStatus() < 500;
+    }
+}
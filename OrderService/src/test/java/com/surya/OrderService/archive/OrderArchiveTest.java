@@ -0,0 +1,118 @@
+package com.surya.OrderService.archive;
+
+import com.surya.OrderService.entity.Order;
+import com.surya.OrderService.external.client.PaymentService;
+import com.surya.OrderService.external.client.ProductService;
+import com.surya.OrderService.model.OrderStatus;
+import com.surya.OrderService.repository.IdempotencyKeyRepository;
+import com.surya.OrderService.repository.OrderRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.temporal.ChronoUnit;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+import java.util.stream.Collectors;
+
+@SpringBootTest(properties = {
+        "order.archive.enabled=true",
+        "order.archive.older-than=30d",
+        "order.archive.rows-per-run=7",
+        "order.archive.block-rows=4",
+        "order.archive.initial-delay-ms=3600000"
+})
+public class OrderArchiveTest {
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("order-archive").toString();
+        registry.add("order.archive.directory", () -> directory);
+    }
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderArchive orderArchive;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @BeforeEach
+    void cleanUp(){
+        idempotencyKeyRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Archive - finished old orders leave the table and are still found by id")
+    void test_When_Orders_Archived_then_Found_By_Id(){
+        Instant old = Instant.now().minus(Duration.ofDays(400)).truncatedTo(ChronoUnit.SECONDS);
+        List<Long> archivedIds = new ArrayList<>();
+        for (int i = 0; i < 20; i++) {
+            // spread over about three months, so the run writes several segments
+            OrderStatus orderStatus = i % 4 == 0 ? OrderStatus.PAYMENT_FAILED : OrderStatus.PLACED;
+            archivedIds.add(save(old.plus(Duration.ofDays(i * 4L)), orderStatus, 10 + i));
+        }
+        long inProgress = save(old, OrderStatus.CREATED, 1);
+        long recent = save(Instant.now(), OrderStatus.PLACED, 1);
+
+        Assertions.assertEquals(20, orderArchive.archive());
+
+        Assertions.assertEquals(List.of(inProgress, recent), orderRepository.findAll().stream()
+                .map(Order::getId)
+                .sorted()
+                .collect(Collectors.toList()));
+        for (int i = 0; i < archivedIds.size(); i++) {
+            Order order = orderArchive.findById(archivedIds.get(i)).orElseThrow();
+            Assertions.assertEquals(10 + i, order.getQuantity());
+            Assertions.assertEquals(i % 4 == 0 ? OrderStatus.PAYMENT_FAILED : OrderStatus.PLACED, order.getOrderStatus());
+            Assertions.assertEquals(old.plus(Duration.ofDays(i * 4L)), order.getOrderDate());
+        }
+        Assertions.assertEquals(Optional.empty(), orderArchive.findById(recent));
+        Assertions.assertEquals(Optional.empty(), orderArchive.findById(Long.MAX_VALUE));
+
+        List<Order> found = orderArchive.findAllById(List.of(archivedIds.get(3), recent, archivedIds.get(17)));
+        Assertions.assertEquals(List.of(archivedIds.get(3), archivedIds.get(17)),
+                found.stream().map(Order::getId).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Archive - recent orders and orders still being placed stay in the table")
+    void test_When_Orders_Recent_Or_In_Progress_then_Not_Archived(){
+        long inProgress = save(Instant.now().minus(Duration.ofDays(400)), OrderStatus.CREATED, 1);
+        long recent = save(Instant.now().minus(Duration.ofDays(1)), OrderStatus.PLACED, 1);
+
+        Assertions.assertEquals(0, orderArchive.archive());
+        Assertions.assertEquals(2, orderRepository.count());
+        Assertions.assertTrue(orderArchive.findAllById(List.of(inProgress, recent)).isEmpty());
+    }
+
+    private long save(Instant orderDate, OrderStatus orderStatus, long quantity) {
+        return orderRepository.save(Order.builder()
+                .productId(1)
+                .quantity(quantity)
+                .orderDate(orderDate)
+                .orderStatus(orderStatus)
+                .amount(100 * quantity)
+                .build()).getId();
+    }
+}
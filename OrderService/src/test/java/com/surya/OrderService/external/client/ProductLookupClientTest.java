@@ -0,0 +1,143 @@
+package com.surya.OrderService.external.client;
+
+import com.surya.OrderService.external.event.ProductChangedEvent;
+import com.surya.OrderService.external.response.ProductResponse;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.web.client.RestTemplate;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+public class ProductLookupClientTest {
+
+    private static final int CALLERS = 32;
+
+    private final RestTemplate restTemplate = Mockito.mock(RestTemplate.class);
+
+    @Test
+    @DisplayName("Get Product - parallel callers for the same id share one downstream request")
+    void test_When_Parallel_Lookups_For_Same_Product_then_One_Request() throws Exception {
+        ProductLookupClient client = new ProductLookupClient(restTemplate, new SimpleMeterRegistry(), Duration.ZERO, 10_000);
+        CountDownLatch requestStarted = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(restTemplate.getForObject("http://PRODUCT-SERVICE/product/1", ProductResponse.class))
+                .thenAnswer(invocation -> {
+                    requestStarted.countDown();
+                    release.await();
+                    return getMockProductResponse();
+                });
+
+        ExecutorService callers = Executors.newFixedThreadPool(CALLERS);
+        List<Future<ProductResponse>> results = new ArrayList<>();
+        results.add(callers.submit(() -> client.getProduct(1)));
+        requestStarted.await();
+        for (int i = 1; i < CALLERS; i++) {
+            results.add(callers.submit(() -> client.getProduct(1)));
+        }
+        // let every caller reach the in-flight request before it completes
+        while (client.coalescedCount() < CALLERS - 1) {
+            Thread.sleep(5);
+        }
+        release.countDown();
+
+        ProductResponse first = results.get(0).get();
+        for (Future<ProductResponse> result : results) {
+            Assertions.assertSame(first, result.get());
+        }
+        callers.shutdown();
+
+        Mockito.verify(restTemplate, Mockito.times(1))
+                .getForObject(ArgumentMatchers.anyString(), ArgumentMatchers.eq(ProductResponse.class));
+        Assertions.assertEquals(1, client.issuedCount());
+        Assertions.assertEquals(CALLERS - 1, client.coalescedCount());
+    }
+
+    @Test
+    @DisplayName("Get Product - a failed request is shared and the next lookup tries again")
+    void test_When_Lookup_Fails_then_Next_Lookup_Issues_New_Request() {
+        ProductLookupClient client = new ProductLookupClient(restTemplate, new SimpleMeterRegistry(), Duration.ZERO, 10_000);
+        Mockito.when(restTemplate.getForObject("http://PRODUCT-SERVICE/product/1", ProductResponse.class))
+                .thenThrow(new IllegalStateException("product service down"))
+                .thenReturn(getMockProductResponse());
+
+        Assertions.assertThrows(IllegalStateException.class, () -> client.getProduct(1));
+        Assertions.assertEquals("iPhone", client.getProduct(1).getProductName());
+        Assertions.assertEquals(2, client.issuedCount());
+    }
+
+    @Test
+    @DisplayName("Get Product - near-cache answers repeated lookups")
+    void test_When_Near_Cache_Enabled_then_Result_Reused() {
+        ProductLookupClient client = new ProductLookupClient(restTemplate, new SimpleMeterRegistry(), Duration.ofMinutes(1), 10_000);
+        Mockito.when(restTemplate.getForObject("http://PRODUCT-SERVICE/product/1", ProductResponse.class))
+                .thenReturn(getMockProductResponse());
+
+        client.getProduct(1);
+        ProductResponse cached = client.getProduct(1);
+
+        Mockito.verify(restTemplate, Mockito.times(1))
+                .getForObject("http://PRODUCT-SERVICE/product/1", ProductResponse.class);
+        Assertions.assertEquals("iPhone", cached.getProductName());
+        Assertions.assertEquals(100, cached.getPrice());
+        // quantities change with every order and are not kept
+        Assertions.assertEquals(0, cached.getQuantity());
+    }
+
+    @Test
+    @DisplayName("Get Product - change notification evicts the near-cache entry")
+    void test_When_Product_Changed_then_Next_Lookup_Refetches() {
+        SimpleMeterRegistry meterRegistry = new SimpleMeterRegistry();
+        ProductLookupClient client = new ProductLookupClient(restTemplate, meterRegistry, Duration.ofMinutes(1), 10_000);
+        ProductResponse changed = getMockProductResponse();
+        changed.setProductName("iPhone 15");
+        Mockito.when(restTemplate.getForObject("http://PRODUCT-SERVICE/product/1", ProductResponse.class))
+                .thenReturn(getMockProductResponse())
+                .thenReturn(changed);
+
+        client.getProduct(1);
+        client.onProductChanged(ProductChangedEvent.builder()
+                .productId(1)
+                .changedAt(Instant.now())
+                .build());
+
+        Assertions.assertEquals("iPhone 15", client.getProduct(1).getProductName());
+        Assertions.assertEquals(1, meterRegistry.get("order.product.near-cache.staleness").timer().count());
+    }
+
+    @Test
+    @DisplayName("Get Product - change notified during a lookup keeps the result out of the near-cache")
+    void test_When_Product_Changed_During_Lookup_then_Result_Not_Cached() {
+        ProductLookupClient client = new ProductLookupClient(restTemplate, new SimpleMeterRegistry(), Duration.ofMinutes(1), 10_000);
+        Mockito.when(restTemplate.getForObject("http://PRODUCT-SERVICE/product/1", ProductResponse.class))
+                .thenAnswer(invocation -> {
+                    client.onProductChanged(ProductChangedEvent.builder().productId(1).build());
+                    return getMockProductResponse();
+                });
+
+        client.getProduct(1);
+        client.getProduct(1);
+
+        Mockito.verify(restTemplate, Mockito.times(2))
+                .getForObject("http://PRODUCT-SERVICE/product/1", ProductResponse.class);
+    }
+
+    private ProductResponse getMockProductResponse() {
+        return ProductResponse.builder()
+                .productId(1)
+                .productName("iPhone")
+                .price(100)
+                .quantity(200)
+                .build();
+    }
+}
@@ -0,0 +1,95 @@
+package com.surya.OrderService.external.http;
+
+import com.sun.net.httpserver.HttpServer;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.http.client.HttpComponentsClientHttpRequestFactory;
+import org.springframework.web.client.RestTemplate;
+
+import java.io.IOException;
+import java.io.OutputStream;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Requests per second against a local stub server, comparing a bare {@code new RestTemplate()}
+ * with one backed by a {@link DownstreamHttpClients} pool.
+ * <p>
+ * Run with {@code mvn test -Dtest=DownstreamHttpClientsBenchmarkTest -Dbenchmark=true}.
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Log4j2
+public class DownstreamHttpClientsBenchmarkTest {
+
+    private static final int THREADS = 32;
+    private static final int REQUESTS_PER_THREAD = 2000;
+    private static final byte[] BODY =
+            "{\"productName\":\"iPhone\",\"productId\":1,\"quantity\":10,\"price\":100}"
+                    .getBytes(StandardCharsets.UTF_8);
+
+    private HttpServer server;
+    private String url;
+
+    @BeforeEach
+    void startStubServer() throws IOException {
+        server = HttpServer.create(new InetSocketAddress("127.0.0.1", 0), 512);
+        server.createContext("/product/1", exchange -> {
+            exchange.getResponseHeaders().add("Content-Type", "application/json");
+            exchange.sendResponseHeaders(200, BODY.length);
+            try (OutputStream body = exchange.getResponseBody()) {
+                body.write(BODY);
+            }
+        });
+        server.setExecutor(Executors.newFixedThreadPool(THREADS));
+        server.start();
+        url = "http://127.0.0.1:" + server.getAddress().getPort() + "/product/1";
+    }
+
+    @AfterEach
+    void stopStubServer() {
+        server.stop(0);
+    }
+
+    @Test
+    void compareBareAndPooledRestTemplate() throws InterruptedException {
+        RestTemplate bare = new RestTemplate();
+
+        DownstreamHttpProperties properties = new DownstreamHttpProperties();
+        properties.getDefaults().setMaxConnections(THREADS);
+        properties.getDefaults().setMaxConnectionsPerRoute(THREADS);
+        DownstreamHttpClients clients = new DownstreamHttpClients(properties, new SimpleMeterRegistry());
+        RestTemplate pooled = new RestTemplate(
+                new HttpComponentsClientHttpRequestFactory(clients.clientFor("PRODUCT-SERVICE")));
+
+        // warm up both before measuring
+        run(bare, 200);
+        run(pooled, 200);
+
+        log.info("Bare RestTemplate: {} requests/s", run(bare, REQUESTS_PER_THREAD));
+        log.info("Pooled RestTemplate: {} requests/s", run(pooled, REQUESTS_PER_THREAD));
+        clients.close();
+    }
+
+    private long run(RestTemplate restTemplate, int requestsPerThread) throws InterruptedException {
+        ExecutorService callers = Executors.newFixedThreadPool(THREADS);
+        long start = System.nanoTime();
+        for (int i = 0; i < THREADS; i++) {
+            callers.execute(() -> {
+                for (int j = 0; j < requestsPerThread; j++) {
+                    restTemplate.getForObject(url, String.class);
+                }
+            });
+        }
+        callers.shutdown();
+        callers.awaitTermination(5, TimeUnit.MINUTES);
+        long nanos = System.nanoTime() - start;
+        return (long) THREADS * requestsPerThread * 1_000_000_000L / Math.max(nanos, 1);
+    }
+}
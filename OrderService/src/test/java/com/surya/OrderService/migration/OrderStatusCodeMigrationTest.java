@@ -0,0 +1,136 @@
+package com.surya.OrderService.migration;
+
+import com.surya.OrderService.entity.Order;
+import com.surya.OrderService.external.client.PaymentService;
+import com.surya.OrderService.external.client.ProductService;
+import com.surya.OrderService.model.OrderHistoryFilter;
+import com.surya.OrderService.model.OrderStatus;
+import com.surya.OrderService.model.OrderSummary;
+import com.surya.OrderService.repository.IdempotencyKeyRepository;
+import com.surya.OrderService.repository.OrderHistoryRepository;
+import com.surya.OrderService.repository.OrderRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+
+@SpringBootTest
+public class OrderStatusCodeMigrationTest {
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderStatusCodeMigration orderStatusCodeMigration;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderHistoryRepository orderHistoryRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @BeforeEach
+    void cleanUp(){
+        idempotencyKeyRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Migration - orders stored with a status string get their status code")
+    void test_When_Migrated_then_Status_Code_Set(){
+        insertLegacyOrder(900_001, "PLACED");
+        insertLegacyOrder(900_002, "PAYMENT_FAILED");
+        insertLegacyOrder(900_003, "CREATED");
+
+        Assertions.assertEquals(3, orderStatusCodeMigration.migrate());
+
+        Assertions.assertEquals(List.of(1, 2, 0), jdbcTemplate.queryForList(
+                "select STATUS_CODE from ORDER_DETAIL order by ID", Integer.class));
+        Assertions.assertEquals(0, orderStatusCodeMigration.migrate());
+
+        List<OrderSummary> placed = orderHistoryRepository.findPage(
+                OrderHistoryFilter.builder().orderStatus(OrderStatus.PLACED).build(), null, null, 10);
+        Assertions.assertEquals(1, placed.size());
+        Assertions.assertEquals(900_001, placed.get(0).getOrderId());
+    }
+
+    @Test
+    @DisplayName("Migration - orders not migrated yet are read from the status string")
+    void test_When_Not_Migrated_then_Status_Read_From_String(){
+        insertLegacyOrder(900_001, "RESERVATION_FAILED");
+
+        Assertions.assertEquals(OrderStatus.RESERVATION_FAILED,
+                orderRepository.findById(900_001L).map(Order::getOrderStatus).orElseThrow());
+        Assertions.assertEquals(OrderStatus.RESERVATION_FAILED, orderHistoryRepository
+                .findPage(OrderHistoryFilter.builder().build(), null, null, 10).get(0).getOrderStatus());
+    }
+
+    @Test
+    @DisplayName("Migration - orders saved now store the status code and, for one release, the name")
+    void test_When_Order_Saved_then_Code_And_Name_Stored(){
+        long orderId = orderRepository.save(Order.builder()
+                .productId(1)
+                .quantity(1)
+                .orderDate(Instant.now())
+                .orderStatus(OrderStatus.PLACED)
+                .amount(100)
+                .build()).getId();
+
+        Assertions.assertEquals(OrderStatus.PLACED.getCode(), jdbcTemplate.queryForObject(
+                "select STATUS_CODE from ORDER_DETAIL where ID = ?", Integer.class, orderId));
+        Assertions.assertEquals(OrderStatus.PLACED.name(), jdbcTemplate.queryForObject(
+                "select STATUS from ORDER_DETAIL where ID = ?", String.class, orderId));
+
+        transactionTemplate.executeWithoutResult(status ->
+                orderRepository.updateStatus(List.of(orderId), OrderStatus.PAYMENT_FAILED));
+
+        Assertions.assertEquals(OrderStatus.PAYMENT_FAILED.name(), jdbcTemplate.queryForObject(
+                "select STATUS from ORDER_DETAIL where ID = ?", String.class, orderId));
+    }
+
+    @Test
+    @DisplayName("Migration - a status changed by a previous version instance wins and is copied to the code")
+    void test_When_Status_Updated_By_Previous_Version_then_Code_Rewritten(){
+        long orderId = orderRepository.save(Order.builder()
+                .productId(1)
+                .quantity(1)
+                .orderDate(Instant.now())
+                .orderStatus(OrderStatus.CREATED)
+                .amount(100)
+                .build()).getId();
+        // what an instance that only knows the string column does on payment
+        jdbcTemplate.update("update ORDER_DETAIL set STATUS = 'PLACED' where ID = ?", orderId);
+
+        Assertions.assertEquals(OrderStatus.PLACED,
+                orderRepository.findById(orderId).map(Order::getOrderStatus).orElseThrow());
+        Assertions.assertEquals(1, orderStatusCodeMigration.migrate());
+        Assertions.assertEquals(OrderStatus.PLACED.getCode(), jdbcTemplate.queryForObject(
+                "select STATUS_CODE from ORDER_DETAIL where ID = ?", Integer.class, orderId));
+    }
+
+    private void insertLegacyOrder(long id, String status) {
+        jdbcTemplate.update("insert into ORDER_DETAIL (ID, PRODUCT_ID, LINE_COUNT, QUANTITY, ORDER_DATE, STATUS, TOTAL_AMOUNT) "
+                + "values (?, 1, 0, 1, ?, ?, 100)", id, Timestamp.from(Instant.now()), status);
+    }
+}
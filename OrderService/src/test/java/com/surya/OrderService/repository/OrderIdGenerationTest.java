@@ -0,0 +1,90 @@
+package com.surya.OrderService.repository;
+
+import com.surya.OrderService.entity.Order;
+import com.surya.OrderService.external.client.PaymentService;
+import com.surya.OrderService.external.client.ProductService;
+import com.surya.OrderService.model.OrderStatus;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest
+public class OrderIdGenerationTest {
+
+    private static final int THREADS = 8;
+    private static final int ORDERS_PER_THREAD = 500;
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @BeforeEach
+    void cleanUp(){
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Id Generation - concurrent inserts never get the same id")
+    void test_When_Orders_Saved_Concurrently_then_Ids_Unique() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        List<Future<List<Long>>> futures = new ArrayList<>();
+        try {
+            for (int t = 0; t < THREADS; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<Long> ids = new ArrayList<>();
+                    for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                        ids.add(orderRepository.save(newOrder()).getId());
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            Set<Long> ids = new HashSet<>();
+            for (Future<List<Long>> future : futures) {
+                List<Long> threadIds = future.get();
+                for (int i = 1; i < threadIds.size(); i++) {
+                    // each thread sees its ids increase, whichever block they came from
+                    Assertions.assertTrue(threadIds.get(i) > threadIds.get(i - 1));
+                }
+                ids.addAll(threadIds);
+            }
+
+            Assertions.assertEquals(THREADS * ORDERS_PER_THREAD, ids.size());
+            Assertions.assertEquals(THREADS * ORDERS_PER_THREAD, orderRepository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static Order newOrder() {
+        return Order.builder()
+                .productId(1)
+                .quantity(1)
+                .amount(100)
+                .orderDate(Instant.now())
+                .orderStatus(OrderStatus.CREATED)
+                .build();
+    }
+}
@@ -0,0 +1,84 @@
+package com.surya.OrderService.repository;
+
+import com.surya.OrderService.entity.Order;
+import com.surya.OrderService.external.client.PaymentService;
+import com.surya.OrderService.external.client.ProductService;
+import com.surya.OrderService.model.OrderStatus;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Concurrent single-row order inserts on H2, one transaction per insert as in placeOrder.
+ * Run it on this commit and on its parent to compare pooled-lo against the one id per
+ * round trip AUTO generator.
+ * <p>
+ * Run with {@code mvn test -Dtest=OrderInsertBenchmarkTest -Dbenchmark=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Log4j2
+public class OrderInsertBenchmarkTest {
+
+    private static final int ORDERS_PER_THREAD = 5000;
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Test
+    void compareThreadCounts() throws Exception {
+        // warm up
+        insert(1, 1000);
+
+        for (int threads : new int[]{1, 4, 16}) {
+            orderRepository.deleteAllInBatch();
+            long startedAt = System.nanoTime();
+            insert(threads, ORDERS_PER_THREAD);
+            double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+            log.info("threads={} inserts={} in {} s: {} inserts/s",
+                    threads, threads * ORDERS_PER_THREAD, String.format("%.2f", seconds),
+                    (long) (threads * ORDERS_PER_THREAD / seconds));
+        }
+    }
+
+    private void insert(int threads, int ordersPerThread) throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(threads);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < threads; t++) {
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < ordersPerThread; i++) {
+                        orderRepository.save(Order.builder()
+                                .productId(1)
+                                .quantity(1)
+                                .amount(100)
+                                .orderDate(Instant.now())
+                                .orderStatus(OrderStatus.CREATED)
+                                .build());
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+    }
+}
@@ -0,0 +1,216 @@
+package com.surya.OrderService.service;
+
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.surya.OrderService.entity.Order;
+import com.surya.OrderService.entity.OrderLine;
+import com.surya.OrderService.exception.CustomException;
+import com.surya.OrderService.external.client.PaymentService;
+import com.surya.OrderService.external.client.ProductService;
+import com.surya.OrderService.model.OrderHistoryFilter;
+import com.surya.OrderService.model.OrderHistoryPage;
+import com.surya.OrderService.model.OrderStatus;
+import com.surya.OrderService.model.OrderSummary;
+import com.surya.OrderService.repository.IdempotencyKeyRepository;
+import com.surya.OrderService.repository.OrderLineRepository;
+import com.surya.OrderService.repository.OrderRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+
+import java.io.ByteArrayOutputStream;
+import java.nio.charset.StandardCharsets;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+public class OrderHistoryServiceImplTest {
+
+    private static final Instant START = Instant.parse("2022-11-01T00:00:00Z");
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderHistoryService orderHistoryService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OrderLineRepository orderLineRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @BeforeEach
+    void setUp(){
+        idempotencyKeyRepository.deleteAll();
+        orderLineRepository.deleteAll();
+        orderRepository.deleteAll();
+        List<Order> orders = new ArrayList<>();
+        for (int i = 0; i < 25; i++) {
+            orders.add(Order.builder()
+                    .productId(i % 2 == 0 ? 1 : 2)
+                    .quantity(1)
+                    // pairs of orders share a date so the id has to break ties
+                    .orderDate(START.plusSeconds(60L * (i / 2)))
+                    .orderStatus(i % 5 == 0 ? OrderStatus.PAYMENT_FAILED : OrderStatus.PLACED)
+                    .amount(100)
+                    .build());
+        }
+        orderRepository.saveAll(orders);
+    }
+
+    @Test
+    @DisplayName("Order History - pages newest first without gaps or duplicates")
+    void test_When_Paging_Order_History_then_All_Orders_Once_In_Order(){
+        OrderHistoryFilter filter = new OrderHistoryFilter();
+        List<OrderSummary> seen = new ArrayList<>();
+
+        OrderHistoryPage page = orderHistoryService.getOrderHistory(filter, null, null, 10);
+        seen.addAll(page.getOrders());
+        while (page.getNextAfterId() != null) {
+            page = orderHistoryService.getOrderHistory(filter, page.getNextAfterDate(), page.getNextAfterId(), 10);
+            seen.addAll(page.getOrders());
+        }
+
+        Assertions.assertEquals(25, seen.size());
+        Assertions.assertEquals(25, seen.stream().map(OrderSummary::getOrderId).distinct().count());
+        for (int i = 1; i < seen.size(); i++) {
+            OrderSummary previous = seen.get(i - 1);
+            OrderSummary current = seen.get(i);
+            Assertions.assertTrue(previous.getOrderDate().isAfter(current.getOrderDate())
+                    || (previous.getOrderDate().equals(current.getOrderDate())
+                        && previous.getOrderId() > current.getOrderId()));
+        }
+    }
+
+    @Test
+    @DisplayName("Order History - filters by product, status and date range")
+    void test_When_Filtered_then_Only_Matching_Orders(){
+        OrderHistoryFilter filter = OrderHistoryFilter.builder()
+                .productId(1L)
+                .orderStatus(OrderStatus.PLACED)
+                .from(START)
+                .to(START.plusSeconds(60L * 6))
+                .build();
+
+        OrderHistoryPage page = orderHistoryService.getOrderHistory(filter, null, null, 100);
+
+        // orders 0..11 fall in the range, of those 2,4,6,8 are product 1 and PLACED
+        Assertions.assertEquals(4, page.getOrders().size());
+        Assertions.assertNull(page.getNextAfterId());
+        Assertions.assertTrue(page.getOrders().stream()
+                .allMatch(order -> order.getProductId() == 1 && order.getOrderStatus() == OrderStatus.PLACED));
+    }
+
+    @Test
+    @DisplayName("Order History - the product filter also matches lines of multi-line orders")
+    void test_When_Filtered_By_Product_then_Multi_Line_Orders_Match(){
+        long multiLine = orderRepository.save(Order.builder()
+                .productId(0)
+                .quantity(3)
+                .orderDate(START.minusSeconds(60))
+                .orderStatus(OrderStatus.PLACED)
+                .amount(300)
+                .build()).getId();
+        orderLineRepository.saveAll(List.of(
+                OrderLine.builder().orderId(multiLine).productId(1).quantity(1).build(),
+                OrderLine.builder().orderId(multiLine).productId(3).quantity(2).build()));
+        OrderHistoryFilter filter = OrderHistoryFilter.builder()
+                .productId(3L)
+                .build();
+
+        OrderHistoryPage page = orderHistoryService.getOrderHistory(filter, null, null, 100);
+        filter.setProductId(1L);
+        List<OrderSummary> productOne = orderHistoryService.getOrderHistory(filter, null, null, 100).getOrders();
+
+        Assertions.assertEquals(List.of(multiLine), page.getOrders().stream()
+                .map(OrderSummary::getOrderId)
+                .collect(Collectors.toList()));
+        // the 13 single product orders of product 1 and the multi-line order, which is the oldest
+        Assertions.assertEquals(14, productOne.size());
+        Assertions.assertEquals(multiLine, productOne.get(productOne.size() - 1).getOrderId());
+    }
+
+    @Test
+    @DisplayName("Order History - pages by product across single product and multi-line orders")
+    void test_When_Paging_By_Product_then_Multi_Line_Orders_In_Order(){
+        List<Long> multiLine = new ArrayList<>();
+        for (int i = 0; i < 2; i++) {
+            // dated between the single product orders, one of them ties with orders 10 and 11
+            long orderId = orderRepository.save(Order.builder()
+                    .productId(0)
+                    .quantity(2)
+                    .orderDate(START.plusSeconds(60L * (5 * i) + 30L * (1 - i)))
+                    .orderStatus(OrderStatus.PLACED)
+                    .amount(200)
+                    .build()).getId();
+            orderLineRepository.saveAll(List.of(
+                    OrderLine.builder().orderId(orderId).productId(1).quantity(1).build(),
+                    OrderLine.builder().orderId(orderId).productId(2).quantity(1).build()));
+            multiLine.add(orderId);
+        }
+        OrderHistoryFilter filter = OrderHistoryFilter.builder()
+                .productId(1L)
+                .build();
+        List<OrderSummary> seen = new ArrayList<>();
+
+        OrderHistoryPage page = orderHistoryService.getOrderHistory(filter, null, null, 4);
+        seen.addAll(page.getOrders());
+        while (page.getNextAfterId() != null) {
+            page = orderHistoryService.getOrderHistory(filter, page.getNextAfterDate(), page.getNextAfterId(), 4);
+            seen.addAll(page.getOrders());
+        }
+
+        Assertions.assertEquals(15, seen.size());
+        Assertions.assertEquals(15, seen.stream().map(OrderSummary::getOrderId).distinct().count());
+        Assertions.assertTrue(seen.stream().map(OrderSummary::getOrderId).collect(Collectors.toList())
+                .containsAll(multiLine));
+        for (int i = 1; i < seen.size(); i++) {
+            OrderSummary previous = seen.get(i - 1);
+            OrderSummary current = seen.get(i);
+            Assertions.assertTrue(previous.getOrderDate().isAfter(current.getOrderDate())
+                    || (previous.getOrderDate().equals(current.getOrderDate())
+                        && previous.getOrderId() > current.getOrderId()));
+        }
+    }
+
+    @Test
+    @DisplayName("Order History - half a cursor is rejected")
+    void test_When_Cursor_Incomplete_then_Bad_Request(){
+        CustomException exception =
+                Assertions.assertThrows(CustomException.class,
+                        () -> orderHistoryService.getOrderHistory(new OrderHistoryFilter(), START, null, 10));
+
+        Assertions.assertEquals("INVALID_CURSOR", exception.getErrorCode());
+        Assertions.assertEquals(400, exception.getStatus());
+    }
+
+    @Test
+    @DisplayName("Order History Export - writes one json line per matching order")
+    void test_When_Export_then_Ndjson_Lines() throws Exception {
+        ByteArrayOutputStream out = new ByteArrayOutputStream();
+
+        orderHistoryService.exportOrderHistory(OrderHistoryFilter.builder().productId(2L).build())
+                .writeTo(out);
+
+        String[] lines = out.toString(StandardCharsets.UTF_8).split("\n");
+        Assertions.assertEquals(12, lines.length);
+        for (String line : lines) {
+            Assertions.assertEquals(2, objectMapper.readValue(line, OrderSummary.class).getProductId());
+        }
+    }
+}
@@ -0,0 +1,177 @@
+package com.surya.OrderService.service;
+
+import com.surya.OrderService.entity.IdempotencyKey;
+import com.surya.OrderService.exception.CustomException;
+import com.surya.OrderService.external.client.PaymentService;
+import com.surya.OrderService.external.client.ProductService;
+import com.surya.OrderService.external.request.PaymentRequest;
+import com.surya.OrderService.model.OrderRequest;
+import com.surya.OrderService.model.PaymentMode;
+import com.surya.OrderService.repository.IdempotencyKeyRepository;
+import com.surya.OrderService.repository.OrderRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest
+public class OrderIdempotencyStoreTest {
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private IdempotencyKeyRepository idempotencyKeyRepository;
+
+    @BeforeEach
+    void cleanUp(){
+        idempotencyKeyRepository.deleteAll();
+        orderRepository.deleteAll();
+        Mockito.when(paymentService.doPayment(ArgumentMatchers.any(PaymentRequest.class)))
+                .thenReturn(new ResponseEntity<>(1L, HttpStatus.OK));
+    }
+
+    @Test
+    @DisplayName("Place Order - retry with the same key returns the first order without reserving or paying again")
+    void test_When_Place_Order_Retried_With_Same_Key_then_Original_Order_Returned(){
+        long first = orderService.placeOrder(getMockOrderRequest(), "retry-key");
+        long second = orderService.placeOrder(getMockOrderRequest(), "retry-key");
+
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(1, orderRepository.count());
+        Mockito.verify(productService, Mockito.times(1))
+                .reduceQuantity(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong());
+        Mockito.verify(paymentService, Mockito.times(1))
+                .doPayment(ArgumentMatchers.any(PaymentRequest.class));
+        Assertions.assertEquals(first, idempotencyKeyRepository.findById("retry-key")
+                .map(IdempotencyKey::getOrderId).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Place Order - concurrent duplicates collapse onto one placement")
+    void test_When_Concurrent_Duplicates_then_One_Placement() throws Exception {
+        CountDownLatch reserving = new CountDownLatch(1);
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(productService.reduceQuantity(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong()))
+                .thenAnswer(invocation -> {
+                    reserving.countDown();
+                    release.await();
+                    return new ResponseEntity<Void>(HttpStatus.OK);
+                });
+
+        ExecutorService clients = Executors.newFixedThreadPool(8);
+        List<Future<Long>> results = new ArrayList<>();
+        results.add(clients.submit(() -> orderService.placeOrder(getMockOrderRequest(), "concurrent-key")));
+        reserving.await();
+        for (int i = 1; i < 8; i++) {
+            results.add(clients.submit(() -> orderService.placeOrder(getMockOrderRequest(), "concurrent-key")));
+        }
+        Thread.sleep(200);
+        release.countDown();
+
+        long orderId = results.get(0).get();
+        for (Future<Long> result : results) {
+            Assertions.assertEquals(orderId, result.get());
+        }
+        clients.shutdown();
+
+        Assertions.assertEquals(1, orderRepository.count());
+        Mockito.verify(productService, Mockito.times(1))
+                .reduceQuantity(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("Place Order - key stored by another instance is replayed from the database")
+    void test_When_Key_Only_In_Database_then_Order_Replayed(){
+        idempotencyKeyRepository.save(IdempotencyKey.builder()
+                .idempotencyKey("other-instance-key")
+                .orderId(42L)
+                .createdAt(Instant.now())
+                .build());
+
+        long orderId = orderService.placeOrder(getMockOrderRequest(), "other-instance-key");
+
+        Assertions.assertEquals(42L, orderId);
+        Mockito.verify(productService, Mockito.never())
+                .reduceQuantity(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("Place Order - key still being placed elsewhere is rejected with 409")
+    void test_When_Key_In_Progress_Elsewhere_then_Conflict(){
+        // claimed a moment ago, well within the lease
+        idempotencyKeyRepository.claim("in-progress-key", "other-instance", Instant.now());
+
+        CustomException exception =
+                Assertions.assertThrows(CustomException.class,
+                        () -> orderService.placeOrder(getMockOrderRequest(), "in-progress-key"));
+
+        Assertions.assertEquals("IDEMPOTENCY_KEY_IN_PROGRESS", exception.getErrorCode());
+        Assertions.assertEquals(409, exception.getStatus());
+    }
+
+    @Test
+    @DisplayName("Place Order - claim older than the lease is taken over by a retry")
+    void test_When_Claim_Lease_Expired_then_Retry_Takes_Over(){
+        idempotencyKeyRepository.claim("abandoned-key", "crashed-instance", Instant.now().minus(Duration.ofHours(1)));
+
+        long orderId = orderService.placeOrder(getMockOrderRequest(), "abandoned-key");
+
+        Assertions.assertTrue(orderRepository.existsById(orderId));
+        IdempotencyKey key = idempotencyKeyRepository.findById("abandoned-key").orElseThrow();
+        Assertions.assertEquals(orderId, key.getOrderId());
+        Assertions.assertNotEquals("crashed-instance", key.getClaimToken());
+        // the instance that lost the claim can no longer record its order
+        Assertions.assertEquals(0, idempotencyKeyRepository.recordOrder("abandoned-key", "crashed-instance", 42L));
+    }
+
+    @Test
+    @DisplayName("Place Order - failed placement frees the key for a retry")
+    void test_When_Placement_Fails_then_Key_Released(){
+        Mockito.when(productService.reduceQuantity(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong()))
+                .thenThrow(new CustomException("Product does not have sufficient Quantity", "INSUFFICIENT_QUANTITY", 400))
+                .thenReturn(new ResponseEntity<>(HttpStatus.OK));
+
+        Assertions.assertThrows(CustomException.class,
+                () -> orderService.placeOrder(getMockOrderRequest(), "failed-key"));
+        Assertions.assertFalse(idempotencyKeyRepository.existsById("failed-key"));
+
+        long orderId = orderService.placeOrder(getMockOrderRequest(), "failed-key");
+
+        Assertions.assertTrue(orderRepository.existsById(orderId));
+    }
+
+    private OrderRequest getMockOrderRequest() {
+        return OrderRequest.builder()
+                .productId(1)
+                .paymentMode(PaymentMode.CASH)
+                .quantity(10)
+                .totalAmount(200)
+                .build();
+    }
+}
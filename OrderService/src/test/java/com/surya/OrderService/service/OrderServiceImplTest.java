@@ -1,27 +1,42 @@
 package com.surya.OrderService.service;
 
 import com.surya.OrderService.entity.Order;
+import com.surya.OrderService.entity.OrderLine;
 import com.surya.OrderService.exception.CustomException;
 import com.surya.OrderService.external.client.PaymentService;
 import com.surya.OrderService.external.client.ProductService;
 import com.surya.OrderService.external.request.PaymentRequest;
+import com.surya.OrderService.external.request.ProductQuantity;
 import com.surya.OrderService.external.response.PaymentResponse;
 import com.surya.OrderService.external.response.ProductResponse;
 import com.surya.OrderService.model.OrderRequest;
 import com.surya.OrderService.model.OrderResponse;
+import com.surya.OrderService.model.OrderStatus;
 import com.surya.OrderService.model.PaymentMode;
+import com.surya.OrderService.repository.OrderLineRepository;
 import com.surya.OrderService.repository.OrderRepository;
+import org.junit.jupiter.api.AfterEach;
 import org.junit.jupiter.api.Assertions;
 import org.junit.jupiter.api.DisplayName;
 import org.junit.jupiter.api.Test;
 import org.mockito.*;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
 import org.springframework.boot.test.context.SpringBootTest;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+import org.springframework.transaction.support.TransactionCallback;
+import org.springframework.transaction.support.TransactionTemplate;
 import org.springframework.web.client.RestTemplate;
 
 import java.time.Instant;
+import java.util.List;
 import java.util.Optional;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.TimeUnit;
 
 @SpringBootTest
 public class OrderServiceImplTest {
@@ -38,9 +53,29 @@ public class OrderServiceImplTest {
     @Mock
     private RestTemplate restTemplate;
 
+    @Mock
+    private OrderResponseCache orderResponseCache;
+
+    @Mock
+    private OrderLineRepository orderLineRepository;
+
     @InjectMocks
     OrderService orderService = new OrderServiceImpl();
 
+    private ExecutorService fanOutExecutor;
+
+    private OrderPlacementPipeline pipeline;
+
+    @AfterEach
+    void shutdownExecutors() throws InterruptedException {
+        if (fanOutExecutor != null) {
+            fanOutExecutor.shutdownNow();
+        }
+        if (pipeline != null) {
+            pipeline.shutdown();
+        }
+    }
+
     @Test
     @DisplayName("Get Order - Success Scenario")
     void test_When_Order_Success(){
@@ -78,6 +113,208 @@ public class OrderServiceImplTest {
 
     }
 
+    @Test
+    @DisplayName("Get Order - Cached response skips the database and downstream calls")
+    void test_When_Order_Cached_then_No_Lookups(){
+        OrderResponse cachedResponse = OrderResponse.builder()
+                .orderId(1)
+                .orderStatus(OrderStatus.PLACED)
+                .build();
+        Mockito.when(orderResponseCache.get(1)).thenReturn(cachedResponse);
+
+        OrderResponse orderResponse = orderService.getOrderDetails(1);
+
+        Assertions.assertSame(cachedResponse, orderResponse);
+        Mockito.verifyNoInteractions(orderRepository, restTemplate);
+    }
+
+    @Test
+    @DisplayName("Get Order - Complete response is cached, partial response is not")
+    void test_When_Order_Loaded_then_Only_Complete_Response_Cached(){
+        enableFanOut(2000);
+        Order order = getMockOrder();
+        Mockito.when(orderRepository.findById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.of(order));
+        Mockito.when(orderResponseCache.loadToken(1)).thenReturn(7L);
+        Mockito.when(restTemplate.getForObject(
+                "http://PRODUCT-SERVICE/product/" + order.getProductId(),
+                ProductResponse.class
+        )).thenReturn(getMockProductResponse());
+        Mockito.when(restTemplate.getForObject(
+                "http://PAYMENT-SERVICE/payment/order/" + order.getId(),
+                PaymentResponse.class
+        )).thenReturn(getMockPaymentResponse())
+                .thenThrow(new RuntimeException("payment service down"));
+
+        OrderResponse complete = orderService.getOrderDetails(1);
+        orderService.getOrderDetails(1);
+
+        Mockito.verify(orderResponseCache, Mockito.times(1))
+                .put(1L, complete, 7L);
+        Mockito.verify(orderResponseCache, Mockito.times(1))
+                .put(ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("Get Order - An order still being placed is never cached")
+    void test_When_Order_Created_then_Not_Cached(){
+        Order order = getMockOrder();
+        order.setOrderStatus(OrderStatus.CREATED);
+        Mockito.when(orderRepository.findById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.of(order));
+        Mockito.when(restTemplate.getForObject(
+                "http://PRODUCT-SERVICE/product/" + order.getProductId(),
+                ProductResponse.class
+        )).thenReturn(getMockProductResponse());
+
+        OrderResponse orderResponse = orderService.getOrderDetails(1);
+
+        Assertions.assertEquals(OrderStatus.CREATED, orderResponse.getOrderStatus());
+        Assertions.assertFalse(orderResponse.isProductDetailsMissing());
+        Assertions.assertFalse(orderResponse.isPaymentDetailsMissing());
+        Mockito.verify(orderResponseCache, Mockito.never())
+                .put(ArgumentMatchers.anyLong(), ArgumentMatchers.any(), ArgumentMatchers.anyLong());
+    }
+
+    @Test
+    @DisplayName("Get Order - Fan-out calls product and payment at the same time")
+    void test_When_Order_Fan_Out_then_Downstream_Calls_Overlap(){
+        enableFanOut(5000);
+        Order order = getMockOrder();
+        Mockito.when(orderRepository.findById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.of(order));
+
+        // each call only answers once the other one has started, sequential calls never both get there
+        CountDownLatch bothCalled = new CountDownLatch(2);
+        Mockito.when(restTemplate.getForObject(
+                "http://PRODUCT-SERVICE/product/" + order.getProductId(),
+                ProductResponse.class
+        )).thenAnswer(invocation -> {
+            awaitOther(bothCalled);
+            return getMockProductResponse();
+        });
+        Mockito.when(restTemplate.getForObject(
+                "http://PAYMENT-SERVICE/payment/order/" + order.getId(),
+                PaymentResponse.class
+        )).thenAnswer(invocation -> {
+            awaitOther(bothCalled);
+            return getMockPaymentResponse();
+        });
+
+        OrderResponse orderResponse = orderService.getOrderDetails(1);
+
+        Assertions.assertNotNull(orderResponse.getProductDetails());
+        Assertions.assertNotNull(orderResponse.getPaymentDetails());
+        Assertions.assertFalse(orderResponse.isProductDetailsMissing());
+        Assertions.assertFalse(orderResponse.isPaymentDetailsMissing());
+    }
+
+    @Test
+    @DisplayName("Get Order - Fan-out returns partial details when payment fails")
+    void test_When_Order_Fan_Out_Payment_Fails_then_Partial_Response(){
+        enableFanOut(2000);
+        Order order = getMockOrder();
+        Mockito.when(orderRepository.findById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.of(order));
+        Mockito.when(restTemplate.getForObject(
+                "http://PRODUCT-SERVICE/product/" + order.getProductId(),
+                ProductResponse.class
+        )).thenReturn(getMockProductResponse());
+        Mockito.when(restTemplate.getForObject(
+                "http://PAYMENT-SERVICE/payment/order/" + order.getId(),
+                PaymentResponse.class
+        )).thenThrow(new RuntimeException("payment service down"));
+
+        OrderResponse orderResponse = orderService.getOrderDetails(1);
+
+        Assertions.assertEquals(order.getId(), orderResponse.getOrderId());
+        Assertions.assertNotNull(orderResponse.getProductDetails());
+        Assertions.assertNull(orderResponse.getPaymentDetails());
+        Assertions.assertFalse(orderResponse.isProductDetailsMissing());
+        Assertions.assertTrue(orderResponse.isPaymentDetailsMissing());
+    }
+
+    @Test
+    @DisplayName("Get Order - Fan-out gives up on a call that exceeds the timeout")
+    void test_When_Order_Fan_Out_Product_Times_Out_then_Partial_Response() throws Exception {
+        enableFanOut(200);
+        Order order = getMockOrder();
+        Mockito.when(orderRepository.findById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.of(order));
+        // held well past the timeout, released once the response is in
+        CountDownLatch release = new CountDownLatch(1);
+        Mockito.when(restTemplate.getForObject(
+                "http://PRODUCT-SERVICE/product/" + order.getProductId(),
+                ProductResponse.class
+        )).thenAnswer(invocation -> {
+            release.await(10, TimeUnit.SECONDS);
+            return getMockProductResponse();
+        });
+        Mockito.when(restTemplate.getForObject(
+                "http://PAYMENT-SERVICE/payment/order/" + order.getId(),
+                PaymentResponse.class
+        )).thenReturn(getMockPaymentResponse());
+
+        OrderResponse orderResponse;
+        try {
+            orderResponse = orderService.getOrderDetails(1);
+        } finally {
+            release.countDown();
+        }
+
+        Assertions.assertTrue(orderResponse.isProductDetailsMissing());
+    }
+
+    @Test
+    @DisplayName("Get Orders - Batch lookup uses one bulk call per downstream")
+    void test_When_Get_Orders_Batch_then_Bulk_Downstream_Calls(){
+        ReflectionTestUtils.setField(orderService, "batchMaxIds", 100);
+        Order first = getMockOrder();
+        Order second = getMockOrder();
+        second.setId(2);
+        first.setProductId(2);
+        second.setProductId(2);
+        Mockito.when(orderRepository.findAllById(ArgumentMatchers.anyIterable()))
+                .thenReturn(List.of(first, second));
+
+        Mockito.when(restTemplate.getForObject(
+                "http://PRODUCT-SERVICE/product?ids=2",
+                ProductResponse[].class
+        )).thenReturn(new ProductResponse[]{getMockProductResponse()});
+
+        PaymentResponse secondPayment = getMockPaymentResponse();
+        secondPayment.setOrderId(2);
+        secondPayment.setPaymentId(2);
+        // a higher id from another payment service instance, but an earlier payment
+        PaymentResponse earlierPayment = getMockPaymentResponse();
+        earlierPayment.setOrderId(2);
+        earlierPayment.setPaymentId(3);
+        earlierPayment.setPaymentDate(secondPayment.getPaymentDate().minusSeconds(60));
+        Mockito.when(restTemplate.getForObject(
+                "http://PAYMENT-SERVICE/payment/orders?ids=1,2",
+                PaymentResponse[].class
+        )).thenReturn(new PaymentResponse[]{getMockPaymentResponse(), secondPayment, earlierPayment});
+
+        List<OrderResponse> orderResponses = orderService.getOrderDetails(List.of(2L, 1L, 2L));
+
+        Mockito.verify(orderRepository, Mockito.times(1))
+                .findAllById(ArgumentMatchers.anyIterable());
+        Mockito.verify(restTemplate, Mockito.times(1)).getForObject(
+                "http://PRODUCT-SERVICE/product?ids=2",
+                ProductResponse[].class
+        );
+        Mockito.verify(restTemplate, Mockito.times(1)).getForObject(
+                "http://PAYMENT-SERVICE/payment/orders?ids=1,2",
+                PaymentResponse[].class
+        );
+
+        Assertions.assertEquals(2, orderResponses.size());
+        Assertions.assertEquals(2, orderResponses.get(0).getOrderId());
+        Assertions.assertEquals(2, orderResponses.get(0).getPaymentDetails().getPaymentId());
+        Assertions.assertEquals(1, orderResponses.get(1).getOrderId());
+        Assertions.assertEquals("iPhone", orderResponses.get(1).getProductDetails().getProductName());
+    }
+
     @DisplayName("Get Order - Failure Scenario")
     @Test
     void test_When_Get_Order_NOT_FOUND_then_Not_Found(){
@@ -118,6 +355,8 @@ public class OrderServiceImplTest {
                 .doPayment(ArgumentMatchers.any(PaymentRequest.class));
 
         Assertions.assertEquals(order.getId(), orderId);
+        Mockito.verify(orderResponseCache, Mockito.times(1))
+                .invalidate(order.getId());
     }
 
     @DisplayName("Place order - failure scenario")
@@ -145,6 +384,150 @@ public class OrderServiceImplTest {
         Assertions.assertEquals(order.getId(), orderId);
     }
 
+    @DisplayName("Place Order - multi-line order is reserved in one call and paid once")
+    @Test
+    void test_When_Place_Multi_Line_Order_then_One_Reservation_And_One_Payment(){
+        TransactionTemplate transactionTemplate = Mockito.mock(TransactionTemplate.class);
+        Mockito.when(transactionTemplate.execute(ArgumentMatchers.any()))
+                .thenAnswer(invocation -> invocation.<TransactionCallback<?>>getArgument(0).doInTransaction(null));
+        ReflectionTestUtils.setField(orderService, "transactionTemplate", transactionTemplate);
+        Order order = getMockOrder();
+        OrderRequest orderRequest = getMockOrderRequest();
+        orderRequest.setLines(List.of(
+                OrderRequest.LineItem.builder().productId(3).quantity(2).build(),
+                OrderRequest.LineItem.builder().productId(1).quantity(1).build()));
+
+        Mockito.when(orderRepository.save(ArgumentMatchers.any(Order.class)))
+                .thenReturn(order);
+        Mockito.when(productService.reduceQuantities(ArgumentMatchers.anyList()))
+                .thenReturn(new ResponseEntity<Void>(HttpStatus.OK));
+        Mockito.when(paymentService.doPayment(ArgumentMatchers.any(PaymentRequest.class)))
+                .thenReturn(new ResponseEntity<Long>(1L, HttpStatus.OK));
+
+        long orderId = orderService.placeOrder(orderRequest);
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<ProductQuantity>> reserved = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(productService, Mockito.times(1)).reduceQuantities(reserved.capture());
+        Mockito.verify(productService, Mockito.never())
+                .reduceQuantity(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong());
+        Assertions.assertEquals(2, reserved.getValue().size());
+        Mockito.verify(orderLineRepository, Mockito.times(1)).saveAll(ArgumentMatchers.anyList());
+        Mockito.verify(paymentService, Mockito.times(1))
+                .doPayment(ArgumentMatchers.any(PaymentRequest.class));
+
+        ArgumentCaptor<Order> saved = ArgumentCaptor.forClass(Order.class);
+        Mockito.verify(orderRepository, Mockito.times(2)).save(saved.capture());
+        Assertions.assertEquals(2, saved.getAllValues().get(0).getLineCount());
+        Assertions.assertEquals(order.getId(), orderId);
+    }
+
+    @DisplayName("Get Order - multi-line order lists its lines with product names")
+    @Test
+    void test_When_Get_Multi_Line_Order_then_Lines_Returned(){
+        Order order = getMockOrder();
+        order.setLineCount(2);
+        Mockito.when(orderRepository.findById(ArgumentMatchers.anyLong()))
+                .thenReturn(Optional.of(order));
+        Mockito.when(orderLineRepository.findByOrderIdOrderByIdAsc(order.getId()))
+                .thenReturn(List.of(
+                        OrderLine.builder().orderId(order.getId()).productId(3).quantity(2).build(),
+                        OrderLine.builder().orderId(order.getId()).productId(2).quantity(1).build()));
+        Mockito.when(restTemplate.getForObject(
+                "http://PRODUCT-SERVICE/product?ids=2,3",
+                ProductResponse[].class
+        )).thenReturn(new ProductResponse[]{getMockProductResponse()});
+        Mockito.when(restTemplate.getForObject(
+                "http://PAYMENT-SERVICE/payment/order/" + order.getId(),
+                PaymentResponse.class
+        )).thenReturn(getMockPaymentResponse());
+
+        OrderResponse orderResponse = orderService.getOrderDetails(1);
+
+        Assertions.assertNull(orderResponse.getProductDetails());
+        Assertions.assertEquals(2, orderResponse.getLines().size());
+        Assertions.assertEquals(3, orderResponse.getLines().get(0).getProductId());
+        Assertions.assertNull(orderResponse.getLines().get(0).getProductName());
+        Assertions.assertEquals("iPhone", orderResponse.getLines().get(1).getProductName());
+        // product 3 was not returned by the product service
+        Assertions.assertTrue(orderResponse.isProductDetailsMissing());
+        Mockito.verify(restTemplate, Mockito.never()).getForObject(
+                ArgumentMatchers.startsWith("http://PRODUCT-SERVICE/product/"),
+                ArgumentMatchers.eq(ProductResponse.class));
+    }
+
+    private static void awaitOther(CountDownLatch bothCalled) throws InterruptedException {
+        bothCalled.countDown();
+        if (!bothCalled.await(2, TimeUnit.SECONDS)) {
+            throw new IllegalStateException("the other downstream call did not start while this one was running");
+        }
+    }
+
+    private void enableFanOut(long timeoutMs) {
+        fanOutExecutor = Executors.newFixedThreadPool(2);
+        ReflectionTestUtils.setField(orderService, "orderDetailsExecutor", fanOutExecutor);
+        ReflectionTestUtils.setField(orderService, "fanOutEnabled", true);
+        ReflectionTestUtils.setField(orderService, "fanOutTimeoutMs", timeoutMs);
+    }
+
+    @DisplayName("Place Order Async - order accepted and completed by the pipeline")
+    @Test
+    void test_When_Place_Order_Async_then_Accepted_And_Completed(){
+        pipeline = new OrderPlacementPipeline(new SimpleMeterRegistry(), 1, 1);
+        ReflectionTestUtils.setField(orderService, "orderPlacementPipeline", pipeline);
+        Order order = getMockOrder();
+        order.setOrderStatus(OrderStatus.CREATED);
+        OrderRequest orderRequest = getMockOrderRequest();
+
+        Mockito.when(orderRepository.save(ArgumentMatchers.any(Order.class)))
+                .thenReturn(order);
+        Mockito.when(productService.reduceQuantity(ArgumentMatchers.anyLong(), ArgumentMatchers.anyLong()))
+                .thenReturn(new ResponseEntity<Void>(HttpStatus.OK));
+        Mockito.when(paymentService.doPayment(ArgumentMatchers.any(PaymentRequest.class)))
+                .thenReturn(new ResponseEntity<Long>(1L, HttpStatus.OK));
+
+        long orderId = orderService.placeOrderAsync(orderRequest);
+
+        Assertions.assertEquals(order.getId(), orderId);
+        Mockito.verify(paymentService, Mockito.timeout(2000).times(1))
+                .doPayment(ArgumentMatchers.any(PaymentRequest.class));
+        Mockito.verify(orderRepository, Mockito.timeout(2000).times(2))
+                .save(ArgumentMatchers.any());
+        Assertions.assertEquals(OrderStatus.PLACED, order.getOrderStatus());
+    }
+
+    @DisplayName("Place Order Async - rejected when the pipeline is full")
+    @Test
+    void test_When_Place_Order_Async_Pipeline_Full_then_Too_Many_Requests(){
+        pipeline = new OrderPlacementPipeline(new SimpleMeterRegistry(), 1, 1);
+        ReflectionTestUtils.setField(orderService, "orderPlacementPipeline", pipeline);
+        Assertions.assertTrue(pipeline.tryAcquire());
+        Assertions.assertTrue(pipeline.tryAcquire());
+
+        CustomException exception =
+                Assertions.assertThrows(CustomException.class,
+                        () -> orderService.placeOrderAsync(getMockOrderRequest()));
+
+        Assertions.assertEquals("TOO_MANY_REQUESTS", exception.getErrorCode());
+        Assertions.assertEquals(429, exception.getStatus());
+        Mockito.verify(orderRepository, Mockito.never()).save(ArgumentMatchers.any());
+    }
+
+    @DisplayName("Place Order Async - a task rejected by a shut down pipeline gives its slot back")
+    @Test
+    void test_When_Pipeline_Shut_Down_then_Slot_Released() throws InterruptedException {
+        pipeline = new OrderPlacementPipeline(new SimpleMeterRegistry(), 1, 1);
+        pipeline.shutdown();
+
+        Assertions.assertTrue(pipeline.tryAcquire());
+        Assertions.assertThrows(RejectedExecutionException.class, () -> pipeline.submit(1, () -> { }));
+
+        // both slots are free again
+        Assertions.assertTrue(pipeline.tryAcquire());
+        Assertions.assertTrue(pipeline.tryAcquire());
+        Assertions.assertFalse(pipeline.tryAcquire());
+    }
+
     private OrderRequest getMockOrderRequest() {
         OrderRequest orderRequest =
                 OrderRequest.builder()
@@ -178,7 +561,7 @@ public class OrderServiceImplTest {
 
     private Order getMockOrder() {
         Order order = Order.builder()
-                .orderStatus("PLACED")
+                .orderStatus(OrderStatus.PLACED)
                 .orderDate(Instant.now())
                 .amount(200)
                 .quantity(100)
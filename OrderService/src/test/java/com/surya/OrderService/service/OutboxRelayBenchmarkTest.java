@@ -0,0 +1,111 @@
+package com.surya.OrderService.service;
+
+import com.surya.OrderService.external.client.PaymentService;
+import com.surya.OrderService.external.client.ProductService;
+import com.surya.OrderService.external.request.PaymentRequest;
+import com.surya.OrderService.model.OrderRequest;
+import com.surya.OrderService.model.PaymentMode;
+import com.surya.OrderService.repository.OrderRepository;
+import com.surya.OrderService.repository.OutboxEventRepository;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+import org.springframework.test.util.ReflectionTestUtils;
+
+import java.util.List;
+
+/**
+ * Compares the per-order synchronous payment call with the batched outbox relay on H2.
+ * Each payment service call is stubbed with a fixed latency to stand in for the network hop.
+ * <p>
+ * Run with {@code mvn test -Dtest=OutboxRelayBenchmarkTest -Dbenchmark=true}.
+ */
+@SpringBootTest(properties = {
+        "order.outbox.enabled=true",
+        "order.outbox.relay.interval-ms=3600000",
+        "order.outbox.relay.batch-size=100"
+})
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Log4j2
+public class OutboxRelayBenchmarkTest {
+
+    private static final int ORDERS = 2000;
+    private static final long PAYMENT_CALL_MILLIS = 2;
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @Test
+    void compareSynchronousPaymentWithBatchedRelay() {
+        Mockito.when(paymentService.doPayment(ArgumentMatchers.any(PaymentRequest.class)))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(PAYMENT_CALL_MILLIS);
+                    return ResponseEntity.ok(1L);
+                });
+        Mockito.when(paymentService.doPayments(ArgumentMatchers.anyList()))
+                .thenAnswer(invocation -> {
+                    Thread.sleep(PAYMENT_CALL_MILLIS);
+                    return ResponseEntity.ok(List.of());
+                });
+
+        ReflectionTestUtils.setField(orderService, "outboxEnabled", false);
+        long start = System.nanoTime();
+        for (int i = 0; i < ORDERS; i++) {
+            orderService.placeOrder(getMockOrderRequest());
+        }
+        long synchronousNanos = System.nanoTime() - start;
+
+        ReflectionTestUtils.setField(orderService, "outboxEnabled", true);
+        start = System.nanoTime();
+        for (int i = 0; i < ORDERS; i++) {
+            orderService.placeOrder(getMockOrderRequest());
+        }
+        long outboxWriteNanos = System.nanoTime() - start;
+        start = System.nanoTime();
+        outboxRelay.relayPending();
+        long relayNanos = System.nanoTime() - start;
+
+        log.info("Synchronous payment: {} orders/s", perSecond(ORDERS, synchronousNanos));
+        log.info("Outbox write: {} orders/s, relay: {} orders/s, end to end: {} orders/s",
+                perSecond(ORDERS, outboxWriteNanos),
+                perSecond(ORDERS, relayNanos),
+                perSecond(ORDERS, outboxWriteNanos + relayNanos));
+
+        outboxEventRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    private static long perSecond(int count, long nanos) {
+        return count * 1_000_000_000L / Math.max(nanos, 1);
+    }
+
+    private OrderRequest getMockOrderRequest() {
+        return OrderRequest.builder()
+                .productId(1)
+                .paymentMode(PaymentMode.CASH)
+                .quantity(1)
+                .totalAmount(200)
+                .build();
+    }
+}
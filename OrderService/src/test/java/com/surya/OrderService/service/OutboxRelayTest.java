@@ -0,0 +1,234 @@
+package com.surya.OrderService.service;
+
+import com.surya.OrderService.entity.Order;
+import com.surya.OrderService.entity.OutboxEvent;
+import com.surya.OrderService.exception.CustomException;
+import com.surya.OrderService.external.client.PaymentService;
+import com.surya.OrderService.external.client.ProductService;
+import com.surya.OrderService.external.request.PaymentRequest;
+import com.surya.OrderService.model.OrderRequest;
+import com.surya.OrderService.model.OrderStatus;
+import com.surya.OrderService.model.PaymentMode;
+import com.surya.OrderService.repository.OrderRepository;
+import com.surya.OrderService.repository.OutboxEventRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.ArgumentCaptor;
+import org.mockito.ArgumentMatchers;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.MockBean;
+import org.springframework.http.ResponseEntity;
+
+import java.time.Instant;
+import java.util.List;
+
+@SpringBootTest(properties = {
+        "order.outbox.enabled=true",
+        "order.outbox.relay.interval-ms=3600000",
+        "order.outbox.relay.batch-size=2",
+        "order.outbox.relay.max-attempts=2"
+})
+public class OutboxRelayTest {
+
+    @MockBean
+    private ProductService productService;
+
+    @MockBean
+    private PaymentService paymentService;
+
+    @Autowired
+    private OrderService orderService;
+
+    @Autowired
+    private OutboxRelay outboxRelay;
+
+    @Autowired
+    private OrderRepository orderRepository;
+
+    @Autowired
+    private OutboxEventRepository outboxEventRepository;
+
+    @BeforeEach
+    void cleanUp(){
+        outboxEventRepository.deleteAll();
+        orderRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Place Order - order and payment request are written together, relay delivers in batches")
+    void test_When_Place_Order_With_Outbox_then_Relay_Delivers_Batches(){
+        Mockito.when(paymentService.doPayments(ArgumentMatchers.anyList()))
+                .thenReturn(ResponseEntity.ok(List.of(1L)));
+
+        long first = orderService.placeOrder(getMockOrderRequest());
+        long second = orderService.placeOrder(getMockOrderRequest());
+        long third = orderService.placeOrder(getMockOrderRequest());
+
+        Mockito.verify(paymentService, Mockito.never()).doPayment(ArgumentMatchers.any());
+        Assertions.assertEquals(3, outboxEventRepository.count());
+        Assertions.assertEquals(OrderStatus.CREATED, orderRepository.findById(first).map(Order::getOrderStatus).orElseThrow());
+
+        outboxRelay.relayPending();
+
+        @SuppressWarnings("unchecked")
+        ArgumentCaptor<List<PaymentRequest>> batches = ArgumentCaptor.forClass(List.class);
+        Mockito.verify(paymentService, Mockito.times(2)).doPayments(batches.capture());
+        Assertions.assertEquals(2, batches.getAllValues().get(0).size());
+        Assertions.assertEquals(1, batches.getAllValues().get(1).size());
+        Assertions.assertEquals("ORDER-" + first, batches.getAllValues().get(0).get(0).getReferenceNumber());
+
+        for (long orderId : List.of(first, second, third)) {
+            Assertions.assertEquals(OrderStatus.PLACED, orderRepository.findById(orderId).map(Order::getOrderStatus).orElseThrow());
+        }
+        Assertions.assertTrue(outboxEventRepository.findAll().stream()
+                .allMatch(event -> event.getProcessedAt() != null));
+    }
+
+    @Test
+    @DisplayName("Relay - failed delivery is retried, then the order is marked PAYMENT_FAILED once no payment was recorded")
+    void test_When_Payment_Unavailable_then_Retried_Until_Max_Attempts(){
+        Mockito.when(paymentService.doPayments(ArgumentMatchers.anyList()))
+                .thenThrow(new RuntimeException("payment service down"));
+        Mockito.when(paymentService.doPayment(ArgumentMatchers.any()))
+                .thenThrow(new RuntimeException("payment service down"));
+        Mockito.when(paymentService.getPaymentIdByReferenceNumber(ArgumentMatchers.anyString()))
+                .thenThrow(new CustomException("Payment not found", "PAYMENT_NOT_FOUND", 404));
+
+        long orderId = orderService.placeOrder(getMockOrderRequest());
+
+        Assertions.assertEquals(0, outboxRelay.relayBatch());
+        OutboxEvent event = outboxEventRepository.findAll().get(0);
+        Assertions.assertEquals(1, event.getAttempts());
+        Assertions.assertNull(event.getProcessedAt());
+        Assertions.assertNull(event.getClaimedBy());
+        Assertions.assertEquals(OrderStatus.CREATED, orderRepository.findById(orderId).map(Order::getOrderStatus).orElseThrow());
+        Mockito.verify(paymentService, Mockito.never()).getPaymentIdByReferenceNumber(ArgumentMatchers.anyString());
+
+        Assertions.assertEquals(0, outboxRelay.relayBatch());
+        event = outboxEventRepository.findAll().get(0);
+        Assertions.assertNotNull(event.getProcessedAt());
+        Assertions.assertEquals(OrderStatus.PAYMENT_FAILED, orderRepository.findById(orderId).map(Order::getOrderStatus).orElseThrow());
+        Mockito.verify(paymentService).getPaymentIdByReferenceNumber("ORDER-" + orderId);
+    }
+
+    @Test
+    @DisplayName("Relay - an exhausted order whose payment was recorded by a timed out attempt is PLACED")
+    void test_When_Exhausted_But_Payment_Recorded_then_Placed(){
+        Mockito.when(paymentService.doPayments(ArgumentMatchers.anyList()))
+                .thenThrow(new RuntimeException("read timed out"));
+        Mockito.when(paymentService.doPayment(ArgumentMatchers.any()))
+                .thenThrow(new RuntimeException("read timed out"));
+        Mockito.when(paymentService.getPaymentIdByReferenceNumber(ArgumentMatchers.anyString()))
+                .thenReturn(ResponseEntity.ok(7L));
+
+        long orderId = orderService.placeOrder(getMockOrderRequest());
+
+        outboxRelay.relayBatch();
+        outboxRelay.relayBatch();
+
+        Assertions.assertNotNull(outboxEventRepository.findAll().get(0).getProcessedAt());
+        Assertions.assertEquals(OrderStatus.PLACED, orderRepository.findById(orderId).map(Order::getOrderStatus).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Relay - an exhausted order stays pending while its payment cannot be checked")
+    void test_When_Exhausted_And_Check_Fails_then_Still_Pending(){
+        Mockito.when(paymentService.doPayments(ArgumentMatchers.anyList()))
+                .thenThrow(new RuntimeException("payment service down"));
+        Mockito.when(paymentService.doPayment(ArgumentMatchers.any()))
+                .thenThrow(new RuntimeException("payment service down"));
+        Mockito.when(paymentService.getPaymentIdByReferenceNumber(ArgumentMatchers.anyString()))
+                .thenThrow(new CustomException("Payment Service is not available", "UNAVAILABLE", 500));
+
+        long orderId = orderService.placeOrder(getMockOrderRequest());
+
+        for (int i = 0; i < 3; i++) {
+            outboxRelay.relayBatch();
+        }
+
+        OutboxEvent event = outboxEventRepository.findAll().get(0);
+        Assertions.assertEquals(3, event.getAttempts());
+        Assertions.assertNull(event.getProcessedAt());
+        Assertions.assertEquals(OrderStatus.CREATED, orderRepository.findById(orderId).map(Order::getOrderStatus).orElseThrow());
+    }
+
+    @Test
+    @DisplayName("Relay - a rejected batch is delivered one payment at a time")
+    void test_When_Batch_Rejected_then_Delivered_One_By_One(){
+        long rejected = orderService.placeOrder(getMockOrderRequest());
+        long accepted = orderService.placeOrder(getMockOrderRequest());
+        Mockito.when(paymentService.doPayments(ArgumentMatchers.anyList()))
+                .thenThrow(new CustomException("Invalid payment", "INVALID_PAYMENT", 400));
+        Mockito.when(paymentService.doPayment(ArgumentMatchers.argThat(request -> request != null && request.getOrderId() == rejected)))
+                .thenThrow(new CustomException("Invalid payment", "INVALID_PAYMENT", 400));
+        Mockito.when(paymentService.doPayment(ArgumentMatchers.argThat(request -> request != null && request.getOrderId() == accepted)))
+                .thenReturn(ResponseEntity.ok(1L));
+
+        Assertions.assertEquals(1, outboxRelay.relayBatch());
+
+        Assertions.assertEquals(OrderStatus.PLACED, orderRepository.findById(accepted).map(Order::getOrderStatus).orElseThrow());
+        Assertions.assertEquals(OrderStatus.CREATED, orderRepository.findById(rejected).map(Order::getOrderStatus).orElseThrow());
+        OutboxEvent pending = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getOrderId() == rejected)
+                .findFirst()
+                .orElseThrow();
+        Assertions.assertEquals(1, pending.getAttempts());
+        Assertions.assertNull(pending.getProcessedAt());
+    }
+
+    @Test
+    @DisplayName("Relay - an unreadable event fails its order without blocking the events behind it")
+    void test_When_Payload_Unreadable_then_Order_Failed_And_Others_Delivered(){
+        Mockito.when(paymentService.doPayments(ArgumentMatchers.anyList()))
+                .thenReturn(ResponseEntity.ok(List.of(1L)));
+        long unreadable = orderService.placeOrder(getMockOrderRequest());
+        long readable = orderService.placeOrder(getMockOrderRequest());
+        OutboxEvent broken = outboxEventRepository.findAll().stream()
+                .filter(event -> event.getOrderId() == unreadable)
+                .findFirst()
+                .orElseThrow();
+        broken.setPayload("{not json");
+        outboxEventRepository.save(broken);
+
+        Assertions.assertEquals(1, outboxRelay.relayBatch());
+
+        Assertions.assertEquals(OrderStatus.PAYMENT_FAILED, orderRepository.findById(unreadable).map(Order::getOrderStatus).orElseThrow());
+        Assertions.assertEquals(OrderStatus.PLACED, orderRepository.findById(readable).map(Order::getOrderStatus).orElseThrow());
+        Assertions.assertTrue(outboxEventRepository.findAll().stream()
+                .allMatch(event -> event.getProcessedAt() != null));
+    }
+
+    @Test
+    @DisplayName("Relay - events another instance has claimed are left alone until the claim runs out")
+    void test_When_Claimed_Elsewhere_then_Not_Sent(){
+        Mockito.when(paymentService.doPayments(ArgumentMatchers.anyList()))
+                .thenReturn(ResponseEntity.ok(List.of(1L)));
+        long orderId = orderService.placeOrder(getMockOrderRequest());
+        OutboxEvent event = outboxEventRepository.findAll().get(0);
+        event.setClaimedBy("other-instance");
+        event.setClaimedUntil(Instant.now().plusSeconds(60));
+        outboxEventRepository.save(event);
+
+        Assertions.assertEquals(0, outboxRelay.relayBatch());
+        Mockito.verify(paymentService, Mockito.never()).doPayments(ArgumentMatchers.anyList());
+
+        event.setClaimedUntil(Instant.now().minusSeconds(1));
+        outboxEventRepository.save(event);
+
+        Assertions.assertEquals(1, outboxRelay.relayBatch());
+        Assertions.assertEquals(OrderStatus.PLACED, orderRepository.findById(orderId).map(Order::getOrderStatus).orElseThrow());
+    }
+
+    private OrderRequest getMockOrderRequest() {
+        return OrderRequest.builder()
+                .productId(1)
+                .paymentMode(PaymentMode.CASH)
+                .quantity(10)
+                .totalAmount(200)
+                .build();
+    }
+}
@@ -0,0 +1,302 @@
+package com.surya.PaymentService.aggregate;
+
+import com.surya.PaymentService.entity.PaymentAggregate;
+import com.surya.PaymentService.model.PaymentAggregateResponse;
+import com.surya.PaymentService.model.PaymentMode;
+import com.surya.PaymentService.model.PaymentStatus;
+import com.surya.PaymentService.repository.PaymentAggregateRepository;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.LongAdder;
+
+/**
+ * Running count and amount of successful payments per UTC day and payment mode.
+ * <p>
+ * Payments are added to striped {@link LongAdder}s, so concurrent payments never contend on
+ * a lock or a row. A scheduled checkpoint adds what was recorded since the previous one to
+ * PAYMENT_AGGREGATE, then reads the table back, which holds the checkpoints of every
+ * instance. Totals are answered from those stored totals plus this instance's payments not
+ * checkpointed yet, so every instance sees the payments of the others, up to two checkpoint
+ * intervals late: one for the other instance to write them, one for this one to read them.
+ * Payments recorded after the last checkpoint are lost if the process dies. When the summary
+ * table is still empty it is seeded once from TRANSACTION_DETAILS; start a single instance
+ * for that first run.
+ */
+@Component
+@Log4j2
+public class PaymentAggregator {
+
+    private static final PaymentMode[] MODES = PaymentMode.values();
+
+    private final NavigableMap<LocalDate, Bucket[]> days = new ConcurrentSkipListMap<>();
+    private final PaymentAggregateRepository paymentAggregateRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final int fetchSize;
+    private final Timer checkpointTime;
+
+    public PaymentAggregator(PaymentAggregateRepository paymentAggregateRepository,
+                             JdbcTemplate jdbcTemplate,
+                             PlatformTransactionManager transactionManager,
+                             MeterRegistry meterRegistry,
+                             @Value("${payment.aggregates.seed.fetch-size:1000}") int fetchSize) {
+        this.paymentAggregateRepository = paymentAggregateRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.fetchSize = fetchSize;
+
+        this.checkpointTime = Timer.builder("payment.aggregates.checkpoint")
+                .description("Time to write the aggregates recorded since the previous checkpoint and read back the stored totals")
+                .register(meterRegistry);
+        Gauge.builder("payment.aggregates.pending", this, PaymentAggregator::pendingPayments)
+                .description("Payments recorded in memory but not checkpointed yet")
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void load() {
+        long startedAt = System.nanoTime();
+        int loaded = refresh();
+        if (loaded == 0) {
+            seedFromTransactions();
+            log.info("Payment aggregates seeded from transactions in {} ms", (System.nanoTime() - startedAt) / 1_000_000);
+            return;
+        }
+        log.info("Payment aggregates loaded {} buckets in {} ms",
+                loaded, (System.nanoTime() - startedAt) / 1_000_000);
+    }
+
+    // takes over the stored totals, they include what other instances have checkpointed
+    private int refresh() {
+        List<PaymentAggregate> aggregates = paymentAggregateRepository.findAll();
+        for (PaymentAggregate aggregate : aggregates) {
+            Bucket bucket = bucket(aggregate.getDay(), PaymentMode.valueOf(aggregate.getPaymentMode()));
+            bucket.storedCount = aggregate.getPaymentCount();
+            bucket.storedAmount = aggregate.getTotalAmount();
+        }
+        return aggregates.size();
+    }
+
+    // counted as not checkpointed yet, so the first checkpoint writes them
+    private void seedFromTransactions() {
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(
+                    // rows TransactionCodeMigration has not reached yet only have the MODE and STATUS strings
+                    "select PAYMENT_DATE, MODE_CODE, MODE, AMOUNT from TRANSACTION_DETAILS "
+                            + "where STATUS_CODE = " + PaymentStatus.SUCCESS.getCode()
+                            + " or (STATUS_CODE is null and STATUS = '" + PaymentStatus.SUCCESS.name() + "')",
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(fetchSize);
+            return statement;
+        }, (ResultSet rs) -> {
+            int modeCode = rs.getInt("MODE_CODE");
+            PaymentMode paymentMode = rs.wasNull() ? PaymentMode.valueOf(rs.getString("MODE")) : PaymentMode.fromCode(modeCode);
+            add(paymentMode, rs.getTimestamp("PAYMENT_DATE").toInstant(), rs.getLong("AMOUNT"));
+        });
+    }
+
+    /**
+     * Adds a successful payment. Inside a transaction it is added once the transaction commits,
+     * so a rolled back payment is never counted.
+     */
+    public void record(PaymentMode paymentMode, Instant paymentDate, long amount) {
+        if (TransactionSynchronizationManager.isSynchronizationActive()) {
+            TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+                @Override
+                public void afterCommit() {
+                    add(paymentMode, paymentDate, amount);
+                }
+            });
+            return;
+        }
+        add(paymentMode, paymentDate, amount);
+    }
+
+    private void add(PaymentMode paymentMode, Instant paymentDate, long amount) {
+        Bucket bucket = bucket(LocalDate.ofInstant(paymentDate, ZoneOffset.UTC), paymentMode);
+        bucket.count.increment();
+        bucket.amount.add(amount);
+    }
+
+    private Bucket bucket(LocalDate day, PaymentMode paymentMode) {
+        Bucket[] buckets = days.get(day);
+        if (buckets == null) {
+            buckets = days.computeIfAbsent(day, ignored -> {
+                Bucket[] created = new Bucket[MODES.length];
+                for (int i = 0; i < created.length; i++) {
+                    created[i] = new Bucket();
+                }
+                return created;
+            });
+        }
+        return buckets[paymentMode.ordinal()];
+    }
+
+    /**
+     * Totals per day and mode between from and to inclusive, either bound may be null. Only
+     * reads the in-memory buckets, so the cost depends on the days asked for, not on the
+     * number of payments. Includes other instances' payments as of the last checkpoint.
+     */
+    public List<PaymentAggregateResponse> getAggregates(LocalDate from, LocalDate to, PaymentMode paymentMode) {
+        NavigableMap<LocalDate, Bucket[]> range = days;
+        if (from != null && to != null && from.isAfter(to)) {
+            return List.of();
+        }
+        if (from != null) {
+            range = range.tailMap(from, true);
+        }
+        if (to != null) {
+            range = range.headMap(to, true);
+        }
+
+        List<PaymentAggregateResponse> aggregates = new ArrayList<>();
+        for (Map.Entry<LocalDate, Bucket[]> day : range.entrySet()) {
+            for (PaymentMode mode : MODES) {
+                if (paymentMode != null && paymentMode != mode) {
+                    continue;
+                }
+                Bucket bucket = day.getValue()[mode.ordinal()];
+                long count = bucket.totalCount();
+                if (count == 0) {
+                    continue;
+                }
+                aggregates.add(PaymentAggregateResponse.builder()
+                        .day(day.getKey())
+                        .paymentMode(mode)
+                        .paymentCount(count)
+                        .totalAmount(bucket.totalAmount())
+                        .build());
+            }
+        }
+        return aggregates;
+    }
+
+    @Scheduled(fixedDelayString = "${payment.aggregates.checkpoint-interval-ms:10000}")
+    public synchronized void checkpoint() {
+        List<Checkpoint> checkpoints = new ArrayList<>();
+        days.forEach((day, buckets) -> {
+            for (PaymentMode mode : MODES) {
+                Bucket bucket = buckets[mode.ordinal()];
+                long count = bucket.count.sum();
+                long amount = bucket.amount.sum();
+                if (count != bucket.checkpointedCount || amount != bucket.checkpointedAmount) {
+                    checkpoints.add(new Checkpoint(day, mode, bucket, count, amount));
+                }
+            }
+        });
+        long startedAt = System.nanoTime();
+        if (!checkpoints.isEmpty()) {
+            try {
+                transactionTemplate.executeWithoutResult(status -> checkpoints.forEach(this::write));
+            } catch (RuntimeException e) {
+                log.warn("Could not checkpoint payment aggregates, the next checkpoint retries", e);
+                return;
+            }
+            checkpoints.forEach(checkpoint -> {
+                Bucket bucket = checkpoint.bucket;
+                // moved from pending to stored, so the totals do not dip until the refresh below
+                bucket.storedCount += checkpoint.count - bucket.checkpointedCount;
+                bucket.storedAmount += checkpoint.amount - bucket.checkpointedAmount;
+                bucket.checkpointedCount = checkpoint.count;
+                bucket.checkpointedAmount = checkpoint.amount;
+            });
+        }
+        try {
+            refresh();
+        } catch (RuntimeException e) {
+            log.warn("Could not read back payment aggregates, the next checkpoint retries", e);
+        }
+        checkpointTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+    }
+
+    private void write(Checkpoint checkpoint) {
+        long count = checkpoint.count - checkpoint.bucket.checkpointedCount;
+        long amount = checkpoint.amount - checkpoint.bucket.checkpointedAmount;
+        int updated = paymentAggregateRepository.addToTotals(checkpoint.day, checkpoint.paymentMode.name(), count, amount);
+        if (updated == 0) {
+            paymentAggregateRepository.save(PaymentAggregate.builder()
+                    .day(checkpoint.day)
+                    .paymentMode(checkpoint.paymentMode.name())
+                    .paymentCount(count)
+                    .totalAmount(amount)
+                    .build());
+        }
+    }
+
+    private double pendingPayments() {
+        long pending = 0;
+        for (Bucket[] buckets : days.values()) {
+            for (Bucket bucket : buckets) {
+                pending += bucket.count.sum() - bucket.checkpointedCount;
+            }
+        }
+        return pending;
+    }
+
+    @PreDestroy
+    public void shutdown() {
+        checkpoint();
+    }
+
+    private static final class Bucket {
+
+        // recorded by this instance since it started
+        private final LongAdder count = new LongAdder();
+        private final LongAdder amount = new LongAdder();
+        // written by load and the checkpoint only, under its lock
+        private volatile long checkpointedCount;
+        private volatile long checkpointedAmount;
+        // PAYMENT_AGGREGATE as last read, every instance's checkpoints
+        private volatile long storedCount;
+        private volatile long storedAmount;
+
+        private long totalCount() {
+            return storedCount + count.sum() - checkpointedCount;
+        }
+
+        private long totalAmount() {
+            return storedAmount + amount.sum() - checkpointedAmount;
+        }
+    }
+
+    private static final class Checkpoint {
+
+        private final LocalDate day;
+        private final PaymentMode paymentMode;
+        private final Bucket bucket;
+        private final long count;
+        private final long amount;
+
+        private Checkpoint(LocalDate day, PaymentMode paymentMode, Bucket bucket, long count, long amount) {
+            this.day = day;
+            this.paymentMode = paymentMode;
+            this.bucket = bucket;
+            this.count = count;
+            this.amount = amount;
+        }
+    }
+}
@@ -0,0 +1,259 @@
+package com.surya.PaymentService.archive;
+
+import com.surya.PaymentService.entity.TransactionDetails;
+import com.surya.PaymentService.model.PaymentMode;
+import com.surya.PaymentService.model.PaymentStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.scheduling.annotation.Scheduled;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PostConstruct;
+import javax.annotation.PreDestroy;
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.Paths;
+import java.sql.Timestamp;
+import java.time.Duration;
+import java.time.Instant;
+import java.time.YearMonth;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.Collection;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.TreeMap;
+import java.util.concurrent.CopyOnWriteArrayList;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+import java.util.stream.Stream;
+
+/**
+ * Moves payments older than {@code payment.archive.older-than} out of TRANSACTION_DETAILS into
+ * compressed, column-oriented segment files, one per month of payment date and run, and
+ * answers lookups for payments that are no longer in the table.
+ * <p>
+ * A segment is on disk before its rows are deleted. If the process stops in between the rows
+ * are archived again by the next run; lookups ignore the duplicates.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.archive.enabled", havingValue = "true")
+@Log4j2
+public class PaymentArchive {
+
+    private static final ColumnType[] SCHEMA = {
+            ColumnType.LONG, ColumnType.LONG, ColumnType.LONG, ColumnType.STRING,
+            ColumnType.LONG, ColumnType.LONG, ColumnType.LONG
+    };
+    private static final int ID = 0;
+    private static final int ORDER_ID = 1;
+    private static final int MODE = 2;
+    private static final int REFERENCE_NUMBER = 3;
+    private static final int PAYMENT_DATE = 4;
+    private static final int STATUS = 5;
+    private static final int AMOUNT = 6;
+
+    private final JdbcTemplate jdbcTemplate;
+    private final TransactionTemplate transactionTemplate;
+    private final Path directory;
+    private final Duration olderThan;
+    private final int rowsPerRun;
+    private final int blockRows;
+    private final List<SegmentReader> segments = new CopyOnWriteArrayList<>();
+
+    private final Counter archivedRows;
+    private final Counter hits;
+    private final Counter misses;
+    private final Timer runTime;
+
+    public PaymentArchive(JdbcTemplate jdbcTemplate,
+                          PlatformTransactionManager transactionManager,
+                          MeterRegistry meterRegistry,
+                          @Value("${payment.archive.directory:archive/payments}") String directory,
+                          @Value("${payment.archive.older-than:365d}") Duration olderThan,
+                          @Value("${payment.archive.rows-per-run:100000}") int rowsPerRun,
+                          @Value("${payment.archive.block-rows:1024}") int blockRows) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.directory = Paths.get(directory);
+        this.olderThan = olderThan;
+        this.rowsPerRun = rowsPerRun;
+        this.blockRows = blockRows;
+
+        this.archivedRows = Counter.builder("payment.archive.rows")
+                .description("Payments moved from the table to segment files")
+                .register(meterRegistry);
+        this.hits = lookups(meterRegistry, "hit");
+        this.misses = lookups(meterRegistry, "miss");
+        this.runTime = Timer.builder("payment.archive.run")
+                .description("Time of one archival run")
+                .register(meterRegistry);
+        Gauge.builder("payment.archive.segments", segments, List::size)
+                .description("Open archive segments")
+                .register(meterRegistry);
+        Gauge.builder("payment.archive.bytes", segments,
+                        open -> open.stream().mapToLong(SegmentReader::sizeInBytes).sum())
+                .description("Size of the open archive segments")
+                .register(meterRegistry);
+    }
+
+    private static Counter lookups(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("payment.archive.lookups")
+                .description("Lookups that fell through to the archive")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    @PostConstruct
+    public void open() throws IOException {
+        Files.createDirectories(directory);
+        try (Stream<Path> files = Files.list(directory)) {
+            for (Path file : files.sorted().collect(Collectors.toList())) {
+                String name = file.getFileName().toString();
+                if (name.endsWith(".seg.tmp")) {
+                    // left behind by a run that stopped before the move, its rows were never deleted
+                    Files.delete(file);
+                } else if (name.endsWith(".seg")) {
+                    segments.add(SegmentReader.open(file));
+                }
+            }
+        }
+        log.info("Payment archive opened {} segments in {}", segments.size(), directory.toAbsolutePath());
+    }
+
+    /**
+     * Archives up to rows-per-run payments older than the configured age per pass, until none
+     * are left. Returns the number of payments archived.
+     */
+    @Scheduled(fixedDelayString = "${payment.archive.interval-ms:3600000}",
+            initialDelayString = "${payment.archive.initial-delay-ms:60000}")
+    public synchronized long archive() {
+        long startedAt = System.nanoTime();
+        Timestamp cutoff = Timestamp.from(Instant.now().minus(olderThan));
+        long archived = 0;
+        long afterId = 0;
+        while (true) {
+            List<Object[]> rows = jdbcTemplate.query(
+                    // rows TransactionCodeMigration has not reached yet wait for a later run
+                    "select ID, ORDER_ID, MODE_CODE, REFERENCE_NUMBER, PAYMENT_DATE, STATUS_CODE, AMOUNT "
+                            + "from TRANSACTION_DETAILS where PAYMENT_DATE < ? and ID > ? "
+                            + "and MODE_CODE is not null and STATUS_CODE is not null order by ID limit ?",
+                    (rs, rowNum) -> new Object[]{
+                            rs.getLong("ID"),
+                            rs.getLong("ORDER_ID"),
+                            (long) rs.getInt("MODE_CODE"),
+                            rs.getString("REFERENCE_NUMBER"),
+                            toNanos(rs.getTimestamp("PAYMENT_DATE").toInstant()),
+                            (long) rs.getInt("STATUS_CODE"),
+                            rs.getLong("AMOUNT")
+                    },
+                    cutoff, afterId, rowsPerRun);
+            if (rows.isEmpty()) {
+                break;
+            }
+            writeSegments(rows);
+            delete(rows);
+            archived += rows.size();
+            archivedRows.increment(rows.size());
+            afterId = (Long) rows.get(rows.size() - 1)[ID];
+            if (rows.size() < rowsPerRun) {
+                break;
+            }
+        }
+        runTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        if (archived > 0) {
+            log.info("Archived {} payments older than {}", archived, cutoff);
+        }
+        return archived;
+    }
+
+    private void writeSegments(List<Object[]> rows) {
+        Map<YearMonth, List<Object[]>> months = new TreeMap<>();
+        for (Object[] row : rows) {
+            months.computeIfAbsent(YearMonth.from(fromNanos((Long) row[PAYMENT_DATE]).atOffset(ZoneOffset.UTC)),
+                    month -> new ArrayList<>()).add(row);
+        }
+        months.forEach((month, monthRows) -> {
+            Path file = directory.resolve(String.format("payments-%s-%d-%d.seg", month,
+                    (Long) monthRows.get(0)[ID], (Long) monthRows.get(monthRows.size() - 1)[ID]));
+            try {
+                SegmentWriter.write(file, SCHEMA, ID, ORDER_ID, monthRows, blockRows);
+                segments.add(SegmentReader.open(file));
+            } catch (IOException e) {
+                throw new UncheckedIOException("Could not write archive segment " + file, e);
+            }
+        });
+    }
+
+    private void delete(List<Object[]> rows) {
+        transactionTemplate.executeWithoutResult(status -> jdbcTemplate.batchUpdate(
+                "delete from TRANSACTION_DETAILS where ID = ?",
+                rows.stream().map(row -> new Object[]{row[ID]}).collect(Collectors.toList())));
+    }
+
+    // archived transactions of the order, oldest first
+    public List<TransactionDetails> findByOrderId(long orderId) {
+        Map<Long, TransactionDetails> found = new TreeMap<>();
+        for (SegmentReader segment : segments) {
+            segment.findByOrderId(orderId).forEach(row -> found.putIfAbsent((Long) row[ID], toTransactionDetails(row)));
+        }
+        (found.isEmpty() ? misses : hits).increment();
+        List<TransactionDetails> transactions = new ArrayList<>(found.values());
+        transactions.sort(TransactionDetails.PAYMENT_ORDER);
+        return transactions;
+    }
+
+    public Map<Long, List<TransactionDetails>> findByOrderIds(Collection<Long> orderIds) {
+        Map<Long, List<TransactionDetails>> found = new LinkedHashMap<>();
+        for (Long orderId : orderIds) {
+            List<TransactionDetails> transactions = findByOrderId(orderId);
+            if (!transactions.isEmpty()) {
+                found.put(orderId, transactions);
+            }
+        }
+        return found;
+    }
+
+    public Optional<TransactionDetails> findLatestByOrderId(long orderId) {
+        return findByOrderId(orderId).stream().max(TransactionDetails.PAYMENT_ORDER);
+    }
+
+    private static TransactionDetails toTransactionDetails(Object[] row) {
+        return TransactionDetails.builder()
+                .id((Long) row[ID])
+                .orderId((Long) row[ORDER_ID])
+                .paymentMode(PaymentMode.fromCode(((Long) row[MODE]).intValue()))
+                .referenceNumber((String) row[REFERENCE_NUMBER])
+                .paymentDate(fromNanos((Long) row[PAYMENT_DATE]))
+                .paymentStatus(PaymentStatus.fromCode(((Long) row[STATUS]).intValue()))
+                .amount((Long) row[AMOUNT])
+                .build();
+    }
+
+    private static long toNanos(Instant instant) {
+        return Math.addExact(Math.multiplyExact(instant.getEpochSecond(), 1_000_000_000L), instant.getNano());
+    }
+
+    private static Instant fromNanos(long nanos) {
+        return Instant.ofEpochSecond(Math.floorDiv(nanos, 1_000_000_000L), Math.floorMod(nanos, 1_000_000_000L));
+    }
+
+    @PreDestroy
+    public void close() throws IOException {
+        for (SegmentReader segment : segments) {
+            segment.close();
+        }
+    }
+}
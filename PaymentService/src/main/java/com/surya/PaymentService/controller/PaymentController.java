@@ -1,14 +1,20 @@
 package com.surya.PaymentService.controller;
 
 import com.netflix.discovery.converters.Auto;
+import com.surya.PaymentService.model.PaymentAggregateResponse;
+import com.surya.PaymentService.model.PaymentMode;
 import com.surya.PaymentService.model.PaymentRequest;
 import com.surya.PaymentService.model.PaymentResponse;
 import com.surya.PaymentService.service.PaymentService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.format.annotation.DateTimeFormat;
 import org.springframework.http.HttpStatus;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
+import java.time.LocalDate;
+import java.util.List;
+
 @RestController
 @RequestMapping("/payment")
 public class PaymentController {
@@ -23,6 +29,21 @@ public class PaymentController {
                 HttpStatus.OK);
     }
 
+    @PostMapping("/batch")
+    public ResponseEntity<List<Long>> doPayments(@RequestBody List<PaymentRequest> paymentRequests){
+        return new ResponseEntity<>(
+                paymentService.doPayments(paymentRequests),
+                HttpStatus.OK);
+    }
+
+    @GetMapping("/reference/{referenceNumber}")
+    public ResponseEntity<Long> getPaymentIdByReferenceNumber(@PathVariable String referenceNumber){
+        return new ResponseEntity<>(
+                paymentService.getPaymentIdByReferenceNumber(referenceNumber),
+                HttpStatus.OK
+        );
+    }
+
     @GetMapping("/order/{orderId}")
     public ResponseEntity<PaymentResponse> getPaymentDeailsByOrderId (@PathVariable String orderId){
         return new ResponseEntity<>(
@@ -30,4 +51,32 @@ public class PaymentController {
                 HttpStatus.OK
         );
     }
+
+    @GetMapping("/order/{orderId}/history")
+    public ResponseEntity<List<PaymentResponse>> getPaymentHistoryByOrderId(@PathVariable long orderId){
+        return new ResponseEntity<>(
+                paymentService.getPaymentHistoryByOrderId(orderId),
+                HttpStatus.OK
+        );
+    }
+
+    @GetMapping("/orders")
+    public ResponseEntity<List<PaymentResponse>> getPaymentDetailsByOrderIds(@RequestParam("ids") List<Long> orderIds){
+        return new ResponseEntity<>(
+                paymentService.getPaymentDetailsByOrderIds(orderIds),
+                HttpStatus.OK
+        );
+    }
+
+    // totals per UTC day and payment mode, served from memory
+    @GetMapping("/aggregates")
+    public ResponseEntity<List<PaymentAggregateResponse>> getPaymentAggregates(
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate from,
+            @RequestParam(required = false) @DateTimeFormat(iso = DateTimeFormat.ISO.DATE) LocalDate to,
+            @RequestParam(required = false) PaymentMode mode){
+        return new ResponseEntity<>(
+                paymentService.getPaymentAggregates(from, to, mode),
+                HttpStatus.OK
+        );
+    }
 }
@@ -0,0 +1,32 @@
+package com.surya.PaymentService.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+import java.time.LocalDate;
+
+// checkpointed totals of successful payments per UTC day and payment mode, see PaymentAggregator
+@Entity
+@Table(name = "PAYMENT_AGGREGATE", uniqueConstraints = {
+        @UniqueConstraint(name = "UK_PAYMENT_AGGREGATE_DAY_MODE", columnNames = {"PAYMENT_DAY", "MODE"})
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PaymentAggregate {
+    @Id
+    @GeneratedValue(generator = "pooled_lo")
+    private long id;
+    @Column(name = "PAYMENT_DAY")
+    private LocalDate day;
+    @Column(name = "MODE")
+    private String paymentMode;
+    @Column(name = "PAYMENT_COUNT")
+    private long paymentCount;
+    @Column(name = "TOTAL_AMOUNT")
+    private long totalAmount;
+}
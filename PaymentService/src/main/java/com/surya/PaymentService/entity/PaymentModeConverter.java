@@ -0,0 +1,20 @@
+package com.surya.PaymentService.entity;
+
+import com.surya.PaymentService.model.PaymentMode;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+@Converter
+public class PaymentModeConverter implements AttributeConverter<PaymentMode, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(PaymentMode paymentMode) {
+        return paymentMode == null ? null : paymentMode.getCode();
+    }
+
+    @Override
+    public PaymentMode convertToEntityAttribute(Integer code) {
+        return code == null ? null : PaymentMode.fromCode(code);
+    }
+}
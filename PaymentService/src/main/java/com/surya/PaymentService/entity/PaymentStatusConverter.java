@@ -0,0 +1,20 @@
+package com.surya.PaymentService.entity;
+
+import com.surya.PaymentService.model.PaymentStatus;
+
+import javax.persistence.AttributeConverter;
+import javax.persistence.Converter;
+
+@Converter
+public class PaymentStatusConverter implements AttributeConverter<PaymentStatus, Integer> {
+
+    @Override
+    public Integer convertToDatabaseColumn(PaymentStatus paymentStatus) {
+        return paymentStatus == null ? null : paymentStatus.getCode();
+    }
+
+    @Override
+    public PaymentStatus convertToEntityAttribute(Integer code) {
+        return code == null ? null : PaymentStatus.fromCode(code);
+    }
+}
@@ -1,5 +1,7 @@
 package com.surya.PaymentService.entity;
 
+import com.surya.PaymentService.model.PaymentMode;
+import com.surya.PaymentService.model.PaymentStatus;
 import lombok.AllArgsConstructor;
 import lombok.Builder;
 import lombok.Data;
@@ -7,27 +9,69 @@ import lombok.NoArgsConstructor;
 
 import javax.persistence.*;
 import java.time.Instant;
+import java.util.Comparator;
 
 @Entity
-@Table(name = "TRANSACTION_DETAILS")
+@Table(name = "TRANSACTION_DETAILS", uniqueConstraints = {
+        // a retried payment carries the same reference number and must not be recorded twice,
+        // ReferenceNumberIndexCheck makes sure the constraint exists where ddl-auto could not add it
+        @UniqueConstraint(name = "UK_TRANSACTION_DETAILS_REFERENCE_NUMBER", columnNames = "REFERENCE_NUMBER")
+}, indexes = {
+        // lookups by order read the latest transaction first, the trailing columns make that an index-only ordering
+        @Index(name = "IDX_TRANSACTION_DETAILS_ORDER_PAYMENT_DATE", columnList = "ORDER_ID, PAYMENT_DATE, ID")
+})
 @Data
 @AllArgsConstructor
 @NoArgsConstructor
 @Builder
 public class TransactionDetails {
+
+    // pooled-lo ids are not time-ordered across instances, so the payment date decides which
+    // transaction of an order came last and the id only breaks ties
+    public static final Comparator<TransactionDetails> PAYMENT_ORDER = Comparator
+            .comparing(TransactionDetails::getPaymentDate, Comparator.nullsFirst(Comparator.naturalOrder()))
+            .thenComparingLong(TransactionDetails::getId);
+
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "pooled_lo")
     private long id;
     @Column(name = "ORDER_ID")
     private long orderId;
-    @Column(name = "MODE")
-    private String paymentMode;
+    @Column(name = "MODE_CODE", columnDefinition = "tinyint")
+    @Convert(converter = PaymentModeConverter.class)
+    private PaymentMode paymentMode;
     @Column(name = "REFERENCE_NUMBER")
     private String referenceNumber;
     @Column(name = "PAYMENT_DATE")
     private Instant paymentDate;
-    @Column(name = "STATUS")
-    private String paymentStatus;
+    @Column(name = "STATUS_CODE", columnDefinition = "tinyint")
+    @Convert(converter = PaymentStatusConverter.class)
+    private PaymentStatus paymentStatus;
     @Column(name = "AMOUNT")
     private long amount;
+    // mode and status names from before MODE_CODE and STATUS_CODE, read for rows
+    // TransactionCodeMigration has not reached yet. Still written alongside the codes for one
+    // release, so that instances on the previous version can read new payments during a
+    // rolling deploy
+    @Column(name = "MODE")
+    private String legacyPaymentMode;
+    @Column(name = "STATUS")
+    private String legacyPaymentStatus;
+
+    // transactions are only ever inserted, so the names never go stale
+    @PrePersist
+    void writeLegacyCodes() {
+        legacyPaymentMode = paymentMode == null ? null : paymentMode.name();
+        legacyPaymentStatus = paymentStatus == null ? null : paymentStatus.name();
+    }
+
+    @PostLoad
+    void resolveLegacyCodes() {
+        if (paymentMode == null && legacyPaymentMode != null) {
+            paymentMode = PaymentMode.valueOf(legacyPaymentMode);
+        }
+        if (paymentStatus == null && legacyPaymentStatus != null) {
+            paymentStatus = PaymentStatus.valueOf(legacyPaymentStatus);
+        }
+    }
 }
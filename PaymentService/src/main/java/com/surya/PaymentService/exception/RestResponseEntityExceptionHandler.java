@@ -0,0 +1,32 @@
+package com.surya.PaymentService.exception;
+
+import com.surya.PaymentService.model.ErrorResponse;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+import org.springframework.web.bind.annotation.ControllerAdvice;
+import org.springframework.web.bind.annotation.ExceptionHandler;
+import org.springframework.web.servlet.mvc.method.annotation.ResponseEntityExceptionHandler;
+
+@ControllerAdvice
+public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionHandler {
+
+    @ExceptionHandler(PaymentServiceCustomException.class)
+    public ResponseEntity<ErrorResponse> handlePaymentServiceException(PaymentServiceCustomException exception){
+        return new ResponseEntity<>(ErrorResponse.builder()
+                .errorMessage(exception.getMessage())
+                .errorCode(exception.getErrorCode())
+                .build(), statusOf(exception.getErrorCode()));
+    }
+
+    // the status follows the error code, codes without a status of their own are server errors
+    static HttpStatus statusOf(String errorCode) {
+        if (errorCode != null && errorCode.endsWith("_NOT_FOUND")) {
+            return HttpStatus.NOT_FOUND;
+        }
+        if (errorCode != null && (errorCode.equals("TOO_MANY_IDS") || errorCode.startsWith("INVALID_"))) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        return HttpStatus.INTERNAL_SERVER_ERROR;
+    }
+
+}
@@ -0,0 +1,82 @@
+package com.surya.PaymentService.migration;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.context.annotation.DependsOn;
+import org.springframework.jdbc.core.ConnectionCallback;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import javax.annotation.PostConstruct;
+import java.sql.DatabaseMetaData;
+import java.sql.ResultSet;
+import java.util.HashMap;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+/**
+ * Makes sure TRANSACTION_DETAILS has its unique index on REFERENCE_NUMBER before payments are
+ * taken.
+ * <p>
+ * ddl-auto only logs a warning when it cannot add the constraint, which it cannot while the
+ * table still holds payments recorded twice under one reference number, and the service would
+ * then rely on the dedupe lookups alone. This check runs after the schema update: it creates
+ * the index when it is missing and the table is clean, and stops the start otherwise, naming
+ * the duplicates to resolve first. Which of two recorded payments is the real one is not
+ * something to guess at startup.
+ */
+@Component
+@DependsOn("entityManagerFactory")
+@Log4j2
+public class ReferenceNumberIndexCheck {
+
+    static final String INDEX_NAME = "UK_TRANSACTION_DETAILS_REFERENCE_NUMBER";
+    private static final int REPORTED_DUPLICATES = 10;
+
+    private final JdbcTemplate jdbcTemplate;
+
+    public ReferenceNumberIndexCheck(JdbcTemplate jdbcTemplate) {
+        this.jdbcTemplate = jdbcTemplate;
+    }
+
+    @PostConstruct
+    public void ensureUniqueIndex() {
+        if (hasUniqueIndex()) {
+            return;
+        }
+        List<String> duplicates = jdbcTemplate.queryForList(
+                "select REFERENCE_NUMBER from TRANSACTION_DETAILS where REFERENCE_NUMBER is not null "
+                        + "group by REFERENCE_NUMBER having count(*) > 1 order by REFERENCE_NUMBER limit ?",
+                String.class, REPORTED_DUPLICATES);
+        if (!duplicates.isEmpty()) {
+            throw new IllegalStateException("TRANSACTION_DETAILS has no unique index on REFERENCE_NUMBER and "
+                    + "cannot get one while reference numbers are recorded more than once, first "
+                    + REPORTED_DUPLICATES + " of them: " + duplicates
+                    + ". Resolve the duplicate payments and start again");
+        }
+        jdbcTemplate.execute("alter table TRANSACTION_DETAILS add constraint " + INDEX_NAME
+                + " unique (REFERENCE_NUMBER)");
+        log.info("Created the missing unique index {} on TRANSACTION_DETAILS", INDEX_NAME);
+    }
+
+    // any unique index on exactly REFERENCE_NUMBER counts, whatever it was named
+    boolean hasUniqueIndex() {
+        return Boolean.TRUE.equals(jdbcTemplate.execute((ConnectionCallback<Boolean>) connection -> {
+            DatabaseMetaData metaData = connection.getMetaData();
+            Map<String, Set<String>> columnsByIndex = new HashMap<>();
+            try (ResultSet rs = metaData.getIndexInfo(connection.getCatalog(), connection.getSchema(),
+                    "TRANSACTION_DETAILS", true, false)) {
+                while (rs.next()) {
+                    String indexName = rs.getString("INDEX_NAME");
+                    String columnName = rs.getString("COLUMN_NAME");
+                    if (indexName != null && columnName != null) {
+                        columnsByIndex.computeIfAbsent(indexName, name -> new HashSet<>())
+                                .add(columnName.toUpperCase());
+                    }
+                }
+            }
+            return columnsByIndex.values().contains(Set.of("REFERENCE_NUMBER"));
+        }));
+    }
+}
@@ -0,0 +1,112 @@
+package com.surya.PaymentService.migration;
+
+import com.surya.PaymentService.model.PaymentMode;
+import com.surya.PaymentService.model.PaymentStatus;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.MeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.util.Arrays;
+import java.util.List;
+import java.util.stream.Collectors;
+
+/**
+ * Fills TRANSACTION_DETAILS.MODE_CODE and STATUS_CODE for rows written while the payment mode
+ * and status were stored as strings.
+ * <p>
+ * Rows are updated in small id ranges, each in its own statement, with a pause in between, so
+ * the table stays available and no long transaction holds locks. Until a row is migrated the
+ * entity falls back to the MODE and STATUS strings when it is loaded. Runs on every start,
+ * which also picks up rows written by instances still on the string columns during a rolling
+ * deploy.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.code-migration.enabled", havingValue = "true", matchIfMissing = true)
+@Log4j2
+public class TransactionCodeMigration {
+
+    private static final String MODE_CODE = Arrays.stream(PaymentMode.values())
+            .map(paymentMode -> "when '" + paymentMode.name() + "' then " + paymentMode.getCode())
+            .collect(Collectors.joining(" ", "case MODE ", " end"));
+    private static final String STATUS_CODE = Arrays.stream(PaymentStatus.values())
+            .map(paymentStatus -> "when '" + paymentStatus.name() + "' then " + paymentStatus.getCode())
+            .collect(Collectors.joining(" ", "case STATUS ", " end"));
+
+    private final JdbcTemplate jdbcTemplate;
+    private final int batchSize;
+    private final long pauseMillis;
+    private final Counter migratedRows;
+
+    public TransactionCodeMigration(JdbcTemplate jdbcTemplate,
+                                    MeterRegistry meterRegistry,
+                                    @Value("${payment.code-migration.batch-size:1000}") int batchSize,
+                                    @Value("${payment.code-migration.pause-ms:20}") long pauseMillis) {
+        this.jdbcTemplate = jdbcTemplate;
+        this.batchSize = batchSize;
+        this.pauseMillis = pauseMillis;
+        this.migratedRows = Counter.builder("payment.code-migration.rows")
+                .description("Transactions whose MODE_CODE and STATUS_CODE were filled from MODE and STATUS")
+                .register(meterRegistry);
+    }
+
+    // runs on its own thread, transactions are served from the string fallback until it is done
+    @EventListener(ApplicationReadyEvent.class)
+    public void migrateInBackground() {
+        Thread migration = new Thread(this::migrate, "payment-code-migration");
+        migration.setDaemon(true);
+        migration.start();
+    }
+
+    /**
+     * Migrates every transaction without a MODE_CODE or STATUS_CODE and returns how many were
+     * updated.
+     */
+    public long migrate() {
+        long startedAt = System.nanoTime();
+        long migrated = 0;
+        long afterId = 0;
+        try {
+            while (true) {
+                List<Long> ids = jdbcTemplate.queryForList(
+                        "select ID from TRANSACTION_DETAILS where ID > ? "
+                                + "and ((MODE_CODE is null and MODE is not null) or (STATUS_CODE is null and STATUS is not null)) "
+                                + "order by ID limit ?",
+                        Long.class, afterId, batchSize);
+                if (ids.isEmpty()) {
+                    break;
+                }
+                long lastId = ids.get(ids.size() - 1);
+                int updated = jdbcTemplate.update(
+                        "update TRANSACTION_DETAILS set MODE_CODE = coalesce(MODE_CODE, " + MODE_CODE + "), "
+                                + "STATUS_CODE = coalesce(STATUS_CODE, " + STATUS_CODE + ") "
+                                + "where ID between ? and ? and (MODE_CODE is null or STATUS_CODE is null)",
+                        ids.get(0), lastId);
+                migrated += updated;
+                migratedRows.increment(updated);
+                afterId = lastId;
+                if (ids.size() < batchSize) {
+                    break;
+                }
+                Thread.sleep(pauseMillis);
+            }
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            log.warn("Payment code migration interrupted after {} transactions", migrated);
+            return migrated;
+        } catch (RuntimeException e) {
+            log.error("Payment code migration stopped after {} transactions, the next start continues", migrated, e);
+            return migrated;
+        }
+        if (migrated > 0) {
+            log.info("Payment code migration updated {} transactions in {} ms",
+                    migrated, (System.nanoTime() - startedAt) / 1_000_000);
+        }
+        return migrated;
+    }
+}
@@ -0,0 +1,19 @@
+package com.surya.PaymentService.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.LocalDate;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class PaymentAggregateResponse {
+    private LocalDate day;
+    private PaymentMode paymentMode;
+    private long paymentCount;
+    private long totalAmount;
+}
@@ -1,10 +1,36 @@
 package com.surya.PaymentService.model;
 
+// code is the value stored in TRANSACTION_DETAILS.MODE_CODE, never renumber or reuse one
 public enum PaymentMode {
-    CASH,
-    PAYPAL,
-    DEBIT_CARD,
-    CREDIT_CARD,
-    APPLE_PAY,
-    UPI
+    CASH(0),
+    PAYPAL(1),
+    DEBIT_CARD(2),
+    CREDIT_CARD(3),
+    APPLE_PAY(4),
+    UPI(5);
+
+    private static final PaymentMode[] BY_CODE = new PaymentMode[values().length];
+
+    static {
+        for (PaymentMode paymentMode : values()) {
+            BY_CODE[paymentMode.code] = paymentMode;
+        }
+    }
+
+    private final int code;
+
+    PaymentMode(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static PaymentMode fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown payment mode code " + code);
+        }
+        return BY_CODE[code];
+    }
 }
@@ -0,0 +1,32 @@
+package com.surya.PaymentService.model;
+
+// code is the value stored in TRANSACTION_DETAILS.STATUS_CODE, never renumber or reuse one
+public enum PaymentStatus {
+    SUCCESS(0),
+    FAILED(1);
+
+    private static final PaymentStatus[] BY_CODE = new PaymentStatus[values().length];
+
+    static {
+        for (PaymentStatus paymentStatus : values()) {
+            BY_CODE[paymentStatus.code] = paymentStatus;
+        }
+    }
+
+    private final int code;
+
+    PaymentStatus(int code) {
+        this.code = code;
+    }
+
+    public int getCode() {
+        return code;
+    }
+
+    public static PaymentStatus fromCode(int code) {
+        if (code < 0 || code >= BY_CODE.length) {
+            throw new IllegalArgumentException("Unknown payment status code " + code);
+        }
+        return BY_CODE[code];
+    }
+}
@@ -0,0 +1,23 @@
+package com.surya.PaymentService.repository;
+
+import com.surya.PaymentService.entity.PaymentAggregate;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import java.time.LocalDate;
+
+@Repository
+public interface PaymentAggregateRepository extends JpaRepository<PaymentAggregate, Long> {
+
+    // adds to the stored totals, so instances checkpointing the same bucket do not overwrite each other
+    @Modifying
+    @Query("update PaymentAggregate a set a.paymentCount = a.paymentCount + :count, "
+            + "a.totalAmount = a.totalAmount + :amount where a.day = :day and a.paymentMode = :paymentMode")
+    int addToTotals(@Param("day") LocalDate day,
+                    @Param("paymentMode") String paymentMode,
+                    @Param("count") long count,
+                    @Param("amount") long amount);
+}
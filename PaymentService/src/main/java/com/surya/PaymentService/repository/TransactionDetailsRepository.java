@@ -4,8 +4,22 @@ import com.surya.PaymentService.entity.TransactionDetails;
 import org.springframework.data.jpa.repository.JpaRepository;
 import org.springframework.stereotype.Repository;
 
+import java.util.Collection;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface TransactionDetailsRepository extends JpaRepository<TransactionDetails,Long> {
 
-    TransactionDetails findByOrderId(long orderId);
+    // an order can have several transactions, e.g. a retried payment, the latest one is its payment.
+    // the order matches TransactionDetails.PAYMENT_ORDER
+    Optional<TransactionDetails> findFirstByOrderIdOrderByPaymentDateDescIdDesc(long orderId);
+
+    List<TransactionDetails> findByOrderIdOrderByPaymentDateAscIdAsc(long orderId);
+
+    List<TransactionDetails> findByOrderIdIn(Collection<Long> orderIds);
+
+    Optional<TransactionDetails> findFirstByReferenceNumber(String referenceNumber);
+
+    List<TransactionDetails> findByReferenceNumberIn(Collection<String> referenceNumbers);
 }
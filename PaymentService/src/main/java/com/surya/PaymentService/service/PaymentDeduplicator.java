@@ -0,0 +1,202 @@
+package com.surya.PaymentService.service;
+
+import com.surya.PaymentService.entity.TransactionDetails;
+import com.surya.PaymentService.repository.TransactionDetailsRepository;
+import com.surya.PaymentService.util.BloomFilter;
+import io.micrometer.core.instrument.Counter;
+import io.micrometer.core.instrument.Gauge;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.annotation.Transactional;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.util.Collection;
+import java.util.List;
+import java.util.Map;
+import java.util.Optional;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Finds the transaction already recorded for a payment reference number.
+ * <p>
+ * A Bloom filter of every recorded reference number answers "never seen" without a query,
+ * which is the answer for almost every payment. Only references the filter might contain are
+ * looked up, and those that turn out to be new are counted as false positives. The filter is
+ * rebuilt from the table at startup; until it is loaded every reference is looked up. The
+ * unique index on REFERENCE_NUMBER stays the guarantee, the filter only saves reads.
+ */
+@Component
+@Log4j2
+public class PaymentDeduplicator {
+
+    private final TransactionDetailsRepository transactionDetailsRepository;
+    private final JdbcTemplate jdbcTemplate;
+    private final long expectedReferences;
+    private final double falsePositiveRate;
+    private final int fetchSize;
+
+    private final Counter skipped;
+    private final Counter duplicates;
+    private final Counter falsePositives;
+    private final Counter unfiltered;
+    private final Timer rebuildTime;
+
+    private volatile BloomFilter filter;
+    private volatile boolean ready;
+
+    public PaymentDeduplicator(TransactionDetailsRepository transactionDetailsRepository,
+                               JdbcTemplate jdbcTemplate,
+                               MeterRegistry meterRegistry,
+                               @Value("${payment.dedup.expected-references:10000000}") long expectedReferences,
+                               @Value("${payment.dedup.false-positive-rate:0.01}") double falsePositiveRate,
+                               @Value("${payment.dedup.load.fetch-size:1000}") int fetchSize) {
+        this.transactionDetailsRepository = transactionDetailsRepository;
+        this.jdbcTemplate = jdbcTemplate;
+        this.expectedReferences = expectedReferences;
+        this.falsePositiveRate = falsePositiveRate;
+        this.fetchSize = fetchSize;
+        this.filter = new BloomFilter(expectedReferences, falsePositiveRate);
+
+        this.skipped = checks(meterRegistry, "skipped");
+        this.duplicates = checks(meterRegistry, "duplicate");
+        this.falsePositives = checks(meterRegistry, "false-positive");
+        this.unfiltered = checks(meterRegistry, "unfiltered");
+        this.rebuildTime = Timer.builder("payment.dedup.rebuild")
+                .description("Time to rebuild the reference number filter from the table")
+                .register(meterRegistry);
+        Gauge.builder("payment.dedup.false-positive-rate", this, PaymentDeduplicator::observedFalsePositiveRate)
+                .description("Share of new reference numbers the filter could not rule out")
+                .register(meterRegistry);
+        Gauge.builder("payment.dedup.expected-false-positive-rate", this,
+                        deduplicator -> deduplicator.filter.expectedFalsePositiveRate())
+                .description("False-positive rate expected from the filter's current fill")
+                .register(meterRegistry);
+        Gauge.builder("payment.dedup.references", this, deduplicator -> deduplicator.filter.insertions())
+                .description("Reference numbers put into the filter")
+                .register(meterRegistry);
+        Gauge.builder("payment.dedup.filter.bytes", this, deduplicator -> deduplicator.filter.sizeInBytes())
+                .description("Memory held by the filter")
+                .register(meterRegistry);
+    }
+
+    private static Counter checks(MeterRegistry meterRegistry, String result) {
+        return Counter.builder("payment.dedup.checks")
+                .description("Reference number checks by outcome")
+                .tag("result", result)
+                .register(meterRegistry);
+    }
+
+    // on the primary, a replica may not have the first payment yet
+    @Transactional
+    public Optional<Long> findRecorded(String referenceNumber) {
+        boolean filtered = ready;
+        if (filtered && !filter.mightContain(referenceNumber)) {
+            skipped.increment();
+            return Optional.empty();
+        }
+        Optional<Long> recorded = lookup(referenceNumber);
+        count(filtered, recorded.isPresent());
+        return recorded;
+    }
+
+    // skips the filter, for a reference the unique index has just reported as recorded
+    @Transactional
+    public Optional<Long> lookup(String referenceNumber) {
+        return transactionDetailsRepository.findFirstByReferenceNumber(referenceNumber)
+                .map(TransactionDetails::getId);
+    }
+
+    @Transactional
+    public Map<String, Long> findRecorded(Collection<String> referenceNumbers) {
+        boolean filtered = ready;
+        List<String> candidates = referenceNumbers.stream()
+                .distinct()
+                .filter(referenceNumber -> {
+                    if (filtered && !filter.mightContain(referenceNumber)) {
+                        skipped.increment();
+                        return false;
+                    }
+                    return true;
+                })
+                .collect(Collectors.toList());
+        if (candidates.isEmpty()) {
+            return Map.of();
+        }
+        Map<String, Long> recorded = transactionDetailsRepository.findByReferenceNumberIn(candidates)
+                .stream()
+                .collect(Collectors.toMap(TransactionDetails::getReferenceNumber, TransactionDetails::getId,
+                        (first, second) -> first));
+        candidates.forEach(referenceNumber -> count(filtered, recorded.containsKey(referenceNumber)));
+        return recorded;
+    }
+
+    // call once the transaction with this reference number is saved
+    public void recorded(String referenceNumber) {
+        filter.put(referenceNumber);
+    }
+
+    private void count(boolean filtered, boolean found) {
+        if (found) {
+            duplicates.increment();
+        } else if (filtered) {
+            falsePositives.increment();
+        } else {
+            unfiltered.increment();
+        }
+    }
+
+    private double observedFalsePositiveRate() {
+        double negatives = skipped.count() + falsePositives.count();
+        return negatives == 0 ? 0 : falsePositives.count() / negatives;
+    }
+
+    // runs on its own thread, every reference number is looked up until it is done
+    @EventListener(ApplicationReadyEvent.class)
+    public void rebuildInBackground() {
+        Thread loader = new Thread(this::rebuild, "payment-dedup-filter-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    /**
+     * Replaces the filter with one loaded from the table. References recorded while it loads
+     * go into the new filter, so none are lost between the scan and the switch.
+     */
+    public void rebuild() {
+        long startedAt = System.nanoTime();
+        BloomFilter rebuilt = new BloomFilter(expectedReferences, falsePositiveRate);
+        ready = false;
+        filter = rebuilt;
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        "select REFERENCE_NUMBER from TRANSACTION_DETAILS where REFERENCE_NUMBER is not null",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, (ResultSet rs) -> {
+                rebuilt.put(rs.getString(1));
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not load the reference number filter, every reference is looked up", e);
+            return;
+        }
+        ready = true;
+        long elapsed = System.nanoTime() - startedAt;
+        rebuildTime.record(elapsed, TimeUnit.NANOSECONDS);
+        log.info("Reference number filter loaded {} references, {} KB in {} ms",
+                rebuilt.insertions(), rebuilt.sizeInBytes() / 1024, elapsed / 1_000_000);
+    }
+
+    public boolean isReady() {
+        return ready;
+    }
+}
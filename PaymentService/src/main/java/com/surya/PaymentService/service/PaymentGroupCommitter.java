@@ -0,0 +1,190 @@
+package com.surya.PaymentService.service;
+
+import com.surya.PaymentService.entity.TransactionDetails;
+import com.surya.PaymentService.repository.TransactionDetailsRepository;
+import io.micrometer.core.instrument.DistributionSummary;
+import io.micrometer.core.instrument.MeterRegistry;
+import io.micrometer.core.instrument.Timer;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.stereotype.Component;
+import org.springframework.transaction.PlatformTransactionManager;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletableFuture;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.TimeUnit;
+import java.util.stream.Collectors;
+
+/**
+ * Group commit for single payments: concurrent callers are queued and written by one flusher
+ * thread as a batch insert in one transaction, so a burst of payments pays for one commit
+ * instead of one each.
+ * <p>
+ * A batch is flushed once it has {@code max-batch-size} payments or {@code max-delay} after its
+ * first payment was taken, whichever comes first. While a batch commits the next one fills up.
+ * Callers block until their batch has committed and get their own transaction id back.
+ */
+@Component
+@ConditionalOnProperty(name = "payment.group-commit.enabled", havingValue = "true")
+@Log4j2
+public class PaymentGroupCommitter {
+
+    private final TransactionDetailsRepository transactionDetailsRepository;
+    private final TransactionTemplate transactionTemplate;
+    private final BlockingQueue<PendingPayment> queue;
+    private final int maxBatchSize;
+    private final long maxDelayNanos;
+    private final Thread flusher;
+    private final DistributionSummary batchSizes;
+    private final Timer commitTime;
+    private final Timer waitTime;
+    private volatile boolean running = true;
+
+    public PaymentGroupCommitter(TransactionDetailsRepository transactionDetailsRepository,
+                                 PlatformTransactionManager transactionManager,
+                                 MeterRegistry meterRegistry,
+                                 @Value("${payment.group-commit.max-batch-size:50}") int maxBatchSize,
+                                 @Value("${payment.group-commit.max-delay:2ms}") Duration maxDelay,
+                                 @Value("${payment.group-commit.queue-capacity:1000}") int queueCapacity) {
+        this.transactionDetailsRepository = transactionDetailsRepository;
+        this.transactionTemplate = new TransactionTemplate(transactionManager);
+        this.queue = new ArrayBlockingQueue<>(queueCapacity);
+        this.maxBatchSize = maxBatchSize;
+        this.maxDelayNanos = maxDelay.toNanos();
+
+        this.batchSizes = DistributionSummary.builder("payment.group-commit.batch.size")
+                .description("Payments written per group commit")
+                .register(meterRegistry);
+        this.commitTime = Timer.builder("payment.group-commit.commit")
+                .description("Time to insert and commit one batch")
+                .register(meterRegistry);
+        this.waitTime = Timer.builder("payment.group-commit.wait")
+                .description("Time a caller waits for its payment to be committed")
+                .register(meterRegistry);
+
+        this.flusher = new Thread(this::flushLoop, "payment-group-commit");
+        this.flusher.setDaemon(true);
+        this.flusher.start();
+    }
+
+    /**
+     * Saves the payment with the next batch and returns its id once the batch has committed.
+     * When the queue is full the payment is saved on the calling thread instead.
+     */
+    public long commit(TransactionDetails transactionDetails) {
+        long startedAt = System.nanoTime();
+        PendingPayment pendingPayment = new PendingPayment(transactionDetails);
+        if (!running || !queue.offer(pendingPayment)) {
+            return transactionDetailsRepository.save(transactionDetails).getId();
+        }
+        try {
+            return pendingPayment.result.get();
+        } catch (InterruptedException e) {
+            Thread.currentThread().interrupt();
+            throw new IllegalStateException("Interrupted while waiting for the payment to be committed", e);
+        } catch (ExecutionException e) {
+            if (e.getCause() instanceof RuntimeException) {
+                throw (RuntimeException) e.getCause();
+            }
+            throw new IllegalStateException(e.getCause());
+        } finally {
+            waitTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        }
+    }
+
+    private void flushLoop() {
+        List<PendingPayment> batch = new ArrayList<>(maxBatchSize);
+        while (running || !queue.isEmpty()) {
+            try {
+                PendingPayment first = queue.poll(100, TimeUnit.MILLISECONDS);
+                if (first == null) {
+                    continue;
+                }
+                batch.add(first);
+                long deadline = System.nanoTime() + maxDelayNanos;
+                while (batch.size() < maxBatchSize) {
+                    if (queue.drainTo(batch, maxBatchSize - batch.size()) > 0) {
+                        continue;
+                    }
+                    long remaining = deadline - System.nanoTime();
+                    PendingPayment next = remaining > 0 ? queue.poll(remaining, TimeUnit.NANOSECONDS) : null;
+                    if (next == null) {
+                        break;
+                    }
+                    batch.add(next);
+                }
+                flush(batch);
+            } catch (InterruptedException e) {
+                Thread.currentThread().interrupt();
+                batch.forEach(pendingPayment -> pendingPayment.result.completeExceptionally(
+                        new IllegalStateException("Payment group commit stopped")));
+                return;
+            } catch (RuntimeException e) {
+                log.error("Payment group commit failed", e);
+                batch.forEach(pendingPayment -> pendingPayment.result.completeExceptionally(e));
+            } finally {
+                batch.clear();
+            }
+        }
+    }
+
+    private void flush(List<PendingPayment> batch) {
+        batchSizes.record(batch.size());
+        long startedAt = System.nanoTime();
+        try {
+            transactionTemplate.executeWithoutResult(status -> transactionDetailsRepository.saveAll(batch.stream()
+                    .map(pendingPayment -> pendingPayment.transactionDetails)
+                    .collect(Collectors.toList())));
+        } catch (RuntimeException e) {
+            // one bad payment must not fail the others, retry each in its own transaction
+            log.warn("Group commit of {} payments failed, saving them one by one", batch.size(), e);
+            batch.forEach(this::saveAlone);
+            return;
+        }
+        commitTime.record(System.nanoTime() - startedAt, TimeUnit.NANOSECONDS);
+        batch.forEach(pendingPayment -> pendingPayment.result.complete(pendingPayment.transactionDetails.getId()));
+    }
+
+    private void saveAlone(PendingPayment pendingPayment) {
+        TransactionDetails transactionDetails = pendingPayment.transactionDetails;
+        // the id handed out in the failed batch was never written
+        transactionDetails.setId(0);
+        try {
+            pendingPayment.result.complete(transactionDetailsRepository.save(transactionDetails).getId());
+        } catch (RuntimeException e) {
+            pendingPayment.result.completeExceptionally(e);
+        }
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        running = false;
+        flusher.join(TimeUnit.SECONDS.toMillis(30));
+        if (flusher.isAlive()) {
+            log.warn("Payment group commit did not finish, failing {} queued payments", queue.size());
+            flusher.interrupt();
+        }
+        PendingPayment pendingPayment;
+        while ((pendingPayment = queue.poll()) != null) {
+            pendingPayment.result.completeExceptionally(new IllegalStateException("Payment group commit stopped"));
+        }
+    }
+
+    private static final class PendingPayment {
+
+        private final TransactionDetails transactionDetails;
+        private final CompletableFuture<Long> result = new CompletableFuture<>();
+
+        private PendingPayment(TransactionDetails transactionDetails) {
+            this.transactionDetails = transactionDetails;
+        }
+    }
+}
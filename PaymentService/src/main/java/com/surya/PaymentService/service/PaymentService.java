@@ -1,10 +1,25 @@
 package com.surya.PaymentService.service;
 
+import com.surya.PaymentService.model.PaymentAggregateResponse;
+import com.surya.PaymentService.model.PaymentMode;
 import com.surya.PaymentService.model.PaymentRequest;
 import com.surya.PaymentService.model.PaymentResponse;
 
+import java.time.LocalDate;
+import java.util.List;
+
 public interface PaymentService {
     long doPayment(PaymentRequest paymentRequest);
 
+    List<Long> doPayments(List<PaymentRequest> paymentRequests);
+
+    long getPaymentIdByReferenceNumber(String referenceNumber);
+
     PaymentResponse getPaymentDetailsByOrderId(String orderId);
+
+    List<PaymentResponse> getPaymentHistoryByOrderId(long orderId);
+
+    List<PaymentResponse> getPaymentDetailsByOrderIds(List<Long> orderIds);
+
+    List<PaymentAggregateResponse> getPaymentAggregates(LocalDate from, LocalDate to, PaymentMode paymentMode);
 }
@@ -1,15 +1,34 @@
 package com.surya.PaymentService.service;
 
+import com.surya.PaymentService.aggregate.PaymentAggregator;
+import com.surya.PaymentService.archive.PaymentArchive;
 import com.surya.PaymentService.entity.TransactionDetails;
+import com.surya.PaymentService.exception.PaymentServiceCustomException;
+import com.surya.PaymentService.model.PaymentAggregateResponse;
 import com.surya.PaymentService.model.PaymentMode;
 import com.surya.PaymentService.model.PaymentRequest;
 import com.surya.PaymentService.model.PaymentResponse;
+import com.surya.PaymentService.model.PaymentStatus;
 import com.surya.PaymentService.repository.TransactionDetailsRepository;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.dao.DataIntegrityViolationException;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Transactional;
 
 import java.time.Instant;
+import java.time.LocalDate;
+import java.util.ArrayList;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Objects;
+import java.util.Optional;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.stream.Collectors;
 
 @Service
 @Log4j2
@@ -17,38 +36,190 @@ public class PaymentServiceImpl implements PaymentService{
 
     @Autowired
     private TransactionDetailsRepository transactionDetailsRepository;
+
+    // only present with payment.group-commit.enabled
+    @Autowired(required = false)
+    private PaymentGroupCommitter paymentGroupCommitter;
+
+    @Autowired
+    private PaymentDeduplicator paymentDeduplicator;
+
+    @Autowired
+    private PaymentAggregator paymentAggregator;
+
+    // only present with payment.archive.enabled
+    @Autowired(required = false)
+    private PaymentArchive paymentArchive;
+
+    @Value("${payment.batch.max-ids:100}")
+    private int batchMaxIds;
+
     @Override
     public long doPayment(PaymentRequest paymentRequest) {
         log.info("Recording payment details: {}", paymentRequest);
-        TransactionDetails transactionDetails
-                = TransactionDetails.builder()
+        String referenceNumber = paymentRequest.getReferenceNumber();
+        if (referenceNumber != null) {
+            Optional<Long> recorded = paymentDeduplicator.findRecorded(referenceNumber);
+            if (recorded.isPresent()) {
+                log.info("Payment with reference number {} already recorded", referenceNumber);
+                return recorded.get();
+            }
+        }
+        TransactionDetails transactionDetails = toTransactionDetails(paymentRequest);
+
+        try {
+            if (paymentGroupCommitter != null) {
+                paymentGroupCommitter.commit(transactionDetails);
+            } else {
+                transactionDetailsRepository.save(transactionDetails);
+            }
+        } catch (DataIntegrityViolationException e) {
+            // a concurrent retry with the same reference number was recorded first
+            if (referenceNumber == null) {
+                throw e;
+            }
+            return paymentDeduplicator.lookup(referenceNumber).orElseThrow(() -> e);
+        }
+        if (referenceNumber != null) {
+            paymentDeduplicator.recorded(referenceNumber);
+        }
+        paymentAggregator.record(paymentRequest.getPaymentMode(),
+                transactionDetails.getPaymentDate(), transactionDetails.getAmount());
+        log.info("Transaction completed with id: {}", transactionDetails.getId());
+        return transactionDetails.getId();
+    }
+
+    @Override
+    @Transactional
+    public List<Long> doPayments(List<PaymentRequest> paymentRequests) {
+        log.info("Recording {} payments", paymentRequests.size());
+
+        // batches may be delivered more than once, a reference number that is already
+        // recorded gets the id of the existing transaction instead of a second charge
+        Map<String, Long> recorded = new HashMap<>(paymentDeduplicator.findRecorded(paymentRequests.stream()
+                .map(PaymentRequest::getReferenceNumber)
+                .filter(Objects::nonNull)
+                .collect(Collectors.toList())));
+
+        List<Long> transactionIds = new ArrayList<>(paymentRequests.size());
+        for (PaymentRequest paymentRequest : paymentRequests) {
+            String referenceNumber = paymentRequest.getReferenceNumber();
+            if (referenceNumber != null && recorded.containsKey(referenceNumber)) {
+                log.info("Payment with reference number {} already recorded", referenceNumber);
+                transactionIds.add(recorded.get(referenceNumber));
+                continue;
+            }
+            TransactionDetails transactionDetails =
+                    transactionDetailsRepository.save(toTransactionDetails(paymentRequest));
+            if (referenceNumber != null) {
+                recorded.put(referenceNumber, transactionDetails.getId());
+                paymentDeduplicator.recorded(referenceNumber);
+            }
+            paymentAggregator.record(paymentRequest.getPaymentMode(),
+                    transactionDetails.getPaymentDate(), transactionDetails.getAmount());
+            transactionIds.add(transactionDetails.getId());
+        }
+
+        log.info("Transactions completed with ids: {}", transactionIds);
+        return transactionIds;
+    }
+
+    private TransactionDetails toTransactionDetails(PaymentRequest paymentRequest) {
+        return TransactionDetails.builder()
                 .paymentDate(Instant.now())
-                .paymentMode(paymentRequest.getPaymentMode().name())
+                .paymentMode(paymentRequest.getPaymentMode())
                 .amount(paymentRequest.getAmount())
-                .paymentStatus("SUCCESS")
+                .paymentStatus(PaymentStatus.SUCCESS)
                 .referenceNumber(paymentRequest.getReferenceNumber())
                 .orderId(paymentRequest.getOrderId())
                 .build();
+    }
 
-        transactionDetailsRepository.save(transactionDetails);
-        log.info("Transaction completed with id: {}", transactionDetails.getId());
-        return transactionDetails.getId();
+    // read on the primary, the caller is deciding whether a payment it may have sent was recorded
+    @Override
+    public long getPaymentIdByReferenceNumber(String referenceNumber) {
+        log.info("Getting payment id for the reference number : {}", referenceNumber);
+
+        return paymentDeduplicator.lookup(referenceNumber)
+                .orElseThrow(() -> new PaymentServiceCustomException(
+                        "Payment not found for the reference number: " + referenceNumber,
+                        "PAYMENT_NOT_FOUND"));
     }
 
+    // read-only methods go to the replica when one is configured, see DataSourceRoutingConfig
     @Override
+    @Transactional(readOnly = true)
     public PaymentResponse getPaymentDetailsByOrderId(String orderId) {
         log.info("Getting payment details for the order id : {}",orderId);
 
         TransactionDetails transactionDetails =
-                transactionDetailsRepository.findByOrderId(Long.valueOf(orderId));
+                transactionDetailsRepository.findFirstByOrderIdOrderByPaymentDateDescIdDesc(Long.valueOf(orderId))
+                        // archived payments are older than every live one, only needed when none is live
+                        .or(() -> paymentArchive == null
+                                ? Optional.<TransactionDetails>empty()
+                                : paymentArchive.findLatestByOrderId(Long.parseLong(orderId)))
+                        .orElseThrow(() -> new PaymentServiceCustomException(
+                                "Payment not found for the order id: " + orderId,
+                                "PAYMENT_NOT_FOUND"));
+
+        return toPaymentResponse(transactionDetails);
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PaymentResponse> getPaymentHistoryByOrderId(long orderId) {
+        log.info("Getting all payments for the order id : {}", orderId);
+
+        Map<Long, TransactionDetails> transactions = new TreeMap<>();
+        if (paymentArchive != null) {
+            paymentArchive.findByOrderId(orderId)
+                    .forEach(transactionDetails -> transactions.put(transactionDetails.getId(), transactionDetails));
+        }
+        transactionDetailsRepository.findByOrderIdOrderByPaymentDateAscIdAsc(orderId)
+                .forEach(transactionDetails -> transactions.put(transactionDetails.getId(), transactionDetails));
+
+        return transactions.values()
+                .stream()
+                .sorted(TransactionDetails.PAYMENT_ORDER)
+                .map(this::toPaymentResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<PaymentResponse> getPaymentDetailsByOrderIds(List<Long> orderIds) {
+        log.info("Getting payment details for the order ids : {}", orderIds);
+
+        Set<Long> requested = new LinkedHashSet<>(orderIds);
+        if (requested.size() > batchMaxIds) {
+            throw new PaymentServiceCustomException(
+                    "At most " + batchMaxIds + " order ids can be requested at once",
+                    "TOO_MANY_IDS");
+        }
+        List<TransactionDetails> transactions = new ArrayList<>(transactionDetailsRepository.findByOrderIdIn(requested));
+        if (paymentArchive != null) {
+            transactions.forEach(transactionDetails -> requested.remove(transactionDetails.getOrderId()));
+            paymentArchive.findByOrderIds(requested).values().forEach(transactions::addAll);
+        }
+
+        return transactions.stream()
+                .map(this::toPaymentResponse)
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    public List<PaymentAggregateResponse> getPaymentAggregates(LocalDate from, LocalDate to, PaymentMode paymentMode) {
+        return paymentAggregator.getAggregates(from, to, paymentMode);
+    }
 
+    private PaymentResponse toPaymentResponse(TransactionDetails transactionDetails) {
         PaymentResponse paymentResponse =
                 PaymentResponse.builder()
                         .paymentDate(transactionDetails.getPaymentDate())
                         .paymentId(transactionDetails.getId())
-                        .paymentMode(PaymentMode.valueOf(transactionDetails.getPaymentMode()))
+                        .paymentMode(transactionDetails.getPaymentMode())
                         .orderId(transactionDetails.getOrderId())
-                        .status(transactionDetails.getPaymentStatus())
+                        .status(transactionDetails.getPaymentStatus().name())
                         .amount(transactionDetails.getAmount())
                         .build();
 
@@ -0,0 +1,157 @@
+package com.surya.PaymentService.aggregate;
+
+import com.surya.PaymentService.entity.PaymentAggregate;
+import com.surya.PaymentService.model.PaymentAggregateResponse;
+import com.surya.PaymentService.model.PaymentMode;
+import com.surya.PaymentService.model.PaymentRequest;
+import com.surya.PaymentService.repository.PaymentAggregateRepository;
+import com.surya.PaymentService.service.PaymentService;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Instant;
+import java.time.LocalDate;
+import java.time.ZoneOffset;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest
+public class PaymentAggregatorTest {
+
+    @Autowired
+    private PaymentAggregator paymentAggregator;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentAggregateRepository paymentAggregateRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    @DisplayName("Aggregates - payments are added to today's bucket for their mode")
+    void test_When_Payment_Done_then_Aggregate_Updated(){
+        LocalDate today = LocalDate.now(ZoneOffset.UTC);
+        PaymentAggregateResponse before = aggregate(today, PaymentMode.UPI);
+
+        paymentService.doPayment(paymentRequest(PaymentMode.UPI, 250));
+        paymentService.doPayments(List.of(paymentRequest(PaymentMode.UPI, 50), paymentRequest(PaymentMode.CASH, 10)));
+
+        PaymentAggregateResponse after = aggregate(today, PaymentMode.UPI);
+        Assertions.assertEquals(before.getPaymentCount() + 2, after.getPaymentCount());
+        Assertions.assertEquals(before.getTotalAmount() + 300, after.getTotalAmount());
+    }
+
+    @Test
+    @DisplayName("Aggregates - concurrent payments are all counted")
+    void test_When_Concurrent_Payments_then_No_Lost_Updates() throws Exception {
+        LocalDate day = LocalDate.of(2020, 1, 1);
+        Instant paymentDate = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        ExecutorService executor = Executors.newFixedThreadPool(16);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < 16; t++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < 1000; i++) {
+                        paymentAggregator.record(PaymentMode.PAYPAL, paymentDate, 3);
+                    }
+                    return null;
+                }));
+            }
+            start.countDown();
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdownNow();
+        }
+
+        PaymentAggregateResponse aggregate = aggregate(day, PaymentMode.PAYPAL);
+        Assertions.assertEquals(16_000, aggregate.getPaymentCount());
+        Assertions.assertEquals(48_000, aggregate.getTotalAmount());
+    }
+
+    @Test
+    @DisplayName("Aggregates - checkpointed totals are restored at startup")
+    void test_When_Checkpointed_then_Restored_On_Load(){
+        LocalDate day = LocalDate.of(2020, 2, 1);
+        Instant paymentDate = day.atStartOfDay(ZoneOffset.UTC).plusSeconds(3600).toInstant();
+        paymentAggregator.record(PaymentMode.APPLE_PAY, paymentDate, 100);
+        paymentAggregator.record(PaymentMode.APPLE_PAY, paymentDate, 200);
+        paymentAggregator.checkpoint();
+        // only the payment since the previous checkpoint is added to the row
+        paymentAggregator.record(PaymentMode.APPLE_PAY, paymentDate, 300);
+        paymentAggregator.checkpoint();
+
+        PaymentAggregate stored = paymentAggregateRepository.findAll().stream()
+                .filter(aggregate -> day.equals(aggregate.getDay())
+                        && PaymentMode.APPLE_PAY.name().equals(aggregate.getPaymentMode()))
+                .findFirst()
+                .orElseThrow();
+        Assertions.assertEquals(3, stored.getPaymentCount());
+        Assertions.assertEquals(600, stored.getTotalAmount());
+
+        PaymentAggregator restarted = new PaymentAggregator(paymentAggregateRepository, jdbcTemplate,
+                transactionManager, new SimpleMeterRegistry(), 1000);
+        restarted.load();
+        Assertions.assertEquals(List.of(PaymentAggregateResponse.builder()
+                .day(day)
+                .paymentMode(PaymentMode.APPLE_PAY)
+                .paymentCount(3)
+                .totalAmount(600)
+                .build()), restarted.getAggregates(day, day, PaymentMode.APPLE_PAY));
+    }
+
+    @Test
+    @DisplayName("Aggregates - payments checkpointed by another instance are included after the next checkpoint")
+    void test_When_Other_Instance_Checkpoints_then_Included_After_Checkpoint(){
+        LocalDate day = LocalDate.of(2020, 3, 1);
+        Instant paymentDate = day.atStartOfDay(ZoneOffset.UTC).toInstant();
+        PaymentAggregator other = new PaymentAggregator(paymentAggregateRepository, jdbcTemplate,
+                transactionManager, new SimpleMeterRegistry(), 1000);
+        other.load();
+
+        paymentAggregator.record(PaymentMode.DEBIT_CARD, paymentDate, 10);
+        other.record(PaymentMode.DEBIT_CARD, paymentDate, 20);
+        other.record(PaymentMode.DEBIT_CARD, paymentDate, 30);
+        other.checkpoint();
+        paymentAggregator.checkpoint();
+        PaymentAggregateResponse aggregate = aggregate(day, PaymentMode.DEBIT_CARD);
+        Assertions.assertEquals(3, aggregate.getPaymentCount());
+        Assertions.assertEquals(60, aggregate.getTotalAmount());
+        // the other instance reads this instance's payment back the same way
+        other.checkpoint();
+        Assertions.assertEquals(aggregate, other.getAggregates(day, day, PaymentMode.DEBIT_CARD).get(0));
+    }
+
+    private PaymentAggregateResponse aggregate(LocalDate day, PaymentMode paymentMode) {
+        return paymentAggregator.getAggregates(day, day, paymentMode).stream()
+                .findFirst()
+                .orElse(PaymentAggregateResponse.builder().day(day).paymentMode(paymentMode).build());
+    }
+
+    private static PaymentRequest paymentRequest(PaymentMode paymentMode, long amount) {
+        return PaymentRequest.builder()
+                .orderId(1)
+                .amount(amount)
+                .paymentMode(paymentMode)
+                .build();
+    }
+}
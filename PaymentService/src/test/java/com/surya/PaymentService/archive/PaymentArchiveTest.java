@@ -0,0 +1,98 @@
+package com.surya.PaymentService.archive;
+
+import com.surya.PaymentService.entity.TransactionDetails;
+import com.surya.PaymentService.model.PaymentMode;
+import com.surya.PaymentService.model.PaymentResponse;
+import com.surya.PaymentService.model.PaymentStatus;
+import com.surya.PaymentService.repository.TransactionDetailsRepository;
+import com.surya.PaymentService.service.PaymentService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.test.context.DynamicPropertyRegistry;
+import org.springframework.test.context.DynamicPropertySource;
+
+import java.io.IOException;
+import java.nio.file.Files;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+
+@SpringBootTest(properties = {
+        "payment.archive.enabled=true",
+        "payment.archive.older-than=30d",
+        "payment.archive.rows-per-run=7",
+        "payment.archive.block-rows=4",
+        "payment.archive.initial-delay-ms=3600000"
+})
+public class PaymentArchiveTest {
+
+    @DynamicPropertySource
+    static void archiveDirectory(DynamicPropertyRegistry registry) throws IOException {
+        String directory = Files.createTempDirectory("payment-archive").toString();
+        registry.add("payment.archive.directory", () -> directory);
+    }
+
+    @Autowired
+    private PaymentArchive paymentArchive;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private TransactionDetailsRepository transactionDetailsRepository;
+
+    @BeforeEach
+    void cleanUp(){
+        transactionDetailsRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Archive - old payments leave the table and are still found by order id")
+    void test_When_Payments_Archived_then_Found_By_Order_Id(){
+        Instant old = Instant.now().minus(Duration.ofDays(400));
+        for (int i = 0; i < 20; i++) {
+            save(1000 + i % 5, old.plusSeconds(i), "archive-ref-" + i);
+        }
+        long recent = save(1000, Instant.now(), "archive-ref-recent");
+
+        Assertions.assertEquals(20, paymentArchive.archive());
+
+        Assertions.assertEquals(1, transactionDetailsRepository.count());
+        Assertions.assertEquals(4, paymentArchive.findByOrderId(1001).size());
+        // the live transaction is the latest of the order
+        Assertions.assertEquals(recent, paymentService.getPaymentDetailsByOrderId("1000").getPaymentId());
+
+        PaymentResponse archived = paymentService.getPaymentDetailsByOrderId("1004");
+        Assertions.assertEquals(1004, archived.getOrderId());
+        Assertions.assertEquals(PaymentMode.CASH, archived.getPaymentMode());
+
+        List<PaymentResponse> history = paymentService.getPaymentHistoryByOrderId(1000);
+        Assertions.assertEquals(5, history.size());
+        Assertions.assertEquals(recent, history.get(history.size() - 1).getPaymentId());
+    }
+
+    @Test
+    @DisplayName("Archive - recent payments stay in the table")
+    void test_When_Payments_Recent_then_Not_Archived(){
+        save(2000, Instant.now().minus(Duration.ofDays(1)), "archive-ref-new");
+
+        Assertions.assertEquals(0, paymentArchive.archive());
+        Assertions.assertEquals(1, transactionDetailsRepository.count());
+        Assertions.assertTrue(paymentArchive.findByOrderId(2000).isEmpty());
+    }
+
+    private long save(long orderId, Instant paymentDate, String referenceNumber) {
+        return transactionDetailsRepository.save(TransactionDetails.builder()
+                .orderId(orderId)
+                .amount(100)
+                .paymentMode(PaymentMode.CASH)
+                .paymentStatus(PaymentStatus.SUCCESS)
+                .paymentDate(paymentDate)
+                .referenceNumber(referenceNumber)
+                .build()).getId();
+    }
+}
@@ -0,0 +1,103 @@
+package com.surya.PaymentService.archive;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.io.TempDir;
+
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Optional;
+
+public class SegmentReaderWriterTest {
+
+    private static final ColumnType[] SCHEMA = {ColumnType.LONG, ColumnType.LONG, ColumnType.STRING};
+
+    @TempDir
+    Path directory;
+
+    @Test
+    @DisplayName("Segment - rows are found by id across blocks")
+    void test_When_Rows_Span_Blocks_then_Found_By_Id() throws Exception {
+        Path file = directory.resolve("rows.seg");
+        SegmentWriter.write(file, SCHEMA, 0, 1, rows(1000), 64);
+
+        try (SegmentReader reader = SegmentReader.open(file)) {
+            Assertions.assertEquals(1000, reader.rowCount());
+            for (long id = 10; id < 10 + 1000 * 3; id += 3) {
+                Object[] row = reader.findById(id).orElseThrow();
+                Assertions.assertEquals(id, row[0]);
+                Assertions.assertEquals(id % 37, row[1]);
+                Assertions.assertEquals(id % 5 == 0 ? null : "ref-" + id, row[2]);
+            }
+            Assertions.assertEquals(Optional.empty(), reader.findById(11));
+            Assertions.assertEquals(Optional.empty(), reader.findById(0));
+            Assertions.assertEquals(Optional.empty(), reader.findById(Long.MAX_VALUE));
+        }
+    }
+
+    @Test
+    @DisplayName("Segment - the id range in the header rules out ids the segment cannot hold")
+    void test_When_Id_Outside_Range_then_Segment_Skipped() throws Exception {
+        Path file = directory.resolve("range.seg");
+        SegmentWriter.write(file, SCHEMA, 0, 1, rows(100), 64);
+
+        try (SegmentReader reader = SegmentReader.open(file)) {
+            Assertions.assertFalse(reader.mayContainId(9));
+            Assertions.assertTrue(reader.mayContainId(10));
+            // inside the range but not stored, the id index decides
+            Assertions.assertTrue(reader.mayContainId(11));
+            Assertions.assertEquals(Optional.empty(), reader.findById(11));
+            Assertions.assertTrue(reader.mayContainId(10 + 3 * 99));
+            Assertions.assertFalse(reader.mayContainId(11 + 3 * 99));
+        }
+    }
+
+    @Test
+    @DisplayName("Segment - all rows of an order are found in id order")
+    void test_When_Order_Has_Several_Rows_then_All_Found() throws Exception {
+        Path file = directory.resolve("orders.seg");
+        List<Object[]> rows = rows(1000);
+        SegmentWriter.write(file, SCHEMA, 0, 1, rows, 64);
+
+        try (SegmentReader reader = SegmentReader.open(file)) {
+            List<Object[]> found = reader.findByOrderId(7);
+            long expected = rows.stream().filter(row -> (Long) row[1] == 7).count();
+            Assertions.assertEquals(expected, found.size());
+            for (int i = 0; i < found.size(); i++) {
+                Assertions.assertEquals(7L, found.get(i)[1]);
+                if (i > 0) {
+                    Assertions.assertTrue((Long) found.get(i)[0] > (Long) found.get(i - 1)[0]);
+                }
+            }
+            Assertions.assertTrue(reader.findByOrderId(1000).isEmpty());
+        }
+    }
+
+    @Test
+    @DisplayName("Segment - a written segment leaves no temporary file and is compressed")
+    void test_When_Written_then_No_Temporary_File() throws Exception {
+        Path file = directory.resolve("small.seg");
+        SegmentWriter.write(file, SCHEMA, 0, -1, rows(10_000), 1024);
+
+        Assertions.assertFalse(Files.exists(directory.resolve("small.seg.tmp")));
+        try (SegmentReader reader = SegmentReader.open(file)) {
+            Assertions.assertEquals(Files.size(file), reader.sizeInBytes());
+            // raw values alone are 2 longs and a short string per row
+            Assertions.assertTrue(reader.sizeInBytes() < 10_000 * 20, "segment of " + reader.sizeInBytes() + " bytes");
+            Assertions.assertTrue(reader.findByOrderId(7).isEmpty());
+            Assertions.assertTrue(reader.findById(10 + 3 * 9_999).isPresent());
+        }
+    }
+
+    private static List<Object[]> rows(int count) {
+        List<Object[]> rows = new ArrayList<>(count);
+        for (int i = 0; i < count; i++) {
+            long id = 10 + i * 3L;
+            rows.add(new Object[]{id, id % 37, id % 5 == 0 ? null : "ref-" + id});
+        }
+        return rows;
+    }
+}
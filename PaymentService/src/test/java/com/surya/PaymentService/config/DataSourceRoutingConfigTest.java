@@ -0,0 +1,105 @@
+package com.surya.PaymentService.config;
+
+import com.surya.PaymentService.model.PaymentMode;
+import com.surya.PaymentService.model.PaymentRequest;
+import com.surya.PaymentService.model.PaymentResponse;
+import com.surya.PaymentService.model.PaymentStatus;
+import com.surya.PaymentService.repository.TransactionDetailsRepository;
+import com.surya.PaymentService.service.PaymentService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest(properties = {
+        "payment.datasource.replica.url=" + DataSourceRoutingConfigTest.REPLICA_URL,
+        "payment.datasource.replica.username=sa",
+        "payment.datasource.replica.password=password"
+})
+public class DataSourceRoutingConfigTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:payment-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private TransactionDetailsRepository transactionDetailsRepository;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void copySchemaToReplica(){
+        primary = new JdbcTemplate(primaryDataSource);
+        // a plain connection, the replica pool is read-only
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "password"));
+
+        transactionDetailsRepository.deleteAll();
+        // hibernate only creates the schema on the primary
+        replica.execute("DROP ALL OBJECTS");
+        primary.queryForList("SCRIPT NODATA", String.class).stream()
+                .filter(statement -> !statement.startsWith("--") && !statement.startsWith("CREATE USER"))
+                .forEach(replica::execute);
+    }
+
+    @Test
+    @DisplayName("Routing - payments are written to the primary")
+    void test_When_Do_Payment_then_Written_To_Primary(){
+        long transactionId = paymentService.doPayment(paymentRequest(1, 500));
+
+        Assertions.assertEquals(1, primary.queryForObject(
+                "select count(*) from TRANSACTION_DETAILS where ID = ?", Integer.class, transactionId));
+        Assertions.assertEquals(0, replica.queryForObject(
+                "select count(*) from TRANSACTION_DETAILS", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Routing - payment lookups are served by the replica")
+    void test_When_Get_Payment_Details_then_Read_From_Replica(){
+        paymentService.doPayment(paymentRequest(1, 500));
+        // the replica row differs from the primary one, so the amount shows where the read went
+        replica.update("insert into TRANSACTION_DETAILS (ID, ORDER_ID, MODE_CODE, REFERENCE_NUMBER, PAYMENT_DATE, STATUS_CODE, AMOUNT) "
+                + "values (?, ?, ?, ?, ?, ?, ?)", 1000, 1, PaymentMode.CASH.getCode(), null,
+                Timestamp.from(Instant.now()), PaymentStatus.SUCCESS.getCode(), 700);
+
+        Assertions.assertEquals(700, paymentService.getPaymentDetailsByOrderId("1").getAmount());
+        Assertions.assertEquals(List.of(1000L), paymentService.getPaymentDetailsByOrderIds(List.of(1L))
+                .stream().map(PaymentResponse::getPaymentId).collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Routing - each pool publishes its own connection metrics")
+    void test_When_Routing_then_Pool_Metrics_Per_DataSource(){
+        for (String pool : new String[]{"payment-primary", "payment-replica"}) {
+            Assertions.assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", pool).gauge(), pool);
+        }
+    }
+
+    private static PaymentRequest paymentRequest(long orderId, long amount) {
+        return PaymentRequest.builder()
+                .orderId(orderId)
+                .amount(amount)
+                .paymentMode(PaymentMode.CASH)
+                .build();
+    }
+}
@@ -0,0 +1,41 @@
+package com.surya.PaymentService.exception;
+
+import com.surya.PaymentService.model.ErrorResponse;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.http.HttpStatus;
+import org.springframework.http.ResponseEntity;
+
+public class RestResponseEntityExceptionHandlerTest {
+
+    private final RestResponseEntityExceptionHandler handler = new RestResponseEntityExceptionHandler();
+
+    @Test
+    @DisplayName("Error Handler - not found codes are a 404")
+    void test_When_Not_Found_Code_then_404(){
+        ResponseEntity<ErrorResponse> response = handler.handlePaymentServiceException(
+                new PaymentServiceCustomException("Payment not found for the order id: 1", "PAYMENT_NOT_FOUND"));
+
+        Assertions.assertEquals(HttpStatus.NOT_FOUND, response.getStatusCode());
+        Assertions.assertEquals("PAYMENT_NOT_FOUND", response.getBody().getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Error Handler - rejected requests are a 400")
+    void test_When_Too_Many_Ids_then_400(){
+        ResponseEntity<ErrorResponse> response = handler.handlePaymentServiceException(
+                new PaymentServiceCustomException("At most 100 order ids can be requested at once", "TOO_MANY_IDS"));
+
+        Assertions.assertEquals(HttpStatus.BAD_REQUEST, response.getStatusCode());
+    }
+
+    @Test
+    @DisplayName("Error Handler - other codes are not reported as missing")
+    void test_When_Other_Code_then_Server_Error(){
+        ResponseEntity<ErrorResponse> response = handler.handlePaymentServiceException(
+                new PaymentServiceCustomException("Could not record the payment", "PAYMENT_FAILED"));
+
+        Assertions.assertEquals(HttpStatus.INTERNAL_SERVER_ERROR, response.getStatusCode());
+    }
+}
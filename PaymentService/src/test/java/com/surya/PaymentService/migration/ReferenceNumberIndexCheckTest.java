@@ -0,0 +1,85 @@
+package com.surya.PaymentService.migration;
+
+import com.surya.PaymentService.repository.TransactionDetailsRepository;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.dao.DataIntegrityViolationException;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+
+@SpringBootTest
+public class ReferenceNumberIndexCheckTest {
+
+    @Autowired
+    private ReferenceNumberIndexCheck referenceNumberIndexCheck;
+
+    @Autowired
+    private TransactionDetailsRepository transactionDetailsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void dropIndex(){
+        transactionDetailsRepository.deleteAll();
+        jdbcTemplate.execute("alter table TRANSACTION_DETAILS drop constraint "
+                + ReferenceNumberIndexCheck.INDEX_NAME);
+    }
+
+    @AfterEach
+    void restoreIndex(){
+        transactionDetailsRepository.deleteAll();
+        if (!referenceNumberIndexCheck.hasUniqueIndex()) {
+            referenceNumberIndexCheck.ensureUniqueIndex();
+        }
+    }
+
+    @Test
+    @DisplayName("Reference Index - an existing index is left alone")
+    void test_When_Index_Exists_then_Nothing_Created(){
+        referenceNumberIndexCheck.ensureUniqueIndex();
+        // would fail on adding the same constraint again
+        referenceNumberIndexCheck.ensureUniqueIndex();
+
+        Assertions.assertTrue(referenceNumberIndexCheck.hasUniqueIndex());
+    }
+
+    @Test
+    @DisplayName("Reference Index - a missing index is created when there are no duplicates")
+    void test_When_Index_Missing_then_Created(){
+        insertTransaction(900_001, "ref-1");
+        Assertions.assertFalse(referenceNumberIndexCheck.hasUniqueIndex());
+
+        referenceNumberIndexCheck.ensureUniqueIndex();
+
+        Assertions.assertTrue(referenceNumberIndexCheck.hasUniqueIndex());
+        Assertions.assertThrows(DataIntegrityViolationException.class,
+                () -> insertTransaction(900_002, "ref-1"));
+    }
+
+    @Test
+    @DisplayName("Reference Index - duplicates stop the start instead of running without the index")
+    void test_When_Duplicates_then_Fails_Fast(){
+        insertTransaction(900_001, "ref-1");
+        insertTransaction(900_002, "ref-1");
+
+        IllegalStateException exception = Assertions.assertThrows(IllegalStateException.class,
+                () -> referenceNumberIndexCheck.ensureUniqueIndex());
+
+        Assertions.assertTrue(exception.getMessage().contains("ref-1"));
+        Assertions.assertFalse(referenceNumberIndexCheck.hasUniqueIndex());
+    }
+
+    private void insertTransaction(long id, String referenceNumber) {
+        jdbcTemplate.update("insert into TRANSACTION_DETAILS (ID, ORDER_ID, MODE_CODE, REFERENCE_NUMBER, "
+                        + "PAYMENT_DATE, STATUS_CODE, AMOUNT) values (?, 1, 0, ?, ?, 0, 100)",
+                id, referenceNumber, Timestamp.from(Instant.now()));
+    }
+}
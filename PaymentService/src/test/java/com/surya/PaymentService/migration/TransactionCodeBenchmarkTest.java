@@ -0,0 +1,127 @@
+package com.surya.PaymentService.migration;
+
+import com.surya.PaymentService.model.PaymentMode;
+import com.surya.PaymentService.model.PaymentStatus;
+import com.surya.PaymentService.repository.TransactionDetailsRepository;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+import java.sql.SQLException;
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Payment mode and status column size and read throughput with the MODE and STATUS strings,
+ * then again after {@link TransactionCodeMigration} has filled MODE_CODE and STATUS_CODE, over
+ * -Dbenchmark.rows rows (1M by default). Point spring.datasource.url at a local MySQL to
+ * measure there instead of the in-memory H2.
+ * <p>
+ * Run with {@code mvn test -Dtest=TransactionCodeBenchmarkTest -Dbenchmark=true}.
+ */
+@SpringBootTest(properties = "payment.code-migration.pause-ms=0")
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Log4j2
+public class TransactionCodeBenchmarkTest {
+
+    private static final int LOOKUPS = 2_000;
+    private static final int BATCH_SIZE = 50;
+    private static final int FETCH_SIZE = 1_000;
+
+    @Autowired
+    private TransactionCodeMigration transactionCodeMigration;
+
+    @Autowired
+    private TransactionDetailsRepository transactionDetailsRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void sizeAndReadThroughput() {
+        long rows = Long.getLong("benchmark.rows", 1_000_000L);
+        long orders = rows / 2;
+        loadWithStrings(rows, orders);
+
+        log.info("strings: {} bytes per row for mode and status", jdbcTemplate.queryForObject(
+                "select avg(octet_length(MODE) + octet_length(STATUS)) from TRANSACTION_DETAILS", Double.class));
+        scan("strings", "select MODE, STATUS, AMOUNT from TRANSACTION_DETAILS", rs -> {
+            PaymentMode.valueOf(rs.getString(1));
+            PaymentStatus.valueOf(rs.getString(2));
+        });
+        lookups("strings", orders);
+
+        long startedAt = System.nanoTime();
+        long migrated = transactionCodeMigration.migrate();
+        log.info("Migrated {} rows in {} ms", migrated, (System.nanoTime() - startedAt) / 1_000_000);
+        // one tinyint each
+        log.info("codes: 2 bytes per row for mode and status");
+        scan("codes", "select MODE_CODE, STATUS_CODE, AMOUNT from TRANSACTION_DETAILS", rs -> {
+            PaymentMode.fromCode(rs.getInt(1));
+            PaymentStatus.fromCode(rs.getInt(2));
+        });
+        lookups("codes", orders);
+    }
+
+    private void loadWithStrings(long rows, long orders) {
+        jdbcTemplate.execute("delete from TRANSACTION_DETAILS");
+        long startedAt = System.nanoTime();
+        Timestamp paymentDate = Timestamp.from(Instant.now());
+        PaymentMode[] modes = PaymentMode.values();
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (long id = 1; id <= rows; id++) {
+            batch.add(new Object[]{id, (id - 1) % orders + 1, modes[(int) (id % modes.length)].name(), paymentDate,
+                    PaymentStatus.SUCCESS.name(), 100});
+            if (batch.size() == 10_000 || id == rows) {
+                jdbcTemplate.batchUpdate("insert into TRANSACTION_DETAILS "
+                        + "(ID, ORDER_ID, MODE, PAYMENT_DATE, STATUS, AMOUNT) values (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        log.info("Loaded {} rows in {} s", rows, (System.nanoTime() - startedAt) / 1_000_000_000);
+    }
+
+    private void scan(String name, String sql, RowReader rowReader) {
+        long startedAt = System.nanoTime();
+        long[] read = new long[1];
+        jdbcTemplate.query(connection -> {
+            PreparedStatement statement = connection.prepareStatement(sql,
+                    ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+            statement.setFetchSize(FETCH_SIZE);
+            return statement;
+        }, (ResultSet rs) -> {
+            rowReader.read(rs);
+            read[0]++;
+        });
+        long elapsed = System.nanoTime() - startedAt;
+        log.info("{}: full scan {} rows/s", name, read[0] * 1_000_000_000L / Math.max(1, elapsed));
+    }
+
+    private void lookups(String name, long orders) {
+        long startedAt = System.nanoTime();
+        long read = 0;
+        for (int i = 0; i < LOOKUPS; i++) {
+            Set<Long> orderIds = new HashSet<>();
+            for (int j = 0; j < BATCH_SIZE; j++) {
+                orderIds.add(ThreadLocalRandom.current().nextLong(1, orders + 1));
+            }
+            read += transactionDetailsRepository.findByOrderIdIn(orderIds).size();
+        }
+        long elapsed = System.nanoTime() - startedAt;
+        log.info("{}: entity lookups {} rows/s", name, read * 1_000_000_000L / Math.max(1, elapsed));
+    }
+
+    private interface RowReader {
+        void read(ResultSet rs) throws SQLException;
+    }
+}
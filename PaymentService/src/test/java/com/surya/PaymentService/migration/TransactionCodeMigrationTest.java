@@ -0,0 +1,93 @@
+package com.surya.PaymentService.migration;
+
+import com.surya.PaymentService.entity.TransactionDetails;
+import com.surya.PaymentService.model.PaymentMode;
+import com.surya.PaymentService.model.PaymentResponse;
+import com.surya.PaymentService.model.PaymentStatus;
+import com.surya.PaymentService.repository.TransactionDetailsRepository;
+import com.surya.PaymentService.service.PaymentService;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.List;
+import java.util.Map;
+
+@SpringBootTest
+public class TransactionCodeMigrationTest {
+
+    @Autowired
+    private TransactionCodeMigration transactionCodeMigration;
+
+    @Autowired
+    private TransactionDetailsRepository transactionDetailsRepository;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @BeforeEach
+    void cleanUp(){
+        transactionDetailsRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Migration - transactions stored with strings get their mode and status codes")
+    void test_When_Migrated_then_Codes_Set(){
+        insertLegacyTransaction(900_001, 1, "UPI", "SUCCESS");
+        insertLegacyTransaction(900_002, 2, "CREDIT_CARD", "FAILED");
+
+        Assertions.assertEquals(2, transactionCodeMigration.migrate());
+
+        List<Map<String, Object>> codes = jdbcTemplate.queryForList(
+                "select MODE_CODE, STATUS_CODE from TRANSACTION_DETAILS order by ID");
+        Assertions.assertEquals(PaymentMode.UPI.getCode(), ((Number) codes.get(0).get("MODE_CODE")).intValue());
+        Assertions.assertEquals(PaymentStatus.SUCCESS.getCode(), ((Number) codes.get(0).get("STATUS_CODE")).intValue());
+        Assertions.assertEquals(PaymentMode.CREDIT_CARD.getCode(), ((Number) codes.get(1).get("MODE_CODE")).intValue());
+        Assertions.assertEquals(PaymentStatus.FAILED.getCode(), ((Number) codes.get(1).get("STATUS_CODE")).intValue());
+        Assertions.assertEquals(0, transactionCodeMigration.migrate());
+    }
+
+    @Test
+    @DisplayName("Migration - transactions not migrated yet are read from the strings")
+    void test_When_Not_Migrated_then_Read_From_Strings(){
+        insertLegacyTransaction(900_001, 1, "APPLE_PAY", "SUCCESS");
+
+        PaymentResponse paymentResponse = paymentService.getPaymentDetailsByOrderId("1");
+
+        Assertions.assertEquals(PaymentMode.APPLE_PAY, paymentResponse.getPaymentMode());
+        Assertions.assertEquals(PaymentStatus.SUCCESS.name(), paymentResponse.getStatus());
+    }
+
+    @Test
+    @DisplayName("Migration - transactions saved now store the codes and, for one release, the names")
+    void test_When_Transaction_Saved_then_Codes_And_Names_Stored(){
+        long id = transactionDetailsRepository.save(TransactionDetails.builder()
+                .orderId(3)
+                .amount(100)
+                .paymentMode(PaymentMode.PAYPAL)
+                .paymentStatus(PaymentStatus.SUCCESS)
+                .paymentDate(Instant.now())
+                .build()).getId();
+
+        Map<String, Object> row = jdbcTemplate.queryForMap(
+                "select MODE_CODE, STATUS_CODE, MODE, STATUS from TRANSACTION_DETAILS where ID = ?", id);
+        Assertions.assertEquals(PaymentMode.PAYPAL.getCode(), ((Number) row.get("MODE_CODE")).intValue());
+        Assertions.assertEquals(PaymentStatus.SUCCESS.getCode(), ((Number) row.get("STATUS_CODE")).intValue());
+        Assertions.assertEquals(PaymentMode.PAYPAL.name(), row.get("MODE"));
+        Assertions.assertEquals(PaymentStatus.SUCCESS.name(), row.get("STATUS"));
+    }
+
+    private void insertLegacyTransaction(long id, long orderId, String paymentMode, String paymentStatus) {
+        jdbcTemplate.update("insert into TRANSACTION_DETAILS (ID, ORDER_ID, MODE, PAYMENT_DATE, STATUS, AMOUNT) "
+                + "values (?, ?, ?, ?, ?, 100)", id, orderId, paymentMode, Timestamp.from(Instant.now()), paymentStatus);
+    }
+}
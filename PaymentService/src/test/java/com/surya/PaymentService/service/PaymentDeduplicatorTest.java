@@ -0,0 +1,125 @@
+package com.surya.PaymentService.service;
+
+import com.surya.PaymentService.entity.TransactionDetails;
+import com.surya.PaymentService.model.PaymentMode;
+import com.surya.PaymentService.model.PaymentRequest;
+import com.surya.PaymentService.model.PaymentStatus;
+import com.surya.PaymentService.repository.TransactionDetailsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest
+public class PaymentDeduplicatorTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private PaymentDeduplicator paymentDeduplicator;
+
+    @Autowired
+    private TransactionDetailsRepository transactionDetailsRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void cleanUp(){
+        transactionDetailsRepository.deleteAll();
+        paymentDeduplicator.rebuild();
+    }
+
+    @Test
+    @DisplayName("Do Payment - a retried payment returns the first transaction")
+    void test_When_Payment_Retried_then_Recorded_Once(){
+        long first = paymentService.doPayment(paymentRequest("ref-1"));
+        long second = paymentService.doPayment(paymentRequest("ref-1"));
+
+        Assertions.assertEquals(first, second);
+        Assertions.assertEquals(1, transactionDetailsRepository.count());
+    }
+
+    @Test
+    @DisplayName("Do Payment - references recorded before a rebuild are still deduplicated")
+    void test_When_Filter_Rebuilt_then_Existing_References_Found(){
+        long existing = transactionDetailsRepository.save(TransactionDetails.builder()
+                .orderId(1)
+                .amount(100)
+                .paymentMode(PaymentMode.CASH)
+                .paymentStatus(PaymentStatus.SUCCESS)
+                .paymentDate(Instant.now())
+                .referenceNumber("ref-before-restart")
+                .build()).getId();
+        paymentDeduplicator.rebuild();
+
+        Assertions.assertTrue(paymentDeduplicator.isReady());
+        Assertions.assertEquals(existing, paymentService.doPayment(paymentRequest("ref-before-restart")));
+        Assertions.assertEquals(1, transactionDetailsRepository.count());
+    }
+
+    @Test
+    @DisplayName("Do Payment - a new reference skips the lookup")
+    void test_When_New_Reference_then_Lookup_Skipped(){
+        double skippedBefore = checks("skipped");
+
+        paymentService.doPayment(paymentRequest("ref-new"));
+
+        Assertions.assertEquals(skippedBefore + 1, checks("skipped"));
+        Assertions.assertEquals(1, transactionDetailsRepository.count());
+    }
+
+    @Test
+    @DisplayName("Do Payment - concurrent retries of one payment are recorded once")
+    void test_When_Concurrent_Retries_then_Recorded_Once() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(8);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 8; i++) {
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return paymentService.doPayment(paymentRequest("ref-concurrent"));
+                }));
+            }
+            start.countDown();
+
+            Set<Long> ids = new HashSet<>();
+            for (Future<Long> future : futures) {
+                ids.add(future.get());
+            }
+
+            Assertions.assertEquals(1, ids.size());
+            Assertions.assertEquals(1, transactionDetailsRepository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private double checks(String result) {
+        return meterRegistry.get("payment.dedup.checks").tag("result", result).counter().count();
+    }
+
+    private static PaymentRequest paymentRequest(String referenceNumber) {
+        return PaymentRequest.builder()
+                .orderId(1)
+                .amount(100)
+                .referenceNumber(referenceNumber)
+                .paymentMode(PaymentMode.CASH)
+                .build();
+    }
+}
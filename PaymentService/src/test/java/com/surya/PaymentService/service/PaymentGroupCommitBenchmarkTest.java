@@ -0,0 +1,100 @@
+package com.surya.PaymentService.service;
+
+import com.surya.PaymentService.entity.TransactionDetails;
+import com.surya.PaymentService.model.PaymentMode;
+import com.surya.PaymentService.model.PaymentStatus;
+import com.surya.PaymentService.repository.TransactionDetailsRepository;
+import io.micrometer.core.instrument.simple.SimpleMeterRegistry;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.transaction.PlatformTransactionManager;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.function.ToLongFunction;
+
+/**
+ * Throughput and caller latency of single payment writes from concurrent callers, saving each
+ * payment in its own transaction versus group commit at several batch sizes.
+ * H2 commits without an fsync, so run against a local MySQL (spring.datasource.url) to see
+ * the commit cost group commit is meant to save.
+ * <p>
+ * Run with {@code mvn test -Dtest=PaymentGroupCommitBenchmarkTest -Dbenchmark=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Log4j2
+public class PaymentGroupCommitBenchmarkTest {
+
+    private static final int THREADS = 32;
+    private static final int PAYMENTS_PER_THREAD = 500;
+
+    @Autowired
+    private TransactionDetailsRepository transactionDetailsRepository;
+
+    @Autowired
+    private PlatformTransactionManager transactionManager;
+
+    @Test
+    void compareBatchSizes() throws Exception {
+        run("warm-up", details -> transactionDetailsRepository.save(details).getId());
+        run("one commit per payment", details -> transactionDetailsRepository.save(details).getId());
+
+        for (int batchSize : new int[]{10, 50, 200}) {
+            PaymentGroupCommitter committer = new PaymentGroupCommitter(transactionDetailsRepository,
+                    transactionManager, new SimpleMeterRegistry(), batchSize, Duration.ofMillis(2), 10_000);
+            try {
+                run("group commit, batch " + batchSize, committer::commit);
+            } finally {
+                committer.shutdown();
+            }
+        }
+    }
+
+    private void run(String name, ToLongFunction<TransactionDetails> save) throws Exception {
+        transactionDetailsRepository.deleteAllInBatch();
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        long[] latencies = new long[THREADS * PAYMENTS_PER_THREAD];
+        long startedAt = System.nanoTime();
+        try {
+            List<Future<?>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                int thread = t;
+                futures.add(executor.submit(() -> {
+                    for (int i = 0; i < PAYMENTS_PER_THREAD; i++) {
+                        long callStartedAt = System.nanoTime();
+                        save.applyAsLong(TransactionDetails.builder()
+                                .orderId(thread * PAYMENTS_PER_THREAD + i)
+                                .paymentMode(PaymentMode.CASH)
+                                .paymentStatus(PaymentStatus.SUCCESS)
+                                .paymentDate(Instant.now())
+                                .amount(100)
+                                .build());
+                        latencies[thread * PAYMENTS_PER_THREAD + i] = System.nanoTime() - callStartedAt;
+                    }
+                }));
+            }
+            for (Future<?> future : futures) {
+                future.get();
+            }
+        } finally {
+            executor.shutdown();
+        }
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+
+        Arrays.sort(latencies);
+        log.info("{}: {} payments/s, p50={} us p99={} us", name,
+                (long) (latencies.length / seconds),
+                latencies[latencies.length / 2] / 1000,
+                latencies[(int) (latencies.length * 0.99)] / 1000);
+    }
+}
@@ -0,0 +1,125 @@
+package com.surya.PaymentService.service;
+
+import com.surya.PaymentService.model.PaymentMode;
+import com.surya.PaymentService.model.PaymentRequest;
+import com.surya.PaymentService.repository.TransactionDetailsRepository;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.HashSet;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+@SpringBootTest(properties = {
+        "payment.group-commit.enabled=true",
+        "payment.group-commit.max-batch-size=20",
+        "payment.group-commit.max-delay=20ms"
+})
+public class PaymentGroupCommitterTest {
+
+    private static final int THREADS = 16;
+    private static final int PAYMENTS_PER_THREAD = 20;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private TransactionDetailsRepository transactionDetailsRepository;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    @BeforeEach
+    void cleanUp(){
+        transactionDetailsRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Group Commit - concurrent payments are batched and every caller gets its own id")
+    void test_When_Concurrent_Payments_then_Batched_With_Unique_Ids() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(THREADS);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<List<Long>>> futures = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                long orderId = t;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    List<Long> ids = new ArrayList<>();
+                    for (int i = 0; i < PAYMENTS_PER_THREAD; i++) {
+                        ids.add(paymentService.doPayment(paymentRequest(orderId, "ref-" + orderId + "-" + i)));
+                    }
+                    return ids;
+                }));
+            }
+            start.countDown();
+
+            Set<Long> ids = new HashSet<>();
+            for (Future<List<Long>> future : futures) {
+                ids.addAll(future.get());
+            }
+
+            Assertions.assertEquals(THREADS * PAYMENTS_PER_THREAD, ids.size());
+            Assertions.assertEquals(THREADS * PAYMENTS_PER_THREAD, transactionDetailsRepository.count());
+            for (Long id : ids) {
+                Assertions.assertTrue(transactionDetailsRepository.existsById(id));
+            }
+            Assertions.assertTrue(meterRegistry.get("payment.group-commit.batch.size").summary().max() > 1);
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    @Test
+    @DisplayName("Group Commit - a rejected payment fails alone, the rest of its batch commits")
+    void test_When_One_Payment_Rejected_then_Others_Committed() throws Exception {
+        ExecutorService executor = Executors.newFixedThreadPool(4);
+        CountDownLatch start = new CountDownLatch(1);
+        try {
+            List<Future<Long>> futures = new ArrayList<>();
+            for (int i = 0; i < 4; i++) {
+                // longer than the REFERENCE_NUMBER column
+                String referenceNumber = i == 2 ? "x".repeat(300) : "ref-" + i;
+                futures.add(executor.submit(() -> {
+                    start.await();
+                    return paymentService.doPayment(paymentRequest(1, referenceNumber));
+                }));
+            }
+            start.countDown();
+
+            int failed = 0;
+            for (Future<Long> future : futures) {
+                try {
+                    Assertions.assertTrue(transactionDetailsRepository.existsById(future.get()));
+                } catch (ExecutionException e) {
+                    failed++;
+                }
+            }
+
+            Assertions.assertEquals(1, failed);
+            Assertions.assertEquals(3, transactionDetailsRepository.count());
+        } finally {
+            executor.shutdownNow();
+        }
+    }
+
+    private static PaymentRequest paymentRequest(long orderId, String referenceNumber) {
+        return PaymentRequest.builder()
+                .orderId(orderId)
+                .amount(100)
+                .referenceNumber(referenceNumber)
+                .paymentMode(PaymentMode.CASH)
+                .build();
+    }
+}
@@ -0,0 +1,91 @@
+package com.surya.PaymentService.service;
+
+import com.surya.PaymentService.model.PaymentMode;
+import com.surya.PaymentService.model.PaymentStatus;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+
+import java.sql.Timestamp;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+import java.util.concurrent.ThreadLocalRandom;
+
+/**
+ * Lookup latency by order id once TRANSACTION_DETAILS holds -Dbenchmark.rows rows (10M by default).
+ * Rows are bulk loaded with JDBC batches, about two transactions per order. Point
+ * spring.datasource.url at a local MySQL to measure there instead of the in-memory H2.
+ * <p>
+ * Run with {@code mvn test -Dtest=PaymentLookupBenchmarkTest -Dbenchmark=true}.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Log4j2
+public class PaymentLookupBenchmarkTest {
+
+    private static final int LOOKUPS = 10_000;
+    private static final int BATCH_SIZE = 50;
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Test
+    void lookupLatency() {
+        long rows = Long.getLong("benchmark.rows", 10_000_000L);
+        long orders = rows / 2;
+        load(rows, orders);
+
+        long[] single = new long[LOOKUPS];
+        for (int i = 0; i < LOOKUPS; i++) {
+            String orderId = String.valueOf(ThreadLocalRandom.current().nextLong(1, orders + 1));
+            long startedAt = System.nanoTime();
+            paymentService.getPaymentDetailsByOrderId(orderId);
+            single[i] = System.nanoTime() - startedAt;
+        }
+        report("single", single);
+
+        long[] batch = new long[LOOKUPS / 10];
+        for (int i = 0; i < batch.length; i++) {
+            List<Long> orderIds = new ArrayList<>(BATCH_SIZE);
+            for (int j = 0; j < BATCH_SIZE; j++) {
+                orderIds.add(ThreadLocalRandom.current().nextLong(1, orders + 1));
+            }
+            long startedAt = System.nanoTime();
+            paymentService.getPaymentDetailsByOrderIds(orderIds);
+            batch[i] = System.nanoTime() - startedAt;
+        }
+        report("batch of " + BATCH_SIZE, batch);
+    }
+
+    private void load(long rows, long orders) {
+        jdbcTemplate.execute("delete from TRANSACTION_DETAILS");
+        long startedAt = System.nanoTime();
+        Timestamp paymentDate = Timestamp.from(Instant.now());
+        List<Object[]> batch = new ArrayList<>(10_000);
+        for (long id = 1; id <= rows; id++) {
+            batch.add(new Object[]{id, (id - 1) % orders + 1, PaymentMode.CASH.getCode(), paymentDate, PaymentStatus.SUCCESS.getCode(), 100});
+            if (batch.size() == 10_000 || id == rows) {
+                jdbcTemplate.batchUpdate("insert into TRANSACTION_DETAILS "
+                        + "(ID, ORDER_ID, MODE_CODE, PAYMENT_DATE, STATUS_CODE, AMOUNT) values (?, ?, ?, ?, ?, ?)", batch);
+                batch.clear();
+            }
+        }
+        log.info("Loaded {} rows in {} s", rows, (System.nanoTime() - startedAt) / 1_000_000_000);
+    }
+
+    private static void report(String name, long[] latencies) {
+        Arrays.sort(latencies);
+        log.info("{}: p50={} us p99={} us max={} us", name,
+                latencies[latencies.length / 2] / 1000,
+                latencies[(int) (latencies.length * 0.99)] / 1000,
+                latencies[latencies.length - 1] / 1000);
+    }
+}
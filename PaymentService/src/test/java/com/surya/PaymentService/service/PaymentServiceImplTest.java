@@ -0,0 +1,141 @@
+package com.surya.PaymentService.service;
+
+import com.surya.PaymentService.entity.TransactionDetails;
+import com.surya.PaymentService.exception.PaymentServiceCustomException;
+import com.surya.PaymentService.model.PaymentMode;
+import com.surya.PaymentService.model.PaymentRequest;
+import com.surya.PaymentService.model.PaymentResponse;
+import com.surya.PaymentService.model.PaymentStatus;
+import com.surya.PaymentService.repository.TransactionDetailsRepository;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.time.Duration;
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+public class PaymentServiceImplTest {
+
+    @Autowired
+    private PaymentService paymentService;
+
+    @Autowired
+    private TransactionDetailsRepository transactionDetailsRepository;
+
+    @BeforeEach
+    void cleanUp(){
+        transactionDetailsRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Get Payment - an order with several transactions returns the latest")
+    void test_When_Several_Transactions_then_Latest_Returned(){
+        paymentService.doPayment(paymentRequest(1, 100));
+        long latest = paymentService.doPayment(paymentRequest(1, 150));
+
+        PaymentResponse paymentResponse = paymentService.getPaymentDetailsByOrderId("1");
+
+        Assertions.assertEquals(latest, paymentResponse.getPaymentId());
+        Assertions.assertEquals(150, paymentResponse.getAmount());
+    }
+
+    @Test
+    @DisplayName("Get Payment - the latest payment date wins over a higher id")
+    void test_When_Higher_Id_Paid_Earlier_then_Latest_By_Payment_Date(){
+        long latest = paymentService.doPayment(paymentRequest(1, 150));
+        // ids come from per-instance pooled-lo blocks, so another instance can save an older payment with a higher id
+        long earlier = transactionDetailsRepository.save(TransactionDetails.builder()
+                .orderId(1)
+                .paymentMode(PaymentMode.CASH)
+                .paymentDate(Instant.now().minus(Duration.ofMinutes(5)))
+                .paymentStatus(PaymentStatus.SUCCESS)
+                .amount(100)
+                .build()).getId();
+        Assertions.assertTrue(earlier > latest);
+
+        Assertions.assertEquals(latest, paymentService.getPaymentDetailsByOrderId("1").getPaymentId());
+        Assertions.assertEquals(List.of(earlier, latest), paymentService.getPaymentHistoryByOrderId(1)
+                .stream()
+                .map(PaymentResponse::getPaymentId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Get Payment History - every transaction of the order, oldest first")
+    void test_When_Get_History_then_All_Transactions_Returned(){
+        long first = paymentService.doPayment(paymentRequest(1, 100));
+        long second = paymentService.doPayment(paymentRequest(1, 150));
+        paymentService.doPayment(paymentRequest(2, 300));
+
+        Assertions.assertEquals(List.of(first, second), paymentService.getPaymentHistoryByOrderId(1)
+                .stream()
+                .map(PaymentResponse::getPaymentId)
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Get Payment - unknown order id")
+    void test_When_No_Payment_then_Not_Found(){
+        PaymentServiceCustomException exception = Assertions.assertThrows(PaymentServiceCustomException.class,
+                () -> paymentService.getPaymentDetailsByOrderId("42"));
+
+        Assertions.assertEquals("PAYMENT_NOT_FOUND", exception.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Get Payment Id - found by reference number, unknown reference numbers are not found")
+    void test_When_Lookup_By_Reference_Number_then_Recorded_Payment_Found(){
+        PaymentRequest paymentRequest = paymentRequest(1, 100);
+        paymentRequest.setReferenceNumber("ORDER-1");
+        long transactionId = paymentService.doPayment(paymentRequest);
+
+        Assertions.assertEquals(transactionId, paymentService.getPaymentIdByReferenceNumber("ORDER-1"));
+        PaymentServiceCustomException exception = Assertions.assertThrows(PaymentServiceCustomException.class,
+                () -> paymentService.getPaymentIdByReferenceNumber("ORDER-2"));
+        Assertions.assertEquals("PAYMENT_NOT_FOUND", exception.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Get Payments - batch lookup returns the transactions of every requested order")
+    void test_When_Batch_Lookup_then_Transactions_Of_All_Orders_Returned(){
+        paymentService.doPayment(paymentRequest(1, 100));
+        paymentService.doPayment(paymentRequest(1, 150));
+        paymentService.doPayment(paymentRequest(2, 300));
+        paymentService.doPayment(paymentRequest(3, 400));
+
+        List<PaymentResponse> paymentResponses = paymentService.getPaymentDetailsByOrderIds(List.of(1L, 2L, 2L));
+
+        Assertions.assertEquals(List.of(1L, 1L, 2L), paymentResponses.stream()
+                .map(PaymentResponse::getOrderId)
+                .sorted()
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Get Payments - more distinct order ids than the batch cap are rejected")
+    void test_When_Too_Many_Ids_then_Rejected(){
+        List<Long> orderIds = new ArrayList<>();
+        for (long id = 1; id <= 101; id++) {
+            orderIds.add(id);
+        }
+
+        PaymentServiceCustomException exception = Assertions.assertThrows(PaymentServiceCustomException.class,
+                () -> paymentService.getPaymentDetailsByOrderIds(orderIds));
+        Assertions.assertEquals("TOO_MANY_IDS", exception.getErrorCode());
+    }
+
+    private static PaymentRequest paymentRequest(long orderId, long amount) {
+        return PaymentRequest.builder()
+                .orderId(orderId)
+                .amount(amount)
+                .paymentMode(PaymentMode.CASH)
+                .build();
+    }
+}
@@ -0,0 +1,42 @@
+package com.surya.PaymentService.util;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+public class BloomFilterTest {
+
+    private static final int VALUES = 100_000;
+
+    @Test
+    @DisplayName("Bloom Filter - every value put is reported as possibly contained")
+    void test_When_Value_Put_then_Might_Contain(){
+        BloomFilter filter = new BloomFilter(VALUES, 0.01);
+        for (int i = 0; i < VALUES; i++) {
+            filter.put("ref-" + i);
+        }
+
+        for (int i = 0; i < VALUES; i++) {
+            Assertions.assertTrue(filter.mightContain("ref-" + i));
+        }
+        Assertions.assertEquals(VALUES, filter.insertions());
+    }
+
+    @Test
+    @DisplayName("Bloom Filter - false positives stay near the configured rate")
+    void test_When_Filled_To_Capacity_then_False_Positive_Rate_Near_Target(){
+        BloomFilter filter = new BloomFilter(VALUES, 0.01);
+        for (int i = 0; i < VALUES; i++) {
+            filter.put("ref-" + i);
+        }
+
+        int falsePositives = 0;
+        for (int i = 0; i < VALUES; i++) {
+            if (filter.mightContain("other-" + i)) {
+                falsePositives++;
+            }
+        }
+        Assertions.assertTrue(falsePositives < VALUES * 0.02, "false positives: " + falsePositives);
+        Assertions.assertEquals(0.01, filter.expectedFalsePositiveRate(), 0.005);
+    }
+}
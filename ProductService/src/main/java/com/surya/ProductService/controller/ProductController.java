@@ -1,14 +1,22 @@
 package com.surya.ProductService.controller;
 
+import com.surya.ProductService.model.ProductImportFormat;
+import com.surya.ProductService.model.ProductImportResult;
+import com.surya.ProductService.model.ProductQuantity;
 import com.surya.ProductService.model.ProductRequest;
 import com.surya.ProductService.model.ProductResponse;
+import com.surya.ProductService.service.ProductImportService;
 import com.surya.ProductService.service.ProductService;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.http.HttpHeaders;
 import org.springframework.http.HttpStatus;
+import org.springframework.http.MediaType;
 import org.springframework.http.ResponseEntity;
 import org.springframework.web.bind.annotation.*;
 
 import javax.ws.rs.Path;
+import java.io.InputStream;
+import java.util.List;
 
 @RestController
 @RequestMapping("/product")
@@ -17,12 +25,27 @@ public class ProductController {
     @Autowired
     private ProductService productService;
 
+    @Autowired
+    private ProductImportService productImportService;
+
     @PostMapping
     public ResponseEntity<Long> addProduct(@RequestBody ProductRequest productRequest){
         long productId = productService.addProduct(productRequest);
         return new ResponseEntity<>(productId, HttpStatus.CREATED);
     }
 
+    // the body is read as a stream, a catalogue file is never held in memory as a whole
+    @PostMapping(value = "/import", consumes = {"text/csv", MediaType.APPLICATION_NDJSON_VALUE})
+    public ResponseEntity<ProductImportResult> importProducts(@RequestHeader(HttpHeaders.CONTENT_TYPE) String contentType,
+                                                              InputStream body){
+        ProductImportFormat format = contentType.startsWith("text/csv")
+                ? ProductImportFormat.CSV
+                : ProductImportFormat.NDJSON;
+        ProductImportResult productImportResult =
+                productImportService.importProducts(body, format);
+        return new ResponseEntity<>(productImportResult, HttpStatus.OK);
+    }
+
     @GetMapping("/{id}")
     public ResponseEntity<ProductResponse> getProductById(@PathVariable("id") long productId){
         ProductResponse productResponse =
@@ -30,10 +53,37 @@ public class ProductController {
         return new ResponseEntity<>(productResponse, HttpStatus.OK);
     }
 
+    @GetMapping("/search")
+    public ResponseEntity<List<ProductResponse>> searchProducts(@RequestParam("q") String query,
+                                                                @RequestParam(defaultValue = "10") int limit){
+        List<ProductResponse> productResponses =
+                productService.searchProducts(query, limit);
+        return new ResponseEntity<>(productResponses, HttpStatus.OK);
+    }
+
+    @GetMapping(params = "ids")
+    public ResponseEntity<List<ProductResponse>> getProductsByIds(@RequestParam("ids") List<Long> productIds){
+        List<ProductResponse> productResponses =
+                productService.getProductsByIds(productIds);
+        return new ResponseEntity<>(productResponses, HttpStatus.OK);
+    }
+
     @PutMapping("/reduceQuantity/{id}")
     public ResponseEntity<Void> reduceQuantity(@PathVariable("id") long productId, @RequestParam long quantity){
         productService.reduceQuantity(productId,quantity);
         return new ResponseEntity<>(HttpStatus.OK);
     }
-}
 
+    @PutMapping("/reduceQuantity")
+    public ResponseEntity<Void> reduceQuantities(@RequestBody List<ProductQuantity> productQuantities){
+        productService.reduceQuantities(productQuantities);
+        return new ResponseEntity<>(HttpStatus.OK);
+    }
+
+    @PutMapping("/{id}/shards")
+    public ResponseEntity<ProductResponse> updateShardCount(@PathVariable("id") long productId, @RequestParam int count){
+        ProductResponse productResponse =
+                productService.updateShardCount(productId, count);
+        return new ResponseEntity<>(productResponse, HttpStatus.OK);
+    }
+}
@@ -15,7 +15,7 @@ import javax.persistence.*;
 public class Product {
 
     @Id
-    @GeneratedValue(strategy = GenerationType.AUTO)
+    @GeneratedValue(generator = "pooled_lo")
     private long productId;
     @Column(name = "PRODUCT_NAME")
     private String productName;
@@ -23,4 +23,11 @@ public class Product {
     private long price;
     @Column(name = "QUANTITY")
     private long quantity;
+    // above 0 the stock lives in that many PRODUCT_STOCK_SHARD rows and QUANTITY stays 0
+    @Column(name = "SHARD_COUNT", columnDefinition = "int default 0 not null")
+    private int shardCount;
+    // bumped by every write, including the conditional quantity update in ProductRepository
+    @Version
+    @Column(name = "VERSION", columnDefinition = "bigint default 0 not null")
+    private long version;
 }
@@ -0,0 +1,33 @@
+package com.surya.ProductService.entity;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import javax.persistence.*;
+
+/**
+ * Part of the stock of a product in hot SKU mode. Reservations for the product are spread
+ * over its shards so concurrent orders update different rows.
+ */
+@Entity
+@Table(name = "PRODUCT_STOCK_SHARD", uniqueConstraints = {
+        @UniqueConstraint(name = "UK_PRODUCT_STOCK_SHARD", columnNames = {"PRODUCT_ID", "SHARD_NO"})
+})
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductStockShard {
+
+    @Id
+    @GeneratedValue(generator = "pooled_lo")
+    private long id;
+    @Column(name = "PRODUCT_ID")
+    private long productId;
+    @Column(name = "SHARD_NO")
+    private int shardNo;
+    @Column(name = "QUANTITY")
+    private long quantity;
+}
@@ -0,0 +1,104 @@
+package com.surya.ProductService.event;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.autoconfigure.condition.ConditionalOnProperty;
+import org.springframework.cloud.client.ServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+import org.springframework.http.client.SimpleClientHttpRequestFactory;
+import org.springframework.scheduling.concurrent.CustomizableThreadFactory;
+import org.springframework.stereotype.Component;
+import org.springframework.web.client.RestTemplate;
+
+import javax.annotation.PreDestroy;
+import java.time.Duration;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.RejectedExecutionException;
+import java.util.concurrent.ThreadPoolExecutor;
+import java.util.concurrent.TimeUnit;
+
+/**
+ * Posts changes to every instance of the configured service, e.g. the product near-cache of
+ * each OrderService instance, plus any static callback urls. Instances are looked up through
+ * discovery for every change, so instances that started later are notified too.
+ * <p>
+ * Quantity changes are not posted: they happen on every order and remote caches do not keep
+ * the quantity.
+ * <p>
+ * Delivery runs on a background thread so a slow receiver never holds up a request.
+ * It is best effort: a change that cannot be delivered is dropped and the receiver's cache
+ * expiry bounds how stale it gets.
+ */
+@Component
+@ConditionalOnProperty(name = "product.change-notifier.http.enabled", havingValue = "true", matchIfMissing = true)
+@Log4j2
+public class HttpProductChangeNotifier implements ProductChangeNotifier {
+
+    private final RestTemplate restTemplate;
+    private final DiscoveryClient discoveryClient;
+    private final String serviceId;
+    private final String callbackPath;
+    private final List<String> callbackUrls;
+    private final ThreadPoolExecutor sender;
+
+    public HttpProductChangeNotifier(DiscoveryClient discoveryClient,
+                                     @Value("${product.change-notifier.http.service-id:ORDER-SERVICE}") String serviceId,
+                                     @Value("${product.change-notifier.http.callback-path:/order/internal/product-changes}") String callbackPath,
+                                     @Value("${product.change-notifier.http.callback-urls:}") List<String> callbackUrls,
+                                     @Value("${product.change-notifier.http.timeout:1s}") Duration timeout,
+                                     @Value("${product.change-notifier.http.queue-capacity:1000}") int queueCapacity) {
+        SimpleClientHttpRequestFactory requestFactory = new SimpleClientHttpRequestFactory();
+        requestFactory.setConnectTimeout((int) timeout.toMillis());
+        requestFactory.setReadTimeout((int) timeout.toMillis());
+        this.restTemplate = new RestTemplate(requestFactory);
+        this.discoveryClient = discoveryClient;
+        this.serviceId = serviceId;
+        this.callbackPath = callbackPath;
+        this.callbackUrls = callbackUrls;
+        this.sender = new ThreadPoolExecutor(1, 1, 0L, TimeUnit.MILLISECONDS,
+                new ArrayBlockingQueue<>(queueCapacity),
+                new CustomizableThreadFactory("product-change-notifier-"));
+    }
+
+    @Override
+    public void productChanged(ProductChangedEvent event) {
+        if (ProductChangedEvent.QUANTITY_CHANGED.equals(event.getChangeType())) {
+            return;
+        }
+        try {
+            sender.execute(() -> send(event));
+        } catch (RejectedExecutionException e) {
+            log.warn("Dropping change notification for product id {}, queue is full", event.getProductId());
+        }
+    }
+
+    private void send(ProductChangedEvent event) {
+        for (String callbackUrl : resolveCallbackUrls()) {
+            try {
+                restTemplate.postForEntity(callbackUrl, event, Void.class);
+            } catch (Exception e) {
+                log.warn("Could not notify {} of change to product id {}", callbackUrl, event.getProductId(), e);
+            }
+        }
+    }
+
+    private List<String> resolveCallbackUrls() {
+        List<String> urls = new ArrayList<>(callbackUrls);
+        try {
+            for (ServiceInstance instance : discoveryClient.getInstances(serviceId)) {
+                urls.add(instance.getUri() + callbackPath);
+            }
+        } catch (Exception e) {
+            log.warn("Could not look up the instances of {}", serviceId, e);
+        }
+        return urls;
+    }
+
+    @PreDestroy
+    public void shutdown() throws InterruptedException {
+        sender.shutdown();
+        sender.awaitTermination(5, TimeUnit.SECONDS);
+    }
+}
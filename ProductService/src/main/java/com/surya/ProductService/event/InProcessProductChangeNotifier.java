@@ -0,0 +1,18 @@
+package com.surya.ProductService.event;
+
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.context.ApplicationEventPublisher;
+import org.springframework.stereotype.Component;
+
+// hands the change to @EventListener methods in this service
+@Component
+public class InProcessProductChangeNotifier implements ProductChangeNotifier {
+
+    @Autowired
+    private ApplicationEventPublisher applicationEventPublisher;
+
+    @Override
+    public void productChanged(ProductChangedEvent event) {
+        applicationEventPublisher.publishEvent(event);
+    }
+}
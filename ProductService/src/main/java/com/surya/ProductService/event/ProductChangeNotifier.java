@@ -0,0 +1,9 @@
+package com.surya.ProductService.event;
+
+/**
+ * Receives committed product changes. Every notifier bean is called, so in-process listeners
+ * and remote caches can be served side by side.
+ */
+public interface ProductChangeNotifier {
+    void productChanged(ProductChangedEvent event);
+}
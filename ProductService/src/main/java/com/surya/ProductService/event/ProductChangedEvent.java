@@ -0,0 +1,23 @@
+package com.surya.ProductService.event;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.time.Instant;
+
+// published once the change is committed, changedAt lets receivers measure how stale they were
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductChangedEvent {
+
+    public static final String ADDED = "ADDED";
+    public static final String QUANTITY_CHANGED = "QUANTITY_CHANGED";
+
+    private long productId;
+    private String changeType;
+    private Instant changedAt;
+}
@@ -16,7 +16,15 @@ public class RestResponseEntityExceptionHandler extends ResponseEntityExceptionH
         return new ResponseEntity<>(new ErrorResponse().builder()
                 .errorMessage(exception.getMessage())
                 .errorCode(exception.getErrorCode())
-                .build(), HttpStatus.NOT_FOUND);
+                .build(), statusOf(exception.getErrorCode()));
+    }
+
+    // rejected requests are a 400, every other code keeps the 404 callers already handle
+    static HttpStatus statusOf(String errorCode) {
+        if (errorCode != null && (errorCode.equals("TOO_MANY_IDS") || errorCode.startsWith("INVALID_"))) {
+            return HttpStatus.BAD_REQUEST;
+        }
+        return HttpStatus.NOT_FOUND;
     }
 
 }
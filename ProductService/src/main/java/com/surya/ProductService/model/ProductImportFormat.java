@@ -0,0 +1,8 @@
+package com.surya.ProductService.model;
+
+public enum ProductImportFormat {
+    // name,price,quantity per line, an optional header line is skipped
+    CSV,
+    // one ProductRequest json object per line
+    NDJSON
+}
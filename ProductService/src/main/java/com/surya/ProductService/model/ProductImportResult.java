@@ -0,0 +1,30 @@
+package com.surya.ProductService.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+import java.util.ArrayList;
+import java.util.List;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductImportResult {
+    private long imported;
+    private long failed;
+    // capped, failed keeps counting past the cap
+    @Builder.Default
+    private List<RowError> errors = new ArrayList<>();
+
+    @Data
+    @AllArgsConstructor
+    @NoArgsConstructor
+    @Builder
+    public static class RowError {
+        private long line;
+        private String message;
+    }
+}
@@ -0,0 +1,15 @@
+package com.surya.ProductService.model;
+
+import lombok.AllArgsConstructor;
+import lombok.Builder;
+import lombok.Data;
+import lombok.NoArgsConstructor;
+
+@Data
+@AllArgsConstructor
+@NoArgsConstructor
+@Builder
+public class ProductQuantity {
+    private long productId;
+    private long quantity;
+}
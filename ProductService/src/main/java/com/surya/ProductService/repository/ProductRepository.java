@@ -1,9 +1,35 @@
 package com.surya.ProductService.repository;
 
 import com.surya.ProductService.entity.Product;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
 import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
 import org.springframework.stereotype.Repository;
 
+import javax.persistence.LockModeType;
+import java.util.List;
+import java.util.Optional;
+
 @Repository
 public interface ProductRepository extends JpaRepository<Product,Long> {
+
+    // decrements only while enough stock is left, returns 0 when the product is missing or short
+    @Modifying
+    @Query("update Product p set p.quantity = p.quantity - :quantity, p.version = p.version + 1 " +
+            "where p.productId = :productId and p.quantity >= :quantity")
+    int reserveQuantity(@Param("productId") long productId, @Param("quantity") long quantity);
+
+    // candidates for a search while the search index loads, see ProductServiceImpl.searchProducts
+    Slice<Product> findByProductNameContainingIgnoreCase(String text, Pageable pageable);
+
+    @Query("select p.shardCount from Product p where p.productId = :productId")
+    Optional<Integer> findShardCount(@Param("productId") long productId);
+
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select p from Product p where p.productId = :productId")
+    Optional<Product> findForUpdate(@Param("productId") long productId);
 }
@@ -0,0 +1,38 @@
+package com.surya.ProductService.repository;
+
+import com.surya.ProductService.entity.ProductStockShard;
+import org.springframework.data.jpa.repository.JpaRepository;
+import org.springframework.data.jpa.repository.Lock;
+import org.springframework.data.jpa.repository.Modifying;
+import org.springframework.data.jpa.repository.Query;
+import org.springframework.data.repository.query.Param;
+import org.springframework.stereotype.Repository;
+
+import javax.persistence.LockModeType;
+import java.util.Collection;
+import java.util.List;
+
+@Repository
+public interface ProductStockShardRepository extends JpaRepository<ProductStockShard,Long> {
+
+    @Modifying
+    @Query("update ProductStockShard s set s.quantity = s.quantity - :quantity " +
+            "where s.productId = :productId and s.shardNo = :shardNo and s.quantity >= :quantity")
+    int reserveQuantity(@Param("productId") long productId,
+                        @Param("shardNo") int shardNo,
+                        @Param("quantity") long quantity);
+
+    // locked in shard order; callers must not hold another shard's lock of the product already,
+    // see ProductServiceImpl.reserveFromShards
+    @Lock(LockModeType.PESSIMISTIC_WRITE)
+    @Query("select s from ProductStockShard s where s.productId = :productId order by s.shardNo")
+    List<ProductStockShard> findForUpdate(@Param("productId") long productId);
+
+    @Query("select s.productId, sum(s.quantity) from ProductStockShard s " +
+            "where s.productId in :productIds group by s.productId")
+    List<Object[]> sumQuantities(@Param("productIds") Collection<Long> productIds);
+
+    @Modifying
+    @Query("delete from ProductStockShard s where s.productId = :productId")
+    int deleteByProductId(@Param("productId") long productId);
+}
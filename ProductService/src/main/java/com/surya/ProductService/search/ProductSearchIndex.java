@@ -0,0 +1,287 @@
+package com.surya.ProductService.search;
+
+import org.springframework.stereotype.Component;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collection;
+import java.util.Comparator;
+import java.util.HashMap;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+import java.util.NavigableMap;
+import java.util.PriorityQueue;
+import java.util.Queue;
+import java.util.Set;
+import java.util.concurrent.ConcurrentLinkedQueue;
+import java.util.concurrent.ConcurrentSkipListMap;
+import java.util.regex.Pattern;
+
+/**
+ * In-memory inverted index from product name tokens to product ids, ordered by token so a
+ * prefix query is a range scan.
+ * <p>
+ * Each token maps to a sorted {@code long[]} of product ids, replaced copy-on-write when a
+ * product is added. Products added before the first {@link Builder#publish()} are held back
+ * and applied once the index is ready, so nothing committed during the initial load is lost.
+ * The index is built once at startup, later changes arrive through {@link #add(long, String)}.
+ */
+@Component
+public class ProductSearchIndex {
+
+    private static final Pattern TOKEN_SEPARATOR = Pattern.compile("[^\\p{L}\\p{N}]+");
+    private static final long[] NO_IDS = new long[0];
+
+    private volatile NavigableMap<String, long[]> tokens = new ConcurrentSkipListMap<>();
+    private volatile boolean ready;
+    private final Queue<Object[]> pending = new ConcurrentLinkedQueue<>();
+
+    public boolean isReady() {
+        return ready;
+    }
+
+    public Builder builder() {
+        return new Builder();
+    }
+
+    public void add(long productId, String productName) {
+        if (!ready) {
+            pending.add(new Object[]{productId, productName});
+            // publish may have drained the queue just before this entry arrived
+            if (ready) {
+                drainPending();
+            }
+            return;
+        }
+        index(productId, productName);
+    }
+
+    /**
+     * Adds many products at once, copying each affected token's id array a single time.
+     */
+    public void addAll(Map<Long, String> productNames) {
+        if (productNames.isEmpty()) {
+            return;
+        }
+        if (!ready) {
+            productNames.forEach(this::add);
+            return;
+        }
+        Builder batch = new Builder();
+        productNames.forEach(batch::add);
+        batch.postings.forEach((token, ids) -> tokens.compute(token,
+                (key, existing) -> merge(existing == null ? NO_IDS : existing, ids.toSortedArray())));
+    }
+
+    /**
+     * Ids of up to limit products whose name has a token starting with every token of the
+     * query, sorted ascending.
+     */
+    public List<Long> search(String query, int limit) {
+        Set<String> queryTokens = tokenize(query);
+        if (queryTokens.isEmpty() || limit <= 0) {
+            return List.of();
+        }
+
+        if (queryTokens.size() == 1) {
+            // common type-ahead case, merges the matching tokens' ids and stops at the limit
+            return lowestIds(withPrefix(queryTokens.iterator().next()).values(), limit);
+        }
+
+        List<Long> productIds = new ArrayList<>();
+        long[] matches = null;
+        for (String token : queryTokens) {
+            long[] ids = idsWithPrefix(token);
+            matches = matches == null ? ids : intersect(matches, ids);
+            if (matches.length == 0) {
+                return List.of();
+            }
+        }
+        for (int i = 0; i < matches.length && i < limit; i++) {
+            productIds.add(matches[i]);
+        }
+        return productIds;
+    }
+
+    /**
+     * Whether the product name has a token starting with every token of the query, the match
+     * {@link #search(String, int)} answers from the index.
+     */
+    public static boolean matches(Set<String> queryTokens, String productName) {
+        Set<String> nameTokens = tokenize(productName);
+        return queryTokens.stream()
+                .allMatch(queryToken -> nameTokens.stream().anyMatch(token -> token.startsWith(queryToken)));
+    }
+
+    public int tokenCount() {
+        return tokens.size();
+    }
+
+    public long postingCount() {
+        return tokens.values().stream().mapToLong(ids -> ids.length).sum();
+    }
+
+    public static Set<String> tokenize(String text) {
+        Set<String> result = new LinkedHashSet<>();
+        if (text == null) {
+            return result;
+        }
+        for (String token : TOKEN_SEPARATOR.split(text.toLowerCase(Locale.ROOT))) {
+            if (!token.isEmpty()) {
+                result.add(token);
+            }
+        }
+        return result;
+    }
+
+    private NavigableMap<String, long[]> withPrefix(String prefix) {
+        return tokens.subMap(prefix, true, prefix + Character.MAX_VALUE, true);
+    }
+
+    private long[] idsWithPrefix(String prefix) {
+        NavigableMap<String, long[]> matching = withPrefix(prefix);
+        if (matching.size() == 1) {
+            return matching.firstEntry().getValue();
+        }
+        return matching.values().stream()
+                .flatMapToLong(Arrays::stream)
+                .sorted()
+                .distinct()
+                .toArray();
+    }
+
+    // the lowest limit distinct ids of the sorted arrays, without merging them as a whole
+    private static List<Long> lowestIds(Collection<long[]> sortedIds, int limit) {
+        List<long[]> arrays = new ArrayList<>(sortedIds);
+        // one cursor {array, position} per array, the lowest current id first
+        PriorityQueue<int[]> cursors = new PriorityQueue<>(Math.max(1, arrays.size()),
+                Comparator.comparingLong(cursor -> arrays.get(cursor[0])[cursor[1]]));
+        for (int i = 0; i < arrays.size(); i++) {
+            if (arrays.get(i).length > 0) {
+                cursors.add(new int[]{i, 0});
+            }
+        }
+        List<Long> result = new ArrayList<>();
+        while (!cursors.isEmpty() && result.size() < limit) {
+            int[] cursor = cursors.poll();
+            long id = arrays.get(cursor[0])[cursor[1]];
+            if (result.isEmpty() || result.get(result.size() - 1) != id) {
+                result.add(id);
+            }
+            if (++cursor[1] < arrays.get(cursor[0]).length) {
+                cursors.add(cursor);
+            }
+        }
+        return result;
+    }
+
+    private static long[] intersect(long[] left, long[] right) {
+        long[] result = new long[Math.min(left.length, right.length)];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length && j < right.length) {
+            if (left[i] < right[j]) {
+                i++;
+            } else if (left[i] > right[j]) {
+                j++;
+            } else {
+                result[size++] = left[i];
+                i++;
+                j++;
+            }
+        }
+        return Arrays.copyOf(result, size);
+    }
+
+    private void index(long productId, String productName) {
+        for (String token : tokenize(productName)) {
+            tokens.compute(token, (key, ids) -> insert(ids == null ? NO_IDS : ids, productId));
+        }
+    }
+
+    private static long[] insert(long[] ids, long productId) {
+        int position = Arrays.binarySearch(ids, productId);
+        if (position >= 0) {
+            return ids;
+        }
+        int insertAt = -position - 1;
+        long[] result = new long[ids.length + 1];
+        System.arraycopy(ids, 0, result, 0, insertAt);
+        result[insertAt] = productId;
+        System.arraycopy(ids, insertAt, result, insertAt + 1, ids.length - insertAt);
+        return result;
+    }
+
+    private static long[] merge(long[] left, long[] right) {
+        long[] result = new long[left.length + right.length];
+        int size = 0;
+        int i = 0;
+        int j = 0;
+        while (i < left.length || j < right.length) {
+            long next;
+            if (j == right.length || (i < left.length && left[i] <= right[j])) {
+                next = left[i++];
+            } else {
+                next = right[j++];
+            }
+            if (size == 0 || result[size - 1] != next) {
+                result[size++] = next;
+            }
+        }
+        return size == result.length ? result : Arrays.copyOf(result, size);
+    }
+
+    private synchronized void drainPending() {
+        Object[] entry;
+        while ((entry = pending.poll()) != null) {
+            index((Long) entry[0], (String) entry[1]);
+        }
+    }
+
+    /**
+     * Collects the full product list into a new index that replaces the current one on
+     * {@link #publish()}.
+     */
+    public class Builder {
+
+        private final Map<String, LongList> postings = new HashMap<>();
+
+        public Builder add(long productId, String productName) {
+            for (String token : tokenize(productName)) {
+                postings.computeIfAbsent(token, key -> new LongList()).add(productId);
+            }
+            return this;
+        }
+
+        public void publish() {
+            NavigableMap<String, long[]> built = new ConcurrentSkipListMap<>();
+            postings.forEach((token, ids) -> built.put(token, ids.toSortedArray()));
+            postings.clear();
+            tokens = built;
+            ready = true;
+            drainPending();
+        }
+    }
+
+    private static final class LongList {
+
+        private long[] values = new long[2];
+        private int size;
+
+        void add(long value) {
+            if (size == values.length) {
+                values = Arrays.copyOf(values, size * 2);
+            }
+            values[size++] = value;
+        }
+
+        long[] toSortedArray() {
+            long[] result = Arrays.copyOf(values, size);
+            Arrays.sort(result);
+            return result;
+        }
+    }
+}
@@ -0,0 +1,63 @@
+package com.surya.ProductService.search;
+
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.boot.context.event.ApplicationReadyEvent;
+import org.springframework.context.event.EventListener;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.stereotype.Component;
+
+import java.sql.PreparedStatement;
+import java.sql.ResultSet;
+
+/**
+ * Fills the {@link ProductSearchIndex} by streaming the product table once the application
+ * is up. Products created afterwards are added by ProductServiceImpl and ProductImportService
+ * as they save them.
+ */
+@Component
+@Log4j2
+public class ProductSearchIndexLoader {
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Value("${product.search.load.fetch-size:1000}")
+    private int fetchSize;
+
+    // runs on its own thread, searches fall back to the database until it is done
+    @EventListener(ApplicationReadyEvent.class)
+    public void loadInBackground() {
+        Thread loader = new Thread(this::load, "product-search-index-loader");
+        loader.setDaemon(true);
+        loader.start();
+    }
+
+    public void load() {
+        long startedAt = System.nanoTime();
+        ProductSearchIndex.Builder builder = productSearchIndex.builder();
+        long[] loaded = new long[1];
+        try {
+            jdbcTemplate.query(connection -> {
+                PreparedStatement statement = connection.prepareStatement(
+                        "select PRODUCT_ID, PRODUCT_NAME from PRODUCT",
+                        ResultSet.TYPE_FORWARD_ONLY, ResultSet.CONCUR_READ_ONLY);
+                statement.setFetchSize(fetchSize);
+                return statement;
+            }, (ResultSet rs) -> {
+                builder.add(rs.getLong("PRODUCT_ID"), rs.getString("PRODUCT_NAME"));
+                loaded[0]++;
+            });
+        } catch (RuntimeException e) {
+            log.error("Could not load the product search index, searches keep using the database", e);
+            return;
+        }
+        builder.publish();
+        log.info("Product search index loaded {} products, {} tokens in {} ms",
+                loaded[0], productSearchIndex.tokenCount(), (System.nanoTime() - startedAt) / 1_000_000);
+    }
+}
@@ -0,0 +1,10 @@
+package com.surya.ProductService.service;
+
+import com.surya.ProductService.model.ProductImportFormat;
+import com.surya.ProductService.model.ProductImportResult;
+
+import java.io.InputStream;
+
+public interface ProductImportService {
+    ProductImportResult importProducts(InputStream inputStream, ProductImportFormat format);
+}
@@ -0,0 +1,236 @@
+package com.surya.ProductService.service;
+
+import com.fasterxml.jackson.core.JsonProcessingException;
+import com.fasterxml.jackson.databind.ObjectMapper;
+import com.surya.ProductService.entity.Product;
+import com.surya.ProductService.exception.ProductServiceCustomException;
+import com.surya.ProductService.model.ProductImportFormat;
+import com.surya.ProductService.model.ProductImportResult;
+import com.surya.ProductService.model.ProductRequest;
+import com.surya.ProductService.search.ProductSearchIndex;
+import lombok.extern.log4j.Log4j2;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.core.NestedExceptionUtils;
+import org.springframework.stereotype.Service;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import javax.persistence.EntityManager;
+import javax.persistence.PersistenceContext;
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.io.InputStream;
+import java.io.InputStreamReader;
+import java.nio.charset.StandardCharsets;
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Locale;
+import java.util.Map;
+
+/**
+ * Imports products from a CSV or NDJSON stream, reading one line at a time and writing
+ * every batch of rows in its own transaction with JDBC batching.
+ * <p>
+ * Rows that cannot be parsed are reported and skipped. When a batch fails in the database it
+ * is retried row by row so only the offending rows are reported.
+ */
+@Service
+@Log4j2
+public class ProductImportServiceImpl implements ProductImportService {
+
+    @PersistenceContext
+    private EntityManager entityManager;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Autowired
+    private ObjectMapper objectMapper;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    // keep equal to spring.jpa.properties.hibernate.jdbc.batch_size so one batch is one flush
+    @Value("${product.import.batch-size:500}")
+    private int batchSize;
+
+    @Value("${product.import.max-reported-errors:1000}")
+    private int maxReportedErrors;
+
+    @Override
+    public ProductImportResult importProducts(InputStream inputStream, ProductImportFormat format) {
+        log.info("Importing products from {}", format);
+        long startedAt = System.nanoTime();
+
+        ProductImportResult result = ProductImportResult.builder().build();
+        List<ImportRow> batch = new ArrayList<>(batchSize);
+        long lineNumber = 0;
+        try (BufferedReader reader = new BufferedReader(new InputStreamReader(inputStream, StandardCharsets.UTF_8))) {
+            String line;
+            while ((line = reader.readLine()) != null) {
+                lineNumber++;
+                if (line.isBlank() || (format == ProductImportFormat.CSV && lineNumber == 1 && isHeader(line))) {
+                    continue;
+                }
+
+                ProductRequest productRequest;
+                try {
+                    productRequest = format == ProductImportFormat.CSV ? parseCsv(line) : parseJson(line);
+                    validate(productRequest);
+                } catch (IllegalArgumentException e) {
+                    addError(result, lineNumber, e.getMessage());
+                    continue;
+                }
+
+                batch.add(new ImportRow(lineNumber, productRequest));
+                if (batch.size() == batchSize) {
+                    writeBatch(batch, result);
+                    batch.clear();
+                }
+            }
+        } catch (IOException e) {
+            throw new ProductServiceCustomException(
+                    "Could not read the import at line " + lineNumber + ", " + result.getImported() + " products were imported",
+                    "IMPORT_READ_FAILED"
+            );
+        }
+        if (!batch.isEmpty()) {
+            writeBatch(batch, result);
+        }
+
+        log.info("Imported {} products, {} rows failed, in {} ms",
+                result.getImported(), result.getFailed(), (System.nanoTime() - startedAt) / 1_000_000);
+        return result;
+    }
+
+    private void writeBatch(List<ImportRow> rows, ProductImportResult result) {
+        Map<Long, String> imported;
+        try {
+            imported = transactionTemplate.execute(status -> persist(rows));
+        } catch (RuntimeException e) {
+            log.warn("Batch of {} products failed, retrying row by row", rows.size(), e);
+            imported = new LinkedHashMap<>();
+            for (ImportRow row : rows) {
+                try {
+                    imported.putAll(transactionTemplate.execute(status -> persist(List.of(row))));
+                } catch (RuntimeException rowFailure) {
+                    addError(result, row.lineNumber, NestedExceptionUtils.getMostSpecificCause(rowFailure).getMessage());
+                }
+            }
+        }
+        result.setImported(result.getImported() + imported.size());
+        productSearchIndex.addAll(imported);
+    }
+
+    private Map<Long, String> persist(List<ImportRow> rows) {
+        List<Product> products = new ArrayList<>(rows.size());
+        for (ImportRow row : rows) {
+            Product product = Product.builder()
+                    .productName(row.productRequest.getName())
+                    .price(row.productRequest.getPrice())
+                    .quantity(row.productRequest.getQuantity())
+                    .build();
+            entityManager.persist(product);
+            products.add(product);
+        }
+        // one round of batched inserts, then drop the entities so the context never grows
+        entityManager.flush();
+        entityManager.clear();
+
+        Map<Long, String> imported = new LinkedHashMap<>();
+        products.forEach(product -> imported.put(product.getProductId(), product.getProductName()));
+        return imported;
+    }
+
+    private void addError(ProductImportResult result, long lineNumber, String message) {
+        result.setFailed(result.getFailed() + 1);
+        if (result.getErrors().size() < maxReportedErrors) {
+            result.getErrors().add(new ProductImportResult.RowError(lineNumber, message));
+        }
+    }
+
+    private static boolean isHeader(String line) {
+        return line.toLowerCase(Locale.ROOT).startsWith("name,");
+    }
+
+    private ProductRequest parseJson(String line) {
+        try {
+            return objectMapper.readValue(line, ProductRequest.class);
+        } catch (JsonProcessingException e) {
+            throw new IllegalArgumentException("Invalid json: " + e.getOriginalMessage());
+        }
+    }
+
+    private static ProductRequest parseCsv(String line) {
+        List<String> fields = splitCsv(line);
+        if (fields.size() != 3) {
+            throw new IllegalArgumentException("Expected 3 fields name,price,quantity but found " + fields.size());
+        }
+        ProductRequest productRequest = new ProductRequest();
+        productRequest.setName(fields.get(0));
+        productRequest.setPrice(parseLong(fields.get(1), "price"));
+        productRequest.setQuantity(parseLong(fields.get(2), "quantity"));
+        return productRequest;
+    }
+
+    // comma separated, a field in double quotes may contain commas and "" for a quote
+    private static List<String> splitCsv(String line) {
+        List<String> fields = new ArrayList<>();
+        StringBuilder field = new StringBuilder();
+        boolean quoted = false;
+        for (int i = 0; i < line.length(); i++) {
+            char c = line.charAt(i);
+            if (quoted) {
+                if (c == '"' && i + 1 < line.length() && line.charAt(i + 1) == '"') {
+                    field.append('"');
+                    i++;
+                } else if (c == '"') {
+                    quoted = false;
+                } else {
+                    field.append(c);
+                }
+            } else if (c == '"') {
+                quoted = true;
+            } else if (c == ',') {
+                fields.add(field.toString().trim());
+                field.setLength(0);
+            } else {
+                field.append(c);
+            }
+        }
+        if (quoted) {
+            throw new IllegalArgumentException("Unterminated quoted field");
+        }
+        fields.add(field.toString().trim());
+        return fields;
+    }
+
+    private static long parseLong(String value, String field) {
+        try {
+            return Long.parseLong(value);
+        } catch (NumberFormatException e) {
+            throw new IllegalArgumentException(field + " is not a number: " + value);
+        }
+    }
+
+    private static void validate(ProductRequest productRequest) {
+        if (productRequest.getName() == null || productRequest.getName().isBlank()) {
+            throw new IllegalArgumentException("name is required");
+        }
+        if (productRequest.getPrice() < 0 || productRequest.getQuantity() < 0) {
+            throw new IllegalArgumentException("price and quantity must not be negative");
+        }
+    }
+
+    private static final class ImportRow {
+
+        private final long lineNumber;
+        private final ProductRequest productRequest;
+
+        private ImportRow(long lineNumber, ProductRequest productRequest) {
+            this.lineNumber = lineNumber;
+            this.productRequest = productRequest;
+        }
+    }
+}
@@ -1,12 +1,25 @@
 package com.surya.ProductService.service;
 
+import com.surya.ProductService.model.ProductQuantity;
 import com.surya.ProductService.model.ProductRequest;
 import com.surya.ProductService.model.ProductResponse;
 
+import java.util.List;
+
 public interface ProductService {
     long addProduct(ProductRequest productRequest);
 
     ProductResponse getProductById(long productId);
 
+    List<ProductResponse> getProductsByIds(List<Long> productIds);
+
+    List<ProductResponse> searchProducts(String query, int limit);
+
     void reduceQuantity(long productId, long quantity);
+
+    void reduceQuantities(List<ProductQuantity> productQuantities);
+
+    boolean tryReduceQuantity(long productId, long quantity);
+
+    ProductResponse updateShardCount(long productId, int shardCount);
 }
@@ -1,21 +1,68 @@
 package com.surya.ProductService.service;
 
 import com.surya.ProductService.entity.Product;
+import com.surya.ProductService.entity.ProductStockShard;
+import com.surya.ProductService.event.ProductChangeNotifier;
+import com.surya.ProductService.event.ProductChangedEvent;
 import com.surya.ProductService.exception.ProductServiceCustomException;
+import com.surya.ProductService.model.ProductQuantity;
 import com.surya.ProductService.model.ProductRequest;
 import com.surya.ProductService.model.ProductResponse;
 import com.surya.ProductService.repository.ProductRepository;
+import com.surya.ProductService.repository.ProductStockShardRepository;
+import com.surya.ProductService.search.ProductSearchIndex;
 import lombok.extern.log4j.Log4j2;
 import org.springframework.beans.BeanUtils;
 import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Value;
+import org.springframework.data.domain.PageRequest;
+import org.springframework.data.domain.Pageable;
+import org.springframework.data.domain.Slice;
+import org.springframework.data.domain.Sort;
 import org.springframework.stereotype.Service;
+import org.springframework.transaction.annotation.Isolation;
+import org.springframework.transaction.annotation.Transactional;
+import org.springframework.transaction.support.TransactionSynchronization;
+import org.springframework.transaction.support.TransactionSynchronizationManager;
+
+import java.time.Instant;
+import java.util.ArrayList;
+import java.util.Comparator;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+import java.util.TreeMap;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.stream.Collectors;
 
 @Service
 @Log4j2
 public class ProductServiceImpl implements ProductService {
 
+    private static final int SEARCH_SCAN_PAGE_SIZE = 200;
+
     @Autowired
     private ProductRepository productRepository;
+
+    @Autowired
+    private ProductStockShardRepository productStockShardRepository;
+
+    @Autowired
+    private List<ProductChangeNotifier> productChangeNotifiers;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @Value("${product.search.max-limit:50}")
+    private int searchMaxLimit;
+
+    @Value("${product.batch.max-ids:100}")
+    private int batchMaxIds;
+
+    @Value("${product.stock.max-shards:64}")
+    private int maxShards;
+
     @Override
     public long addProduct(ProductRequest productRequest) {
         log.info("Adding product..");
@@ -28,11 +75,17 @@ public class ProductServiceImpl implements ProductService {
                 .build();
 
         productRepository.save(product);
+        // indexed from the saved entity, like the import does, a read back could hit a lagging replica
+        productSearchIndex.add(product.getProductId(), product.getProductName());
+        publishChange(product.getProductId(), ProductChangedEvent.ADDED);
         log.info("Product added");
         return product.getProductId();
     }
 
+    // read-only methods go to the replica when one is configured, see DataSourceRoutingConfig.
+    // only ADDED is posted to other services, it never evicts a cached product, so no refetch races a write
     @Override
+    @Transactional(readOnly = true)
     public ProductResponse getProductById(long productId) {
         log.info("Get the product for productId: {}",productId);
 
@@ -42,28 +95,268 @@ public class ProductServiceImpl implements ProductService {
                         () -> new ProductServiceCustomException("Product not found", "PRODUCT_NOT_FOUND")
                 );
 
+        ProductResponse productResponse = toProductResponse(product);
+        if (product.getShardCount() > 0) {
+            productResponse.setQuantity(shardedQuantities(Set.of(productId)).getOrDefault(productId, 0L));
+        }
+        return productResponse;
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductResponse> getProductsByIds(List<Long> productIds) {
+        log.info("Get the products for productIds: {}", productIds);
+
+        Set<Long> uniqueProductIds = new LinkedHashSet<>(productIds);
+        if (uniqueProductIds.size() > batchMaxIds) {
+            throw new ProductServiceCustomException(
+                    "At most " + batchMaxIds + " product ids can be requested at once",
+                    "TOO_MANY_IDS"
+            );
+        }
+        List<Product> products = productRepository.findAllById(uniqueProductIds);
+        Set<Long> shardedIds = products.stream()
+                .filter(product -> product.getShardCount() > 0)
+                .map(Product::getProductId)
+                .collect(Collectors.toSet());
+        Map<Long, Long> shardedQuantities = shardedIds.isEmpty() ? Map.of() : shardedQuantities(shardedIds);
+
+        return products.stream()
+                .map(product -> {
+                    ProductResponse productResponse = toProductResponse(product);
+                    if (product.getShardCount() > 0) {
+                        productResponse.setQuantity(shardedQuantities.getOrDefault(product.getProductId(), 0L));
+                    }
+                    return productResponse;
+                })
+                .collect(Collectors.toList());
+    }
+
+    @Override
+    @Transactional(readOnly = true)
+    public List<ProductResponse> searchProducts(String query, int limit) {
+        log.info("Search products for query: {}", query);
+
+        if (limit < 1 || limit > searchMaxLimit) {
+            throw new ProductServiceCustomException(
+                    "Limit must be between 1 and " + searchMaxLimit,
+                    "INVALID_LIMIT"
+            );
+        }
+        if (query == null || query.isBlank()) {
+            return List.of();
+        }
+
+        List<Long> productIds = productSearchIndex.isReady()
+                ? productSearchIndex.search(query, limit)
+                : searchWithoutIndex(query, limit);
+        if (productIds.isEmpty()) {
+            return List.of();
+        }
+        return getProductsByIds(productIds);
+    }
+
+    // the index is still loading: scans in id order for names containing the longest query token
+    // and keeps those that match the way the index would, so both give the same ids
+    private List<Long> searchWithoutIndex(String query, int limit) {
+        Set<String> queryTokens = ProductSearchIndex.tokenize(query);
+        if (queryTokens.isEmpty()) {
+            return List.of();
+        }
+        String longest = queryTokens.stream()
+                .max(Comparator.comparingInt(String::length))
+                .orElseThrow();
+
+        List<Long> productIds = new ArrayList<>();
+        Pageable pageable = PageRequest.of(0, Math.max(limit, SEARCH_SCAN_PAGE_SIZE), Sort.by("productId"));
+        while (true) {
+            Slice<Product> candidates = productRepository.findByProductNameContainingIgnoreCase(longest, pageable);
+            for (Product product : candidates) {
+                if (ProductSearchIndex.matches(queryTokens, product.getProductName())) {
+                    productIds.add(product.getProductId());
+                    if (productIds.size() == limit) {
+                        return productIds;
+                    }
+                }
+            }
+            if (!candidates.hasNext()) {
+                return productIds;
+            }
+            pageable = candidates.nextPageable();
+        }
+    }
+
+    private Map<Long, Long> shardedQuantities(Set<Long> productIds) {
+        return productStockShardRepository.sumQuantities(productIds)
+                .stream()
+                .collect(Collectors.toMap(row -> (Long) row[0], row -> ((Number) row[1]).longValue()));
+    }
+
+    private ProductResponse toProductResponse(Product product) {
         ProductResponse productResponse = new ProductResponse();
         BeanUtils.copyProperties(product, productResponse);
         return productResponse;
     }
 
+    // reservations run at READ COMMITTED, see reserveFromShards
     @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
     public void reduceQuantity(long productId, long quantity) {
         log.info("Reduce quantity {} for product id {}", quantity, productId);
-        Product product = productRepository.findById(productId)
-                .orElseThrow(() -> new ProductServiceCustomException(
+
+        if (!tryReduceQuantity(productId, quantity)) {
+            if (!productRepository.existsById(productId)) {
+                throw new ProductServiceCustomException(
                         "Product with given id not found",
                         "PRODUCT_NOT_FOUND"
-                ));
-
-        if(product.getQuantity() < quantity){
+                );
+            }
             throw new ProductServiceCustomException(
                     "Product does not have sufficient quantity",
                     "INSUFFICIENT_QUANTITY"
             );
         }
-        product.setQuantity(product.getQuantity() - quantity);
-        productRepository.save(product);
         log.info("Product quantity updated successfully");
     }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public void reduceQuantities(List<ProductQuantity> productQuantities) {
+        log.info("Reduce quantities for products {}", productQuantities);
+
+        // products are updated in id order so two baskets sharing products lock rows in the same order
+        Map<Long, Long> quantities = new TreeMap<>();
+        for (ProductQuantity productQuantity : productQuantities) {
+            if (productQuantity.getQuantity() <= 0) {
+                throw new ProductServiceCustomException(
+                        "Quantity must be above 0 for product id " + productQuantity.getProductId(),
+                        "INVALID_QUANTITY"
+                );
+            }
+            quantities.merge(productQuantity.getProductId(), productQuantity.getQuantity(), Long::sum);
+        }
+
+        // a missing or short product throws, which rolls back the lines reserved before it
+        quantities.forEach(this::reduceQuantity);
+    }
+
+    @Override
+    @Transactional(isolation = Isolation.READ_COMMITTED)
+    public boolean tryReduceQuantity(long productId, long quantity) {
+        int shardCount = productRepository.findShardCount(productId).orElse(0);
+        boolean reserved = shardCount > 0
+                ? reserveFromShards(productId, shardCount, quantity)
+                // check and decrement in one statement, concurrent orders cannot both see the old quantity
+                : productRepository.reserveQuantity(productId, quantity) == 1;
+        if (reserved) {
+            publishChange(productId, ProductChangedEvent.QUANTITY_CHANGED);
+        }
+        return reserved;
+    }
+
+    /**
+     * Tries one random shard, which spreads concurrent orders over the rows, and otherwise
+     * locks all shards in shard order and takes the quantity from as many as needed.
+     * <p>
+     * Only one shard is probed: walking the shards from different random starts would lock
+     * rows in different orders. The probe does not keep a lock when it fails because the
+     * transaction runs at READ COMMITTED, where InnoDB releases rows that do not match the
+     * update's where clause; under REPEATABLE READ it would keep it and could deadlock with
+     * another order's locked pass.
+     */
+    private boolean reserveFromShards(long productId, int shardCount, long quantity) {
+        int first = ThreadLocalRandom.current().nextInt(shardCount);
+        if (productStockShardRepository.reserveQuantity(productId, first, quantity) == 1) {
+            return true;
+        }
+
+        // the shard ran dry or holds too little, take it from several if the total allows
+        List<ProductStockShard> shards = productStockShardRepository.findForUpdate(productId);
+        long available = shards.stream().mapToLong(ProductStockShard::getQuantity).sum();
+        if (available < quantity) {
+            return false;
+        }
+        long remaining = quantity;
+        for (ProductStockShard shard : shards) {
+            long taken = Math.min(shard.getQuantity(), remaining);
+            shard.setQuantity(shard.getQuantity() - taken);
+            remaining -= taken;
+            if (remaining == 0) {
+                break;
+            }
+        }
+        return true;
+    }
+
+    @Override
+    @Transactional
+    public ProductResponse updateShardCount(long productId, int shardCount) {
+        log.info("Set shard count {} for product id {}", shardCount, productId);
+
+        if (shardCount < 0 || shardCount > maxShards) {
+            throw new ProductServiceCustomException(
+                    "Shard count must be between 0 and " + maxShards,
+                    "INVALID_SHARD_COUNT"
+            );
+        }
+        Product product = productRepository.findForUpdate(productId)
+                .orElseThrow(() -> new ProductServiceCustomException(
+                        "Product with given id not found",
+                        "PRODUCT_NOT_FOUND"
+                ));
+
+        // gather the stock back into one number, then spread it over the new shards
+        long total = product.getQuantity();
+        if (product.getShardCount() > 0) {
+            total += productStockShardRepository.findForUpdate(productId)
+                    .stream()
+                    .mapToLong(ProductStockShard::getQuantity)
+                    .sum();
+            productStockShardRepository.deleteByProductId(productId);
+        }
+
+        // a single shard would contend just like the product row, so 1 turns hot SKU mode off too
+        int shards = shardCount > 1 ? shardCount : 0;
+        if (shards > 0) {
+            List<ProductStockShard> stockShards = new ArrayList<>();
+            for (int shardNo = 0; shardNo < shards; shardNo++) {
+                stockShards.add(ProductStockShard.builder()
+                        .productId(productId)
+                        .shardNo(shardNo)
+                        .quantity(total / shards + (shardNo < total % shards ? 1 : 0))
+                        .build());
+            }
+            productStockShardRepository.saveAll(stockShards);
+        }
+        product.setShardCount(shards);
+        product.setQuantity(shards > 0 ? 0 : total);
+        productRepository.save(product);
+        publishChange(productId, ProductChangedEvent.QUANTITY_CHANGED);
+
+        ProductResponse productResponse = toProductResponse(product);
+        productResponse.setQuantity(total);
+        return productResponse;
+    }
+
+    // notifies once the surrounding transaction commits, so receivers never see a rolled back change
+    private void publishChange(long productId, String changeType) {
+        Runnable publish = () -> {
+            ProductChangedEvent event = ProductChangedEvent.builder()
+                    .productId(productId)
+                    .changeType(changeType)
+                    .changedAt(Instant.now())
+                    .build();
+            productChangeNotifiers.forEach(notifier -> notifier.productChanged(event));
+        };
+        if (!TransactionSynchronizationManager.isSynchronizationActive()) {
+            publish.run();
+            return;
+        }
+        TransactionSynchronizationManager.registerSynchronization(new TransactionSynchronization() {
+            @Override
+            public void afterCommit() {
+                publish.run();
+            }
+        });
+    }
 }
@@ -0,0 +1,102 @@
+package com.surya.ProductService.config;
+
+import com.surya.ProductService.exception.ProductServiceCustomException;
+import com.surya.ProductService.model.ProductRequest;
+import com.surya.ProductService.repository.ProductRepository;
+import com.surya.ProductService.service.ProductService;
+import io.micrometer.core.instrument.MeterRegistry;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.beans.factory.annotation.Qualifier;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.jdbc.datasource.DriverManagerDataSource;
+
+import javax.sql.DataSource;
+
+@SpringBootTest(properties = {
+        "product.datasource.replica.url=" + DataSourceRoutingConfigTest.REPLICA_URL,
+        "product.datasource.replica.username=sa",
+        "product.datasource.replica.password=password"
+})
+public class DataSourceRoutingConfigTest {
+
+    static final String REPLICA_URL = "jdbc:h2:mem:product-replica;DB_CLOSE_DELAY=-1";
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    @Qualifier("primaryDataSource")
+    private DataSource primaryDataSource;
+
+    @Autowired
+    private MeterRegistry meterRegistry;
+
+    private JdbcTemplate primary;
+    private JdbcTemplate replica;
+
+    @BeforeEach
+    void copySchemaToReplica(){
+        primary = new JdbcTemplate(primaryDataSource);
+        // a plain connection, the replica pool is read-only
+        replica = new JdbcTemplate(new DriverManagerDataSource(REPLICA_URL, "sa", "password"));
+
+        productRepository.deleteAll();
+        // hibernate only creates the schema on the primary
+        replica.execute("DROP ALL OBJECTS");
+        primary.queryForList("SCRIPT NODATA", String.class).stream()
+                .filter(statement -> !statement.startsWith("--") && !statement.startsWith("CREATE USER"))
+                .forEach(replica::execute);
+    }
+
+    @Test
+    @DisplayName("Routing - read-only lookups are served by the replica")
+    void test_When_Get_Product_then_Read_From_Replica(){
+        long productId = productService.addProduct(productRequest("iPhone", 10));
+
+        // not replicated yet, so the replica does not know the product
+        ProductServiceCustomException exception = Assertions.assertThrows(ProductServiceCustomException.class,
+                () -> productService.getProductById(productId));
+        Assertions.assertEquals("PRODUCT_NOT_FOUND", exception.getErrorCode());
+
+        replica.update("insert into PRODUCT (PRODUCT_ID, PRODUCT_NAME, PRICE, QUANTITY, SHARD_COUNT, VERSION) "
+                + "values (?, ?, ?, ?, 0, 0)", productId, "iPhone (replica)", 100, 10);
+
+        Assertions.assertEquals("iPhone (replica)", productService.getProductById(productId).getProductName());
+    }
+
+    @Test
+    @DisplayName("Routing - writes go to the primary")
+    void test_When_Reduce_Quantity_then_Written_To_Primary(){
+        long productId = productService.addProduct(productRequest("iPhone", 10));
+
+        productService.reduceQuantity(productId, 3);
+
+        Assertions.assertEquals(7L, primary.queryForObject(
+                "select QUANTITY from PRODUCT where PRODUCT_ID = ?", Long.class, productId));
+        Assertions.assertEquals(0, replica.queryForObject("select count(*) from PRODUCT", Integer.class));
+    }
+
+    @Test
+    @DisplayName("Routing - each pool publishes its own connection metrics")
+    void test_When_Routing_then_Pool_Metrics_Per_DataSource(){
+        for (String pool : new String[]{"product-primary", "product-replica"}) {
+            Assertions.assertNotNull(meterRegistry.find("hikaricp.connections").tag("pool", pool).gauge(), pool);
+        }
+    }
+
+    private static ProductRequest productRequest(String name, long quantity) {
+        ProductRequest productRequest = new ProductRequest();
+        productRequest.setName(name);
+        productRequest.setPrice(100);
+        productRequest.setQuantity(quantity);
+        return productRequest;
+    }
+}
@@ -0,0 +1,104 @@
+package com.surya.ProductService.event;
+
+import com.sun.net.httpserver.HttpServer;
+import org.junit.jupiter.api.AfterEach;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.cloud.client.DefaultServiceInstance;
+import org.springframework.cloud.client.discovery.DiscoveryClient;
+
+import java.io.IOException;
+import java.net.InetSocketAddress;
+import java.nio.charset.StandardCharsets;
+import java.time.Duration;
+import java.time.Instant;
+import java.util.List;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.LinkedBlockingQueue;
+import java.util.concurrent.TimeUnit;
+
+public class HttpProductChangeNotifierTest {
+
+    private static final String CALLBACK_PATH = "/order/internal/product-changes";
+
+    private HttpServer server;
+
+    @AfterEach
+    void stopServer(){
+        if (server != null) {
+            server.stop(0);
+        }
+    }
+
+    @Test
+    @DisplayName("Http Notifier - change is posted to every discovered instance and callback url")
+    void test_When_Product_Changed_then_Callback_Receives_Event() throws Exception {
+        BlockingQueue<String> received = startServer();
+        int port = server.getAddress().getPort();
+        DiscoveryClient discoveryClient = Mockito.mock(DiscoveryClient.class);
+        Mockito.when(discoveryClient.getInstances("ORDER-SERVICE"))
+                .thenReturn(List.of(new DefaultServiceInstance("order-1", "ORDER-SERVICE", "localhost", port, false)));
+
+        HttpProductChangeNotifier notifier = new HttpProductChangeNotifier(discoveryClient, "ORDER-SERVICE",
+                CALLBACK_PATH, List.of("http://localhost:" + port + CALLBACK_PATH), Duration.ofSeconds(1), 10);
+        notifier.productChanged(ProductChangedEvent.builder()
+                .productId(7)
+                .changeType(ProductChangedEvent.ADDED)
+                .changedAt(Instant.now())
+                .build());
+
+        String first = received.poll(5, TimeUnit.SECONDS);
+        String second = received.poll(5, TimeUnit.SECONDS);
+        notifier.shutdown();
+
+        Assertions.assertNotNull(first);
+        Assertions.assertNotNull(second);
+        Assertions.assertTrue(first.contains("\"productId\":7"));
+        Assertions.assertTrue(first.contains("ADDED"));
+    }
+
+    @Test
+    @DisplayName("Http Notifier - quantity changes are not posted")
+    void test_When_Quantity_Changed_then_Not_Posted() throws Exception {
+        BlockingQueue<String> received = startServer();
+        String callbackUrl = "http://localhost:" + server.getAddress().getPort() + CALLBACK_PATH;
+
+        HttpProductChangeNotifier notifier = new HttpProductChangeNotifier(Mockito.mock(DiscoveryClient.class),
+                "ORDER-SERVICE", CALLBACK_PATH, List.of(callbackUrl), Duration.ofSeconds(1), 10);
+        notifier.productChanged(ProductChangedEvent.builder()
+                .productId(7)
+                .changeType(ProductChangedEvent.QUANTITY_CHANGED)
+                .changedAt(Instant.now())
+                .build());
+        notifier.shutdown();
+
+        Assertions.assertNull(received.poll(500, TimeUnit.MILLISECONDS));
+    }
+
+    @Test
+    @DisplayName("Http Notifier - unreachable callback does not fail the caller")
+    void test_When_Callback_Down_then_Change_Dropped() throws IOException, InterruptedException {
+        HttpProductChangeNotifier notifier = new HttpProductChangeNotifier(Mockito.mock(DiscoveryClient.class),
+                "ORDER-SERVICE", CALLBACK_PATH, List.of("http://localhost:1/unreachable"), Duration.ofMillis(200), 10);
+
+        Assertions.assertDoesNotThrow(() -> notifier.productChanged(ProductChangedEvent.builder()
+                .productId(7)
+                .changeType(ProductChangedEvent.ADDED)
+                .build()));
+        notifier.shutdown();
+    }
+
+    private BlockingQueue<String> startServer() throws IOException {
+        BlockingQueue<String> received = new LinkedBlockingQueue<>();
+        server = HttpServer.create(new InetSocketAddress("localhost", 0), 0);
+        server.createContext(CALLBACK_PATH, exchange -> {
+            received.add(new String(exchange.getRequestBody().readAllBytes(), StandardCharsets.UTF_8));
+            exchange.sendResponseHeaders(204, -1);
+            exchange.close();
+        });
+        server.start();
+        return received;
+    }
+}
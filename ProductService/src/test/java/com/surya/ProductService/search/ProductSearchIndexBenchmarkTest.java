@@ -0,0 +1,78 @@
+package com.surya.ProductService.search;
+
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+
+import java.util.Arrays;
+import java.util.Random;
+
+/**
+ * Index build time, heap footprint and query latency for 1M products.
+ * Run with: mvn test -Dtest=ProductSearchIndexBenchmarkTest -Dbenchmark=true
+ */
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Log4j2
+public class ProductSearchIndexBenchmarkTest {
+
+    private static final int PRODUCTS = 1_000_000;
+    private static final int QUERIES = 100_000;
+    private static final String[] BRANDS = {"apple", "samsung", "sony", "lenovo", "dell", "asus", "xiaomi", "google"};
+    private static final String[] KINDS = {"phone", "laptop", "tablet", "watch", "headphones", "monitor", "camera", "speaker"};
+    private static final String[] EXTRAS = {"pro", "max", "mini", "ultra", "lite", "plus", "air", "edge"};
+
+    @Test
+    void buildAndQueryOneMillionProducts() {
+        Random random = new Random(42);
+        long heapBefore = usedHeap();
+
+        long buildStartedAt = System.nanoTime();
+        ProductSearchIndex index = new ProductSearchIndex();
+        ProductSearchIndex.Builder builder = index.builder();
+        for (int id = 1; id <= PRODUCTS; id++) {
+            builder.add(id, name(random, id));
+        }
+        builder.publish();
+        long buildMillis = (System.nanoTime() - buildStartedAt) / 1_000_000;
+
+        long heapAfter = usedHeap();
+        log.info("Built index of {} products in {} ms: {} tokens, {} postings, ~{} MB heap",
+                PRODUCTS, buildMillis, index.tokenCount(), index.postingCount(),
+                (heapAfter - heapBefore) / (1024 * 1024));
+
+        String[] queries = new String[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            String name = name(random, random.nextInt(PRODUCTS) + 1);
+            // type-ahead style: the first word plus a partial second word
+            String[] words = name.split(" ");
+            queries[i] = words[0] + " " + words[1].substring(0, 1 + random.nextInt(words[1].length()));
+        }
+
+        long[] latencies = new long[QUERIES];
+        for (int i = 0; i < QUERIES; i++) {
+            long startedAt = System.nanoTime();
+            index.search(queries[i], 10);
+            latencies[i] = System.nanoTime() - startedAt;
+        }
+        Arrays.sort(latencies);
+        log.info("Query latency p50 {} us, p99 {} us, max {} us",
+                latencies[QUERIES / 2] / 1000,
+                latencies[QUERIES * 99 / 100] / 1000,
+                latencies[QUERIES - 1] / 1000);
+    }
+
+    private static String name(Random random, int id) {
+        return BRANDS[random.nextInt(BRANDS.length)] + " "
+                + KINDS[random.nextInt(KINDS.length)] + " "
+                + EXTRAS[random.nextInt(EXTRAS.length)] + " "
+                + "model" + id % 50_000;
+    }
+
+    private static long usedHeap() {
+        Runtime runtime = Runtime.getRuntime();
+        for (int i = 0; i < 3; i++) {
+            System.gc();
+        }
+        return runtime.totalMemory() - runtime.freeMemory();
+    }
+}
@@ -0,0 +1,90 @@
+package com.surya.ProductService.search;
+
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+
+import java.util.List;
+
+public class ProductSearchIndexTest {
+
+    @Test
+    @DisplayName("Search - prefix of any name token matches, case insensitive")
+    void test_When_Prefix_Searched_then_Matching_Products(){
+        ProductSearchIndex index = loadedIndex();
+
+        Assertions.assertEquals(List.of(1L, 2L), index.search("iph", 10));
+        Assertions.assertEquals(List.of(1L, 2L, 3L), index.search("PRO", 10));
+        Assertions.assertEquals(List.of(4L), index.search("watch", 10));
+        Assertions.assertEquals(List.of(), index.search("pixel", 10));
+    }
+
+    @Test
+    @DisplayName("Search - every query token has to match")
+    void test_When_Several_Tokens_then_Intersection(){
+        ProductSearchIndex index = loadedIndex();
+
+        Assertions.assertEquals(List.of(2L), index.search("iphone 14 pro", 10));
+        Assertions.assertEquals(List.of(3L), index.search("mac pro", 10));
+        Assertions.assertEquals(List.of(1L), index.search("13, ipho", 10));
+    }
+
+    @Test
+    @DisplayName("Search - limit caps the result")
+    void test_When_Limit_Reached_then_Result_Capped(){
+        Assertions.assertEquals(2, loadedIndex().search("pro", 2).size());
+    }
+
+    @Test
+    @DisplayName("Search - a capped single token search returns the lowest ids, not the first tokens'")
+    void test_When_Limit_Reached_then_Lowest_Ids(){
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.builder()
+                .add(1, "Prozac")
+                .add(2, "Proxy")
+                .add(3, "Probe")
+                .add(4, "Proa Probe")
+                .publish();
+
+        // tokens sort as proa, probe, proxy, prozac, so the lowest ids are not in the first tokens
+        Assertions.assertEquals(List.of(1L, 2L), index.search("pro", 2));
+        Assertions.assertEquals(List.of(1L, 2L, 3L, 4L), index.search("pro", 10));
+    }
+
+    @Test
+    @DisplayName("Add - products added before the index is published are not lost")
+    void test_When_Added_During_Load_then_Indexed_After_Publish(){
+        ProductSearchIndex index = new ProductSearchIndex();
+        ProductSearchIndex.Builder builder = index.builder().add(1, "iPhone 13 Pro");
+        index.add(5, "iPhone 15");
+
+        Assertions.assertFalse(index.isReady());
+        builder.publish();
+
+        Assertions.assertTrue(index.isReady());
+        Assertions.assertEquals(List.of(1L, 5L), index.search("iphone", 10));
+    }
+
+    @Test
+    @DisplayName("Add - products added after publish are searchable right away")
+    void test_When_Added_After_Publish_then_Searchable(){
+        ProductSearchIndex index = loadedIndex();
+
+        index.add(6, "Pixel 7 Pro");
+        index.add(6, "Pixel 7 Pro");
+
+        Assertions.assertEquals(List.of(6L), index.search("pix", 10));
+        Assertions.assertEquals(List.of(1L, 2L, 3L, 6L), index.search("pro", 10));
+    }
+
+    private ProductSearchIndex loadedIndex() {
+        ProductSearchIndex index = new ProductSearchIndex();
+        index.builder()
+                .add(1, "iPhone 13 Pro")
+                .add(2, "iPhone 14 Pro Max")
+                .add(3, "MacBook Pro")
+                .add(4, "Apple Watch")
+                .publish();
+        return index;
+    }
+}
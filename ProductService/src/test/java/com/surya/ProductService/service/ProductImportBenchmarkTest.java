@@ -0,0 +1,78 @@
+package com.surya.ProductService.service;
+
+import com.surya.ProductService.model.ProductImportFormat;
+import com.surya.ProductService.model.ProductImportResult;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.InputStream;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryPoolMXBean;
+import java.lang.management.MemoryType;
+import java.nio.charset.StandardCharsets;
+
+/**
+ * Import rate and peak heap for a 1M row CSV against the H2 test database. The file is
+ * generated while it is read so the input itself takes no heap; H2 keeps its rows in
+ * memory, so the peak includes the imported table.
+ * Run with: mvn test -Dtest=ProductImportBenchmarkTest -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Log4j2
+public class ProductImportBenchmarkTest {
+
+    private static final int ROWS = 1_000_000;
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Test
+    void importOneMillionRows() {
+        System.gc();
+        ManagementFactory.getMemoryPoolMXBeans().forEach(MemoryPoolMXBean::resetPeakUsage);
+
+        long startedAt = System.nanoTime();
+        ProductImportResult result = productImportService.importProducts(new GeneratedCsv(ROWS), ProductImportFormat.CSV);
+        double seconds = (System.nanoTime() - startedAt) / 1_000_000_000.0;
+
+        long peakHeap = ManagementFactory.getMemoryPoolMXBeans().stream()
+                .filter(pool -> pool.getType() == MemoryType.HEAP)
+                .mapToLong(pool -> pool.getPeakUsage().getUsed())
+                .sum();
+        log.info("Imported {} rows ({} failed) in {} s: {} rows/s, peak heap ~{} MB",
+                result.getImported(), result.getFailed(), String.format("%.1f", seconds),
+                (long) (result.getImported() / seconds), peakHeap / (1024 * 1024));
+    }
+
+    // produces "name,price,quantity" lines on demand
+    private static final class GeneratedCsv extends InputStream {
+
+        private final int rows;
+        private int row = -1;
+        private byte[] line = new byte[0];
+        private int position;
+
+        private GeneratedCsv(int rows) {
+            this.rows = rows;
+        }
+
+        @Override
+        public int read() {
+            if (position == line.length) {
+                if (++row > rows) {
+                    return -1;
+                }
+                String next = row == 0
+                        ? "name,price,quantity\n"
+                        : "Product " + row + "," + (row % 1000) + "," + (row % 500) + "\n";
+                line = next.getBytes(StandardCharsets.UTF_8);
+                position = 0;
+            }
+            return line[position++];
+        }
+    }
+}
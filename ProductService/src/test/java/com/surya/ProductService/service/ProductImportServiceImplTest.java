@@ -0,0 +1,107 @@
+package com.surya.ProductService.service;
+
+import com.surya.ProductService.entity.Product;
+import com.surya.ProductService.model.ProductImportFormat;
+import com.surya.ProductService.model.ProductImportResult;
+import com.surya.ProductService.repository.ProductRepository;
+import com.surya.ProductService.repository.ProductStockShardRepository;
+import com.surya.ProductService.search.ProductSearchIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.io.ByteArrayInputStream;
+import java.nio.charset.StandardCharsets;
+import java.util.List;
+import java.util.stream.Collectors;
+
+@SpringBootTest(properties = "product.import.batch-size=2")
+public class ProductImportServiceImplTest {
+
+    @Autowired
+    private ProductImportService productImportService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductStockShardRepository productStockShardRepository;
+
+    @Autowired
+    private ProductSearchIndex productSearchIndex;
+
+    @BeforeEach
+    void cleanUp(){
+        productStockShardRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Import - csv rows are imported, bad rows reported with their line")
+    void test_When_Csv_Imported_then_Valid_Rows_Saved_And_Errors_Reported(){
+        String csv = "name,price,quantity\n"
+                + "iPhone,100,10\n"
+                + "\"Cable, USB-C\",5,100\n"
+                + "Charger,abc,3\n"
+                + "\n"
+                + "Case,15\n"
+                + "AirPods,200,20\n";
+
+        ProductImportResult result = productImportService.importProducts(stream(csv), ProductImportFormat.CSV);
+
+        Assertions.assertEquals(3, result.getImported());
+        Assertions.assertEquals(2, result.getFailed());
+        Assertions.assertEquals(List.of(4L, 6L), result.getErrors().stream()
+                .map(ProductImportResult.RowError::getLine)
+                .collect(Collectors.toList()));
+        Assertions.assertEquals(List.of("AirPods", "Cable, USB-C", "iPhone"), productRepository.findAll().stream()
+                .map(Product::getProductName)
+                .sorted()
+                .collect(Collectors.toList()));
+    }
+
+    @Test
+    @DisplayName("Import - a row the database rejects fails alone, the rest of its batch is kept")
+    void test_When_Row_Rejected_By_Database_then_Batch_Retried_Row_By_Row(){
+        String tooLong = "x".repeat(300);
+        String ndjson = "{\"name\":\"iPhone\",\"price\":100,\"quantity\":10}\n"
+                + "{\"name\":\"" + tooLong + "\",\"price\":1,\"quantity\":1}\n"
+                + "{\"name\":\"Pixel\",\"price\":90,\"quantity\":5}\n"
+                + "{\"name\":\"Watch\",\"price\":\"cheap\",\"quantity\":5}\n";
+
+        ProductImportResult result = productImportService.importProducts(stream(ndjson), ProductImportFormat.NDJSON);
+
+        Assertions.assertEquals(2, result.getImported());
+        Assertions.assertEquals(2, result.getFailed());
+        Assertions.assertEquals(List.of(2L, 4L), result.getErrors().stream()
+                .map(ProductImportResult.RowError::getLine)
+                .sorted()
+                .collect(Collectors.toList()));
+        Assertions.assertEquals(2, productRepository.count());
+    }
+
+    @Test
+    @DisplayName("Import - imported products get distinct ids and are searchable")
+    void test_When_Imported_then_Ids_Unique_And_Indexed(){
+        StringBuilder csv = new StringBuilder();
+        for (int i = 0; i < 120; i++) {
+            csv.append("Imported Gadget ").append(i).append(",10,1\n");
+        }
+
+        ProductImportResult result = productImportService.importProducts(stream(csv.toString()), ProductImportFormat.CSV);
+
+        Assertions.assertEquals(120, result.getImported());
+        List<Product> products = productRepository.findAll();
+        Assertions.assertEquals(120, products.stream().map(Product::getProductId).distinct().count());
+        if (productSearchIndex.isReady()) {
+            Assertions.assertFalse(productSearchIndex.search("imported gadget", 10).isEmpty());
+        }
+    }
+
+    private static ByteArrayInputStream stream(String content) {
+        return new ByteArrayInputStream(content.getBytes(StandardCharsets.UTF_8));
+    }
+}
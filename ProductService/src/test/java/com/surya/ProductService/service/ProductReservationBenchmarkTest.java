@@ -0,0 +1,114 @@
+package com.surya.ProductService.service;
+
+import com.surya.ProductService.entity.Product;
+import com.surya.ProductService.repository.ProductRepository;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.jdbc.core.JdbcTemplate;
+import org.springframework.transaction.support.TransactionTemplate;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+
+/**
+ * Compares the conditional update in reduceQuantity with the read-modify-write it replaced,
+ * with every thread ordering the same product.
+ * Run with: mvn test -Dtest=ProductReservationBenchmarkTest -Dbenchmark=true
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Log4j2
+public class ProductReservationBenchmarkTest {
+
+    private static final int THREADS = 32;
+    private static final int ORDERS_PER_THREAD = 500;
+    private static final long STOCK = THREADS * ORDERS_PER_THREAD / 2;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private JdbcTemplate jdbcTemplate;
+
+    @Autowired
+    private TransactionTemplate transactionTemplate;
+
+    @Test
+    void compareConditionalUpdateWithReadModifyWrite() throws Exception {
+        long legacyProductId = saveProduct();
+        run("read-modify-write", legacyProductId, () -> {
+            // what reduceQuantity did before: read, check in Java, write back the computed value
+            Boolean reserved = transactionTemplate.execute(status -> {
+                long quantity = jdbcTemplate.queryForObject(
+                        "select QUANTITY from PRODUCT where PRODUCT_ID = ?", Long.class, legacyProductId);
+                if (quantity < 1) {
+                    return false;
+                }
+                jdbcTemplate.update("update PRODUCT set QUANTITY = ? where PRODUCT_ID = ?",
+                        quantity - 1, legacyProductId);
+                return true;
+            });
+            return Boolean.TRUE.equals(reserved);
+        });
+
+        long productId = saveProduct();
+        run("conditional update", productId, () -> productService.tryReduceQuantity(productId, 1));
+    }
+
+    private void run(String name, long productId, ReservationCall call) throws Exception {
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+        ExecutorService orders = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(orders.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    if (call.reserve()) {
+                        reserved.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+
+        long startedAt = System.nanoTime();
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        long elapsedNanos = System.nanoTime() - startedAt;
+        orders.shutdown();
+
+        long left = productRepository.findById(productId).orElseThrow().getQuantity();
+        // with lost updates more orders succeed than stock was decremented
+        long oversold = reserved.get() - (STOCK - left);
+        log.info("{}: {} orders/s, {} reserved, {} left in stock, {} oversold",
+                name,
+                (long) (THREADS * ORDERS_PER_THREAD / (elapsedNanos / 1_000_000_000.0)),
+                reserved.get(), left, oversold);
+    }
+
+    private long saveProduct() {
+        return productRepository.save(Product.builder()
+                .productName("benchmark")
+                .price(100)
+                .quantity(STOCK)
+                .build()).getProductId();
+    }
+
+    private interface ReservationCall {
+        boolean reserve();
+    }
+}
@@ -0,0 +1,340 @@
+package com.surya.ProductService.service;
+
+import com.surya.ProductService.entity.Product;
+import com.surya.ProductService.event.ProductChangedEvent;
+import com.surya.ProductService.exception.ProductServiceCustomException;
+import com.surya.ProductService.model.ProductQuantity;
+import com.surya.ProductService.model.ProductRequest;
+import com.surya.ProductService.model.ProductResponse;
+import com.surya.ProductService.repository.ProductRepository;
+import com.surya.ProductService.repository.ProductStockShardRepository;
+import com.surya.ProductService.search.ProductSearchIndex;
+import org.junit.jupiter.api.Assertions;
+import org.junit.jupiter.api.BeforeEach;
+import org.junit.jupiter.api.DisplayName;
+import org.junit.jupiter.api.Test;
+import org.mockito.Mockito;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+import org.springframework.boot.test.mock.mockito.SpyBean;
+import org.springframework.test.context.event.ApplicationEvents;
+import org.springframework.test.context.event.RecordApplicationEvents;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.stream.Collectors;
+
+@SpringBootTest
+@RecordApplicationEvents
+public class ProductServiceImplTest {
+
+    private static final int THREADS = 16;
+    private static final int ORDERS_PER_THREAD = 50;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Autowired
+    private ProductStockShardRepository productStockShardRepository;
+
+    @Autowired
+    private ApplicationEvents applicationEvents;
+
+    @SpyBean
+    private ProductSearchIndex productSearchIndex;
+
+    @BeforeEach
+    void cleanUp(){
+        productStockShardRepository.deleteAll();
+        productRepository.deleteAll();
+    }
+
+    @Test
+    @DisplayName("Reduce Quantity - concurrent orders on one product never oversell")
+    void test_When_Concurrent_Reductions_then_No_Lost_Updates_Or_Oversell() throws Exception {
+        // 800 orders of 1 against 500 in stock
+        long productId = saveProduct(500);
+        AtomicInteger reserved = new AtomicInteger();
+        AtomicInteger rejected = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService orders = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(orders.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    try {
+                        productService.reduceQuantity(productId, 1);
+                        reserved.incrementAndGet();
+                    } catch (ProductServiceCustomException e) {
+                        Assertions.assertEquals("INSUFFICIENT_QUANTITY", e.getErrorCode());
+                        rejected.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        orders.shutdown();
+
+        Product product = productRepository.findById(productId).orElseThrow();
+        Assertions.assertEquals(500, reserved.get());
+        Assertions.assertEquals(THREADS * ORDERS_PER_THREAD - 500, rejected.get());
+        Assertions.assertEquals(0, product.getQuantity());
+        Assertions.assertEquals(500, product.getVersion());
+    }
+
+    @Test
+    @DisplayName("Reduce Quantity - concurrent orders on a sharded product never oversell")
+    void test_When_Concurrent_Reductions_On_Shards_then_No_Oversell() throws Exception {
+        long productId = saveProduct(500);
+        productService.updateShardCount(productId, 8);
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService orders = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(orders.submit(() -> {
+                start.await();
+                for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                    if (productService.tryReduceQuantity(productId, 1)) {
+                        reserved.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            result.get();
+        }
+        orders.shutdown();
+
+        Assertions.assertEquals(500, reserved.get());
+        Assertions.assertEquals(0, productService.getProductById(productId).getQuantity());
+        Assertions.assertTrue(productStockShardRepository.findAll().stream()
+                .allMatch(shard -> shard.getQuantity() == 0));
+    }
+
+    @Test
+    @DisplayName("Reduce Quantity - concurrent orders on nearly empty shards all finish without deadlock")
+    void test_When_Shards_Low_On_Stock_then_Orders_Taken_From_Several_Shards() throws Exception {
+        // 10 per shard, orders of 3 keep leaving shards too short for the next one
+        long productId = saveProduct(40);
+        productService.updateShardCount(productId, 4);
+        AtomicInteger reserved = new AtomicInteger();
+        CountDownLatch start = new CountDownLatch(1);
+
+        ExecutorService orders = Executors.newFixedThreadPool(THREADS);
+        List<Future<?>> results = new ArrayList<>();
+        for (int t = 0; t < THREADS; t++) {
+            results.add(orders.submit(() -> {
+                start.await();
+                for (int i = 0; i < 5; i++) {
+                    if (productService.tryReduceQuantity(productId, 3)) {
+                        reserved.incrementAndGet();
+                    }
+                }
+                return null;
+            }));
+        }
+        start.countDown();
+        for (Future<?> result : results) {
+            // a deadlock or lock timeout would surface here
+            result.get();
+        }
+        orders.shutdown();
+
+        Assertions.assertEquals(13, reserved.get());
+        Assertions.assertEquals(1, productService.getProductById(productId).getQuantity());
+    }
+
+    @Test
+    @DisplayName("Update Shard Count - stock is spread over shards and summed back")
+    void test_When_Shard_Count_Changed_then_Quantity_Kept(){
+        long productId = saveProduct(10);
+
+        Assertions.assertEquals(10, productService.updateShardCount(productId, 4).getQuantity());
+        Assertions.assertEquals(4, productStockShardRepository.count());
+        Assertions.assertEquals(0, productRepository.findById(productId).orElseThrow().getQuantity());
+        Assertions.assertEquals(10, productService.getProductById(productId).getQuantity());
+        Assertions.assertEquals(10, productService.getProductsByIds(List.of(productId)).get(0).getQuantity());
+
+        // shards hold 3,3,2,2 so an order of 5 has to be taken from more than one shard
+        Assertions.assertTrue(productService.tryReduceQuantity(productId, 5));
+        Assertions.assertFalse(productService.tryReduceQuantity(productId, 6));
+        Assertions.assertEquals(5, productService.getProductById(productId).getQuantity());
+
+        productService.updateShardCount(productId, 0);
+        Assertions.assertEquals(0, productStockShardRepository.count());
+        Product product = productRepository.findById(productId).orElseThrow();
+        Assertions.assertEquals(0, product.getShardCount());
+        Assertions.assertEquals(5, product.getQuantity());
+    }
+
+    @Test
+    @DisplayName("Reduce Quantities - every line is reserved or none")
+    void test_When_One_Line_Short_then_No_Line_Reserved(){
+        long first = saveProduct(10);
+        long second = saveProduct(1);
+
+        ProductServiceCustomException exception =
+                Assertions.assertThrows(ProductServiceCustomException.class,
+                        () -> productService.reduceQuantities(List.of(
+                                new ProductQuantity(first, 5),
+                                new ProductQuantity(second, 2))));
+
+        Assertions.assertEquals("INSUFFICIENT_QUANTITY", exception.getErrorCode());
+        Assertions.assertEquals(10, productRepository.findById(first).orElseThrow().getQuantity());
+        Assertions.assertEquals(1, productRepository.findById(second).orElseThrow().getQuantity());
+
+        productService.reduceQuantities(List.of(
+                new ProductQuantity(second, 1),
+                new ProductQuantity(first, 2),
+                new ProductQuantity(first, 3)));
+
+        Assertions.assertEquals(5, productRepository.findById(first).orElseThrow().getQuantity());
+        Assertions.assertEquals(0, productRepository.findById(second).orElseThrow().getQuantity());
+    }
+
+    @Test
+    @DisplayName("Reduce Quantities - change events are published for committed reservations only")
+    void test_When_Reservation_Committed_then_Change_Published(){
+        long first = saveProduct(10);
+        long second = saveProduct(1);
+        applicationEvents.clear();
+
+        Assertions.assertThrows(ProductServiceCustomException.class,
+                () -> productService.reduceQuantities(List.of(
+                        new ProductQuantity(first, 5),
+                        new ProductQuantity(second, 2))));
+        Assertions.assertEquals(0, applicationEvents.stream(ProductChangedEvent.class).count());
+
+        productService.reduceQuantities(List.of(
+                new ProductQuantity(first, 5),
+                new ProductQuantity(second, 1)));
+
+        Set<Long> changed = applicationEvents.stream(ProductChangedEvent.class)
+                .filter(event -> ProductChangedEvent.QUANTITY_CHANGED.equals(event.getChangeType()))
+                .map(ProductChangedEvent::getProductId)
+                .collect(Collectors.toSet());
+        Assertions.assertEquals(Set.of(first, second), changed);
+    }
+
+    @Test
+    @DisplayName("Try Reduce Quantity - reports whether the reservation was made")
+    void test_When_Try_Reduce_Quantity_then_Result_Returned(){
+        long productId = saveProduct(10);
+
+        Assertions.assertTrue(productService.tryReduceQuantity(productId, 10));
+        Assertions.assertFalse(productService.tryReduceQuantity(productId, 1));
+        Assertions.assertEquals(0, productRepository.findById(productId).orElseThrow().getQuantity());
+    }
+
+    @Test
+    @DisplayName("Reduce Quantity - unknown product")
+    void test_When_Product_Missing_then_Not_Found(){
+        ProductServiceCustomException exception =
+                Assertions.assertThrows(ProductServiceCustomException.class,
+                        () -> productService.reduceQuantity(12345, 1));
+
+        Assertions.assertEquals("PRODUCT_NOT_FOUND", exception.getErrorCode());
+    }
+
+    @Test
+    @DisplayName("Get Products - more distinct ids than the batch cap are rejected")
+    void test_When_Too_Many_Ids_then_Rejected(){
+        List<Long> productIds = new ArrayList<>();
+        for (long id = 1; id <= 101; id++) {
+            productIds.add(id);
+        }
+
+        ProductServiceCustomException exception = Assertions.assertThrows(ProductServiceCustomException.class,
+                () -> productService.getProductsByIds(productIds));
+        Assertions.assertEquals("TOO_MANY_IDS", exception.getErrorCode());
+        // repeated ids count once
+        productIds.set(100, 1L);
+        Assertions.assertEquals(List.of(), productService.getProductsByIds(productIds));
+    }
+
+    @Test
+    @DisplayName("Add Product - the new product is indexed from the saved entity, not read back")
+    void test_When_Product_Added_then_Indexed(){
+        ProductRequest productRequest = new ProductRequest();
+        productRequest.setName("Pixel 7");
+        productRequest.setPrice(100);
+        productRequest.setQuantity(1);
+
+        long productId = productService.addProduct(productRequest);
+
+        Mockito.verify(productSearchIndex).add(productId, "Pixel 7");
+    }
+
+    @Test
+    @DisplayName("Search Products - the database fallback finds what the search index finds")
+    void test_When_Index_Not_Ready_then_Fallback_Returns_Same_Products() throws InterruptedException {
+        for (int i = 0; i < 500 && !productSearchIndex.isReady(); i++) {
+            Thread.sleep(10);
+        }
+        Assertions.assertTrue(productSearchIndex.isReady());
+        for (String name : List.of("Qwerty Keyboard Pro", "qwerty keyboard", "Wireless Mouse (Qwertz)",
+                "Mouse-Pad QWERTY", "Keyboard Stand")) {
+            ProductRequest productRequest = new ProductRequest();
+            productRequest.setName(name);
+            productRequest.setPrice(100);
+            productRequest.setQuantity(1);
+            productService.addProduct(productRequest);
+        }
+        List<String> queries = List.of("qwert", "QWERTY pro", "mouse", "key", "pad-qwerty", "ouse", "nothing");
+
+        List<List<Long>> fromIndex = new ArrayList<>();
+        for (String query : queries) {
+            fromIndex.add(searchIds(query, 10));
+            fromIndex.add(searchIds(query, 2));
+        }
+        List<List<Long>> fromDatabase = new ArrayList<>();
+        Mockito.doReturn(false).when(productSearchIndex).isReady();
+        try {
+            for (String query : queries) {
+                fromDatabase.add(searchIds(query, 10));
+                fromDatabase.add(searchIds(query, 2));
+            }
+        } finally {
+            Mockito.doCallRealMethod().when(productSearchIndex).isReady();
+        }
+
+        Assertions.assertEquals(fromIndex, fromDatabase);
+        // qwert matches the first four, ouse matches nothing since only token prefixes count
+        Assertions.assertEquals(4, fromIndex.get(0).size());
+        Assertions.assertEquals(List.of(), fromIndex.get(10));
+    }
+
+    private List<Long> searchIds(String query, int limit) {
+        return productService.searchProducts(query, limit).stream()
+                .map(ProductResponse::getProductId)
+                .sorted()
+                .collect(Collectors.toList());
+    }
+
+    private long saveProduct(long quantity) {
+        return productRepository.save(Product.builder()
+                .productName("iPhone")
+                .price(100)
+                .quantity(quantity)
+                .build()).getProductId();
+    }
+}
@@ -0,0 +1,73 @@
+package com.surya.ProductService.service;
+
+import com.surya.ProductService.entity.Product;
+import com.surya.ProductService.repository.ProductRepository;
+import lombok.extern.log4j.Log4j2;
+import org.junit.jupiter.api.Test;
+import org.junit.jupiter.api.condition.EnabledIfSystemProperty;
+import org.springframework.beans.factory.annotation.Autowired;
+import org.springframework.boot.test.context.SpringBootTest;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+
+/**
+ * Reservation throughput on a single product as the shard count grows.
+ * Run with: mvn test -Dtest=ProductShardContentionBenchmarkTest -Dbenchmark=true
+ * and point spring.datasource at MySQL for numbers that reflect row lock contention.
+ */
+@SpringBootTest
+@EnabledIfSystemProperty(named = "benchmark", matches = "true")
+@Log4j2
+public class ProductShardContentionBenchmarkTest {
+
+    private static final int THREADS = 32;
+    private static final int ORDERS_PER_THREAD = 500;
+
+    @Autowired
+    private ProductService productService;
+
+    @Autowired
+    private ProductRepository productRepository;
+
+    @Test
+    void reservationThroughputByShardCount() throws Exception {
+        for (int shardCount : new int[]{0, 2, 4, 8, 16, 32}) {
+            long productId = productRepository.save(Product.builder()
+                    .productName("flash-sale")
+                    .price(100)
+                    // enough for every order so no run ends in the fallback paths
+                    .quantity((long) THREADS * ORDERS_PER_THREAD)
+                    .build()).getProductId();
+            productService.updateShardCount(productId, shardCount);
+
+            CountDownLatch start = new CountDownLatch(1);
+            ExecutorService orders = Executors.newFixedThreadPool(THREADS);
+            List<Future<?>> results = new ArrayList<>();
+            for (int t = 0; t < THREADS; t++) {
+                results.add(orders.submit(() -> {
+                    start.await();
+                    for (int i = 0; i < ORDERS_PER_THREAD; i++) {
+                        productService.reduceQuantity(productId, 1);
+                    }
+                    return null;
+                }));
+            }
+
+            long startedAt = System.nanoTime();
+            start.countDown();
+            for (Future<?> result : results) {
+                result.get();
+            }
+            long elapsedNanos = System.nanoTime() - startedAt;
+            orders.shutdown();
+
+            log.info("{} shards: {} reservations/s", shardCount,
+                    (long) (THREADS * ORDERS_PER_THREAD / (elapsedNanos / 1_000_000_000.0)));
+        }
+    }
+}